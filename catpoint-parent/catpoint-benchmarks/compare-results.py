@@ -0,0 +1,79 @@
+#!/usr/bin/env python3
+"""Compares two JMH JSON result files and flags regressions.
+
+Usage: compare-results.py BASELINE.json CURRENT.json [--threshold PERCENT]
+
+Benchmarks are matched by name, mode and parameters. A result is a regression when it is
+worse than the baseline by more than the threshold (default 10%) and by more than the two
+runs' combined error, so noise within the confidence intervals is not reported.
+Exits with status 1 if there is at least one regression.
+"""
+
+import argparse
+import json
+import math
+import sys
+
+# Modes where a higher score is better; the others report time per operation
+HIGHER_IS_BETTER = {"thrpt"}
+
+
+def load(path):
+    with open(path, encoding="utf-8") as file:
+        results = {}
+        for entry in json.load(file):
+            params = entry.get("params") or {}
+            key = (entry["benchmark"], entry["mode"], tuple(sorted(params.items())))
+            metric = entry["primaryMetric"]
+            error = float(metric.get("scoreError", 0))
+            results[key] = (float(metric["score"]), 0.0 if math.isnan(error) else error, metric["scoreUnit"])
+        return results
+
+
+def describe(key):
+    benchmark, mode, params = key
+    name = ".".join(benchmark.rsplit(".", 2)[-2:])
+    if params:
+        name += " [" + ", ".join(f"{k}={v}" for k, v in params) + "]"
+    return f"{name} ({mode})"
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Compare two JMH JSON result files.")
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0, help="regression threshold in percent")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+    regressions = 0
+
+    print(f"{'benchmark':<70} {'baseline':>14} {'current':>14} {'change':>8}")
+    for key in sorted(baseline.keys() | current.keys()):
+        if key not in current:
+            print(f"{describe(key):<70} {'':>14} {'missing':>14}")
+            continue
+        if key not in baseline:
+            score, _, unit = current[key]
+            print(f"{describe(key):<70} {'new':>14} {score:>14.3f} {unit}")
+            continue
+        old, old_error, unit = baseline[key]
+        new, new_error, _ = current[key]
+        change = (new - old) / old * 100 if old else 0.0
+        worse = new < old if key[1] in HIGHER_IS_BETTER else new > old
+        significant = abs(new - old) > old_error + new_error and abs(change) > args.threshold
+        flag = ""
+        if significant:
+            flag = "  REGRESSION" if worse else "  improved"
+            regressions += worse
+        print(f"{describe(key):<70} {old:>14.3f} {new:>14.3f} {change:>+7.1f}% {unit}{flag}")
+
+    if regressions:
+        print(f"\n{regressions} regression(s) beyond {args.threshold:g}%")
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,69 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.AsyncAwsImageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a burst of detections, one per camera, sent at once through AsyncAwsImageService
+ * with two event-loop threads to a local Rekognition stand-in that answers after 100 ms. When
+ * the requests overlap, a burst takes little more than one round trip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncAwsImageServiceBenchmark {
+
+    private static final long LATENCY_MILLIS = 100;
+
+    @Param({"8", "48"})
+    public int requests;
+
+    private final BufferedImage frame = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+    private RekognitionEndpoint endpoint;
+    private AsyncAwsImageService service;
+
+    @Setup
+    public void setup() throws IOException {
+        endpoint = new RekognitionEndpoint(LATENCY_MILLIS);
+        Properties props = endpoint.awsProperties();
+        props.setProperty("aws.async.maxConcurrency", Integer.toString(requests));
+        props.setProperty("aws.async.eventLoopThreads", "2");
+        service = new AsyncAwsImageService(props).withFailuresPropagated();
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+        endpoint.close();
+    }
+
+    @Benchmark
+    public boolean burst() {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            results[i] = service.imageContainsCatAsync(frame, 50.0f);
+        }
+        CompletableFuture.allOf(results).join();
+        return (Boolean) results[0].join();
+    }
+}
@@ -0,0 +1,160 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.security.audit.AuditAction;
+import com.udacity.catpoint.security.audit.AuditLog;
+import com.udacity.catpoint.security.audit.AuditRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the audit log: append throughput through the group-committing writer, and the
+ * latency of time-range queries over a log of {@code records} commands, one every 100ms.
+ * The default million records span a day; {@code -p records=100000000} fills about 116 days,
+ * which takes about a minute of setup and under 100MB of disk. The record count, size on disk
+ * and compression ratio are printed after each trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditLogBenchmark {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+    private static final AuditAction[] ACTIONS = AuditAction.values();
+    private static final String[] ACTORS = {"alice", "bob", "daemon"};
+
+    private static AuditRecord record(long i) {
+        AuditAction action = ACTIONS[(int) (i % ACTIONS.length)];
+        String detail = switch (action) {
+            case ARMING_CHANGED -> i % 2 == 0 ? "ARMED_HOME" : "DISARMED";
+            case ALARM_CHANGED -> "PENDING_ALARM";
+            case SENSOR_ADDED, SENSOR_REMOVED -> "Sensor " + (i % 64);
+            case IMAGE_SCANNED -> i % 10 == 0 ? "default cat" : "default no cat";
+            case SENSOR_CHANGED -> "Sensor " + (i % 64) + (i % 4 < 2 ? " active" : " inactive");
+        };
+        return new AuditRecord(START.plusMillis(i * 100), action, ACTORS[(int) (i % ACTORS.length)], detail);
+    }
+
+    private static void report(AuditLog log) {
+        System.out.printf("%nAudit log: %,d records, %,d bytes on disk (%.2f bytes/record), compression ratio %.1f%n",
+                log.getRecordCount(), log.getDiskSize(), (double) log.getDiskSize() / Math.max(1, log.getRecordCount()),
+                log.getCompressionRatio());
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class AppendState {
+
+        AuditLog log;
+        long next;
+        private Path directory;
+
+        @Setup
+        public void setup() throws IOException {
+            directory = Files.createTempDirectory("audit-append");
+            log = new AuditLog(directory).start();
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            log.close();
+            report(log);
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class QueryState {
+
+        @Param({"1000000"})
+        public long records;
+
+        AuditLog log;
+        private Path directory;
+
+        @Setup
+        public void setup() throws IOException {
+            directory = Files.createTempDirectory("audit-query");
+            try (AuditLog writer = new AuditLog(directory).start()) {
+                for (long i = 0; i < records; i++) {
+                    writer.append(record(i));
+                }
+            }
+            log = new AuditLog(directory);
+            report(log);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            log.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class QueryRange {
+
+        private final Random random = new Random(42);
+
+        Instant from(QueryState state, Duration length) {
+            long spanMillis = Math.max(1, state.records * 100 - length.toMillis());
+            return START.plusMillis(Math.floorMod(random.nextLong(), spanMillis));
+        }
+    }
+
+    /**
+     * Queues one record; once the queue is full this runs at the writer's pace.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void append(AppendState state) throws IOException {
+        state.log.append(record(state.next++));
+    }
+
+    /**
+     * Reads the 600 records of a random minute.
+     */
+    @Benchmark
+    public int queryMinute(QueryState state, QueryRange range) throws IOException {
+        Instant from = range.from(state, Duration.ofMinutes(1));
+        return state.log.query(from, from.plus(Duration.ofMinutes(1))).size();
+    }
+
+    /**
+     * Reads the 36,000 records of a random hour.
+     */
+    @Benchmark
+    public int queryHour(QueryState state, QueryRange range) throws IOException {
+        Instant from = range.from(state, Duration.ofHours(1));
+        return state.log.query(from, from.plus(Duration.ofHours(1))).size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding a 640x480 JPEG into a pooled frame buffer against ImageIO.read, which
+ * allocates a new raster per frame, and the acquire/release round trip on its own. Run with
+ * {@code -prof gc} to compare the allocation per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBufferPoolBenchmark {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    private final FrameBufferPool pool = new FrameBufferPool(2);
+    private byte[] jpeg;
+
+    @Setup
+    public void setup() throws IOException {
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillOval(100, 100, 300, 200);
+        g.dispose();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(frame, "jpg", output);
+        jpeg = output.toByteArray();
+    }
+
+    @Benchmark
+    public int pooledRead() throws IOException {
+        BufferedImage frame = pool.read(jpeg, 0, jpeg.length);
+        int rgb = frame.getRGB(WIDTH / 2, HEIGHT / 2);
+        pool.release(frame);
+        return rgb;
+    }
+
+    @Benchmark
+    public int imageIoRead() throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(jpeg)).getRGB(WIDTH / 2, HEIGHT / 2);
+    }
+
+    @Benchmark
+    public BufferedImage acquireRelease() {
+        BufferedImage frame = pool.acquire(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+        pool.release(frame);
+        return frame;
+    }
+}
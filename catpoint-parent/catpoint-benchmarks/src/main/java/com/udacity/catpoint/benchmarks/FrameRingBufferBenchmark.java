@@ -0,0 +1,57 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.security.camera.FrameRingBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing 40 KiB frames into a memory-mapped FrameRingBuffer of 64 slots. Frames are
+ * copied into the mapped file, so {@code -prof gc} should report next to no allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameRingBufferBenchmark {
+
+    private final byte[] jpeg = new byte[40 * 1024];
+    private Path directory;
+    private FrameRingBuffer ring;
+    private long timestamp;
+
+    @Setup
+    public void setup() throws IOException {
+        ThreadLocalRandom.current().nextBytes(jpeg);
+        directory = Files.createTempDirectory("catpoint-ring");
+        ring = new FrameRingBuffer(directory.resolve("cam.ring"), 64, jpeg.length);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ring.close();
+        Files.deleteIfExists(directory.resolve("cam.ring"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public boolean write() {
+        return ring.write(timestamp++, jpeg, 0, jpeg.length);
+    }
+}
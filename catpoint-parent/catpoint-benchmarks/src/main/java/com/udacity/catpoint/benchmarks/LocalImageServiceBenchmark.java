@@ -0,0 +1,60 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.LocalImageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures frames per second of the offline LocalImageService classifier on a 640x480
+ * frame, with tile extraction on one thread or spread over four.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalImageServiceBenchmark {
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private LocalImageService imageService;
+    private BufferedImage frame;
+
+    @Setup
+    public void setup() {
+        imageService = new LocalImageService(threads);
+        frame = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, 640, 480, Color.DARK_GRAY));
+        g.fillRect(0, 0, 640, 480);
+        g.dispose();
+    }
+
+    @TearDown
+    public void tearDown() {
+        imageService.shutdown();
+    }
+
+    @Benchmark
+    public float catConfidence() {
+        return imageService.catConfidence(frame);
+    }
+}
@@ -0,0 +1,76 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+import com.udacity.catpoint.security.application.PreviewImageLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading the 300x225 preview of a 12-megapixel JPEG, which decodes it with source
+ * subsampling, against decoding it at full resolution as the camera panel used to.
+ * The pooled variant releases each preview as the camera panel does when it is replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreviewImageLoaderBenchmark {
+
+    private File jpeg;
+    private final FrameBufferPool pool = new FrameBufferPool(2);
+
+    @Setup
+    public void setup() throws IOException {
+        BufferedImage image = new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, 4000, 3000, Color.BLUE));
+        g.fillRect(0, 0, 4000, 3000);
+        g.dispose();
+        jpeg = Files.createTempFile("catpoint-preview", ".jpg").toFile();
+        ImageIO.write(image, "jpg", jpeg);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(jpeg.toPath());
+    }
+
+    @Benchmark
+    public BufferedImage loadPreview() throws IOException {
+        return PreviewImageLoader.loadPreview(jpeg, 300, 225);
+    }
+
+    @Benchmark
+    public int loadPreviewPooled() throws IOException {
+        BufferedImage preview = PreviewImageLoader.loadPreview(jpeg, 300, 225, pool);
+        int pixel = preview.getRGB(0, 0);
+        pool.release(preview);
+        return pixel;
+    }
+
+    @Benchmark
+    public BufferedImage loadFull() throws IOException {
+        return PreviewImageLoader.loadFull(jpeg);
+    }
+}
@@ -0,0 +1,176 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.image.ImageServiceException;
+import com.udacity.catpoint.image.LatencyDistribution;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.SecurityRepository;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.PriorityLaneExecutor;
+import com.udacity.catpoint.security.service.PriorityLaneExecutor.Lane;
+import com.udacity.catpoint.security.service.SecurityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time from submitting a sensor change to its alarm evaluation while 10 ms image
+ * detections keep the executor saturated: on a PriorityLaneExecutor, where the sensor lane
+ * overtakes the image backlog, and on a plain FIFO pool of the same size, where it waits
+ * behind it. The image backlog is capped at 256 frames in both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriorityLaneBenchmark {
+
+    private static final int WORKERS = 4;
+    private static final int IMAGE_BACKLOG = 256;
+
+    @Param({"lanes", "fifo"})
+    public String executor;
+
+    private final BufferedImage frame = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+    private SecurityService securityService;
+    private Sensor[] sensors;
+    private PriorityLaneExecutor lanes;
+    private ThreadPoolExecutor fifo;
+    private int next;
+
+    @Setup
+    public void setup() {
+        securityService = new SecurityService(new MemoryRepository(), new FakeImageService(3)
+                .withFixedResult(false).withLatency(LatencyDistribution.fixed(Duration.ofMillis(10))));
+        sensors = new Sensor[20];
+        for (int i = 0; i < sensors.length; i++) {
+            sensors[i] = new Sensor("Sensor " + i, SensorType.values()[i % SensorType.values().length]);
+            securityService.addSensor(sensors[i]);
+        }
+        securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        if ("lanes".equals(executor)) {
+            lanes = new PriorityLaneExecutor(WORKERS).withQueueCapacity(Lane.IMAGE, IMAGE_BACKLOG).start();
+        } else {
+            fifo = new ThreadPoolExecutor(WORKERS, WORKERS, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        if (lanes != null) {
+            lanes.close();
+        } else {
+            fifo.shutdownNow();
+            fifo.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Queues 8 frames, as many cameras would per sensor event, then one sensor change, and
+     * waits for the change to be applied.
+     */
+    @Benchmark
+    public AlarmStatus sensorToAlarm() {
+        for (int j = 0; j < 8; j++) {
+            String cameraId = "camera-" + j;
+            Runnable detection = () -> {
+                try {
+                    securityService.processImage(cameraId, frame);
+                } catch (ImageServiceException e) {
+                    // Detections still queued at tear down are interrupted
+                }
+            };
+            if (lanes != null) {
+                lanes.submit(Lane.IMAGE, detection);
+            } else if (fifo.getQueue().size() < IMAGE_BACKLOG) {
+                fifo.execute(detection);
+            }
+        }
+        Sensor sensor = sensors[next];
+        next = next + 1 == sensors.length ? 0 : next + 1;
+        CompletableFuture<AlarmStatus> applied = new CompletableFuture<>();
+        Runnable change = () -> {
+            securityService.changeSensorActivationStatus(sensor, !sensor.getActive());
+            applied.complete(securityService.getAlarmStatus());
+        };
+        if (lanes != null) {
+            lanes.submit(Lane.SENSOR, change);
+        } else {
+            fifo.execute(change);
+        }
+        return applied.join();
+    }
+
+    /**
+     * Minimal in-memory repository; the measured path only touches the alarm status and sensors.
+     */
+    private static final class MemoryRepository implements SecurityRepository {
+
+        private final Set<Sensor> sensors = new TreeSet<>();
+        private volatile AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+        private volatile ArmingStatus armingStatus = ArmingStatus.DISARMED;
+
+        @Override
+        public synchronized void addSensor(Sensor sensor) {
+            sensors.add(sensor);
+        }
+
+        @Override
+        public synchronized void removeSensor(Sensor sensor) {
+            sensors.remove(sensor);
+        }
+
+        @Override
+        public synchronized void updateSensor(Sensor sensor) {
+            sensors.remove(sensor);
+            sensors.add(sensor);
+        }
+
+        @Override
+        public void setAlarmStatus(AlarmStatus alarmStatus) {
+            this.alarmStatus = alarmStatus;
+        }
+
+        @Override
+        public void setArmingStatus(ArmingStatus armingStatus) {
+            this.armingStatus = armingStatus;
+        }
+
+        @Override
+        public synchronized Set<Sensor> getSensors() {
+            return Set.copyOf(sensors);
+        }
+
+        @Override
+        public AlarmStatus getAlarmStatus() {
+            return alarmStatus;
+        }
+
+        @Override
+        public ArmingStatus getArmingStatus() {
+            return armingStatus;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.RasterKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the RasterKernels pre-processing kernels against per-pixel getRGB loops.
+ * The scalar and Vector API difference kernels are compared by running with
+ * {@code -jvmArgsAppend -Dcatpoint.raster.scalar=true}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class RasterKernelsBenchmark {
+
+    @Param({"640x480", "1920x1080"})
+    public String size;
+
+    @Param({"INT_RGB", "3BYTE_BGR"})
+    public String imageType;
+
+    private BufferedImage frame;
+    private BufferedImage previousFrame;
+    private int width;
+    private int height;
+    private byte[] luma;
+    private byte[] previousLuma;
+    private byte[] diff;
+    private byte[] downsampled;
+    private final int[] histogram = new int[256];
+
+    @Setup
+    public void setup() {
+        String[] dimensions = size.split("x");
+        width = Integer.parseInt(dimensions[0]);
+        height = Integer.parseInt(dimensions[1]);
+        int type = "INT_RGB".equals(imageType) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_3BYTE_BGR;
+        frame = paint(type, 0);
+        previousFrame = paint(type, 40);
+
+        luma = new byte[width * height];
+        previousLuma = new byte[width * height];
+        diff = new byte[width * height];
+        downsampled = new byte[(width / 4) * (height / 4)];
+        RasterKernels.grayscale(frame, luma);
+        RasterKernels.grayscale(previousFrame, previousLuma);
+    }
+
+    @Benchmark
+    public byte[] grayscaleGetRgb() {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = frame.getRGB(x, y);
+                luma[y * width + x] = (byte) ((77 * ((rgb >> 16) & 0xFF) + 150 * ((rgb >> 8) & 0xFF) + 29 * (rgb & 0xFF)) >> 8);
+            }
+        }
+        return luma;
+    }
+
+    @Benchmark
+    public byte[] grayscaleKernel() {
+        RasterKernels.grayscale(frame, luma);
+        return luma;
+    }
+
+    @Benchmark
+    public long frameDiffGetRgb() {
+        long sum = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int a = frame.getRGB(x, y);
+                int b = previousFrame.getRGB(x, y);
+                int lumaA = (77 * ((a >> 16) & 0xFF) + 150 * ((a >> 8) & 0xFF) + 29 * (a & 0xFF)) >> 8;
+                int lumaB = (77 * ((b >> 16) & 0xFF) + 150 * ((b >> 8) & 0xFF) + 29 * (b & 0xFF)) >> 8;
+                sum += Math.abs(lumaA - lumaB);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long frameDiffKernel() {
+        RasterKernels.grayscale(frame, luma);
+        RasterKernels.grayscale(previousFrame, previousLuma);
+        return RasterKernels.sumAbsDiff(luma, previousLuma, luma.length);
+    }
+
+    @Benchmark
+    public long absDiffKernel() {
+        return RasterKernels.absDiff(luma, previousLuma, luma.length, diff);
+    }
+
+    @Benchmark
+    public byte[] boxDownsampleKernel() {
+        RasterKernels.boxDownsample(luma, width, height, 4, downsampled);
+        return downsampled;
+    }
+
+    @Benchmark
+    public int[] histogramKernel() {
+        RasterKernels.histogram(luma, luma.length, histogram);
+        return histogram;
+    }
+
+    private BufferedImage paint(int type, int offset) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(offset, 0, Color.ORANGE, width, height, Color.BLUE));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.WHITE);
+        g.fillOval(width / 4 + offset, height / 4, width / 3, height / 3);
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,70 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP stand-in for the Rekognition DetectLabels endpoint, answering every request with
+ * a cat label after a fixed latency, so the AWS image services can be measured offline.
+ */
+final class RekognitionEndpoint implements AutoCloseable {
+
+    private static final byte[] CAT_LABELS = ("{\"Labels\":[{\"Name\":\"Cat\",\"Confidence\":97.5,"
+            + "\"Instances\":[],\"Parents\":[]}],\"LabelModelVersion\":\"3.0\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final long latencyMillis;
+
+    RekognitionEndpoint(long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    /**
+     * Returns AwsImageService configuration pointing at this endpoint.
+     */
+    Properties awsProperties() {
+        Properties props = new Properties();
+        props.setProperty("aws.id", "benchmark-id");
+        props.setProperty("aws.secret", "benchmark-secret");
+        props.setProperty("aws.region", "us-east-1");
+        props.setProperty("aws.endpoint", "http://localhost:" + server.getAddress().getPort());
+        props.setProperty("aws.timeout.ms", "10000");
+        return props;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.1");
+        exchange.sendResponseHeaders(200, CAT_LABELS.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(CAT_LABELS);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+}
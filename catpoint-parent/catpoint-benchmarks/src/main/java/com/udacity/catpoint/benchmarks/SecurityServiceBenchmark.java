@@ -0,0 +1,135 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.SecurityRepository;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.SecurityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the SecurityService entry points against a repository of the given size.
+ * The repository keeps its sensors in memory and copies them on getSensors() the same way
+ * PretendDatabaseSecurityRepositoryImpl does, so the preferences writes measured by
+ * {@link SensorRepositoryBenchmark} stay out of these numbers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityServiceBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int sensorCount;
+
+    private SecurityService securityService;
+    private Sensor[] sensors;
+    private int next;
+
+    @Setup
+    public void setup() {
+        securityService = new SecurityService(new MemoryRepository(), new FakeImageService(42).withFixedResult(false));
+        sensors = new Sensor[sensorCount];
+        for (int i = 0; i < sensorCount; i++) {
+            sensors[i] = new Sensor(String.format("Sensor %05d", i), SensorType.values()[i % SensorType.values().length]);
+            securityService.addSensor(sensors[i]);
+        }
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+    }
+
+    /**
+     * Toggles one sensor per call, walking through all of them.
+     */
+    @Benchmark
+    public AlarmStatus changeSensorActivationStatus() {
+        Sensor sensor = sensors[next];
+        next = next + 1 == sensors.length ? 0 : next + 1;
+        securityService.changeSensorActivationStatus(sensor, !sensor.getActive());
+        return securityService.getAlarmStatus();
+    }
+
+    /**
+     * Disarms and re-arms; arming scans every sensor to deactivate the active ones.
+     */
+    @Benchmark
+    public AlarmStatus setArmingStatus() {
+        securityService.setArmingStatus(ArmingStatus.DISARMED);
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+        return securityService.getAlarmStatus();
+    }
+
+    @Benchmark
+    public Set<Sensor> getSensors() {
+        return securityService.getSensors();
+    }
+
+    /**
+     * In-memory repository that copies on getSensors() like the preferences-backed one.
+     */
+    private static final class MemoryRepository implements SecurityRepository {
+
+        private final Set<Sensor> sensors = new TreeSet<>();
+        private AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+        private ArmingStatus armingStatus = ArmingStatus.DISARMED;
+
+        @Override
+        public synchronized void addSensor(Sensor sensor) {
+            sensors.add(sensor);
+        }
+
+        @Override
+        public synchronized void removeSensor(Sensor sensor) {
+            sensors.remove(sensor);
+        }
+
+        @Override
+        public synchronized void updateSensor(Sensor sensor) {
+            sensors.remove(sensor);
+            sensors.add(sensor);
+        }
+
+        @Override
+        public void setAlarmStatus(AlarmStatus alarmStatus) {
+            this.alarmStatus = alarmStatus;
+        }
+
+        @Override
+        public void setArmingStatus(ArmingStatus armingStatus) {
+            this.armingStatus = armingStatus;
+        }
+
+        @Override
+        public synchronized Set<Sensor> getSensors() {
+            return Collections.unmodifiableSet(new TreeSet<>(sensors));
+        }
+
+        @Override
+        public AlarmStatus getAlarmStatus() {
+            return alarmStatus;
+        }
+
+        @Override
+        public ArmingStatus getArmingStatus() {
+            return armingStatus;
+        }
+    }
+}
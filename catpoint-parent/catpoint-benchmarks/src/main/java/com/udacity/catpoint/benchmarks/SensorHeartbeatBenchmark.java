@@ -0,0 +1,137 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.SecurityRepository;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.SecurityService;
+import com.udacity.catpoint.security.service.SensorHeartbeatMonitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a heartbeat and a ticker pass of SensorHeartbeatMonitor, whose timing wheel
+ * reschedules a sensor in constant time, against the same workload as one
+ * ScheduledExecutorService task per sensor that is cancelled and rescheduled per heartbeat.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorHeartbeatBenchmark {
+
+    @Param({"1000", "200000"})
+    public int sensorCount;
+
+    private final Random random = new Random(3);
+    private final Runnable expire = () -> { };
+    private SensorHeartbeatMonitor monitor;
+    private Sensor[] sensors;
+    private ScheduledThreadPoolExecutor executor;
+    private ScheduledFuture<?>[] tasks;
+
+    @Setup
+    public void setup() {
+        SecurityService securityService = new SecurityService(new EmptyRepository(), new FakeImageService(3));
+        monitor = new SensorHeartbeatMonitor(securityService);
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        sensors = new Sensor[sensorCount];
+        tasks = new ScheduledFuture<?>[sensorCount];
+        for (int i = 0; i < sensorCount; i++) {
+            sensors[i] = new Sensor("Sensor " + i, SensorType.values()[i % 3]);
+            monitor.heartbeat(sensors[i]);
+            tasks[i] = executor.schedule(expire, 60, TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public Sensor wheelHeartbeat() {
+        Sensor sensor = sensors[random.nextInt(sensorCount)];
+        monitor.heartbeat(sensor);
+        return sensor;
+    }
+
+    /**
+     * One pass of the ticker thread with no sensor due.
+     */
+    @Benchmark
+    public int wheelTick() {
+        return monitor.expireDue();
+    }
+
+    @Benchmark
+    public ScheduledFuture<?> executorHeartbeat() {
+        int i = random.nextInt(sensorCount);
+        tasks[i].cancel(false);
+        tasks[i] = executor.schedule(expire, 60, TimeUnit.SECONDS);
+        return tasks[i];
+    }
+
+    /**
+     * The monitor only reads sensors through the SecurityService for stale changes.
+     */
+    private static final class EmptyRepository implements SecurityRepository {
+
+        @Override
+        public void addSensor(Sensor sensor) {
+        }
+
+        @Override
+        public void removeSensor(Sensor sensor) {
+        }
+
+        @Override
+        public void updateSensor(Sensor sensor) {
+        }
+
+        @Override
+        public void setAlarmStatus(AlarmStatus alarmStatus) {
+        }
+
+        @Override
+        public void setArmingStatus(ArmingStatus armingStatus) {
+        }
+
+        @Override
+        public Set<Sensor> getSensors() {
+            return Set.of();
+        }
+
+        @Override
+        public AlarmStatus getAlarmStatus() {
+            return AlarmStatus.NO_ALARM;
+        }
+
+        @Override
+        public ArmingStatus getArmingStatus() {
+            return ArmingStatus.DISARMED;
+        }
+    }
+}
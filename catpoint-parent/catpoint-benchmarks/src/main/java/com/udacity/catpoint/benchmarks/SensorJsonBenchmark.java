@@ -0,0 +1,66 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Gson round trip PretendDatabaseSecurityRepositoryImpl uses to save and load
+ * the sensor set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorJsonBenchmark {
+
+    private static final Type SENSOR_SET = new TypeToken<Set<Sensor>>() {}.getType();
+
+    @Param({"10", "100", "1000"})
+    public int sensorCount;
+
+    private final Gson gson = new Gson();
+    private Set<Sensor> sensors;
+    private String json;
+
+    @Setup
+    public void setup() {
+        sensors = new TreeSet<>();
+        for (int i = 0; i < sensorCount; i++) {
+            Sensor sensor = new Sensor(String.format("Sensor %05d", i), SensorType.values()[i % SensorType.values().length],
+                    "zone-" + (i % 8));
+            sensor.setActive(i % 3 == 0);
+            sensors.add(sensor);
+        }
+        json = gson.toJson(sensors);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(sensors);
+    }
+
+    @Benchmark
+    public Set<Sensor> fromJson() {
+        return gson.fromJson(json, SENSOR_SET);
+    }
+}
@@ -0,0 +1,67 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Sensor.compareTo through the sorted collections that use it. With shared names
+ * every comparison falls through to the sensor type and id.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorOrderingBenchmark {
+
+    @Param({"100", "10000"})
+    public int sensorCount;
+
+    @Param({"unique", "shared"})
+    public String names;
+
+    private Sensor[] shuffled;
+
+    @Setup
+    public void setup() {
+        List<Sensor> sensors = new ArrayList<>(sensorCount);
+        for (int i = 0; i < sensorCount; i++) {
+            String name = "unique".equals(names) ? String.format("Sensor %05d", i) : "Sensor";
+            sensors.add(new Sensor(name, SensorType.values()[i % SensorType.values().length]));
+        }
+        Collections.shuffle(sensors, new Random(42));
+        shuffled = sensors.toArray(new Sensor[0]);
+    }
+
+    @Benchmark
+    public Sensor[] sort() {
+        Sensor[] sorted = shuffled.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public TreeSet<Sensor> treeSet() {
+        return new TreeSet<>(Arrays.asList(shuffled));
+    }
+}
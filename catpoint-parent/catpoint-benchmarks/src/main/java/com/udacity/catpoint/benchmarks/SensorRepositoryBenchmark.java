@@ -0,0 +1,97 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.PretendDatabaseSecurityRepositoryImpl;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**
+ * Measures PretendDatabaseSecurityRepositoryImpl, which rewrites all sensors as JSON into the
+ * user preferences on every change. The whole set has to fit in one preferences value
+ * ({@link Preferences#MAX_VALUE_LENGTH} characters), which caps it at roughly 60 sensors.
+ * The repository writes to a scratch node that is removed after the run, so the user's saved
+ * Catpoint state is never touched.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorRepositoryBenchmark {
+
+    @Param({"10", "50"})
+    public int sensorCount;
+
+    private Preferences prefs;
+    private PretendDatabaseSecurityRepositoryImpl repository;
+    private Sensor[] sensors;
+    private int next;
+
+    @Setup
+    public void setup() {
+        prefs = Preferences.userRoot().node("catpoint-benchmark-" + UUID.randomUUID());
+        repository = new PretendDatabaseSecurityRepositoryImpl(prefs);
+        sensors = new Sensor[sensorCount];
+        for (int i = 0; i < sensorCount; i++) {
+            sensors[i] = new Sensor(String.format("Sensor %02d", i), SensorType.values()[i % SensorType.values().length]);
+            repository.addSensor(sensors[i]);
+        }
+    }
+
+    @TearDown
+    public void removePrefs() throws BackingStoreException {
+        prefs.removeNode();
+        prefs.flush();
+    }
+
+    /**
+     * Toggles one sensor and saves it, as changeSensorActivationStatus does.
+     */
+    @Benchmark
+    public Sensor updateSensor() {
+        Sensor sensor = sensors[next];
+        next = next + 1 == sensors.length ? 0 : next + 1;
+        sensor.setActive(!sensor.getActive());
+        repository.updateSensor(sensor);
+        return sensor;
+    }
+
+    @Benchmark
+    public AlarmStatus setAlarmStatus() {
+        AlarmStatus status = repository.getAlarmStatus() == AlarmStatus.ALARM ? AlarmStatus.NO_ALARM : AlarmStatus.ALARM;
+        repository.setAlarmStatus(status);
+        return status;
+    }
+
+    @Benchmark
+    public Set<Sensor> getSensors() {
+        return repository.getSensors();
+    }
+
+    /**
+     * Builds a repository from the saved preferences, as the application does at startup.
+     */
+    @Benchmark
+    public PretendDatabaseSecurityRepositoryImpl load() {
+        return new PretendDatabaseSecurityRepositoryImpl(prefs);
+    }
+}
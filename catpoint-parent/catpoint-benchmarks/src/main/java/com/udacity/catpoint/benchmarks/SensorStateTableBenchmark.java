@@ -0,0 +1,73 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorStateTable;
+import com.udacity.catpoint.security.data.SensorType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole-fleet queries of SensorStateTable against a scan of the same sensors as
+ * Sensor objects in a TreeSet. The only active sensor is the last one, the worst case for
+ * "any active". Run with {@code -prof gc} after a setup-only iteration to compare footprints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SensorStateTableBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int sensorCount;
+
+    private SensorStateTable table;
+    private TreeSet<Sensor> sensors;
+
+    @Setup
+    public void setup() {
+        table = new SensorStateTable();
+        sensors = new TreeSet<>();
+        for (int i = 0; i < sensorCount; i++) {
+            boolean last = i == sensorCount - 1;
+            Sensor sensor = new Sensor("Sensor " + i, SensorType.values()[i % 3]);
+            sensor.setActive(last);
+            sensors.add(sensor);
+            table.put(UUID.randomUUID(), "Sensor " + i, SensorType.values()[i % 3], last);
+        }
+    }
+
+    @Benchmark
+    public boolean tableAnyActive() {
+        return table.anyActive();
+    }
+
+    @Benchmark
+    public int[] tableCountActiveByType() {
+        return table.countActiveByType();
+    }
+
+    @Benchmark
+    public boolean treeSetAnyActive() {
+        return sensors.stream().anyMatch(Sensor::getActive);
+    }
+
+    @Benchmark
+    public long treeSetCountActive() {
+        return sensors.stream().filter(Sensor::getActive).count();
+    }
+}
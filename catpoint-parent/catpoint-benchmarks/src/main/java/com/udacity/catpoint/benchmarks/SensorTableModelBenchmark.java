@@ -0,0 +1,65 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.security.application.SensorTableModel;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a SensorPanel refresh after one sensor was toggled: applying the per-sensor event
+ * to its row, against resynchronizing with all sensors. The model has no listeners here, so
+ * only the model work is measured, not the table repaint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorTableModelBenchmark {
+
+    @Param({"1000", "50000"})
+    public int sensorCount;
+
+    private final Random random = new Random(7);
+    private final SensorTableModel model = new SensorTableModel();
+    private List<Sensor> sensors;
+
+    @Setup
+    public void setup() {
+        sensors = new ArrayList<>(sensorCount);
+        for (int i = 0; i < sensorCount; i++) {
+            sensors.add(new Sensor(String.format("Sensor %05d", i), SensorType.values()[i % SensorType.values().length]));
+        }
+        model.update(sensors);
+    }
+
+    @Benchmark
+    public boolean applyOneChanged() {
+        Sensor sensor = sensors.get(random.nextInt(sensorCount));
+        sensor.setActive(!sensor.getActive());
+        return model.sensorChanged(sensor);
+    }
+
+    @Benchmark
+    public int updateOneChanged() {
+        Sensor sensor = sensors.get(random.nextInt(sensorCount));
+        sensor.setActive(!sensor.getActive());
+        return model.update(sensors);
+    }
+}
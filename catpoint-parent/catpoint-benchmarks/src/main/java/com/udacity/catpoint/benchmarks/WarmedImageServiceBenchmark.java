@@ -0,0 +1,65 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.AwsImageService;
+import com.udacity.catpoint.image.WarmedImageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first detection in a fresh JVM through a WarmedImageService wrapping
+ * AwsImageService against a local Rekognition stand-in: "cold" builds the client on that
+ * call, "warmed" has built it and sent three warm-up requests in the background first.
+ * Each fork measures a single call, so raise {@code -f} for a tighter estimate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class WarmedImageServiceBenchmark {
+
+    @Param({"cold", "warmed"})
+    public String start;
+
+    private final BufferedImage frame = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+    private RekognitionEndpoint endpoint;
+    private WarmedImageService service;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        endpoint = new RekognitionEndpoint(0);
+        service = new WarmedImageService(() -> new AwsImageService(endpoint.awsProperties()));
+        if ("warmed".equals(start)) {
+            service.withWarmUp(3).start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!service.isReady() && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        endpoint.close();
+    }
+
+    @Benchmark
+    public boolean firstCall() {
+        return service.imageContainsCat(frame, 50.0f);
+    }
+}
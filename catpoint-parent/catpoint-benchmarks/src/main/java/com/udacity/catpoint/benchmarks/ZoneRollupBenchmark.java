@@ -0,0 +1,108 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.data.ZoneRollup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ZoneRollup updates and zone queries in a deep zone hierarchy, against counting a
+ * zone by scanning every sensor as the repository does without the rollup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZoneRollupBenchmark {
+
+    private static final int DEPTH = 12;
+
+    @Param({"1000", "100000"})
+    public int sensorCount;
+
+    private final Random random = new Random(11);
+    private ZoneRollup rollup;
+    private Sensor[] sensors;
+    private String[] zones;
+    private int next;
+
+    @Setup
+    public void setup() {
+        rollup = new ZoneRollup();
+        sensors = new Sensor[sensorCount];
+        for (int i = 0; i < sensorCount; i++) {
+            sensors[i] = new Sensor("Sensor " + i, SensorType.values()[i % 3], randomZone());
+            sensors[i].setActive(random.nextInt(10) == 0);
+            rollup.put(sensors[i]);
+        }
+        List<String> known = new ArrayList<>(rollup.getZones());
+        known.add("");
+        zones = known.toArray(new String[0]);
+    }
+
+    /**
+     * Flips one sensor, and moves every fiftieth to another zone, as edits would.
+     */
+    @Benchmark
+    public int update() {
+        Sensor sensor = sensors[random.nextInt(sensorCount)];
+        if (++next % 50 == 0) {
+            sensor.setZone(randomZone());
+        } else {
+            sensor.setActive(!sensor.getActive());
+        }
+        rollup.put(sensor);
+        return next;
+    }
+
+    @Benchmark
+    public int countActive() {
+        next = next + 1 == zones.length ? 0 : next + 1;
+        return rollup.countActive(zones[next]);
+    }
+
+    @Benchmark
+    public int countActiveByScan() {
+        next = next + 1 == zones.length ? 0 : next + 1;
+        String zone = zones[next];
+        int active = 0;
+        for (Sensor sensor : sensors) {
+            if (sensor.getActive() && ZoneRollup.contains(zone, sensor.getZone())) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * A zone path with a narrow fan-out near the root and one to {@link #DEPTH} levels.
+     */
+    private String randomZone() {
+        StringBuilder zone = new StringBuilder();
+        int levels = 1 + random.nextInt(DEPTH);
+        for (int level = 0; level < levels; level++) {
+            if (level > 0) {
+                zone.append(ZoneRollup.SEPARATOR);
+            }
+            zone.append("z").append(random.nextInt(level < 3 ? 2 : 4));
+        }
+        return zone.toString();
+    }
+}
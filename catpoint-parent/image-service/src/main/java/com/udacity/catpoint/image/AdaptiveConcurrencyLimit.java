@@ -0,0 +1,64 @@
+package com.udacity.catpoint.image;
+
+/**
+ * Additive-increase / multiplicative-decrease limit on concurrent calls.
+ * Each success grows the limit by roughly one per limit's worth of calls; each failure or
+ * timeout halves it, so the limit settles near what the endpoint can sustain.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private int inFlight = 0;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency bounds");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Reserves a slot if fewer than the current limit are in flight.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Grows the limit after a successful call whose slot is released separately.
+     */
+    public synchronized void recordSuccess() {
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+    }
+
+    /**
+     * Shrinks the limit after a failed or timed-out call whose slot is released separately.
+     */
+    public synchronized void recordFailure() {
+        limit = Math.max(minLimit, limit / 2);
+    }
+
+    /**
+     * Releases a slot without adjusting the limit, for calls that never started or whose
+     * outcome was already recorded.
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,179 @@
+package com.udacity.catpoint.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.services.rekognition.RekognitionAsyncClient;
+import software.amazon.awssdk.services.rekognition.model.DetectLabelsRequest;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking AWS Rekognition-based implementation of ImageService.
+ * Requests go through a shared Netty connection pool, so many cameras can keep dozens of
+ * detections in flight on a couple of event-loop threads instead of blocking one thread each.
+ * Pool sizing is read from the same configuration as AwsImageService:
+ * 'aws.async.maxConcurrency' (connections, default 64), 'aws.async.maxPendingAcquires'
+ * (queued requests, default 1000), 'aws.async.eventLoopThreads' (default 2) and
+ * 'aws.async.acquireTimeout.ms' (default 5000).
+ */
+public class AsyncAwsImageService implements ImageService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncAwsImageService.class);
+    private RekognitionAsyncClient rekognitionClient;
+    private boolean propagateFailures = false;
+
+    /**
+     * Initializes the asynchronous client using values from the 'config.properties' file.
+     */
+    public AsyncAwsImageService() {
+        this(null);
+    }
+
+    /**
+     * Initializes the asynchronous client using the given configuration values.
+     *
+     * @param awsProps configuration values, or null to load 'config.properties'
+     */
+    public AsyncAwsImageService(Properties awsProps) {
+        try {
+            rekognitionClient = initializeClient(awsProps != null ? awsProps : RekognitionSupport.loadAwsProperties());
+        } catch (Exception ex) {
+            log.error("Failed to initialize AWS Rekognition async client.", ex);
+            rekognitionClient = null;
+        }
+    }
+
+    /**
+     * Makes analysis failures surface as ImageServiceException instead of "no cat".
+     *
+     * @return this instance for chaining
+     */
+    public AsyncAwsImageService withFailuresPropagated() {
+        this.propagateFailures = true;
+        return this;
+    }
+
+    private RekognitionAsyncClient initializeClient(Properties awsProps) {
+        NettyNioAsyncHttpClient.Builder httpClient = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(RekognitionSupport.intProperty(awsProps, "aws.async.maxConcurrency", 64))
+                .maxPendingConnectionAcquires(RekognitionSupport.intProperty(awsProps, "aws.async.maxPendingAcquires", 1000))
+                .connectionAcquisitionTimeout(Duration.ofMillis(
+                        RekognitionSupport.intProperty(awsProps, "aws.async.acquireTimeout.ms", 5000)))
+                .tcpKeepAlive(true)
+                .eventLoopGroupBuilder(SdkEventLoopGroup.builder()
+                        .numberOfThreads(RekognitionSupport.intProperty(awsProps, "aws.async.eventLoopThreads", 2)));
+
+        return RekognitionSupport.configure(RekognitionAsyncClient.builder(), awsProps)
+                .httpClientBuilder(httpClient)
+                .build();
+    }
+
+    /**
+     * Blocks until the asynchronous detection completes.
+     *
+     * @param inputImage          Image to be analyzed
+     * @param confidenceThreshold Minimum confidence required to confirm detection
+     * @return true if a cat is detected, false otherwise
+     */
+    @Override
+    public boolean imageContainsCat(BufferedImage inputImage, float confidenceThreshold) {
+        return join(imageContainsCatAsync(inputImage, confidenceThreshold));
+    }
+
+    /**
+     * Blocks until the asynchronous label detection completes.
+     */
+    @Override
+    public DetectionResult detectLabels(BufferedImage inputImage, float minConfidence) {
+        return join(detectLabelsAsync(inputImage, minConfidence));
+    }
+
+    /**
+     * Requests labels at {@link DetectionResult#DEFAULT_MIN_CONFIDENCE} (or the threshold, if lower)
+     * and applies the threshold to the returned cat confidence.
+     *
+     * @param inputImage          Image to be analyzed
+     * @param confidenceThreshold Minimum confidence required to confirm detection
+     * @return a future completed with true if a cat is detected
+     */
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage inputImage, float confidenceThreshold) {
+        float floor = Math.min(confidenceThreshold, DetectionResult.DEFAULT_MIN_CONFIDENCE);
+        // Rekognition results carry the cat confidence, so every threshold has an answer
+        return detectLabelsAsync(inputImage, floor)
+                .thenApply(result -> result.containsCat(confidenceThreshold).orElse(false));
+    }
+
+    /**
+     * Encodes the image on the calling thread and sends the request without blocking.
+     *
+     * @param inputImage    Image to be analyzed
+     * @param minConfidence Lowest label confidence to request
+     * @return a future completed with the detection result
+     */
+    @Override
+    public CompletableFuture<DetectionResult> detectLabelsAsync(BufferedImage inputImage, float minConfidence) {
+        if (inputImage == null) {
+            log.warn("Null image provided for analysis.");
+            return CompletableFuture.completedFuture(DetectionResult.NONE);
+        }
+
+        if (rekognitionClient == null) {
+            log.error("AWS Rekognition async client not initialized.");
+            return fail("AWS Rekognition async client not initialized.", null);
+        }
+
+        DetectLabelsRequest request;
+        try {
+            request = RekognitionSupport.buildRequest(inputImage, minConfidence);
+        } catch (IOException e) {
+            log.error("Failed to process input image.", e);
+            return fail("Failed to process input image.", e);
+        }
+
+        return rekognitionClient.detectLabels(request)
+                .thenApply(RekognitionSupport::toDetectionResult)
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.error("Error during AWS Rekognition label detection.", cause);
+                    return fail("Error during AWS Rekognition label detection.", cause);
+                });
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reports a failed analysis: fails the future when failures are propagated, otherwise completes with an empty result.
+     */
+    private CompletableFuture<DetectionResult> fail(String message, Throwable cause) {
+        if (propagateFailures) {
+            return CompletableFuture.failedFuture(new ImageServiceException(message, cause));
+        }
+        return CompletableFuture.completedFuture(DetectionResult.NONE);
+    }
+
+    /**
+     * Closes the client and its connection pool.
+     */
+    public void close() {
+        if (rekognitionClient != null) {
+            rekognitionClient.close();
+        }
+    }
+}
@@ -2,17 +2,11 @@ package com.udacity.catpoint.image;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.core.SdkBytes;
-import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.rekognition.RekognitionClient;
 import software.amazon.awssdk.services.rekognition.model.*;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.io.IOException;
 import java.util.Properties;
 
@@ -24,14 +18,27 @@ public class AwsImageService implements ImageService {
 
     private static final Logger log = LoggerFactory.getLogger(AwsImageService.class);
     private RekognitionClient rekognitionClient;
+    private boolean propagateFailures = false;
 
     /**
      * Initializes the AWS Rekognition client using configuration
      * values from the 'config.properties' file.
      */
     public AwsImageService() {
+        this(null);
+    }
+
+    /**
+     * Initializes the AWS Rekognition client using the given configuration values.
+     * Besides the required 'aws.id', 'aws.secret' and 'aws.region', the optional
+     * 'aws.endpoint' overrides the service endpoint (e.g. a local stand-in) and
+     * 'aws.timeout.ms' bounds each call, with SDK retries disabled.
+     *
+     * @param awsProps configuration values, or null to load 'config.properties'
+     */
+    public AwsImageService(Properties awsProps) {
         try {
-            rekognitionClient = initializeClient();
+            rekognitionClient = initializeClient(awsProps != null ? awsProps : RekognitionSupport.loadAwsProperties());
         } catch (Exception ex) {
             log.error("Failed to initialize AWS Rekognition client.", ex);
             rekognitionClient = null;
@@ -39,49 +46,28 @@ public class AwsImageService implements ImageService {
     }
 
     /**
-     * Creates and returns an instance of RekognitionClient using AWS credentials.
+     * Makes analysis failures throw ImageServiceException instead of being logged and
+     * reported as "no cat". Used when a caller such as ResilientImageService needs to
+     * tell failures apart from negative results.
+     *
+     * @return this instance for chaining
      */
-    private RekognitionClient initializeClient() {
-        Properties awsProps = loadAwsProperties();
-        validateAwsProperties(awsProps);
-
-        return RekognitionClient.builder()
-                .region(Region.of(awsProps.getProperty("aws.region")))
-                .credentialsProvider(StaticCredentialsProvider.create(
-                        AwsBasicCredentials.create(
-                                awsProps.getProperty("aws.id"),
-                                awsProps.getProperty("aws.secret"))))
-                .build();
+    public AwsImageService withFailuresPropagated() {
+        this.propagateFailures = true;
+        return this;
     }
 
     /**
-     * Loads AWS credentials from the configuration file.
+     * Creates and returns an instance of RekognitionClient using AWS credentials.
      */
-    private Properties loadAwsProperties() {
-        Properties props = new Properties();
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream("config.properties")) {
-            if (input == null) {
-                throw new IOException("config.properties not found in classpath.");
-            }
-            props.load(input);
-        } catch (IOException e) {
-            log.error("Error while loading AWS config properties.", e);
-        }
-        return props;
-    }
-
-    /**
-     * Ensures all required AWS properties exist.
-     */
-    private void validateAwsProperties(Properties awsProps) {
-        if (!awsProps.containsKey("aws.id") || !awsProps.containsKey("aws.secret") || !awsProps.containsKey("aws.region")) {
-            log.error("AWS credentials missing or incomplete in configuration.");
-            throw new IllegalArgumentException("Invalid AWS configuration.");
-        }
+    private RekognitionClient initializeClient(Properties awsProps) {
+        return RekognitionSupport.configure(RekognitionClient.builder(), awsProps).build();
     }
 
     /**
      * Uses AWS Rekognition to determine whether the image contains a cat.
+     * Labels are requested at {@link DetectionResult#DEFAULT_MIN_CONFIDENCE} (or the threshold,
+     * if lower) and the threshold is applied to the returned cat confidence.
      *
      * @param inputImage          Image to be analyzed
      * @param confidenceThreshold Minimum confidence required to confirm detection
@@ -89,37 +75,57 @@ public class AwsImageService implements ImageService {
      */
     @Override
     public boolean imageContainsCat(BufferedImage inputImage, float confidenceThreshold) {
+        float floor = Math.min(confidenceThreshold, DetectionResult.DEFAULT_MIN_CONFIDENCE);
+        // Rekognition results carry the cat confidence, so every threshold has an answer
+        return detectLabels(inputImage, floor).containsCat(confidenceThreshold).orElse(false);
+    }
+
+    /**
+     * Uses AWS Rekognition to detect all labels at or above the given confidence.
+     *
+     * @param inputImage    Image to be analyzed
+     * @param minConfidence Lowest label confidence to request
+     * @return the detection result; {@link DetectionResult#NONE} on failure unless failures are propagated
+     */
+    @Override
+    public DetectionResult detectLabels(BufferedImage inputImage, float minConfidence) {
         if (inputImage == null) {
             log.warn("Null image provided for analysis.");
-            return false;
+            return DetectionResult.NONE;
         }
 
         if (rekognitionClient == null) {
             log.error("AWS Rekognition client not initialized.");
-            return false;
+            return fail("AWS Rekognition client not initialized.", null);
         }
 
-        try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-            ImageIO.write(inputImage, "jpg", output);
-
-            DetectLabelsRequest request = DetectLabelsRequest.builder()
-                    .image(Image.builder()
-                            .bytes(SdkBytes.fromByteArray(output.toByteArray()))
-                            .build())
-                    .minConfidence(confidenceThreshold)
-                    .build();
-
+        try {
+            DetectLabelsRequest request = RekognitionSupport.buildRequest(inputImage, minConfidence);
             DetectLabelsResponse response = rekognitionClient.detectLabels(request);
 
-            return response.labels().stream()
-                    .anyMatch(label -> "cat".equalsIgnoreCase(label.name()));
+            return RekognitionSupport.toDetectionResult(response);
 
         } catch (IOException e) {
             log.error("Failed to process input image.", e);
+            return fail("Failed to process input image.", e);
         } catch (RekognitionException e) {
             log.error("Error during AWS Rekognition label detection.", e);
+            return fail("Error during AWS Rekognition label detection.", e);
+        } catch (SdkException e) {
+            if (!propagateFailures) {
+                throw e;
+            }
+            return fail("AWS Rekognition call failed.", e);
         }
+    }
 
-        return false;
+    /**
+     * Reports a failed analysis: throws when failures are propagated, otherwise returns an empty result.
+     */
+    private DetectionResult fail(String message, Exception cause) {
+        if (propagateFailures) {
+            throw new ImageServiceException(message, cause);
+        }
+        return DetectionResult.NONE;
     }
 }
@@ -0,0 +1,208 @@
+package com.udacity.catpoint.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Tiered implementation of ImageService.
+ * Every frame is first scored by a cheap local scorer. Clear positives and clear negatives are
+ * decided locally; only frames whose score falls into an uncertainty band around the requested
+ * confidence threshold are escalated to the delegate (normally AwsImageService).
+ * {@link #detectLabels} has no threshold to centre the band on, so it uses the detection
+ * threshold its results are expected to be judged at.
+ * <p>
+ * Latencies of the local tier, the delegate tier and whole frames are kept over the last
+ * 1024 calls of each and reported as percentiles, so the tail added by escalated frames shows
+ * up instead of being averaged away.
+ */
+public class CascadingImageService implements ImageService {
+
+    private static final Logger log = LoggerFactory.getLogger(CascadingImageService.class);
+
+    /** Default distance, in confidence points, between the threshold and each band edge. */
+    public static final float DEFAULT_BAND_WIDTH = 25.0f;
+
+    private final CatConfidenceScorer localScorer;
+    private final ImageService delegate;
+    private float bandWidth = DEFAULT_BAND_WIDTH;
+    private float detectionThreshold = 50.0f;
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder escalations = new LongAdder();
+    private final LatencyTracker localLatencies = new LatencyTracker(1024);
+    private final LatencyTracker delegateLatencies = new LatencyTracker(1024);
+    private final LatencyTracker frameLatencies = new LatencyTracker(1024);
+
+    /**
+     * Creates a cascade with the given local scorer and escalation delegate.
+     *
+     * @param localScorer fast scorer run on every frame
+     * @param delegate    service consulted only for uncertain frames
+     */
+    public CascadingImageService(CatConfidenceScorer localScorer, ImageService delegate) {
+        this.localScorer = Objects.requireNonNull(localScorer, "localScorer cannot be null");
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+    }
+
+    /**
+     * Sets the half-width of the uncertainty band. Frames scoring within
+     * {@code threshold ± bandWidth} are escalated; 0 escalates nothing but exact ties.
+     *
+     * @param bandWidth half-width of the band in confidence points
+     * @return this instance for chaining
+     */
+    public CascadingImageService withBandWidth(float bandWidth) {
+        if (bandWidth < 0f) {
+            throw new IllegalArgumentException("bandWidth cannot be negative");
+        }
+        this.bandWidth = bandWidth;
+        return this;
+    }
+
+    /**
+     * Sets the threshold {@link #detectLabels} results are expected to be judged at; frames
+     * scoring within the band around it are escalated. Defaults to 50.
+     *
+     * @return this instance for chaining
+     */
+    public CascadingImageService withDetectionThreshold(float detectionThreshold) {
+        this.detectionThreshold = detectionThreshold;
+        return this;
+    }
+
+    /**
+     * Scores the image locally and escalates to the delegate only when the score is uncertain.
+     *
+     * @param image               Image to be analyzed
+     * @param confidenceThreshold Minimum confidence required to confirm detection; centre of the band
+     * @return true if a cat is detected, false otherwise
+     */
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+        if (image == null) {
+            log.warn("Null image provided for analysis.");
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            float score = scoreLocally(image);
+            if (score < confidenceThreshold - bandWidth) {
+                return false;
+            }
+            if (score > confidenceThreshold + bandWidth) {
+                return true;
+            }
+            return escalate(() -> delegate.imageContainsCat(image, confidenceThreshold));
+        } finally {
+            frameLatencies.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Reports the local score as the cat confidence, unless it falls in the band around the
+     * detection threshold; those frames get the delegate's labels instead.
+     *
+     * @param image         Image to be analyzed
+     * @param minConfidence Lowest confidence worth reporting
+     * @return the detection result; {@link DetectionResult#NONE} below the floor
+     */
+    @Override
+    public DetectionResult detectLabels(BufferedImage image, float minConfidence) {
+        if (image == null) {
+            log.warn("Null image provided for analysis.");
+            return DetectionResult.NONE;
+        }
+        long start = System.nanoTime();
+        try {
+            float score = scoreLocally(image);
+            if (Math.abs(score - detectionThreshold) <= bandWidth) {
+                return escalate(() -> delegate.detectLabels(image, minConfidence));
+            }
+            if (score < minConfidence || score == 0f) {
+                return DetectionResult.NONE;
+            }
+            return new DetectionResult(score, List.of(new DetectionResult.Label("Cat", score)), List.of());
+        } finally {
+            frameLatencies.record(System.nanoTime() - start);
+        }
+    }
+
+    private float scoreLocally(BufferedImage image) {
+        frames.increment();
+        long start = System.nanoTime();
+        try {
+            return localScorer.catConfidence(image);
+        } finally {
+            localLatencies.record(System.nanoTime() - start);
+        }
+    }
+
+    private <T> T escalate(Supplier<T> call) {
+        escalations.increment();
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            delegateLatencies.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the number of frames analyzed so far.
+     */
+    public long getFrameCount() {
+        return frames.sum();
+    }
+
+    /**
+     * Returns the number of frames escalated to the delegate.
+     */
+    public long getEscalationCount() {
+        return escalations.sum();
+    }
+
+    /**
+     * Returns the fraction of frames, from 0 to 1, that were escalated to the delegate.
+     */
+    public double getEscalationRate() {
+        long total = frames.sum();
+        return total == 0 ? 0.0 : (double) escalations.sum() / total;
+    }
+
+    /**
+     * Returns a percentile, from 0 to 1, of the local tier's latency in milliseconds.
+     */
+    public double getLocalLatencyMillis(double percentile) {
+        return localLatencies.percentile(percentile, 0L) / 1e6;
+    }
+
+    /**
+     * Returns a percentile, from 0 to 1, of the delegate tier's latency in milliseconds, over
+     * escalated frames only.
+     */
+    public double getDelegateLatencyMillis(double percentile) {
+        return delegateLatencies.percentile(percentile, 0L) / 1e6;
+    }
+
+    /**
+     * Returns a percentile, from 0 to 1, of the time to answer a frame in milliseconds,
+     * escalated or not. Its tail shows what escalation costs the frames that need it.
+     */
+    public double getFrameLatencyMillis(double percentile) {
+        return frameLatencies.percentile(percentile, 0L) / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CascadingImageService[frames=%d, escalationRate=%.3f, localP95Ms=%.3f, delegateP95Ms=%.3f, "
+                        + "frameP50Ms=%.3f, frameP99Ms=%.3f]",
+                getFrameCount(), getEscalationRate(), getLocalLatencyMillis(0.95), getDelegateLatencyMillis(0.95),
+                getFrameLatencyMillis(0.5), getFrameLatencyMillis(0.99));
+    }
+}
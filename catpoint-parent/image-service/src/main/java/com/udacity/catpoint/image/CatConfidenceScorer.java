@@ -0,0 +1,19 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Produces a cat confidence score for an image without applying a threshold.
+ * Used as the cheap first stage of a detection cascade.
+ */
+@FunctionalInterface
+public interface CatConfidenceScorer {
+
+    /**
+     * Scores an image.
+     *
+     * @param image the image to analyze
+     * @return the confidence, from 0 to 100, that the image contains a cat
+     */
+    float catConfidence(BufferedImage image);
+}
@@ -0,0 +1,134 @@
+package com.udacity.catpoint.image;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Threshold-independent outcome of one image analysis.
+ * Holds the cat confidence, every other label returned above the request floor and the
+ * bounding boxes of detected cats, so any number of threshold decisions can be made from a
+ * single detection call.
+ * <p>
+ * A result built from a bare yes/no decision is threshold-bound: it only knows whether the
+ * cat reached the threshold the decision was made at, so {@link #containsCat(float)} has no
+ * answer for thresholds the decision does not settle.
+ */
+public final class DetectionResult {
+
+    /** Confidence floor used when requesting labels once for later threshold decisions. */
+    public static final float DEFAULT_MIN_CONFIDENCE = 10.0f;
+
+    /** Result of an image in which nothing was detected. */
+    public static final DetectionResult NONE = new DetectionResult(0f, List.of(), List.of());
+
+    private final float catConfidence;
+    private final List<Label> labels;
+    private final List<BoundingBox> catBoxes;
+    private final float decisionThreshold;
+
+    /**
+     * @param catConfidence confidence, from 0 to 100, of the cat label; 0 if absent
+     * @param labels        all labels returned, including the cat label
+     * @param catBoxes      bounding boxes of detected cats, in image-relative coordinates
+     */
+    public DetectionResult(float catConfidence, List<Label> labels, List<BoundingBox> catBoxes) {
+        this(catConfidence, labels, catBoxes, Float.NaN);
+    }
+
+    private DetectionResult(float catConfidence, List<Label> labels, List<BoundingBox> catBoxes,
+                            float decisionThreshold) {
+        this.catConfidence = catConfidence;
+        this.labels = List.copyOf(labels);
+        this.catBoxes = List.copyOf(catBoxes);
+        this.decisionThreshold = decisionThreshold;
+    }
+
+    /**
+     * Builds a threshold-bound result from a yes/no decision made at the given threshold, for
+     * services that cannot report confidences. A detected cat is reported with the threshold
+     * as its confidence, the only lower bound known.
+     */
+    public static DetectionResult fromDecision(boolean catDetected, float threshold) {
+        return catDetected
+                ? new DetectionResult(threshold, List.of(new Label("Cat", threshold)), List.of(), threshold)
+                : new DetectionResult(0f, List.of(), List.of(), threshold);
+    }
+
+    /**
+     * Returns whether the cat confidence reaches the given threshold. The answer is only
+     * missing for a threshold-bound result asked about a threshold its decision does not
+     * settle: above it after a cat was found, or below it after none was; the caller then has
+     * to analyze the image again at that threshold.
+     */
+    public Optional<Boolean> containsCat(float confidenceThreshold) {
+        if (isThresholdBound()) {
+            boolean catDetected = catConfidence > 0f;
+            if (catDetected ? confidenceThreshold > decisionThreshold : confidenceThreshold < decisionThreshold) {
+                return Optional.empty();
+            }
+            return Optional.of(catDetected);
+        }
+        return Optional.of(catConfidence > 0f && catConfidence >= confidenceThreshold);
+    }
+
+    /**
+     * Returns true if the result only holds a yes/no decision at {@link #getDecisionThreshold()}.
+     */
+    public boolean isThresholdBound() {
+        return !Float.isNaN(decisionThreshold);
+    }
+
+    /**
+     * Returns the threshold a threshold-bound result was decided at, or NaN.
+     */
+    public float getDecisionThreshold() {
+        return decisionThreshold;
+    }
+
+    public float getCatConfidence() {
+        return catConfidence;
+    }
+
+    public List<Label> getLabels() {
+        return labels;
+    }
+
+    public List<BoundingBox> getCatBoxes() {
+        return catBoxes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DetectionResult that = (DetectionResult) o;
+        return Float.compare(catConfidence, that.catConfidence) == 0
+                && Float.compare(decisionThreshold, that.decisionThreshold) == 0
+                && labels.equals(that.labels)
+                && catBoxes.equals(that.catBoxes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(catConfidence, labels, catBoxes, decisionThreshold);
+    }
+
+    @Override
+    public String toString() {
+        return "DetectionResult[catConfidence=" + catConfidence + ", labels=" + labels + ", catBoxes=" + catBoxes
+                + (isThresholdBound() ? ", decisionThreshold=" + decisionThreshold : "") + "]";
+    }
+
+    /**
+     * A detected label and its confidence from 0 to 100.
+     */
+    public record Label(String name, float confidence) {
+    }
+
+    /**
+     * Box position and size as fractions of the image width and height.
+     */
+    public record BoundingBox(float left, float top, float width, float height) {
+    }
+}
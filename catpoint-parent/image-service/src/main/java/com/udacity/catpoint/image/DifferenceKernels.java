@@ -0,0 +1,20 @@
+package com.udacity.catpoint.image;
+
+/**
+ * Difference kernels with an alternative implementation that RasterKernels loads at runtime,
+ * such as the Vector API kernels built by the {@code vector} profile.
+ */
+interface DifferenceKernels {
+
+    /**
+     * Writes the per-pixel absolute difference of two luminance planes.
+     *
+     * @return the sum of all differences
+     */
+    long absDiff(byte[] a, byte[] b, int length, byte[] out);
+
+    /**
+     * Returns the sum of absolute differences of two luminance planes.
+     */
+    long sumAbsDiff(byte[] a, byte[] b, int length);
+}
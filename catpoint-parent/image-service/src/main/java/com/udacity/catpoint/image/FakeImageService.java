@@ -1,15 +1,30 @@
 package com.udacity.catpoint.image;
 
 import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Simulated implementation of ImageService.
  * Used for testing or development without real AWS Rekognition calls.
+ * <p>
+ * A load profile can make it behave like a remote service, so async paths, caches, timeouts
+ * and backpressure can be exercised offline: a latency distribution, an error rate, the
+ * probability that an image contains a cat, and a limit on concurrent detections.
+ * With a seed, the same sequence of calls gets the same results, latencies and errors.
  */
 public class FakeImageService implements ImageService {
 
     private final Random randomizer;
+    private final Random loadRandomizer;
+    private LatencyDistribution latency = LatencyDistribution.NONE;
+    private double errorRate = 0;
+    private double catProbability = Double.NaN;
+    private Semaphore concurrencyLimit;
     private boolean predictableMode = false;
     private boolean presetOutcome = false;
     private float lastConfidenceUsed = 0.5f;
@@ -19,6 +34,7 @@ public class FakeImageService implements ImageService {
      */
     public FakeImageService() {
         this.randomizer = new Random();
+        this.loadRandomizer = new Random();
     }
 
     /**
@@ -26,19 +42,65 @@ public class FakeImageService implements ImageService {
      */
     public FakeImageService(long seed) {
         this.randomizer = new Random(seed);
+        // Separate stream, so a load profile does not change the detection results for a seed
+        this.loadRandomizer = new Random(~seed);
     }
 
     /**
-     * Simulates cat detection logic by returning a random or fixed result.
+     * Simulates cat detection logic by returning a random or fixed result. Draws the same cat
+     * confidence as {@link #detectLabels}, so a seeded sequence of calls gets the same answers
+     * through either method; by default a cat is found at confidence 50 half of the time.
+     *
+     * @throws ImageServiceException for the simulated failures of the error rate
      */
     @Override
     public boolean imageContainsCat(BufferedImage image, float confidenceLevel) {
         this.lastConfidenceUsed = confidenceLevel;
+        return isCat(simulateDetection(), confidenceLevel);
+    }
+
+    /**
+     * Simulates label detection with a random or fixed cat confidence.
+     * In fixed mode the cat confidence is 100 or 0, and in random mode it is uniform between
+     * 0 and 100. With a cat probability, cats get a confidence between 50 and 100 and other
+     * images one below 50.
+     *
+     * @throws ImageServiceException for the simulated failures of the error rate
+     */
+    @Override
+    public DetectionResult detectLabels(BufferedImage image, float minConfidence) {
+        this.lastConfidenceUsed = minConfidence;
+        float catConfidence = simulateDetection();
+        if (!isCat(catConfidence, minConfidence)) {
+            return DetectionResult.NONE;
+        }
+        return new DetectionResult(catConfidence, List.of(new DetectionResult.Label("Cat", catConfidence)), List.of());
+    }
+
+    private static boolean isCat(float catConfidence, float confidenceLevel) {
+        return catConfidence > 0f && catConfidence >= confidenceLevel;
+    }
+
+    /**
+     * Waits out the simulated load and draws the cat confidence of one detection.
+     */
+    private float simulateDetection() {
+        boolean failed = simulateLoad();
 
+        float catConfidence;
         if (predictableMode) {
-            return presetOutcome;
+            catConfidence = presetOutcome ? 100f : 0f;
+        } else if (Double.isNaN(catProbability)) {
+            catConfidence = randomizer.nextFloat() * 100f;
+        } else {
+            boolean cat = randomizer.nextDouble() < catProbability;
+            catConfidence = (cat ? 50f : 0f) + randomizer.nextFloat() * 50f;
         }
-        return randomizer.nextBoolean();
+        // Drawn before failing, so errors do not shift the results of later calls
+        if (failed) {
+            throw new ImageServiceException("Simulated detection failure");
+        }
+        return catConfidence;
     }
 
     /**
@@ -53,6 +115,108 @@ public class FakeImageService implements ImageService {
         return this;
     }
 
+    /**
+     * Makes every detection take the given time plus a uniformly random extra of up to
+     * {@code jitter}, to stand in for a remote service under load tests.
+     *
+     * @return this instance for chaining
+     */
+    public FakeImageService withLatency(Duration latency, Duration jitter) {
+        return withLatency(LatencyDistribution.uniform(latency, latency.plus(jitter)));
+    }
+
+    /**
+     * Makes every detection take a latency drawn from the distribution, e.g.
+     * {@code LatencyDistribution.lognormal(Duration.ofMillis(250), 0.5)}.
+     *
+     * @return this instance for chaining
+     */
+    public FakeImageService withLatency(LatencyDistribution latency) {
+        this.latency = Objects.requireNonNull(latency);
+        return this;
+    }
+
+    /**
+     * Makes this fraction of detections fail with an {@link ImageServiceException} after their latency.
+     *
+     * @return this instance for chaining
+     */
+    public FakeImageService withErrorRate(double errorRate) {
+        if (!(errorRate >= 0 && errorRate <= 1)) {
+            throw new IllegalArgumentException("errorRate must be between 0 and 1");
+        }
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Sets the probability that a random-mode detection finds a cat; by default it is a coin toss.
+     *
+     * @return this instance for chaining
+     */
+    public FakeImageService withCatProbability(double catProbability) {
+        if (!(catProbability >= 0 && catProbability <= 1)) {
+            throw new IllegalArgumentException("catProbability must be between 0 and 1");
+        }
+        this.catProbability = catProbability;
+        return this;
+    }
+
+    /**
+     * Lets at most this many detections run at once; further callers queue in arrival order,
+     * so their latency grows with the load as it would at a saturated remote service.
+     *
+     * @return this instance for chaining
+     */
+    public FakeImageService withConcurrencyLimit(int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        this.concurrencyLimit = new Semaphore(maxConcurrent, true);
+        return this;
+    }
+
+    /**
+     * Waits out the sampled latency, holding a concurrency permit if limited.
+     *
+     * @return whether this call should fail
+     */
+    private boolean simulateLoad() {
+        long nanos;
+        boolean failed;
+        synchronized (loadRandomizer) {
+            nanos = latency.sampleNanos(loadRandomizer);
+            failed = errorRate > 0 && loadRandomizer.nextDouble() < errorRate;
+        }
+        Semaphore limit = concurrencyLimit;
+        if (limit == null) {
+            park(nanos);
+            return failed;
+        }
+        try {
+            limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageServiceException("Interrupted waiting for a detection slot", e);
+        }
+        try {
+            park(nanos);
+        } finally {
+            limit.release();
+        }
+        return failed;
+    }
+
+    private static void park(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new ImageServiceException("Interrupted during simulated detection");
+            }
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
     /**
      * Switches back to random mode.
      */
@@ -0,0 +1,201 @@
+package com.udacity.catpoint.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of reusable frame buffers keyed by width, height and image type.
+ * Frame paths acquire a buffer (or decode into one), hand it to the detector and release it
+ * once analysis has returned, so steady-state frame processing allocates no new rasters.
+ * <p>
+ * A released buffer may be handed out again immediately, so it must not be released while
+ * anything still reads it. {@link ImageService} calls do not retain the image after returning:
+ * a {@link ResilientImageService}, whose attempts can outlive the call, hands them a
+ * {@link #copyOf copy} it releases itself once the last attempt has returned.
+ */
+public class FrameBufferPool {
+
+    /** Default number of idle buffers kept per frame format. */
+    public static final int DEFAULT_MAX_IDLE_PER_FORMAT = 8;
+
+    private final int maxIdlePerFormat;
+    private final Map<Format, Deque<BufferedImage>> idle = new ConcurrentHashMap<>();
+    private final Map<Format, AtomicInteger> idleCounts = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    public FrameBufferPool() {
+        this(DEFAULT_MAX_IDLE_PER_FORMAT);
+    }
+
+    /**
+     * @param maxIdlePerFormat idle buffers kept per format; further releases are left to the GC
+     */
+    public FrameBufferPool(int maxIdlePerFormat) {
+        if (maxIdlePerFormat < 1) {
+            throw new IllegalArgumentException("maxIdlePerFormat must be at least 1");
+        }
+        this.maxIdlePerFormat = maxIdlePerFormat;
+    }
+
+    /**
+     * Returns a buffer of the given size and type, reusing an idle one when available.
+     * The contents of a reused buffer are not cleared.
+     *
+     * @param imageType one of the predefined {@code BufferedImage.TYPE_*} constants
+     */
+    public BufferedImage acquire(int width, int height, int imageType) {
+        Format format = new Format(width, height, imageType);
+        Deque<BufferedImage> buffers = idle.get(format);
+        BufferedImage buffer = buffers == null ? null : buffers.pollFirst();
+        if (buffer != null) {
+            idleCounts.get(format).decrementAndGet();
+            hits.increment();
+            return buffer;
+        }
+        misses.increment();
+        return new BufferedImage(width, height, imageType);
+    }
+
+    /**
+     * Returns a buffer to the pool. The caller must not use it afterwards.
+     * Null and custom-type images are ignored.
+     */
+    public void release(BufferedImage buffer) {
+        if (buffer == null || buffer.getType() == BufferedImage.TYPE_CUSTOM) {
+            return;
+        }
+        Format format = new Format(buffer.getWidth(), buffer.getHeight(), buffer.getType());
+        AtomicInteger count = idleCounts.computeIfAbsent(format, f -> new AtomicInteger());
+        if (count.incrementAndGet() > maxIdlePerFormat) {
+            count.decrementAndGet();
+            discards.increment();
+            return;
+        }
+        idle.computeIfAbsent(format, f -> new ConcurrentLinkedDeque<>()).addFirst(buffer);
+    }
+
+    /**
+     * Copies an image into a pooled buffer of the same size and type, for a reader that may
+     * outlive the original's owner. Custom-type images get a new, unpooled copy.
+     */
+    public BufferedImage copyOf(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_CUSTOM) {
+            return new BufferedImage(image.getColorModel(), image.copyData(null), image.isAlphaPremultiplied(), null);
+        }
+        BufferedImage copy = acquire(image.getWidth(), image.getHeight(), image.getType());
+        image.copyData(copy.getRaster());
+        return copy;
+    }
+
+    /**
+     * Decodes an image into a pooled buffer.
+     *
+     * @return the decoded image, or null if the data is not a supported image
+     */
+    public BufferedImage read(File file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            return read(input);
+        }
+    }
+
+    /**
+     * Decodes an image into a pooled buffer.
+     *
+     * @return the decoded image, or null if the data is not a supported image
+     */
+    public BufferedImage read(InputStream stream) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            return read(input);
+        }
+    }
+
+    /**
+     * Decodes an image held in memory, such as one frame of an MJPEG stream, into a pooled buffer.
+     *
+     * @return the decoded image, or null if the data is not a supported image
+     */
+    public BufferedImage read(byte[] data, int offset, int length) throws IOException {
+        return read(new ByteArrayInputStream(data, offset, length));
+    }
+
+    private BufferedImage read(ImageInputStream input) throws IOException {
+        if (input == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        BufferedImage destination = null;
+        try {
+            reader.setInput(input, true, true);
+            ImageReadParam param = reader.getDefaultReadParam();
+            Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+            int imageType = types.hasNext() ? types.next().getBufferedImageType() : BufferedImage.TYPE_CUSTOM;
+            if (imageType != BufferedImage.TYPE_CUSTOM) {
+                // Decode straight into the pooled raster
+                destination = acquire(reader.getWidth(0), reader.getHeight(0), imageType);
+                param.setDestination(destination);
+            }
+            return reader.read(0, param);
+        } catch (IOException | RuntimeException e) {
+            // The caller never sees the buffer, so it would never come back
+            if (destination != null) {
+                release(destination);
+            }
+            throw e;
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Returns the number of acquisitions served by an idle buffer.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of acquisitions that had to allocate a new buffer.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of releases dropped because the format already had enough idle buffers.
+     */
+    public long getDiscardCount() {
+        return discards.sum();
+    }
+
+    /**
+     * Returns the number of idle buffers across all formats.
+     */
+    public int getIdleCount() {
+        return idleCounts.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    private record Format(int width, int height, int imageType) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.udacity.catpoint.image;
 
 import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for performing image analysis operations.
@@ -17,4 +18,51 @@ public interface ImageService {
      * @return true if a cat is detected with sufficient confidence; false otherwise
      */
     boolean imageContainsCat(BufferedImage image, float confidenceThreshold);
+
+    /**
+     * Asynchronous variant of {@link #imageContainsCat(BufferedImage, float)}.
+     * The default implementation runs the synchronous check on the calling thread;
+     * non-blocking implementations return before the analysis completes.
+     *
+     * @param image the image to analyze
+     * @param confidenceThreshold the minimum confidence required to confirm detection
+     * @return a future completed with true if a cat is detected with sufficient confidence
+     */
+    default CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshold) {
+        try {
+            return CompletableFuture.completedFuture(imageContainsCat(image, confidenceThreshold));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Analyzes an image once and returns every label at or above the given floor, so that
+     * threshold decisions can be made later without another detection call.
+     * The default implementation only has a yes/no decision at the floor to offer, so it
+     * returns a threshold-bound result; see {@link DetectionResult#fromDecision(boolean, float)}.
+     * Implementations that can score images should override it.
+     *
+     * @param image the image to analyze
+     * @param minConfidence the lowest label confidence worth reporting
+     * @return the detection result; {@link DetectionResult#NONE} if nothing was found
+     */
+    default DetectionResult detectLabels(BufferedImage image, float minConfidence) {
+        return DetectionResult.fromDecision(imageContainsCat(image, minConfidence), minConfidence);
+    }
+
+    /**
+     * Asynchronous variant of {@link #detectLabels(BufferedImage, float)}.
+     *
+     * @param image the image to analyze
+     * @param minConfidence the lowest label confidence worth reporting
+     * @return a future completed with the detection result
+     */
+    default CompletableFuture<DetectionResult> detectLabelsAsync(BufferedImage image, float minConfidence) {
+        try {
+            return CompletableFuture.completedFuture(detectLabels(image, minConfidence));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package com.udacity.catpoint.image;
+
+/**
+ * Thrown by an ImageService when an image could not be analyzed, as opposed to
+ * having been analyzed and found not to contain a cat.
+ */
+public class ImageServiceException extends RuntimeException {
+
+    public ImageServiceException(String message) {
+        super(message);
+    }
+
+    public ImageServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,57 @@
+package com.udacity.catpoint.image;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Per-thread JPEG encoder that reuses its ImageWriter and staging buffer between frames,
+ * so encoding a frame allocates only the returned byte array.
+ */
+public final class JpegEncoder {
+
+    private static final ThreadLocal<JpegEncoder> ENCODERS = ThreadLocal.withInitial(JpegEncoder::new);
+
+    private final ImageWriter writer;
+    private final StagingBuffer staging = new StagingBuffer();
+
+    private JpegEncoder() {
+        this.writer = ImageIO.getImageWritersByFormatName("jpg").next();
+    }
+
+    /**
+     * Encodes the image as JPEG using the calling thread's encoder.
+     */
+    public static byte[] encode(BufferedImage image) throws IOException {
+        return ENCODERS.get().write(image);
+    }
+
+    private byte[] write(BufferedImage image) throws IOException {
+        staging.reset();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(staging)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), null);
+        } finally {
+            writer.reset();
+        }
+        return staging.copy();
+    }
+
+    /**
+     * ByteArrayOutputStream whose backing array survives {@link #reset()} and can be copied once.
+     */
+    private static final class StagingBuffer extends ByteArrayOutputStream {
+        private StagingBuffer() {
+            super(64 * 1024);
+        }
+
+        private byte[] copy() {
+            return Arrays.copyOf(buf, count);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.udacity.catpoint.image;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Distribution of simulated detection latencies, sampled by {@link FakeImageService} once per call.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /** No added latency. */
+    LatencyDistribution NONE = random -> 0;
+
+    /**
+     * Returns the next latency in nanoseconds, drawing any randomness from {@code random}.
+     */
+    long sampleNanos(Random random);
+
+    /**
+     * Always the same latency.
+     */
+    static LatencyDistribution fixed(Duration latency) {
+        long nanos = nonNegative(latency);
+        return random -> nanos;
+    }
+
+    /**
+     * Uniformly distributed between {@code min} and {@code max}.
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = nonNegative(min);
+        long range = nonNegative(max) - minNanos;
+        if (range < 0) {
+            throw new IllegalArgumentException("max cannot be less than min");
+        }
+        return random -> minNanos + (long) (random.nextDouble() * range);
+    }
+
+    /**
+     * Log-normally distributed around {@code median}, the usual shape of service latencies:
+     * most calls close to the median and a long right tail. A sigma of 0.5 puts p99 at about
+     * 3.2 times the median, and 1.0 puts it at about 10 times.
+     */
+    static LatencyDistribution lognormal(Duration median, double sigma) {
+        long medianNanos = nonNegative(median);
+        if (!(sigma >= 0)) {
+            throw new IllegalArgumentException("sigma cannot be negative");
+        }
+        return random -> (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    /**
+     * Mostly follows {@code normal}, but with the given probability a call takes a latency from
+     * {@code spike} instead, as when a remote service stalls on a GC pause or a cold instance.
+     */
+    static LatencyDistribution bimodal(LatencyDistribution normal, LatencyDistribution spike, double spikeProbability) {
+        Objects.requireNonNull(normal);
+        Objects.requireNonNull(spike);
+        if (!(spikeProbability >= 0 && spikeProbability <= 1)) {
+            throw new IllegalArgumentException("spikeProbability must be between 0 and 1");
+        }
+        return random -> random.nextDouble() < spikeProbability ? spike.sampleNanos(random) : normal.sampleNanos(random);
+    }
+
+    private static long nonNegative(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("latency cannot be negative");
+        }
+        return duration.toNanos();
+    }
+}
@@ -0,0 +1,44 @@
+package com.udacity.catpoint.image;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent call latencies in a fixed-size window and answers percentile queries.
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private int count = 0;
+    private int next = 0;
+
+    public LatencyTracker(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be at least 1");
+        }
+        this.samples = new long[windowSize];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * Returns the given percentile (0-1) of the recorded latencies in nanoseconds,
+     * or {@code defaultNanos} if nothing has been recorded yet.
+     */
+    public synchronized long percentile(double percentile, long defaultNanos) {
+        if (count == 0) {
+            return defaultNanos;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+}
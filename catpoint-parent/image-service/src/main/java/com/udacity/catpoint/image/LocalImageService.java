@@ -0,0 +1,304 @@
+package com.udacity.catpoint.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Offline implementation of ImageService.
+ * Runs a small bundled classifier on the CPU, so detection keeps working without AWS credentials
+ * or network access. The frame is area-averaged into a fixed-size input tensor, split into tiles whose
+ * features are extracted in parallel, and the pooled features are scored by a logistic model
+ * loaded from 'local-cat-model.properties'.
+ */
+public class LocalImageService implements ImageService, CatConfidenceScorer {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalImageService.class);
+
+    private static final String MODEL_RESOURCE = "local-cat-model.properties";
+
+    static final int INPUT_SIZE = 64;
+    static final int TILE_SIZE = 16;
+    static final int TILES_PER_SIDE = INPUT_SIZE / TILE_SIZE;
+    static final int TILE_COUNT = TILES_PER_SIDE * TILES_PER_SIDE;
+
+    /** Per-tile features: saturated warm fur-like tones, luminance texture, vegetation and sky fractions. */
+    static final int FEATURES_PER_TILE = 4;
+    private static final int WARM = 0;
+    private static final int TEXTURE = 1;
+    private static final int GREEN = 2;
+    private static final int BLUE = 3;
+
+    private final float[] weights = new float[FEATURES_PER_TILE + 1];
+    private float bias;
+
+    // Preallocated working set, reused for every frame
+    private final int[] inputPixels = new int[INPUT_SIZE * INPUT_SIZE];
+    private final long[] channelSums = new long[INPUT_SIZE * INPUT_SIZE * 3];
+    private final int[] sampleCounts = new int[INPUT_SIZE * INPUT_SIZE];
+    private int[] sourceRow = new int[0];
+    private final float[] lumaTensor = new float[INPUT_SIZE * INPUT_SIZE];
+    private final float[] tileFeatures = new float[TILE_COUNT * FEATURES_PER_TILE];
+    private final float[] pooledFeatures = new float[FEATURES_PER_TILE + 1];
+
+    private final ExecutorService tileExecutor;
+    private final List<Callable<Void>> tileTasks;
+
+    /**
+     * Creates a LocalImageService that spreads tile work across all available processors.
+     */
+    public LocalImageService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a LocalImageService using the given number of worker threads for tile extraction.
+     *
+     * @param threads number of worker threads; 1 runs everything on the calling thread
+     */
+    public LocalImageService(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        loadModel();
+
+        int workers = Math.min(threads, TILE_COUNT);
+        this.tileExecutor = workers > 1 ? Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "local-image-service-tile");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+
+        // One task per contiguous range of tiles; built once and reused for every frame
+        List<Callable<Void>> tasks = new ArrayList<>(workers);
+        int perWorker = (TILE_COUNT + workers - 1) / workers;
+        for (int start = 0; start < TILE_COUNT; start += perWorker) {
+            int from = start;
+            int to = Math.min(TILE_COUNT, start + perWorker);
+            tasks.add(() -> {
+                for (int tile = from; tile < to; tile++) {
+                    extractTileFeatures(tile);
+                }
+                return null;
+            });
+        }
+        this.tileTasks = List.copyOf(tasks);
+    }
+
+    /**
+     * Loads the bundled model weights from the classpath.
+     */
+    private void loadModel() {
+        Properties model = new Properties();
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(MODEL_RESOURCE)) {
+            if (input == null) {
+                throw new IOException(MODEL_RESOURCE + " not found in classpath.");
+            }
+            model.load(input);
+        } catch (IOException e) {
+            log.error("Error while loading local cat model.", e);
+            throw new IllegalStateException("Local cat model unavailable.", e);
+        }
+        weights[WARM] = Float.parseFloat(model.getProperty("weight.warm"));
+        weights[TEXTURE] = Float.parseFloat(model.getProperty("weight.texture"));
+        weights[GREEN] = Float.parseFloat(model.getProperty("weight.green"));
+        weights[BLUE] = Float.parseFloat(model.getProperty("weight.blue"));
+        weights[FEATURES_PER_TILE] = Float.parseFloat(model.getProperty("weight.warm.max"));
+        bias = Float.parseFloat(model.getProperty("bias"));
+    }
+
+    /**
+     * Runs the local classifier and compares its cat confidence against the threshold.
+     *
+     * @param image               Image to be analyzed
+     * @param confidenceThreshold Minimum confidence (0-100) required to confirm detection
+     * @return true if a cat is detected, false otherwise
+     */
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+        if (image == null) {
+            log.warn("Null image provided for analysis.");
+            return false;
+        }
+        return catConfidence(image) >= confidenceThreshold;
+    }
+
+    /**
+     * Runs the local classifier and reports its cat confidence as a single "Cat" label.
+     *
+     * @param image         Image to be analyzed
+     * @param minConfidence Lowest confidence worth reporting
+     * @return the detection result; {@link DetectionResult#NONE} below the floor
+     */
+    @Override
+    public DetectionResult detectLabels(BufferedImage image, float minConfidence) {
+        if (image == null) {
+            log.warn("Null image provided for analysis.");
+            return DetectionResult.NONE;
+        }
+        float confidence = catConfidence(image);
+        if (confidence < minConfidence) {
+            return DetectionResult.NONE;
+        }
+        return new DetectionResult(confidence, List.of(new DetectionResult.Label("Cat", confidence)), List.of());
+    }
+
+    /**
+     * Returns the model's confidence, from 0 to 100, that the image contains a cat.
+     * Calls are serialized because the input tensors are shared between frames.
+     */
+    @Override
+    public synchronized float catConfidence(BufferedImage image) {
+        loadInputTensor(image);
+        runTileTasks();
+
+        float z = bias;
+        for (int feature = 0; feature < FEATURES_PER_TILE; feature++) {
+            float sum = 0f;
+            for (int tile = 0; tile < TILE_COUNT; tile++) {
+                sum += tileFeatures[tile * FEATURES_PER_TILE + feature];
+            }
+            pooledFeatures[feature] = sum / TILE_COUNT;
+        }
+        float maxWarm = 0f;
+        for (int tile = 0; tile < TILE_COUNT; tile++) {
+            maxWarm = Math.max(maxWarm, tileFeatures[tile * FEATURES_PER_TILE + WARM]);
+        }
+        pooledFeatures[FEATURES_PER_TILE] = maxWarm;
+
+        for (int i = 0; i < pooledFeatures.length; i++) {
+            z += weights[i] * pooledFeatures[i];
+        }
+        return (float) (100.0 / (1.0 + Math.exp(-z)));
+    }
+
+    /**
+     * Shuts down the tile worker threads. The service must not be used afterwards.
+     */
+    public void shutdown() {
+        if (tileExecutor != null) {
+            tileExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Scales the frame into the input pixels by averaging every source pixel that falls into
+     * each input pixel, then converts them to a luminance tensor. Unlike a bilinear drawImage,
+     * which only samples a few source pixels per input pixel when shrinking a large frame, the
+     * result does not depend on the Java2D pipeline, so a frame scores the same everywhere.
+     */
+    private void loadInputTensor(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (sourceRow.length < width) {
+            sourceRow = new int[width];
+        }
+        Arrays.fill(channelSums, 0L);
+        Arrays.fill(sampleCounts, 0);
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, sourceRow, 0, width);
+            int row = (int) ((long) y * INPUT_SIZE / height) * INPUT_SIZE;
+            for (int x = 0; x < width; x++) {
+                int target = row + (int) ((long) x * INPUT_SIZE / width);
+                int rgb = sourceRow[x];
+                channelSums[target * 3] += (rgb >> 16) & 0xFF;
+                channelSums[target * 3 + 1] += (rgb >> 8) & 0xFF;
+                channelSums[target * 3 + 2] += rgb & 0xFF;
+                sampleCounts[target]++;
+            }
+        }
+        for (int i = 0; i < inputPixels.length; i++) {
+            int count = sampleCounts[i];
+            if (count == 0) {
+                // A frame smaller than the input leaves gaps; repeat the pixel to the left or above
+                inputPixels[i] = i % INPUT_SIZE > 0 ? inputPixels[i - 1] : i >= INPUT_SIZE ? inputPixels[i - INPUT_SIZE] : 0;
+                continue;
+            }
+            inputPixels[i] = (int) (channelSums[i * 3] / count) << 16
+                    | (int) (channelSums[i * 3 + 1] / count) << 8
+                    | (int) (channelSums[i * 3 + 2] / count);
+        }
+        for (int i = 0; i < inputPixels.length; i++) {
+            int rgb = inputPixels[i];
+            lumaTensor[i] = (0.299f * ((rgb >> 16) & 0xFF) + 0.587f * ((rgb >> 8) & 0xFF) + 0.114f * (rgb & 0xFF)) / 255f;
+        }
+    }
+
+    private void runTileTasks() {
+        if (tileExecutor == null) {
+            for (int tile = 0; tile < TILE_COUNT; tile++) {
+                extractTileFeatures(tile);
+            }
+            return;
+        }
+        try {
+            for (Future<Void> future : tileExecutor.invokeAll(tileTasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during local image analysis.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Local image analysis failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Computes the features of a single tile. Each tile writes only its own slice of
+     * {@code tileFeatures}, so tiles can be processed concurrently without locking.
+     */
+    private void extractTileFeatures(int tile) {
+        int x0 = (tile % TILES_PER_SIDE) * TILE_SIZE;
+        int y0 = (tile / TILES_PER_SIDE) * TILE_SIZE;
+        int warm = 0;
+        int green = 0;
+        int blue = 0;
+        float texture = 0f;
+
+        for (int y = y0; y < y0 + TILE_SIZE; y++) {
+            int row = y * INPUT_SIZE;
+            for (int x = x0; x < x0 + TILE_SIZE; x++) {
+                int rgb = inputPixels[row + x];
+                int r = (rgb >> 16) & 0xFF;
+                int gr = (rgb >> 8) & 0xFF;
+                int b = rgb & 0xFF;
+                float luma = lumaTensor[row + x];
+
+                // Fur is saturated: red must exceed blue by 30% of red, which leaves out beige
+                // and grey surfaces whose red-blue gap only comes from their brightness
+                if (r > gr && gr >= b && (r - b) * 10 >= r * 3 && luma > 0.15f && luma < 0.9f) {
+                    warm++;
+                } else if (gr > r && gr > b) {
+                    green++;
+                } else if (b > r && b > gr) {
+                    blue++;
+                }
+                if (x + 1 < INPUT_SIZE) {
+                    texture += Math.abs(lumaTensor[row + x + 1] - luma);
+                }
+                if (y + 1 < INPUT_SIZE) {
+                    texture += Math.abs(lumaTensor[row + INPUT_SIZE + x] - luma);
+                }
+            }
+        }
+
+        float pixels = TILE_SIZE * TILE_SIZE;
+        int base = tile * FEATURES_PER_TILE;
+        tileFeatures[base + WARM] = warm / pixels;
+        tileFeatures[base + TEXTURE] = texture / pixels;
+        tileFeatures[base + GREEN] = green / pixels;
+        tileFeatures[base + BLUE] = blue / pixels;
+    }
+}
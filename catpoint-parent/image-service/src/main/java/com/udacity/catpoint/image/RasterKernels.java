@@ -0,0 +1,209 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Pre-processing kernels that work directly on the pixel arrays backing a BufferedImage.
+ * TYPE_INT_RGB, TYPE_INT_ARGB and TYPE_3BYTE_BGR images are read through their
+ * DataBufferInt/DataBufferByte without per-pixel {@code getRGB} calls; other image types fall
+ * back to row-wise {@code getRGB}. Every kernel writes into caller-provided arrays so it can
+ * run per frame without allocating, and is a plain counted loop the JIT can unroll and
+ * auto-vectorize.
+ * <p>
+ * When built with the {@code vector} profile ({@code mvn -Pvector}) and run with
+ * {@code --add-modules jdk.incubator.vector}, the difference kernels use explicit SIMD
+ * through the Vector API. Set the system property {@code catpoint.raster.scalar=true} to
+ * force the scalar loops.
+ */
+public final class RasterKernels {
+
+    private static final DifferenceKernels VECTOR_KERNELS = loadVectorKernels();
+
+    /** Whether the difference kernels use the Vector API. */
+    public static final boolean VECTORIZED = VECTOR_KERNELS != null;
+
+    // Integer BT.601 luma weights, scaled by 256
+    private static final int LUMA_R = 77;
+    private static final int LUMA_G = 150;
+    private static final int LUMA_B = 29;
+
+    private RasterKernels() {
+    }
+
+    /**
+     * Loads the Vector API kernels, or returns null if they were not built, the incubator
+     * module is absent or the scalar loops are forced.
+     */
+    private static DifferenceKernels loadVectorKernels() {
+        Optional<Module> vector = ModuleLayer.boot().findModule("jdk.incubator.vector");
+        if (vector.isEmpty() || Boolean.getBoolean("catpoint.raster.scalar")) {
+            return null;
+        }
+        // The module descriptor does not name the incubator module, so read it before linking
+        RasterKernels.class.getModule().addReads(vector.get());
+        try {
+            return (DifferenceKernels) Class.forName(RasterKernels.class.getPackageName() + ".VectorRasterKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts the image to 8-bit luminance, one unsigned byte per pixel in row-major order.
+     *
+     * @param luma destination with room for width * height values
+     */
+    public static void grayscale(BufferedImage image, byte[] luma) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        requireLength(luma, width * height);
+
+        Raster raster = image.getRaster();
+        DataBuffer buffer = raster.getDataBuffer();
+        // Sub-images share a larger backing array; only whole images take the direct path
+        boolean direct = raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+                && buffer.getOffset() == 0;
+
+        int type = image.getType();
+        if (direct && (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)) {
+            int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+            int[] pixels = ((DataBufferInt) buffer).getData();
+            for (int y = 0; y < height; y++) {
+                lumaRowInt(pixels, y * stride, luma, y * width, width);
+            }
+        } else if (direct && type == BufferedImage.TYPE_3BYTE_BGR) {
+            int stride = ((ComponentSampleModel) raster.getSampleModel()).getScanlineStride();
+            byte[] pixels = ((DataBufferByte) buffer).getData();
+            for (int y = 0; y < height; y++) {
+                lumaRowBgr(pixels, y * stride, luma, y * width, width);
+            }
+        } else {
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                lumaRowInt(row, 0, luma, y * width, width);
+            }
+        }
+    }
+
+    private static void lumaRowInt(int[] pixels, int in, byte[] luma, int out, int width) {
+        for (int x = 0; x < width; x++) {
+            int rgb = pixels[in + x];
+            luma[out + x] = (byte) ((LUMA_R * ((rgb >> 16) & 0xFF)
+                    + LUMA_G * ((rgb >> 8) & 0xFF)
+                    + LUMA_B * (rgb & 0xFF)) >> 8);
+        }
+    }
+
+    private static void lumaRowBgr(byte[] pixels, int in, byte[] luma, int out, int width) {
+        for (int x = 0; x < width; x++, in += 3) {
+            luma[out + x] = (byte) ((LUMA_B * (pixels[in] & 0xFF)
+                    + LUMA_G * (pixels[in + 1] & 0xFF)
+                    + LUMA_R * (pixels[in + 2] & 0xFF)) >> 8);
+        }
+    }
+
+    /**
+     * Downsamples a luminance plane by averaging {@code factor} x {@code factor} blocks.
+     * Edge pixels that do not fill a whole block are ignored.
+     *
+     * @param out destination with room for (width / factor) * (height / factor) values
+     */
+    public static void boxDownsample(byte[] luma, int width, int height, int factor, byte[] out) {
+        if (factor < 1) {
+            throw new IllegalArgumentException("factor must be at least 1");
+        }
+        requireLength(luma, width * height);
+        int outWidth = width / factor;
+        int outHeight = height / factor;
+        requireLength(out, outWidth * outHeight);
+
+        int blockArea = factor * factor;
+        for (int oy = 0; oy < outHeight; oy++) {
+            int outRow = oy * outWidth;
+            for (int ox = 0; ox < outWidth; ox++) {
+                int sum = 0;
+                for (int dy = 0; dy < factor; dy++) {
+                    int in = (oy * factor + dy) * width + ox * factor;
+                    for (int dx = 0; dx < factor; dx++) {
+                        sum += luma[in + dx] & 0xFF;
+                    }
+                }
+                out[outRow + ox] = (byte) (sum / blockArea);
+            }
+        }
+    }
+
+    /**
+     * Counts the luminance values of the first {@code length} pixels into 256 bins.
+     * The bins are cleared first.
+     */
+    public static void histogram(byte[] luma, int length, int[] bins) {
+        requireLength(luma, length);
+        requireLength(bins, 256);
+        Arrays.fill(bins, 0, 256, 0);
+        for (int i = 0; i < length; i++) {
+            bins[luma[i] & 0xFF]++;
+        }
+    }
+
+    /**
+     * Writes the per-pixel absolute difference of two luminance planes.
+     *
+     * @return the sum of all differences
+     */
+    public static long absDiff(byte[] a, byte[] b, int length, byte[] out) {
+        requireLength(a, length);
+        requireLength(b, length);
+        requireLength(out, length);
+        return VECTORIZED ? VECTOR_KERNELS.absDiff(a, b, length, out) : absDiffScalar(a, b, length, out);
+    }
+
+    /**
+     * Returns the sum of absolute differences of two luminance planes, e.g. as a motion score.
+     */
+    public static long sumAbsDiff(byte[] a, byte[] b, int length) {
+        requireLength(a, length);
+        requireLength(b, length);
+        return VECTORIZED ? VECTOR_KERNELS.sumAbsDiff(a, b, length) : sumAbsDiffScalar(a, b, length);
+    }
+
+    static long absDiffScalar(byte[] a, byte[] b, int length, byte[] out) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            int diff = Math.abs((a[i] & 0xFF) - (b[i] & 0xFF));
+            out[i] = (byte) diff;
+            sum += diff;
+        }
+        return sum;
+    }
+
+    static long sumAbsDiffScalar(byte[] a, byte[] b, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += Math.abs((a[i] & 0xFF) - (b[i] & 0xFF));
+        }
+        return sum;
+    }
+
+    private static void requireLength(byte[] array, int length) {
+        if (array.length < length) {
+            throw new IllegalArgumentException("array holds " + array.length + " values, " + length + " required");
+        }
+    }
+
+    private static void requireLength(int[] array, int length) {
+        if (array.length < length) {
+            throw new IllegalArgumentException("array holds " + array.length + " values, " + length + " required");
+        }
+    }
+}
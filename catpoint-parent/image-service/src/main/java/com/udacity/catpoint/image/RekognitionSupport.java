@@ -0,0 +1,135 @@
+package com.udacity.catpoint.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.rekognition.model.BoundingBox;
+import software.amazon.awssdk.services.rekognition.model.DetectLabelsRequest;
+import software.amazon.awssdk.services.rekognition.model.DetectLabelsResponse;
+import software.amazon.awssdk.services.rekognition.model.Image;
+import software.amazon.awssdk.services.rekognition.model.Instance;
+import software.amazon.awssdk.services.rekognition.model.Label;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Configuration and request helpers shared by the synchronous and asynchronous
+ * Rekognition-backed image services.
+ */
+final class RekognitionSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(RekognitionSupport.class);
+
+    private RekognitionSupport() {
+    }
+
+    /**
+     * Loads AWS credentials from the configuration file.
+     */
+    static Properties loadAwsProperties() {
+        Properties props = new Properties();
+        try (InputStream input = RekognitionSupport.class.getClassLoader().getResourceAsStream("config.properties")) {
+            if (input == null) {
+                throw new IOException("config.properties not found in classpath.");
+            }
+            props.load(input);
+        } catch (IOException e) {
+            log.error("Error while loading AWS config properties.", e);
+        }
+        return props;
+    }
+
+    /**
+     * Ensures all required AWS properties exist.
+     */
+    static void validateAwsProperties(Properties awsProps) {
+        if (!awsProps.containsKey("aws.id") || !awsProps.containsKey("aws.secret") || !awsProps.containsKey("aws.region")) {
+            log.error("AWS credentials missing or incomplete in configuration.");
+            throw new IllegalArgumentException("Invalid AWS configuration.");
+        }
+    }
+
+    /**
+     * Applies region, credentials and the optional 'aws.endpoint' and 'aws.timeout.ms'
+     * settings to a client builder. A timeout also disables SDK retries, leaving the
+     * retry policy to the caller.
+     */
+    static <B extends AwsClientBuilder<B, C>, C> B configure(B builder, Properties awsProps) {
+        validateAwsProperties(awsProps);
+
+        builder.region(Region.of(awsProps.getProperty("aws.region")))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(
+                                awsProps.getProperty("aws.id"),
+                                awsProps.getProperty("aws.secret"))));
+
+        if (awsProps.containsKey("aws.endpoint")) {
+            builder.endpointOverride(URI.create(awsProps.getProperty("aws.endpoint")));
+        }
+        if (awsProps.containsKey("aws.timeout.ms")) {
+            Duration timeout = Duration.ofMillis(Long.parseLong(awsProps.getProperty("aws.timeout.ms")));
+            builder.overrideConfiguration(config -> config
+                    .apiCallTimeout(timeout)
+                    .apiCallAttemptTimeout(timeout)
+                    .retryStrategy(retry -> retry.maxAttempts(1)));
+        }
+        return builder;
+    }
+
+    /**
+     * Reads an optional integer setting.
+     */
+    static int intProperty(Properties awsProps, String key, int defaultValue) {
+        String value = awsProps.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Encodes the image as JPEG and wraps it in a label detection request.
+     */
+    static DetectLabelsRequest buildRequest(BufferedImage inputImage, float minConfidence) throws IOException {
+        // The encoder returns a fresh array, so the SDK does not need to copy it again
+        return DetectLabelsRequest.builder()
+                .image(Image.builder()
+                        .bytes(SdkBytes.fromByteArrayUnsafe(JpegEncoder.encode(inputImage)))
+                        .build())
+                .minConfidence(minConfidence)
+                .build();
+    }
+
+    /**
+     * Converts a label detection response into a threshold-independent result.
+     */
+    static DetectionResult toDetectionResult(DetectLabelsResponse response) {
+        float catConfidence = 0f;
+        List<DetectionResult.Label> labels = new ArrayList<>();
+        List<DetectionResult.BoundingBox> catBoxes = new ArrayList<>();
+
+        for (Label label : response.labels()) {
+            float confidence = label.confidence() != null ? label.confidence() : 0f;
+            labels.add(new DetectionResult.Label(label.name(), confidence));
+
+            if ("cat".equalsIgnoreCase(label.name())) {
+                catConfidence = Math.max(catConfidence, confidence);
+                for (Instance instance : label.instances()) {
+                    BoundingBox box = instance.boundingBox();
+                    if (box != null) {
+                        catBoxes.add(new DetectionResult.BoundingBox(box.left(), box.top(), box.width(), box.height()));
+                    }
+                }
+            }
+        }
+        return new DetectionResult(catConfidence, labels, catBoxes);
+    }
+}
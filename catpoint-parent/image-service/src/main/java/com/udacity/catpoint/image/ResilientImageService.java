@@ -0,0 +1,322 @@
+package com.udacity.catpoint.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Latency-bounded decorator for an ImageService, normally an AwsImageService created
+ * with {@link AwsImageService#withFailuresPropagated()}.
+ * Each call gets a deadline; if the first attempt is slower than the recent p95 latency a
+ * hedged second attempt is started and the first answer wins. A circuit breaker fails fast
+ * while the primary is degraded, and an adaptive limit sheds calls beyond what the primary
+ * currently sustains. Failed, rejected and timed-out calls are answered by the fallback
+ * service when one is configured, or reported as "no cat" otherwise.
+ * <p>
+ * A call keeps its concurrency slot until its attempt and any hedge have actually returned,
+ * even when the caller has already given up at the deadline, so the limit bounds the real
+ * number of requests in flight and of call threads during an outage.
+ * <p>
+ * Attempts read a copy of the image taken on the calling thread, from a pool of this
+ * service's own, which goes back to that pool when the last attempt returns. The caller's
+ * image is therefore not read after the call returns, and may be a pooled frame buffer that
+ * is released straight away, even when an attempt outlives the deadline.
+ */
+public class ResilientImageService implements ImageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientImageService.class);
+
+    private final ImageService primary;
+    private ImageService fallback;
+    private Duration deadline = Duration.ofSeconds(2);
+    private boolean hedging = true;
+    private Duration minHedgeDelay = Duration.ofMillis(50);
+    private CircuitBreaker circuitBreaker = new CircuitBreaker(5, Duration.ofSeconds(30));
+    private AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(8, 1, 64);
+    private final LatencyTracker latencies = new LatencyTracker(128);
+    private final FrameBufferPool snapshots = new FrameBufferPool();
+
+    private final ExecutorService callExecutor = Executors.newCachedThreadPool(daemonThreads("resilient-image-call"));
+    private final ScheduledExecutorService hedgeScheduler =
+            Executors.newSingleThreadScheduledExecutor(daemonThreads("resilient-image-hedge"));
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ResilientImageService(ImageService primary) {
+        this.primary = Objects.requireNonNull(primary, "primary cannot be null");
+    }
+
+    /**
+     * Sets the service used when the primary fails, times out or is rejected.
+     *
+     * @return this instance for chaining
+     */
+    public ResilientImageService withFallback(ImageService fallback) {
+        this.fallback = fallback;
+        return this;
+    }
+
+    /**
+     * Sets the total time budget of a call, including any hedged attempt.
+     *
+     * @return this instance for chaining
+     */
+    public ResilientImageService withDeadline(Duration deadline) {
+        this.deadline = Objects.requireNonNull(deadline);
+        return this;
+    }
+
+    /**
+     * Enables or disables hedged requests. The hedge delay is the recent p95 latency,
+     * but never less than {@code minHedgeDelay}.
+     *
+     * @return this instance for chaining
+     */
+    public ResilientImageService withHedging(boolean enabled, Duration minHedgeDelay) {
+        this.hedging = enabled;
+        this.minHedgeDelay = Objects.requireNonNull(minHedgeDelay);
+        return this;
+    }
+
+    /**
+     * @return this instance for chaining
+     */
+    public ResilientImageService withCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = Objects.requireNonNull(circuitBreaker);
+        return this;
+    }
+
+    /**
+     * @return this instance for chaining
+     */
+    public ResilientImageService withConcurrencyLimit(AdaptiveConcurrencyLimit concurrencyLimit) {
+        this.concurrencyLimit = Objects.requireNonNull(concurrencyLimit);
+        return this;
+    }
+
+    /**
+     * Asks the primary within the deadline, hedging slow attempts, and falls back on failure.
+     *
+     * @param image               Image to be analyzed
+     * @param confidenceThreshold Minimum confidence required to confirm detection
+     * @return true if a cat is detected, false otherwise
+     */
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+        if (image == null) {
+            log.warn("Null image provided for analysis.");
+            return false;
+        }
+        return call(image, (service, frame) -> service.imageContainsCat(frame, confidenceThreshold), false);
+    }
+
+    /**
+     * Detects labels through the primary with the same deadline, hedging and fallback rules.
+     *
+     * @param image         Image to be analyzed
+     * @param minConfidence Lowest label confidence to request
+     * @return the detection result; {@link DetectionResult#NONE} when unavailable and no fallback is set
+     */
+    @Override
+    public DetectionResult detectLabels(BufferedImage image, float minConfidence) {
+        if (image == null) {
+            log.warn("Null image provided for analysis.");
+            return DetectionResult.NONE;
+        }
+        return call(image, (service, frame) -> service.detectLabels(frame, minConfidence), DetectionResult.NONE);
+    }
+
+    private <T> T call(BufferedImage image, BiFunction<ImageService, BufferedImage, T> operation, T unavailable) {
+        calls.increment();
+
+        if (!concurrencyLimit.tryAcquire()) {
+            rejections.increment();
+            return fallback(image, operation, unavailable, "concurrency limit reached");
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            concurrencyLimit.release();
+            rejections.increment();
+            return fallback(image, operation, unavailable, "circuit open");
+        }
+
+        long start = System.nanoTime();
+        Attempts<T> attempts = new Attempts<>(operation, snapshots.copyOf(image));
+        startAttempt(attempts);
+        ScheduledFuture<?> hedge = hedging ? scheduleHedge(attempts) : null;
+        CompletableFuture<T> result = attempts.result;
+
+        try {
+            T value = result.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            latencies.record(System.nanoTime() - start);
+            concurrencyLimit.recordSuccess();
+            circuitBreaker.recordSuccess();
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            recordFailure();
+            return fallback(image, operation, unavailable, "deadline exceeded");
+        } catch (ExecutionException e) {
+            failures.increment();
+            recordFailure();
+            log.error("Image analysis failed.", e.getCause());
+            return fallback(image, operation, unavailable, "primary failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.release();
+            return unavailable;
+        } finally {
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+        }
+    }
+
+    private <T> void startAttempt(Attempts<T> attempts) {
+        callExecutor.execute(() -> {
+            T value = null;
+            RuntimeException failure = null;
+            try {
+                value = attempts.operation.apply(primary, attempts.image);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            // Free the slot and the copy before answering, so a caller that returns sees them released
+            if (attempts.running.decrementAndGet() == 0) {
+                snapshots.release(attempts.image);
+                concurrencyLimit.release();
+            }
+            if (failure == null) {
+                attempts.result.complete(value);
+            } else if (attempts.pending.decrementAndGet() == 0) {
+                // Only the last outstanding attempt reports failure; an earlier one may still succeed
+                attempts.result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private <T> ScheduledFuture<?> scheduleHedge(Attempts<T> attempts) {
+        long p95 = latencies.percentile(0.95, minHedgeDelay.toNanos());
+        long delay = Math.max(minHedgeDelay.toNanos(), p95);
+        if (delay >= deadline.toNanos()) {
+            return null;
+        }
+        return hedgeScheduler.schedule(() -> {
+            // Only hedge while the first attempt still holds the slot and the copy
+            if (!attempts.result.isDone() && attempts.running.getAndUpdate(n -> n == 0 ? 0 : n + 1) > 0) {
+                hedges.increment();
+                attempts.pending.incrementAndGet();
+                startAttempt(attempts);
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordFailure() {
+        concurrencyLimit.recordFailure();
+        circuitBreaker.recordFailure();
+    }
+
+    private <T> T fallback(BufferedImage image, BiFunction<ImageService, BufferedImage, T> operation, T unavailable,
+                           String reason) {
+        if (fallback == null) {
+            log.warn("Image analysis unavailable ({}); reporting no cat.", reason);
+            return unavailable;
+        }
+        fallbacks.increment();
+        log.warn("Image analysis unavailable ({}); using fallback service.", reason);
+        // Runs on the calling thread, so it can read the caller's image
+        return operation.apply(fallback, image);
+    }
+
+    /**
+     * Stops the worker threads. The service must not be used afterwards.
+     */
+    public void shutdown() {
+        callExecutor.shutdownNow();
+        hedgeScheduler.shutdownNow();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit.getLimit();
+    }
+
+    /**
+     * Returns the recent p95 latency of successful calls in milliseconds.
+     */
+    public double getP95LatencyMillis() {
+        return latencies.percentile(0.95, 0L) / 1e6;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * The attempts of one call: the first and any hedge, which share the answer, the slot and
+     * the copy of the image.
+     */
+    private static final class Attempts<T> {
+        private final BiFunction<ImageService, BufferedImage, T> operation;
+        private final BufferedImage image;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        // The slot and the copy are released when the last running attempt returns
+        private final AtomicInteger running = new AtomicInteger(1);
+
+        private Attempts(BiFunction<ImageService, BufferedImage, T> operation, BufferedImage image) {
+            this.operation = operation;
+            this.image = image;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,265 @@
+package com.udacity.catpoint.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * ImageService that creates its delegate on a background thread instead of on the startup
+ * path, normally wrapping an AwsImageService whose constructor loads configuration and builds
+ * the Rekognition client.
+ * Once created, the delegate can be sent a few warm-up requests with a synthetic frame, so TLS
+ * handshakes, connection pools and JIT compilation are done before the first real frame.
+ * Calls made while initialization is still running wait for it, up to a timeout.
+ */
+public class WarmedImageService implements ImageService {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmedImageService.class);
+
+    private final Supplier<? extends ImageService> factory;
+    private int warmUpRequests = 0;
+    private BufferedImage warmUpImage;
+    private Duration initializationTimeout = Duration.ofSeconds(30);
+
+    private CompletableFuture<ImageService> delegate;
+    private volatile long initializationNanos = -1;
+    private volatile long warmUpNanos = -1;
+    private volatile long firstCallNanos = -1;
+    private final LatencyTracker steadyStateLatencies = new LatencyTracker(256);
+
+    /**
+     * @param factory creates the delegate; called once, on the background thread
+     */
+    public WarmedImageService(Supplier<? extends ImageService> factory) {
+        this.factory = Objects.requireNonNull(factory, "factory cannot be null");
+    }
+
+    /**
+     * Sends the given number of warm-up requests after the delegate is created. Warm-up
+     * results are discarded and failures only logged.
+     *
+     * @return this instance for chaining
+     */
+    public synchronized WarmedImageService withWarmUp(int requests) {
+        if (requests < 0) {
+            throw new IllegalArgumentException("requests cannot be negative");
+        }
+        this.warmUpRequests = requests;
+        return this;
+    }
+
+    /**
+     * Sets the frame used for warm-up requests instead of a small synthetic one.
+     *
+     * @return this instance for chaining
+     */
+    public synchronized WarmedImageService withWarmUpImage(BufferedImage image) {
+        this.warmUpImage = Objects.requireNonNull(image);
+        return this;
+    }
+
+    /**
+     * Sets how long a call waits for initialization before reporting "no cat".
+     *
+     * @return this instance for chaining
+     */
+    public synchronized WarmedImageService withInitializationTimeout(Duration timeout) {
+        this.initializationTimeout = Objects.requireNonNull(timeout);
+        return this;
+    }
+
+    /**
+     * Starts creating and warming up the delegate on a background thread. Calling it again has
+     * no effect; if it is never called, the first analysis call starts it.
+     *
+     * @return this instance for chaining
+     */
+    public synchronized WarmedImageService start() {
+        if (delegate == null) {
+            delegate = new CompletableFuture<>();
+            Thread thread = new Thread(this::initialize, "warmed-image-service-init");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return this;
+    }
+
+    private void initialize() {
+        long start = System.nanoTime();
+        ImageService service;
+        try {
+            service = factory.get();
+        } catch (RuntimeException e) {
+            log.error("Failed to initialize image service.", e);
+            delegate.completeExceptionally(e);
+            return;
+        }
+        initializationNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        BufferedImage image = warmUpImage != null ? warmUpImage : syntheticFrame();
+        for (int i = 0; i < warmUpRequests; i++) {
+            try {
+                service.detectLabels(image, DetectionResult.DEFAULT_MIN_CONFIDENCE);
+            } catch (RuntimeException e) {
+                log.warn("Image service warm-up request failed: {}", e.getMessage());
+            }
+        }
+        warmUpNanos = System.nanoTime() - start;
+        delegate.complete(service);
+    }
+
+    private static BufferedImage syntheticFrame() {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.GRAY);
+            g.fillRect(0, 0, 64, 64);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Asks the delegate, waiting for initialization if it has not finished yet.
+     *
+     * @param image               Image to be analyzed
+     * @param confidenceThreshold Minimum confidence required to confirm detection
+     * @return true if a cat is detected, false otherwise or if the delegate is unavailable
+     */
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+        if (image == null) {
+            log.warn("Null image provided for analysis.");
+            return false;
+        }
+        long start = System.nanoTime();
+        ImageService service = awaitDelegate();
+        if (service == null) {
+            return false;
+        }
+        try {
+            return service.imageContainsCat(image, confidenceThreshold);
+        } finally {
+            recordCall(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Detects labels through the delegate, waiting for initialization if it has not finished yet.
+     *
+     * @param image         Image to be analyzed
+     * @param minConfidence Lowest label confidence to request
+     * @return the detection result; {@link DetectionResult#NONE} if the delegate is unavailable
+     */
+    @Override
+    public DetectionResult detectLabels(BufferedImage image, float minConfidence) {
+        if (image == null) {
+            log.warn("Null image provided for analysis.");
+            return DetectionResult.NONE;
+        }
+        long start = System.nanoTime();
+        ImageService service = awaitDelegate();
+        if (service == null) {
+            return DetectionResult.NONE;
+        }
+        try {
+            return service.detectLabels(image, minConfidence);
+        } finally {
+            recordCall(System.nanoTime() - start);
+        }
+    }
+
+    private ImageService awaitDelegate() {
+        CompletableFuture<ImageService> future;
+        Duration timeout;
+        synchronized (this) {
+            start();
+            future = delegate;
+            timeout = initializationTimeout;
+        }
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Image service still initializing after {} ms; reporting no cat.", timeout.toMillis());
+        } catch (ExecutionException e) {
+            log.error("Image service unavailable; reporting no cat.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private synchronized void recordCall(long nanos) {
+        if (firstCallNanos < 0) {
+            firstCallNanos = nanos;
+        } else {
+            steadyStateLatencies.record(nanos);
+        }
+    }
+
+    /**
+     * Returns true once the delegate has been created and warmed up.
+     */
+    public synchronized boolean isReady() {
+        return delegate != null && delegate.isDone() && !delegate.isCompletedExceptionally();
+    }
+
+    /**
+     * Returns the time spent creating the delegate in milliseconds, or -1 if not finished.
+     */
+    public double getInitializationMillis() {
+        return toMillis(initializationNanos);
+    }
+
+    /**
+     * Returns the time spent on warm-up requests in milliseconds, or -1 if not finished.
+     */
+    public double getWarmUpMillis() {
+        return toMillis(warmUpNanos);
+    }
+
+    /**
+     * Returns the latency of the first analysis call in milliseconds, including any wait for
+     * initialization, or -1 if there was none yet.
+     */
+    public double getFirstCallMillis() {
+        return toMillis(firstCallNanos);
+    }
+
+    /**
+     * Returns the median latency of the calls after the first one in milliseconds.
+     */
+    public double getSteadyStateMedianMillis() {
+        return steadyStateLatencies.percentile(0.5, 0L) / 1e6;
+    }
+
+    /**
+     * Returns the p95 latency of the calls after the first one in milliseconds.
+     */
+    public double getSteadyStateP95Millis() {
+        return steadyStateLatencies.percentile(0.95, 0L) / 1e6;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos < 0 ? -1 : nanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WarmedImageService[initMs=%.1f, warmUpMs=%.1f, firstCallMs=%.2f, steadyP50Ms=%.2f, steadyP95Ms=%.2f]",
+                getInitializationMillis(), getWarmUpMillis(), getFirstCallMillis(),
+                getSteadyStateMedianMillis(), getSteadyStateP95Millis());
+    }
+}
@@ -4,7 +4,9 @@ module com.udacity.catpoint.image {
     requires software.amazon.awssdk.auth;
     requires software.amazon.awssdk.core;
     requires software.amazon.awssdk.regions;
+    requires software.amazon.awssdk.awscore;
     requires software.amazon.awssdk.services.rekognition;
+    requires software.amazon.awssdk.http.nio.netty;
 
     exports com.udacity.catpoint.image;
 
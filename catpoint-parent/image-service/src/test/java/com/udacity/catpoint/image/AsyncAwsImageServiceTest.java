@@ -0,0 +1,66 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests AsyncAwsImageService against a local Rekognition stand-in with fixed injected latency.
+ * Burst throughput is measured by AsyncAwsImageServiceBenchmark.
+ */
+public class AsyncAwsImageServiceTest {
+
+    private static final long LATENCY_MILLIS = 100;
+    private static final int REQUESTS = 8;
+
+    private final BufferedImage frame = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+
+    @Test
+    void imageContainsCat_shouldDetectCatFromStandIn() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn()) {
+            AsyncAwsImageService service = new AsyncAwsImageService(standIn.awsProperties(2000));
+
+            assertTrue(service.imageContainsCat(frame, 50.0f));
+            service.close();
+        }
+    }
+
+    @Test
+    void imageContainsCatAsync_withInjectedErrors_shouldFailWhenPropagating() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn().withErrorRate(1.0)) {
+            AsyncAwsImageService service = new AsyncAwsImageService(standIn.awsProperties(2000)).withFailuresPropagated();
+
+            assertThrows(ImageServiceException.class, () -> service.imageContainsCat(frame, 50.0f));
+            service.close();
+        }
+    }
+
+    // Many cameras share two event-loop threads while all requests are in flight at once
+    @Test
+    void concurrentRequests_shouldOverlapOnFewThreads() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn().withLatencyMillis(LATENCY_MILLIS)) {
+            Properties props = standIn.awsProperties(5000);
+            props.setProperty("aws.async.maxConcurrency", Integer.toString(REQUESTS));
+            props.setProperty("aws.async.eventLoopThreads", "2");
+            AsyncAwsImageService service = new AsyncAwsImageService(props).withFailuresPropagated();
+
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                results.add(service.imageContainsCatAsync(frame, 50.0f));
+            }
+            for (CompletableFuture<Boolean> result : results) {
+                assertTrue(result.join());
+            }
+
+            assertEquals(REQUESTS, standIn.getRequestCount());
+            assertTrue(standIn.getMaxInFlight() > 2, "requests did not overlap: " + standIn.getMaxInFlight());
+            service.close();
+        }
+    }
+}
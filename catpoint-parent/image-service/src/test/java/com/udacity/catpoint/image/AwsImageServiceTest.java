@@ -0,0 +1,64 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests AwsImageService against a local Rekognition stand-in.
+ */
+public class AwsImageServiceTest {
+
+    private final BufferedImage frame = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+
+    @Test
+    void detectLabels_shouldReturnConfidencesAndBoxes() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn()) {
+            AwsImageService service = new AwsImageService(standIn.awsProperties(2000));
+
+            DetectionResult result = service.detectLabels(frame, DetectionResult.DEFAULT_MIN_CONFIDENCE);
+
+            assertEquals(97.5f, result.getCatConfidence(), 0.001f);
+            assertEquals(2, result.getLabels().size());
+            assertEquals(new DetectionResult.BoundingBox(0.1f, 0.2f, 0.5f, 0.6f), result.getCatBoxes().get(0));
+        }
+    }
+
+    // One detection call answers any number of threshold decisions
+    @Test
+    void detectionResult_shouldBeReusableAcrossThresholds() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn()) {
+            AwsImageService service = new AwsImageService(standIn.awsProperties(2000));
+
+            DetectionResult result = service.detectLabels(frame, DetectionResult.DEFAULT_MIN_CONFIDENCE);
+
+            assertEquals(Optional.of(true), result.containsCat(50.0f));
+            assertEquals(Optional.of(true), result.containsCat(97.5f));
+            assertEquals(Optional.of(false), result.containsCat(99.0f));
+            assertEquals(1, standIn.getRequestCount());
+        }
+    }
+
+    @Test
+    void imageContainsCat_shouldApplyThresholdToReturnedConfidence() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn()) {
+            AwsImageService service = new AwsImageService(standIn.awsProperties(2000));
+
+            assertTrue(service.imageContainsCat(frame, 50.0f));
+            assertFalse(service.imageContainsCat(frame, 99.0f));
+        }
+    }
+
+    @Test
+    void detectLabels_noLabels_shouldReturnNone() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn().withNoLabels()) {
+            AwsImageService service = new AwsImageService(standIn.awsProperties(2000));
+
+            assertEquals(DetectionResult.NONE, service.detectLabels(frame, DetectionResult.DEFAULT_MIN_CONFIDENCE));
+            assertFalse(service.imageContainsCat(frame, 0.0f));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CascadingImageService.
+ */
+public class CascadingImageServiceTest {
+
+    private final BufferedImage frame = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+    private final ImageService delegate = (image, threshold) -> {
+        delegateCalls.incrementAndGet();
+        return true;
+    };
+
+    @Test
+    void clearNegative_shouldBeDecidedLocally() {
+        CascadingImageService cascade = new CascadingImageService(image -> 10f, delegate);
+
+        assertFalse(cascade.imageContainsCat(frame, 50.0f));
+        assertEquals(0, delegateCalls.get());
+    }
+
+    @Test
+    void clearPositive_shouldBeDecidedLocally() {
+        CascadingImageService cascade = new CascadingImageService(image -> 90f, delegate);
+
+        assertTrue(cascade.imageContainsCat(frame, 50.0f));
+        assertEquals(0, delegateCalls.get());
+    }
+
+    @Test
+    void uncertainScore_shouldEscalateToDelegate() {
+        CascadingImageService cascade = new CascadingImageService(image -> 45f, delegate);
+
+        assertTrue(cascade.imageContainsCat(frame, 50.0f));
+        assertEquals(1, delegateCalls.get());
+    }
+
+    @Test
+    void bandEdges_shouldFollowRequestedThreshold() {
+        CascadingImageService cascade = new CascadingImageService(image -> 45f, delegate).withBandWidth(10f);
+
+        // 45 is inside [40, 60] for threshold 50 but a clear negative for threshold 80
+        cascade.imageContainsCat(frame, 50.0f);
+        assertFalse(cascade.imageContainsCat(frame, 80.0f));
+        assertEquals(1, delegateCalls.get());
+    }
+
+    @Test
+    void escalationRate_shouldCountEscalatedFrames() {
+        float[] scores = {5f, 50f, 95f, 55f};
+        AtomicInteger next = new AtomicInteger();
+        CascadingImageService cascade = new CascadingImageService(image -> scores[next.getAndIncrement()], delegate);
+
+        for (int i = 0; i < scores.length; i++) {
+            cascade.imageContainsCat(frame, 50.0f);
+        }
+
+        assertEquals(4, cascade.getFrameCount());
+        assertEquals(2, cascade.getEscalationCount());
+        assertEquals(0.5, cascade.getEscalationRate(), 0.0001);
+    }
+
+    @Test
+    void frameLatency_tailShouldShowTheEscalatedFrames() {
+        AtomicInteger next = new AtomicInteger();
+        ImageService slowDelegate = (image, threshold) -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        };
+        // One frame in ten is uncertain
+        CascadingImageService cascade = new CascadingImageService(
+                image -> next.getAndIncrement() % 10 == 0 ? 50f : 5f, slowDelegate);
+
+        for (int i = 0; i < 100; i++) {
+            cascade.imageContainsCat(frame, 50.0f);
+        }
+
+        assertTrue(cascade.getFrameLatencyMillis(0.5) < 20.0, cascade.toString());
+        assertTrue(cascade.getFrameLatencyMillis(0.99) >= 20.0, cascade.toString());
+        assertTrue(cascade.getDelegateLatencyMillis(0.5) >= 20.0, cascade.toString());
+        assertTrue(cascade.getLocalLatencyMillis(0.99) < 20.0, cascade.toString());
+    }
+
+    @Test
+    void nullImage_shouldNotReachEitherTier() {
+        CascadingImageService cascade = new CascadingImageService(image -> {
+            throw new AssertionError("scorer should not be called");
+        }, delegate);
+
+        assertFalse(cascade.imageContainsCat(null, 50.0f));
+        assertEquals(0, cascade.getFrameCount());
+    }
+
+    @Test
+    void detectLabels_clearScore_shouldReportTheLocalConfidence() {
+        CascadingImageService cascade = new CascadingImageService(image -> 90f, delegate);
+
+        DetectionResult result = cascade.detectLabels(frame, 10.0f);
+
+        assertEquals(90f, result.getCatConfidence(), 0f);
+        assertFalse(result.isThresholdBound());
+        assertEquals(0, delegateCalls.get());
+    }
+
+    @Test
+    void detectLabels_scoreBelowFloor_shouldReturnNone() {
+        CascadingImageService cascade = new CascadingImageService(image -> 10f, delegate);
+
+        assertEquals(DetectionResult.NONE, cascade.detectLabels(frame, 20.0f));
+        assertEquals(0, delegateCalls.get());
+    }
+
+    @Test
+    void detectLabels_uncertainScore_shouldReturnTheDelegatesLabels() {
+        DetectionResult remote = new DetectionResult(73f, List.of(new DetectionResult.Label("Cat", 73f)), List.of());
+        ImageService labelling = new ImageService() {
+            @Override
+            public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+                throw new AssertionError("detectLabels should be delegated");
+            }
+
+            @Override
+            public DetectionResult detectLabels(BufferedImage image, float minConfidence) {
+                delegateCalls.incrementAndGet();
+                return remote;
+            }
+        };
+        CascadingImageService cascade = new CascadingImageService(image -> 55f, labelling);
+
+        assertSame(remote, cascade.detectLabels(frame, 10.0f));
+        assertEquals(1, cascade.getEscalationCount());
+    }
+
+    @Test
+    void detectLabels_bandShouldFollowTheDetectionThreshold() {
+        CascadingImageService cascade = new CascadingImageService(image -> 45f, delegate).withDetectionThreshold(80f);
+
+        assertEquals(45f, cascade.detectLabels(frame, 10.0f).getCatConfidence(), 0f);
+        assertEquals(0, delegateCalls.get());
+    }
+
+    @Test
+    void defaultDetectLabels_shouldOnlyAnswerAtTheDecisionThreshold() {
+        DetectionResult result = delegate.detectLabels(frame, 50.0f);
+
+        assertTrue(result.isThresholdBound());
+        assertEquals(50f, result.getCatConfidence(), 0f);
+        assertEquals(Optional.of(true), result.containsCat(50.0f));
+        assertEquals(Optional.of(true), result.containsCat(30.0f));
+        assertEquals(Optional.empty(), result.containsCat(90.0f));
+    }
+}
@@ -0,0 +1,199 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FakeImageService load profiles and the latency distributions they sample.
+ */
+public class FakeImageServiceTest {
+
+    private static final long SEED = 7;
+
+    private final BufferedImage frame = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+
+    @Test
+    void sameSeed_shouldGiveSameResults() {
+        FakeImageService first = new FakeImageService(SEED);
+        FakeImageService second = new FakeImageService(SEED);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.imageContainsCat(frame, 50.0f), second.imageContainsCat(frame, 50.0f));
+            assertEquals(first.detectLabels(frame, 50.0f), second.detectLabels(frame, 50.0f));
+        }
+    }
+
+    @Test
+    void sameSeed_shouldGiveTheSameAnswerThroughEitherMethod() {
+        FakeImageService coinToss = new FakeImageService(SEED);
+        FakeImageService coinTossLabels = new FakeImageService(SEED);
+        FakeImageService biased = new FakeImageService(SEED).withCatProbability(0.3);
+        FakeImageService biasedLabels = new FakeImageService(SEED).withCatProbability(0.3);
+
+        for (int i = 0; i < 200; i++) {
+            float threshold = i % 100;
+            assertEquals(coinTossLabels.detectLabels(frame, threshold).containsCat(threshold).orElseThrow(),
+                    coinToss.imageContainsCat(frame, threshold));
+            assertEquals(biasedLabels.detectLabels(frame, threshold).containsCat(threshold).orElseThrow(),
+                    biased.imageContainsCat(frame, threshold));
+        }
+    }
+
+    @Test
+    void loadProfile_shouldNotChangeResultsForASeed() {
+        FakeImageService plain = new FakeImageService(SEED);
+        FakeImageService loaded = new FakeImageService(SEED)
+                .withLatency(LatencyDistribution.uniform(Duration.ZERO, Duration.ofNanos(1_000)))
+                .withErrorRate(0.3);
+
+        int failures = 0;
+        for (int i = 0; i < 200; i++) {
+            boolean expected = plain.imageContainsCat(frame, 50.0f);
+            try {
+                assertEquals(expected, loaded.imageContainsCat(frame, 50.0f));
+            } catch (ImageServiceException e) {
+                failures++;
+            }
+        }
+        assertTrue(failures > 30 && failures < 90, "failures: " + failures);
+    }
+
+    @Test
+    void errorRate_shouldFailThatFractionOfCalls() {
+        FakeImageService service = new FakeImageService(SEED).withErrorRate(0.1);
+
+        int failures = 0;
+        for (int i = 0; i < 10_000; i++) {
+            try {
+                service.detectLabels(frame, 50.0f);
+            } catch (ImageServiceException e) {
+                failures++;
+            }
+        }
+        assertEquals(1_000, failures, 100);
+    }
+
+    @Test
+    void catProbability_shouldSetTheDetectionRate() {
+        FakeImageService service = new FakeImageService(SEED).withCatProbability(0.05);
+
+        int cats = 0;
+        int labelledCats = 0;
+        for (int i = 0; i < 10_000; i++) {
+            cats += service.imageContainsCat(frame, 50.0f) ? 1 : 0;
+            labelledCats += service.detectLabels(frame, 50.0f).getCatConfidence() >= 50f ? 1 : 0;
+        }
+        assertEquals(500, cats, 75);
+        assertEquals(500, labelledCats, 75);
+    }
+
+    @Test
+    void fixedResult_shouldOverrideCatProbability() {
+        FakeImageService service = new FakeImageService(SEED).withCatProbability(0).withFixedResult(true);
+
+        assertTrue(service.imageContainsCat(frame, 50.0f));
+        assertEquals(100f, service.detectLabels(frame, 50.0f).getCatConfidence(), 0f);
+    }
+
+    @Test
+    void fixedLatency_shouldDelayEveryCall() {
+        FakeImageService service = new FakeImageService(SEED).withLatency(LatencyDistribution.fixed(Duration.ofMillis(5)));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            service.imageContainsCat(frame, 50.0f);
+        }
+        assertTrue(System.nanoTime() - start >= 50_000_000L);
+    }
+
+    @Test
+    void lognormal_shouldHaveTheMedianAndALongTail() {
+        long[] samples = sample(LatencyDistribution.lognormal(Duration.ofMillis(100), 0.5), 100_000);
+
+        // p99 of a lognormal is median * e^(2.326 sigma)
+        assertEquals(100e6, samples[50_000], 3e6);
+        assertEquals(100e6 * Math.exp(2.326 * 0.5), samples[99_000], 12e6);
+    }
+
+    @Test
+    void bimodal_shouldSpikeWithTheGivenProbability() {
+        LatencyDistribution spiky = LatencyDistribution.bimodal(
+                LatencyDistribution.fixed(Duration.ofMillis(20)), LatencyDistribution.fixed(Duration.ofSeconds(2)), 0.02);
+
+        long[] samples = sample(spiky, 100_000);
+
+        long spikes = Arrays.stream(samples).filter(nanos -> nanos == 2_000_000_000L).count();
+        assertEquals(2_000, spikes, 200);
+        assertEquals(20_000_000L, samples[97_000]);
+        assertEquals(2_000_000_000L, samples[99_000]);
+    }
+
+    @Test
+    void distributions_shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.fixed(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.uniform(Duration.ofMillis(2), Duration.ofMillis(1)));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.lognormal(Duration.ofMillis(1), -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> LatencyDistribution.bimodal(LatencyDistribution.NONE, LatencyDistribution.NONE, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> new FakeImageService().withErrorRate(2));
+        assertThrows(IllegalArgumentException.class, () -> new FakeImageService().withConcurrencyLimit(0));
+    }
+
+    @Test
+    void concurrencyLimit_shouldQueueExtraCalls() throws Exception {
+        FakeImageService service = new FakeImageService(SEED).withConcurrencyLimit(2)
+                .withLatency(LatencyDistribution.fixed(Duration.ofMillis(20)));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            long start = System.nanoTime();
+            List<Future<Boolean>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(executor.submit(() -> service.imageContainsCat(frame, 50.0f)));
+            }
+            for (Future<Boolean> call : calls) {
+                call.get();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            // 8 calls of 20 ms, two at a time
+            assertTrue(elapsed >= 80_000_000L, "elapsed " + elapsed / 1e6 + " ms");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void interruptedCall_shouldFailPromptly() {
+        FakeImageService service = new FakeImageService(SEED).withLatency(LatencyDistribution.fixed(Duration.ofSeconds(5)));
+
+        Thread.currentThread().interrupt();
+        long start = System.nanoTime();
+        try {
+            assertThrows(ImageServiceException.class, () -> service.imageContainsCat(frame, 50.0f));
+        } finally {
+            Thread.interrupted();
+        }
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    }
+
+    private static long[] sample(LatencyDistribution distribution, int count) {
+        Random random = new Random(SEED);
+        long[] samples = new long[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = distribution.sampleNanos(random);
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+}
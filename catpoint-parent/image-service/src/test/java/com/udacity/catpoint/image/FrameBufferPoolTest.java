@@ -0,0 +1,117 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FrameBufferPool. Its allocation per frame is measured by
+ * FrameBufferPoolBenchmark.
+ */
+public class FrameBufferPoolTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    private FrameBufferPool pool;
+    private byte[] jpeg;
+
+    @BeforeEach
+    void setup() throws IOException {
+        pool = new FrameBufferPool(2);
+        BufferedImage frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillOval(100, 100, 300, 200);
+        g.dispose();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(frame, "jpg", output);
+        jpeg = output.toByteArray();
+    }
+
+    @Test
+    void releasedBuffer_shouldBeReusedForSameFormat() {
+        BufferedImage first = pool.acquire(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        pool.release(first);
+
+        assertSame(first, pool.acquire(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB));
+        assertNotSame(first, pool.acquire(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB));
+        assertEquals(1, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+    }
+
+    @Test
+    void copyOf_shouldCopyIntoAPooledBuffer() {
+        BufferedImage original = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        original.setRGB(7, 9, 0x123456);
+        BufferedImage idle = pool.acquire(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        pool.release(idle);
+
+        BufferedImage copy = pool.copyOf(original);
+
+        assertSame(idle, copy);
+        assertEquals(0x123456, copy.getRGB(7, 9) & 0xFFFFFF);
+        original.setRGB(7, 9, 0);
+        assertEquals(0x123456, copy.getRGB(7, 9) & 0xFFFFFF);
+    }
+
+    @Test
+    void differentFormat_shouldNotShareBuffers() {
+        pool.release(pool.acquire(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB));
+
+        BufferedImage other = pool.acquire(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+        assertEquals(BufferedImage.TYPE_3BYTE_BGR, other.getType());
+        assertEquals(0, pool.getHitCount());
+    }
+
+    @Test
+    void idleBuffers_shouldBeBoundedPerFormat() {
+        for (int i = 0; i < 5; i++) {
+            pool.release(new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB));
+        }
+
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(3, pool.getDiscardCount());
+    }
+
+    @Test
+    void read_shouldDecodeIntoReleasedBuffer() throws IOException {
+        BufferedImage first = pool.read(jpeg, 0, jpeg.length);
+        pool.release(first);
+        BufferedImage second = pool.read(jpeg, 0, jpeg.length);
+
+        assertSame(first, second);
+        assertEquals(WIDTH, second.getWidth());
+        assertEquals(HEIGHT, second.getHeight());
+        int expected = ImageIO.read(new ByteArrayInputStream(jpeg)).getRGB(250, 200);
+        assertEquals(expected, second.getRGB(250, 200));
+    }
+
+    @Test
+    void read_withUnsupportedData_shouldReturnNull() throws IOException {
+        byte[] text = "not an image".getBytes();
+        assertNull(pool.read(text, 0, text.length));
+    }
+
+    @Test
+    void read_withTruncatedImage_shouldReturnTheBufferToThePool() throws IOException {
+        // The header the buffer is sized from is intact, the pixel data runs out
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(ImageIO.read(new ByteArrayInputStream(jpeg)), "png", output);
+        byte[] truncated = Arrays.copyOf(output.toByteArray(), output.size() / 2);
+
+        assertThrows(IOException.class, () -> pool.read(truncated, 0, truncated.length));
+        assertEquals(1, pool.getMissCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+}
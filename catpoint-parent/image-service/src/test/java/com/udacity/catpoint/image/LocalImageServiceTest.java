@@ -0,0 +1,116 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LocalImageService.
+ * Labeled samples live under test resources in 'samples/cat' and 'samples/not-cat'.
+ */
+public class LocalImageServiceTest {
+
+    private LocalImageService imageService;
+
+    @BeforeEach
+    void setup() {
+        imageService = new LocalImageService(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageService.shutdown();
+    }
+
+    @Test
+    void imageContainsCat_withNull_shouldReturnFalse() {
+        assertFalse(imageService.imageContainsCat(null, 50.0f));
+    }
+
+    @Test
+    void catConfidence_shouldBeWithinPercentRange() throws Exception {
+        for (LabeledSample sample : loadSamples()) {
+            float confidence = imageService.catConfidence(sample.image);
+            assertTrue(confidence >= 0f && confidence <= 100f, sample.name);
+        }
+    }
+
+    @Test
+    void catConfidence_shouldNotDependOnThreadCount() throws Exception {
+        LocalImageService singleThreaded = new LocalImageService(1);
+        try {
+            for (LabeledSample sample : loadSamples()) {
+                assertEquals(singleThreaded.catConfidence(sample.image), imageService.catConfidence(sample.image), 0.0001f);
+            }
+        } finally {
+            singleThreaded.shutdown();
+        }
+    }
+
+    @Test
+    void imageContainsCat_outdoorPasture_shouldNotDetectCat() throws Exception {
+        BufferedImage cows = ImageIO.read(resource("samples/not-cat/sample-not-a-cat-fail.jpg"));
+        assertFalse(imageService.imageContainsCat(cows, 50.0f));
+    }
+
+    @Test
+    void imageContainsCat_everyLabeledSample_shouldMatchItsLabel() throws Exception {
+        List<LabeledSample> samples = loadSamples();
+        assertEquals(3, samples.size());
+        for (LabeledSample sample : samples) {
+            float confidence = imageService.catConfidence(sample.image);
+            assertEquals(sample.cat, imageService.imageContainsCat(sample.image, 50.0f),
+                    sample.name + " scored " + confidence);
+        }
+    }
+
+    @Test
+    void catConfidence_shouldKeepAMarginAroundTheThreshold() throws Exception {
+        for (LabeledSample sample : loadSamples()) {
+            float confidence = imageService.catConfidence(sample.image);
+            if (sample.cat) {
+                assertTrue(confidence >= 60f, sample.name + " scored " + confidence);
+            } else {
+                assertTrue(confidence <= 40f, sample.name + " scored " + confidence);
+            }
+        }
+    }
+
+    private List<LabeledSample> loadSamples() throws IOException, URISyntaxException {
+        List<LabeledSample> samples = new ArrayList<>();
+        for (String label : new String[]{"cat", "not-cat"}) {
+            File[] files = Objects.requireNonNull(resource("samples/" + label).listFiles());
+            for (File file : files) {
+                samples.add(new LabeledSample(file.getName(), ImageIO.read(file), label.equals("cat")));
+            }
+        }
+        return samples;
+    }
+
+    private File resource(String path) throws URISyntaxException {
+        return new File(Objects.requireNonNull(getClass().getClassLoader().getResource(path)).toURI());
+    }
+
+    private static final class LabeledSample {
+        private final String name;
+        private final BufferedImage image;
+        private final boolean cat;
+
+        private LabeledSample(String name, BufferedImage image, boolean cat) {
+            this.name = name;
+            this.image = image;
+            this.cat = cat;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RasterKernels, checked against straightforward getRGB implementations.
+ */
+public class RasterKernelsTest {
+
+    private static final int WIDTH = 67;
+    private static final int HEIGHT = 41;
+
+    @Test
+    void grayscale_shouldMatchGetRgbForEveryImageType() {
+        int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+                BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_USHORT_565_RGB};
+        for (int type : types) {
+            BufferedImage image = paintedImage(type);
+            byte[] luma = new byte[WIDTH * HEIGHT];
+
+            RasterKernels.grayscale(image, luma);
+
+            assertArrayEquals(referenceLuma(image), luma);
+        }
+    }
+
+    @Test
+    void grayscale_ofSubImage_shouldUseSubImagePixels() {
+        BufferedImage subImage = paintedImage(BufferedImage.TYPE_3BYTE_BGR).getSubimage(5, 7, 30, 20);
+        byte[] luma = new byte[30 * 20];
+
+        RasterKernels.grayscale(subImage, luma);
+
+        assertArrayEquals(referenceLuma(subImage), luma);
+    }
+
+    @Test
+    void grayscale_withShortDestination_shouldThrow() {
+        BufferedImage image = paintedImage(BufferedImage.TYPE_INT_RGB);
+        assertThrows(IllegalArgumentException.class, () -> RasterKernels.grayscale(image, new byte[10]));
+    }
+
+    @Test
+    void boxDownsample_shouldAverageBlocks() {
+        byte[] luma = {
+                10, 20, (byte) 200, (byte) 250, 7,
+                30, 40, (byte) 220, (byte) 230, 7,
+                0, 0, 1, 1, 7,
+                4, 4, 1, 1, 7};
+        byte[] out = new byte[4];
+
+        RasterKernels.boxDownsample(luma, 5, 4, 2, out);
+
+        assertArrayEquals(new byte[]{25, (byte) 225, 2, 1}, out);
+    }
+
+    @Test
+    void histogram_shouldCountEveryValue() {
+        byte[] luma = randomBytes(1001, 1);
+        int[] bins = new int[256];
+        int[] expected = new int[256];
+        for (byte value : luma) {
+            expected[value & 0xFF]++;
+        }
+
+        RasterKernels.histogram(luma, luma.length, bins);
+
+        assertArrayEquals(expected, bins);
+    }
+
+    @Test
+    void absDiff_shouldMatchScalarReference() {
+        int length = 1003;
+        byte[] a = randomBytes(length, 2);
+        byte[] b = randomBytes(length, 3);
+        a[0] = (byte) 255;
+        b[0] = 0;
+        byte[] out = new byte[length];
+        byte[] expected = new byte[length];
+
+        long sum = RasterKernels.absDiff(a, b, length, out);
+        long expectedSum = RasterKernels.absDiffScalar(a, b, length, expected);
+
+        assertArrayEquals(expected, out);
+        assertEquals(expectedSum, sum);
+        assertEquals(expectedSum, RasterKernels.sumAbsDiff(a, b, length));
+        assertEquals(255, out[0] & 0xFF);
+    }
+
+    @Test
+    void vectorKernels_shouldMatchScalarKernels() {
+        if (!RasterKernels.VECTORIZED) {
+            return;
+        }
+        for (int length : new int[]{0, 1, 31, 64, 257, 4099}) {
+            byte[] a = randomBytes(length, length);
+            byte[] b = randomBytes(length, length + 1);
+            byte[] vectorOut = new byte[length];
+            byte[] scalarOut = new byte[length];
+
+            assertEquals(RasterKernels.absDiffScalar(a, b, length, scalarOut),
+                    RasterKernels.absDiff(a, b, length, vectorOut));
+            assertArrayEquals(scalarOut, vectorOut);
+            assertEquals(RasterKernels.sumAbsDiffScalar(a, b, length), RasterKernels.sumAbsDiff(a, b, length));
+        }
+    }
+
+    private static BufferedImage paintedImage(int type) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, WIDTH, HEIGHT, Color.BLUE));
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.setColor(Color.WHITE);
+        g.fillOval(10, 5, 20, 20);
+        g.dispose();
+        return image;
+    }
+
+    private static byte[] referenceLuma(BufferedImage image) {
+        byte[] luma = new byte[image.getWidth() * image.getHeight()];
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y);
+                luma[y * image.getWidth() + x] = (byte) ((77 * ((rgb >> 16) & 0xFF)
+                        + 150 * ((rgb >> 8) & 0xFF) + 29 * (rgb & 0xFF)) >> 8);
+            }
+        }
+        return luma;
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,117 @@
+package com.udacity.catpoint.image;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP stand-in for the Rekognition DetectLabels endpoint.
+ * Answers with a fixed set of labels after an injected latency, and fails a
+ * configurable fraction of requests with a server error.
+ */
+final class RekognitionStandIn implements AutoCloseable {
+
+    private static final String CAT_LABELS =
+            "{\"Labels\":[{\"Name\":\"Cat\",\"Confidence\":97.5,\"Instances\":[{\"BoundingBox\":"
+                    + "{\"Width\":0.5,\"Height\":0.6,\"Left\":0.1,\"Top\":0.2},\"Confidence\":97.5}],\"Parents\":[]},"
+                    + "{\"Name\":\"Pet\",\"Confidence\":95.0,\"Instances\":[],\"Parents\":[]}],"
+                    + "\"LabelModelVersion\":\"3.0\"}";
+
+    private final HttpServer server;
+    private final Random random = new Random(42);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long latencyMillis = 0L;
+    private volatile double errorRate = 0.0;
+    private volatile String responseBody = CAT_LABELS;
+
+    RekognitionStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    RekognitionStandIn withLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    RekognitionStandIn withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    RekognitionStandIn withNoLabels() {
+        this.responseBody = "{\"Labels\":[],\"LabelModelVersion\":\"3.0\"}";
+        return this;
+    }
+
+    int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the most requests that were being answered at the same time.
+     */
+    int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * Returns AwsImageService configuration pointing at this stand-in.
+     */
+    Properties awsProperties(long timeoutMillis) {
+        Properties props = new Properties();
+        props.setProperty("aws.id", "test-id");
+        props.setProperty("aws.secret", "test-secret");
+        props.setProperty("aws.region", "us-east-1");
+        props.setProperty("aws.endpoint", "http://localhost:" + server.getAddress().getPort());
+        props.setProperty("aws.timeout.ms", Long.toString(timeoutMillis));
+        return props;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+
+        boolean fail;
+        synchronized (random) {
+            fail = random.nextDouble() < errorRate;
+        }
+        byte[] response = (fail
+                ? "{\"__type\":\"InternalServerError\",\"message\":\"injected failure\"}"
+                : responseBody).getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.1");
+        exchange.sendResponseHeaders(fail ? 500 : 200, response.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(response);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,184 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResilientImageService, partly run against a local Rekognition stand-in.
+ */
+public class ResilientImageServiceTest {
+
+    private final BufferedImage frame = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+
+    @Test
+    void standIn_catLabel_shouldBeDetected() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn()) {
+            ResilientImageService service = new ResilientImageService(
+                    new AwsImageService(standIn.awsProperties(1000)).withFailuresPropagated());
+
+            assertTrue(service.imageContainsCat(frame, 50.0f));
+            assertEquals(CircuitBreaker.State.CLOSED, service.getCircuitState());
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void standIn_injectedErrors_shouldOpenCircuitAndUseFallback() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn().withErrorRate(1.0)) {
+            ResilientImageService service = new ResilientImageService(
+                    new AwsImageService(standIn.awsProperties(1000)).withFailuresPropagated())
+                    .withHedging(false, Duration.ZERO)
+                    .withCircuitBreaker(new CircuitBreaker(2, Duration.ofMinutes(1)))
+                    .withFallback(new FakeImageService().withFixedResult(true));
+
+            for (int i = 0; i < 4; i++) {
+                assertTrue(service.imageContainsCat(frame, 50.0f));
+            }
+
+            assertEquals(CircuitBreaker.State.OPEN, service.getCircuitState());
+            assertEquals(2, standIn.getRequestCount());
+            assertEquals(4, service.getFallbackCount());
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void standIn_slowEndpoint_shouldMeetDeadlineWithFallback() throws Exception {
+        try (RekognitionStandIn standIn = new RekognitionStandIn().withLatencyMillis(1000)) {
+            ResilientImageService service = new ResilientImageService(
+                    new AwsImageService(standIn.awsProperties(5000)).withFailuresPropagated())
+                    .withDeadline(Duration.ofMillis(200))
+                    .withHedging(false, Duration.ZERO)
+                    .withFallback(new FakeImageService().withFixedResult(false));
+
+            long start = System.nanoTime();
+            assertFalse(service.imageContainsCat(frame, 50.0f));
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(800).toNanos());
+            assertEquals(1, service.getTimeoutCount());
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void slowFirstAttempt_shouldBeHedged() {
+        AtomicInteger attempts = new AtomicInteger();
+        ImageService primary = (image, threshold) -> {
+            if (attempts.getAndIncrement() == 0) {
+                sleep(1000);
+            }
+            return true;
+        };
+        ResilientImageService service = new ResilientImageService(primary)
+                .withDeadline(Duration.ofSeconds(2))
+                .withHedging(true, Duration.ofMillis(20));
+
+        long start = System.nanoTime();
+        assertTrue(service.imageContainsCat(frame, 50.0f));
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(500).toNanos());
+        assertEquals(1, service.getHedgeCount());
+        service.shutdown();
+    }
+
+    @Test
+    void concurrencyLimit_shouldHalveOnFailure() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 64);
+        ResilientImageService service = new ResilientImageService((image, threshold) -> {
+            throw new ImageServiceException("down");
+        }).withHedging(false, Duration.ZERO).withConcurrencyLimit(limit);
+
+        assertFalse(service.imageContainsCat(frame, 50.0f));
+        assertEquals(4, service.getConcurrencyLimit());
+        assertEquals(0, limit.getInFlight());
+        service.shutdown();
+    }
+
+    @Test
+    void timedOutCall_shouldHoldItsSlotUntilTheAttemptReturns() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 64);
+        ResilientImageService service = new ResilientImageService((image, threshold) -> {
+            sleep(300);
+            return true;
+        }).withDeadline(Duration.ofMillis(50)).withHedging(false, Duration.ZERO).withConcurrencyLimit(limit);
+
+        assertFalse(service.imageContainsCat(frame, 50.0f));
+        assertEquals(1, service.getTimeoutCount());
+        assertEquals(1, limit.getInFlight());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (limit.getInFlight() > 0) {
+            assertTrue(System.nanoTime() < deadline, "slot was never released");
+            Thread.sleep(10);
+        }
+        service.shutdown();
+    }
+
+    @Test
+    void attemptOutlivingTheDeadline_shouldNotReadTheCallersImage() throws Exception {
+        BufferedImage pooledFrame = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        pooledFrame.setRGB(0, 0, 0xFF8800);
+        CompletableFuture<Integer> seen = new CompletableFuture<>();
+        ResilientImageService service = new ResilientImageService((image, threshold) -> {
+            sleep(200);
+            seen.complete(image == pooledFrame ? -1 : image.getRGB(0, 0) & 0xFFFFFF);
+            return true;
+        }).withDeadline(Duration.ofMillis(50)).withHedging(false, Duration.ZERO);
+
+        assertFalse(service.imageContainsCat(pooledFrame, 50.0f));
+        // The caller reuses its buffer for the next frame straight away
+        pooledFrame.setRGB(0, 0, 0x000000);
+
+        assertEquals(0xFF8800, (int) seen.get(5, TimeUnit.SECONDS));
+        service.shutdown();
+    }
+
+    @Test
+    void interruptedTrialCall_shouldLetTheNextTrialThrough() {
+        long[] now = {0L};
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(10), () -> now[0]);
+        breaker.recordFailure();
+        now[0] = Duration.ofSeconds(11).toNanos();
+        ResilientImageService service = new ResilientImageService((image, threshold) -> {
+            sleep(200);
+            return true;
+        }).withHedging(false, Duration.ZERO).withCircuitBreaker(breaker);
+
+        Thread.currentThread().interrupt();
+        assertFalse(service.imageContainsCat(frame, 50.0f));
+        assertTrue(Thread.interrupted());
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        service.shutdown();
+    }
+
+    @Test
+    void circuitBreaker_shouldAllowSingleTrialAfterOpenDuration() {
+        long[] now = {0L};
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(10), () -> now[0]);
+
+        breaker.recordFailure();
+        assertFalse(breaker.tryAcquire());
+
+        now[0] = Duration.ofSeconds(11).toNanos();
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WarmedImageService. Its first-call latency against AwsImageService is
+ * measured by WarmedImageServiceBenchmark.
+ */
+public class WarmedImageServiceTest {
+
+    private final BufferedImage frame = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    /** Delegate whose first call pays a simulated cold-start cost. */
+    private final ImageService coldDelegate = (image, threshold) -> {
+        sleep(calls.getAndIncrement() == 0 ? 200 : 1);
+        return true;
+    };
+
+    @Test
+    void start_shouldNotWaitForSlowInitialization() {
+        long start = System.nanoTime();
+        WarmedImageService service = new WarmedImageService(() -> {
+            sleep(300);
+            return coldDelegate;
+        }).start();
+        double startMillis = (System.nanoTime() - start) / 1e6;
+
+        assertTrue(startMillis < 100, "start took " + startMillis + " ms");
+        assertFalse(service.isReady());
+        assertTrue(service.imageContainsCat(frame, 50.0f));
+        assertTrue(service.isReady());
+    }
+
+    @Test
+    void warmUp_shouldTakeColdStartOffFirstCall() throws InterruptedException {
+        WarmedImageService service = new WarmedImageService(() -> coldDelegate).withWarmUp(1).start();
+        awaitReady(service);
+
+        assertTrue(service.imageContainsCat(frame, 50.0f));
+
+        assertEquals(2, calls.get());
+        assertTrue(service.getWarmUpMillis() >= 200);
+        assertTrue(service.getFirstCallMillis() < 100, "first call took " + service.getFirstCallMillis() + " ms");
+    }
+
+    @Test
+    void withoutWarmUp_firstCallShouldBeReportedSeparately() {
+        WarmedImageService service = new WarmedImageService(() -> coldDelegate);
+
+        for (int i = 0; i < 5; i++) {
+            service.imageContainsCat(frame, 50.0f);
+        }
+
+        assertTrue(service.getFirstCallMillis() >= 200);
+        assertTrue(service.getSteadyStateMedianMillis() < 100);
+    }
+
+    @Test
+    void failingInitialization_shouldReportNoCat() {
+        WarmedImageService service = new WarmedImageService(() -> {
+            throw new IllegalStateException("no credentials");
+        });
+
+        assertFalse(service.imageContainsCat(frame, 50.0f));
+        assertEquals(DetectionResult.NONE, service.detectLabels(frame, 10.0f));
+        assertFalse(service.isReady());
+    }
+
+    @Test
+    void initializationTimeout_shouldReportNoCat() {
+        WarmedImageService service = new WarmedImageService(() -> {
+            sleep(1000);
+            return coldDelegate;
+        }).withInitializationTimeout(Duration.ofMillis(50));
+
+        assertFalse(service.imageContainsCat(frame, 50.0f));
+    }
+
+    @Test
+    void failingWarmUp_shouldStillBecomeReady() throws InterruptedException {
+        ImageService failing = (image, threshold) -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new ImageServiceException("endpoint unreachable");
+            }
+            return true;
+        };
+        WarmedImageService service = new WarmedImageService(() -> failing).withWarmUp(1).start();
+        awaitReady(service);
+
+        assertTrue(service.imageContainsCat(frame, 50.0f));
+    }
+
+    private static void awaitReady(WarmedImageService service) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!service.isReady() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertTrue(service.isReady());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
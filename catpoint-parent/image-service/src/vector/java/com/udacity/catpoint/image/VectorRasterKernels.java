@@ -0,0 +1,70 @@
+package com.udacity.catpoint.image;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API versions of the RasterKernels difference kernels.
+ * Only compiled by the {@code vector} profile, and only loaded when the
+ * {@code jdk.incubator.vector} module is present.
+ */
+final class VectorRasterKernels implements DifferenceKernels {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final int INT_PARTS = BYTES.length() / INTS.length();
+
+    VectorRasterKernels() {
+    }
+
+    @Override
+    public long absDiff(byte[] a, byte[] b, int length, byte[] out) {
+        long sum = 0;
+        int i = 0;
+        for (int bound = BYTES.loopBound(length); i < bound; i += BYTES.length()) {
+            ByteVector diff = unsignedAbsDiff(a, b, i);
+            diff.intoArray(out, i);
+            sum += sumUnsigned(diff);
+        }
+        for (; i < length; i++) {
+            int diff = Math.abs((a[i] & 0xFF) - (b[i] & 0xFF));
+            out[i] = (byte) diff;
+            sum += diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long sumAbsDiff(byte[] a, byte[] b, int length) {
+        long sum = 0;
+        int i = 0;
+        for (int bound = BYTES.loopBound(length); i < bound; i += BYTES.length()) {
+            sum += sumUnsigned(unsignedAbsDiff(a, b, i));
+        }
+        for (; i < length; i++) {
+            sum += Math.abs((a[i] & 0xFF) - (b[i] & 0xFF));
+        }
+        return sum;
+    }
+
+    /**
+     * |a - b| for unsigned bytes: flipping the sign bit maps unsigned order onto signed order,
+     * and max - min then wraps to the correct unsigned difference.
+     */
+    private static ByteVector unsignedAbsDiff(byte[] a, byte[] b, int offset) {
+        ByteVector va = ByteVector.fromArray(BYTES, a, offset).lanewise(VectorOperators.XOR, (byte) 0x80);
+        ByteVector vb = ByteVector.fromArray(BYTES, b, offset).lanewise(VectorOperators.XOR, (byte) 0x80);
+        return va.max(vb).sub(va.min(vb));
+    }
+
+    private static long sumUnsigned(ByteVector bytes) {
+        long sum = 0;
+        for (int part = 0; part < INT_PARTS; part++) {
+            IntVector ints = (IntVector) bytes.convertShape(VectorOperators.B2I, INTS, part);
+            sum += ints.and(0xFF).reduceLanes(VectorOperators.ADD);
+        }
+        return sum;
+    }
+}
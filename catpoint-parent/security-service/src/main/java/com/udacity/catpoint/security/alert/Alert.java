@@ -0,0 +1,36 @@
+package com.udacity.catpoint.security.alert;
+
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An alarm transition waiting to be delivered to a monitoring endpoint.
+ *
+ * @param id        increasing number assigned by the {@link AlertOutbox}; receivers can use it
+ *                  to drop alerts delivered twice after a retry
+ * @param createdAt when the transition happened
+ */
+public record Alert(long id, AlarmStatus alarmStatus, ArmingStatus armingStatus, Instant createdAt) {
+
+    public String toJson() {
+        return "{\"id\":" + id + ",\"alarmStatus\":\"" + alarmStatus + "\",\"armingStatus\":\"" + armingStatus
+                + "\",\"createdAt\":\"" + createdAt + "\"}";
+    }
+
+    /**
+     * Returns the batch as {@code {"alerts":[...]}}.
+     */
+    public static String toJson(List<Alert> batch) {
+        StringBuilder json = new StringBuilder("{\"alerts\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(batch.get(i).toJson());
+        }
+        return json.append("]}").toString();
+    }
+}
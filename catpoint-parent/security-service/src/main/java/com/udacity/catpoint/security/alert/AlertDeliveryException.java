@@ -0,0 +1,21 @@
+package com.udacity.catpoint.security.alert;
+
+import java.io.IOException;
+
+/**
+ * Thrown by an {@link AlertSink} when the endpoint refused a batch, saying whether sending it
+ * again could succeed.
+ */
+public class AlertDeliveryException extends IOException {
+
+    private final boolean retryable;
+
+    public AlertDeliveryException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
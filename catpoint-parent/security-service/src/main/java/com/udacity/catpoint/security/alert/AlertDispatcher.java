@@ -0,0 +1,381 @@
+package com.udacity.catpoint.security.alert;
+
+import com.udacity.catpoint.image.LatencyTracker;
+import com.udacity.catpoint.security.application.StatusListener;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes alarm transitions to a monitoring endpoint without slowing the SecurityService.
+ * Registered as a status listener, it only appends each new alarm status to the
+ * {@link AlertOutbox}; a background thread gathers pending alerts into batches and hands them
+ * to a small pool of senders. Failed batches stay in the outbox and are retried with
+ * exponential backoff and jitter, capped at the maximum backoff, until they are delivered. Only
+ * a batch the endpoint rejects outright, with a 4xx answer, is given up on, and that is logged
+ * as lost alerts. Compacting the outbox journal also happens on the dispatcher thread, never
+ * while a status change is waiting to be queued.
+ * <p>
+ * A status equal to the last one alerted within the dedup window, such as a cat sighting
+ * while the alarm is already ringing, is not alerted again. Delivery is at least once: a
+ * batch can arrive twice if the answer to it is lost, and concurrent batches can arrive out
+ * of order, so receivers should key on {@link Alert#id()}.
+ */
+public class AlertDispatcher implements StatusListener, AutoCloseable {
+
+    private final AlertOutbox outbox;
+    private final AlertSink sink;
+    private int batchSize = 50;
+    private long batchDelayNanos = TimeUnit.MILLISECONDS.toNanos(20);
+    private int maxConcurrentSends = 2;
+    private long initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(200);
+    private long maxBackoffNanos = TimeUnit.SECONDS.toNanos(30);
+    private long dedupWindowNanos = TimeUnit.MINUTES.toNanos(5);
+
+    private volatile ArmingStatus armingStatus = ArmingStatus.DISARMED;
+    private AlarmStatus lastAlerted;
+    private long lastAlertedNanos;
+    private final Map<Long, Long> enqueuedNanos = new ConcurrentHashMap<>();
+    private final LatencyTracker latencies = new LatencyTracker(1024);
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final CountDownLatch closing = new CountDownLatch(1);
+    private volatile boolean closed = false;
+    private Semaphore sendPermits;
+    private ExecutorService senders;
+    private Thread dispatcherThread;
+
+    public AlertDispatcher(AlertOutbox outbox, AlertSink sink) {
+        this.outbox = Objects.requireNonNull(outbox);
+        this.sink = Objects.requireNonNull(sink);
+    }
+
+    /**
+     * Sets the most alerts sent in one batch.
+     *
+     * @return this instance for chaining
+     */
+    public AlertDispatcher withBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets how long to wait for more alerts before sending a batch that is not full.
+     *
+     * @return this instance for chaining
+     */
+    public AlertDispatcher withBatchDelay(Duration batchDelay) {
+        this.batchDelayNanos = batchDelay.toNanos();
+        return this;
+    }
+
+    /**
+     * Sets how many batches can be in delivery at once.
+     *
+     * @return this instance for chaining
+     */
+    public AlertDispatcher withMaxConcurrentSends(int maxConcurrentSends) {
+        if (maxConcurrentSends < 1) {
+            throw new IllegalArgumentException("maxConcurrentSends must be at least 1");
+        }
+        this.maxConcurrentSends = maxConcurrentSends;
+        return this;
+    }
+
+    /**
+     * Sets the backoff between tries of a failed batch, which doubles from
+     * {@code initialBackoff} up to {@code maxBackoff} and then stays there.
+     *
+     * @return this instance for chaining
+     */
+    public AlertDispatcher withBackoff(Duration initialBackoff, Duration maxBackoff) {
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = Math.max(initialBackoffNanos, maxBackoff.toNanos());
+        return this;
+    }
+
+    /**
+     * Sets how long a repeated alarm status is suppressed.
+     *
+     * @return this instance for chaining
+     */
+    public AlertDispatcher withDedupWindow(Duration dedupWindow) {
+        this.dedupWindowNanos = dedupWindow.toNanos();
+        return this;
+    }
+
+    /**
+     * Starts delivering, beginning with any alerts restored by the outbox.
+     *
+     * @return this instance for chaining
+     */
+    public synchronized AlertDispatcher start() {
+        if (dispatcherThread != null) {
+            throw new IllegalStateException("Dispatcher already started");
+        }
+        sendPermits = new Semaphore(maxConcurrentSends);
+        AtomicInteger senderCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(maxConcurrentSends, runnable -> {
+            Thread thread = new Thread(runnable, "alert-sender-" + senderCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcherThread = new Thread(this::dispatch, "alert-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+        return this;
+    }
+
+    @Override
+    public void notify(AlarmStatus status) {
+        if (status == null) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (status == lastAlerted && now - lastAlertedNanos < dedupWindowNanos) {
+                deduplicated.increment();
+                return;
+            }
+            try {
+                Alert alert = outbox.append(status, armingStatus);
+                enqueuedNanos.put(alert.id(), now);
+            } catch (IOException e) {
+                System.err.println("Failed to queue alert for " + status + ": " + e.getMessage());
+                return;
+            }
+            lastAlerted = status;
+            lastAlertedNanos = now;
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void notify(ArmingStatus status) {
+        if (status != null) {
+            armingStatus = status;
+        }
+    }
+
+    @Override
+    public void catDetected(boolean catDetected) {
+    }
+
+    @Override
+    public void sensorStatusChanged() {
+    }
+
+    private void dispatch() {
+        try {
+            while (!closed) {
+                compactOutbox();
+                sendPermits.acquire();
+                List<Alert> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    sendPermits.release();
+                    continue;
+                }
+                try {
+                    outbox.sync();
+                } catch (IOException e) {
+                    System.err.println("Failed to sync alert outbox: " + e.getMessage());
+                }
+                inFlight.incrementAndGet();
+                senders.execute(() -> {
+                    try {
+                        deliver(batch);
+                    } finally {
+                        inFlight.decrementAndGet();
+                        sendPermits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void compactOutbox() {
+        try {
+            outbox.compactIfNeeded();
+        } catch (IOException e) {
+            System.err.println("Failed to compact alert outbox: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for pending alerts, then up to the batch delay for the batch to fill.
+     */
+    private synchronized List<Alert> nextBatch() throws InterruptedException {
+        while (!closed && outbox.getUnclaimedCount() == 0) {
+            wait();
+        }
+        long lingerEnd = System.nanoTime() + batchDelayNanos;
+        long remaining;
+        while (!closed && outbox.getUnclaimedCount() < batchSize && (remaining = lingerEnd - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return closed ? List.of() : outbox.claim(batchSize);
+    }
+
+    private void deliver(List<Alert> batch) {
+        long backoff = initialBackoffNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.deliver(batch);
+                finish(batch);
+                delivered.add(batch.size());
+                batches.increment();
+                long now = System.nanoTime();
+                for (Alert alert : batch) {
+                    Long enqueued = enqueuedNanos.remove(alert.id());
+                    // Alerts restored from a previous run only have their wall clock time
+                    latencies.record(enqueued != null ? now - enqueued
+                            : Duration.between(alert.createdAt(), Instant.now()).toNanos());
+                }
+                return;
+            } catch (IOException | RuntimeException e) {
+                boolean retryable = !(e instanceof AlertDeliveryException rejected) || rejected.isRetryable();
+                if (closed) {
+                    // Left in the outbox for the next start
+                    outbox.release(batch);
+                    return;
+                }
+                if (!retryable) {
+                    System.err.println("ALERTS LOST: the alert endpoint rejected " + batch.size()
+                            + " alerts, which will not be sent again (" + e.getMessage() + "): " + batch);
+                    finish(batch);
+                    batch.forEach(alert -> enqueuedNanos.remove(alert.id()));
+                    failed.add(batch.size());
+                    return;
+                }
+                retries.increment();
+                long sleep = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                if (backoff < maxBackoffNanos && backoff * 2 >= maxBackoffNanos) {
+                    System.err.println("Alert delivery still failing after " + attempt + " attempts, retrying every "
+                            + Duration.ofNanos(maxBackoffNanos).toMillis() + " ms: " + e.getMessage());
+                }
+                backoff = Math.min(backoff * 2, maxBackoffNanos);
+                try {
+                    if (closing.await(sleep, TimeUnit.NANOSECONDS)) {
+                        outbox.release(batch);
+                        return;
+                    }
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    outbox.release(batch);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void finish(List<Alert> batch) {
+        try {
+            outbox.remove(batch);
+        } catch (IOException e) {
+            System.err.println("Failed to record alert delivery: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of alerts waiting in the outbox, including those being delivered.
+     */
+    public int getOutboxDepth() {
+        return outbox.size();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Returns the number of alerts given up on because the endpoint rejected them.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * Returns the number of alerts dropped because the outbox was full.
+     */
+    public long getDroppedCount() {
+        return outbox.getDroppedCount();
+    }
+
+    public int getInFlightBatches() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns a percentile, from 0 to 1, of the time from an alarm transition to its delivery
+     * over the last 1024 delivered alerts.
+     */
+    public Duration getDeliveryLatency(double percentile) {
+        return Duration.ofNanos(latencies.percentile(percentile, 0));
+    }
+
+    /**
+     * Stops delivering and closes the outbox. Undelivered alerts stay in it for the next start.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        closing.countDown();
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+            senders.shutdown();
+            try {
+                if (!senders.awaitTermination(5, TimeUnit.SECONDS)) {
+                    senders.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            outbox.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close alert outbox: " + e.getMessage());
+        }
+    }
+}
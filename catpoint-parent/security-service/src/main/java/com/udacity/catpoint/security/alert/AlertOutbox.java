@@ -0,0 +1,312 @@
+package com.udacity.catpoint.security.alert;
+
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded, file-backed queue of alerts that have not been delivered yet.
+ * Every alert and every delivery is appended to a journal as one line:
+ * <pre>
+ * A 17 ALARM ARMED_AWAY 2026-10-19T08:15:30.123456Z
+ * D 17
+ * </pre>
+ * Reopening the file restores the undelivered alerts, so they survive a restart. Appends go to
+ * the OS straight away; {@link #sync()} forces them to disk. {@link #compactIfNeeded()}
+ * rewrites the journal with only the pending alerts once delivered entries dominate it. Both
+ * wait for the disk without holding the outbox, so an append is never held up by them. When the
+ * outbox is full the oldest alert is dropped to make room, since the latest alarm state matters
+ * most.
+ * <p>
+ * Alerts handed out by {@link #claim(int)} stay in the outbox, but are not handed out again
+ * until {@link #release} puts them back, and are removed by {@link #remove}.
+ */
+public class AlertOutbox implements AutoCloseable {
+
+    private static final int MIN_COMPACTION_LINES = 1024;
+
+    private final Path file;
+    private final int capacity;
+    private final Map<Long, Alert> pending = new LinkedHashMap<>();
+    private final Set<Long> claimed = new HashSet<>();
+    private FileChannel journal;
+    private long nextId = 1;
+    private long journalLines = 0;
+    private long droppedCount = 0;
+    private boolean dirty = false;
+    private boolean compacting = false;
+    private boolean closed = false;
+
+    /**
+     * Opens the outbox, restoring any alerts left undelivered in the file.
+     */
+    public AlertOutbox(Path file, int capacity) throws IOException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.file = file;
+        this.capacity = capacity;
+        if (Files.exists(file)) {
+            restore();
+        }
+        this.journal = open();
+        if (journal.size() > 0 && !endsWithNewline()) {
+            // Terminate a torn line so the next entry starts on a line of its own
+            write("", 0);
+        }
+        while (pending.size() > capacity) {
+            drop();
+        }
+    }
+
+    private void restore() throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                journalLines++;
+                String[] fields = line.split(" ");
+                try {
+                    long id = Long.parseLong(fields[1]);
+                    nextId = Math.max(nextId, id + 1);
+                    if ("A".equals(fields[0])) {
+                        pending.put(id, new Alert(id, AlarmStatus.valueOf(fields[2]), ArmingStatus.valueOf(fields[3]),
+                                Instant.parse(fields[4])));
+                    } else if ("D".equals(fields[0])) {
+                        pending.remove(id);
+                    }
+                } catch (RuntimeException e) {
+                    // A crash can leave a torn last line; anything after it is unreadable anyway
+                    System.err.println("Ignoring unreadable alert outbox line in " + file + ": " + line);
+                }
+            }
+        }
+    }
+
+    private boolean endsWithNewline() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Adds an alert, dropping the oldest one if the outbox is full.
+     */
+    public synchronized Alert append(AlarmStatus alarmStatus, ArmingStatus armingStatus) throws IOException {
+        if (pending.size() >= capacity) {
+            drop();
+        }
+        Alert alert = new Alert(nextId++, alarmStatus, armingStatus, Instant.now());
+        write("A " + alert.id() + " " + alarmStatus + " " + armingStatus + " " + alert.createdAt());
+        pending.put(alert.id(), alert);
+        return alert;
+    }
+
+    private void drop() throws IOException {
+        Iterator<Alert> oldest = pending.values().iterator();
+        long id = oldest.next().id();
+        oldest.remove();
+        claimed.remove(id);
+        write("D " + id);
+        droppedCount++;
+    }
+
+    /**
+     * Hands out up to {@code max} of the oldest alerts not already claimed.
+     */
+    public synchronized List<Alert> claim(int max) {
+        List<Alert> batch = new ArrayList<>(Math.min(max, pending.size()));
+        for (Alert alert : pending.values()) {
+            if (batch.size() == max) {
+                break;
+            }
+            if (claimed.add(alert.id())) {
+                batch.add(alert);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Makes claimed alerts available to {@link #claim(int)} again.
+     */
+    public synchronized void release(Collection<Alert> alerts) {
+        alerts.forEach(alert -> claimed.remove(alert.id()));
+    }
+
+    /**
+     * Removes alerts once they have been delivered or given up on.
+     */
+    public synchronized void remove(Collection<Alert> alerts) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        int removed = 0;
+        for (Alert alert : alerts) {
+            claimed.remove(alert.id());
+            if (pending.remove(alert.id()) != null) {
+                lines.append(removed++ == 0 ? "" : "\n").append("D ").append(alert.id());
+            }
+        }
+        if (removed > 0) {
+            write(lines.toString(), removed);
+        }
+    }
+
+    /**
+     * Forces everything written so far to disk.
+     */
+    public void sync() throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            if (!dirty || closed) {
+                return;
+            }
+            channel = journal;
+            dirty = false;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            synchronized (this) {
+                if (channel != journal) {
+                    // Compaction replaced the journal; it forced the entries this one held
+                    return;
+                }
+                dirty = true;
+            }
+            throw e;
+        }
+    }
+
+    private void write(String line) throws IOException {
+        write(line, 1);
+    }
+
+    private void write(String lines, int count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((lines + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        journalLines += count;
+        dirty = true;
+    }
+
+    /**
+     * Rewrites the journal with only the pending alerts once delivered entries dominate it,
+     * replacing the old file atomically. The pending alerts are written and forced to disk
+     * outside the outbox lock; entries journaled meanwhile are copied over when the files are
+     * swapped.
+     *
+     * @return true if the journal was compacted
+     */
+    public boolean compactIfNeeded() throws IOException {
+        List<String> lines;
+        long snapshotBytes;
+        long snapshotLines;
+        synchronized (this) {
+            if (closed || compacting || journalLines < MIN_COMPACTION_LINES || journalLines <= 4L * pending.size()) {
+                return false;
+            }
+            lines = new ArrayList<>(pending.size());
+            for (Alert alert : pending.values()) {
+                lines.add("A " + alert.id() + " " + alert.alarmStatus() + " " + alert.armingStatus() + " " + alert.createdAt());
+            }
+            snapshotBytes = journal.size();
+            snapshotLines = journalLines;
+            compacting = true;
+        }
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try {
+            Files.write(compacted, lines, StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            synchronized (this) {
+                if (closed) {
+                    Files.deleteIfExists(compacted);
+                    return false;
+                }
+                // Entries written since the snapshot, not yet forced, like any other append
+                try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+                     FileChannel target = FileChannel.open(compacted, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    long position = snapshotBytes;
+                    long end = source.size();
+                    while (position < end) {
+                        position += source.transferTo(position, end - position, target);
+                    }
+                }
+                journal.close();
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                journal = open();
+                long tailLines = journalLines - snapshotLines;
+                journalLines = lines.size() + tailLines;
+                dirty = tailLines > 0;
+                return true;
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of alerts not yet delivered, including claimed ones.
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the number of alerts not yet delivered and not claimed.
+     */
+    public synchronized int getUnclaimedCount() {
+        return pending.size() - claimed.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of alerts dropped because the outbox was full.
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (dirty) {
+            journal.force(false);
+            dirty = false;
+        }
+        closed = true;
+        journal.close();
+    }
+}
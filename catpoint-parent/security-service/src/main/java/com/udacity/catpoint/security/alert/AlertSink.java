@@ -0,0 +1,17 @@
+package com.udacity.catpoint.security.alert;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Delivers batches of alerts to a monitoring endpoint.
+ */
+@FunctionalInterface
+public interface AlertSink {
+
+    /**
+     * Delivers the whole batch or throws. The {@link AlertDispatcher} retries on IOException
+     * unless it is an {@link AlertDeliveryException} that is not retryable.
+     */
+    void deliver(List<Alert> batch) throws IOException;
+}
@@ -0,0 +1,80 @@
+package com.udacity.catpoint.security.alert;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Posts each batch as JSON ({@code {"alerts":[...]}}) to a monitoring endpoint or webhook.
+ * A 2xx answer is a delivery. Any other 4xx answer than 408 and 429 means the endpoint rejected
+ * the batch and sending it again would not help; every other answer and connection failures
+ * are retryable.
+ */
+public class HttpAlertSink implements AlertSink {
+
+    private final URI endpoint;
+    private final HttpClient client;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private Duration timeout = Duration.ofSeconds(10);
+
+    public HttpAlertSink(URI endpoint) {
+        this.endpoint = Objects.requireNonNull(endpoint);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Adds a header to every request, e.g. an authorization token.
+     *
+     * @return this instance for chaining
+     */
+    public HttpAlertSink withHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Sets how long to wait for the endpoint to answer.
+     *
+     * @return this instance for chaining
+     */
+    public HttpAlertSink withTimeout(Duration timeout) {
+        this.timeout = Objects.requireNonNull(timeout);
+        return this;
+    }
+
+    @Override
+    public void deliver(List<Alert> batch) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(Alert.toJson(batch)));
+        headers.forEach(request::header);
+
+        HttpResponse<Void> response;
+        try {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted delivering alerts to " + endpoint);
+        }
+        int status = response.statusCode();
+        if (status / 100 != 2) {
+            boolean retryable = status / 100 != 4 || status == 408 || status == 429;
+            throw new AlertDeliveryException("Alert endpoint " + endpoint + " answered " + status, retryable);
+        }
+    }
+
+    public URI getEndpoint() {
+        return endpoint;
+    }
+}
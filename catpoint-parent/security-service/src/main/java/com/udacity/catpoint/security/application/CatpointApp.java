@@ -1,8 +1,26 @@
 package com.udacity.catpoint.security.application;
 
+import java.util.Arrays;
+
+/**
+ * Starts the Swing GUI, or the headless {@link CatpointDaemon} when the first argument is
+ * {@code --headless} or {@code -Dcatpoint.headless=true} is set. Remaining arguments are
+ * passed to the daemon.
+ */
 public class CatpointApp {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--headless")) {
+            CatpointDaemon.main(Arrays.copyOfRange(args, 1, args.length));
+        } else if (Boolean.getBoolean("catpoint.headless")) {
+            CatpointDaemon.main(args);
+        } else {
+            startGui();
+        }
+    }
+
+    private static void startGui() {
         CatpointGui gui = new CatpointGui();
         gui.setVisible(true);
+        StartupMetrics.reportIfEnabled("gui");
     }
 }
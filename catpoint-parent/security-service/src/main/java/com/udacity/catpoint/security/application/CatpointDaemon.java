@@ -0,0 +1,217 @@
+package com.udacity.catpoint.security.application;
+
+import com.udacity.catpoint.security.alert.AlertDispatcher;
+import com.udacity.catpoint.security.alert.AlertOutbox;
+import com.udacity.catpoint.security.alert.HttpAlertSink;
+import com.udacity.catpoint.security.audit.AuditLog;
+import com.udacity.catpoint.security.audit.AuditRecorder;
+import com.udacity.catpoint.security.camera.AdaptiveSamplingPolicy;
+import com.udacity.catpoint.security.camera.DirectoryFrameSource;
+import com.udacity.catpoint.security.camera.FrameIngestionService;
+import com.udacity.catpoint.security.camera.FrameQueue;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.PretendDatabaseSecurityRepositoryImpl;
+import com.udacity.catpoint.security.data.SecurityRepository;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.service.AlarmTransitionTable;
+import com.udacity.catpoint.security.service.ImageServiceFactory;
+import com.udacity.catpoint.security.service.SecurityService;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Headless launch of the security engine for server deployment.
+ * Boots only a repository, the configured ImageService and SecurityService, and logs status
+ * changes to standard output; no Swing panels are created and no AWT classes are loaded unless
+ * the chosen ImageService or a camera needs them.
+ * <p>
+ * Configuration is read from an optional properties file given as the first argument, with
+ * system properties taking precedence:
+ * <ul>
+ *     <li>{@value ImageServiceFactory#IMAGE_SERVICE_PROPERTY}: see {@link ImageServiceFactory}</li>
+ *     <li>{@value #CAMERA_DIRECTORY_PROPERTY}: optional folder watched for camera images</li>
+ *     <li>{@value #ALARM_RULES_PROPERTY}: optional alarm rules file, see {@link AlarmTransitionTable}</li>
+ *     <li>{@value #ALERT_ENDPOINT_PROPERTY}: optional URL alarm transitions are posted to, see {@link AlertDispatcher}</li>
+ *     <li>{@value #ALERT_OUTBOX_PROPERTY}: file holding undelivered alerts, default {@value #DEFAULT_ALERT_OUTBOX}</li>
+ *     <li>{@value #AUDIT_DIRECTORY_PROPERTY}: optional folder for the audit log, see {@link AuditLog}</li>
+ * </ul>
+ */
+public final class CatpointDaemon implements AutoCloseable {
+
+    public static final String CAMERA_DIRECTORY_PROPERTY = "catpoint.camera.directory";
+    public static final String ALARM_RULES_PROPERTY = "catpoint.alarm.rules";
+    public static final String ALERT_ENDPOINT_PROPERTY = "catpoint.alert.endpoint";
+    public static final String ALERT_OUTBOX_PROPERTY = "catpoint.alert.outbox";
+    public static final String DEFAULT_ALERT_OUTBOX = "catpoint-alerts.outbox";
+    public static final String AUDIT_DIRECTORY_PROPERTY = "catpoint.audit.directory";
+    private static final int ALERT_OUTBOX_CAPACITY = 10_000;
+
+    private final SecurityService securityService;
+    private final FrameIngestionService ingestion;
+    private final AlertDispatcher alerts;
+    private final AuditLog auditLog;
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    /**
+     * Starts the engine with the preferences-backed repository.
+     */
+    public CatpointDaemon(Properties config) {
+        this(config, new PretendDatabaseSecurityRepositoryImpl());
+    }
+
+    public CatpointDaemon(Properties config, SecurityRepository repository) {
+        this.securityService = new SecurityService(repository, ImageServiceFactory.create(config), loadAlarmRules(config));
+        securityService.addStatusListener(new StatusLog());
+
+        String auditDirectory = config.getProperty(AUDIT_DIRECTORY_PROPERTY);
+        this.auditLog = auditDirectory != null ? startAudit(Path.of(auditDirectory)) : null;
+
+        String alertEndpoint = config.getProperty(ALERT_ENDPOINT_PROPERTY);
+        this.alerts = alertEndpoint != null ? startAlerts(URI.create(alertEndpoint), config) : null;
+
+        String cameraDirectory = config.getProperty(CAMERA_DIRECTORY_PROPERTY);
+        this.ingestion = cameraDirectory != null ? startCamera(Path.of(cameraDirectory)) : null;
+    }
+
+    private static AlarmTransitionTable loadAlarmRules(Properties config) {
+        String rulesFile = config.getProperty(ALARM_RULES_PROPERTY);
+        if (rulesFile == null) {
+            return AlarmTransitionTable.defaults();
+        }
+        try {
+            return AlarmTransitionTable.load(Path.of(rulesFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read alarm rules " + rulesFile, e);
+        }
+    }
+
+    private AuditLog startAudit(Path directory) {
+        try {
+            AuditLog log = new AuditLog(directory).start();
+            securityService.addStatusListener(new AuditRecorder(log));
+            return log;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open audit log in " + directory, e);
+        }
+    }
+
+    private AlertDispatcher startAlerts(URI endpoint, Properties config) {
+        String outboxFile = config.getProperty(ALERT_OUTBOX_PROPERTY, DEFAULT_ALERT_OUTBOX);
+        AlertOutbox outbox;
+        try {
+            outbox = new AlertOutbox(Path.of(outboxFile), ALERT_OUTBOX_CAPACITY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open alert outbox " + outboxFile, e);
+        }
+        AlertDispatcher dispatcher = new AlertDispatcher(outbox, new HttpAlertSink(endpoint));
+        dispatcher.notify(securityService.getArmingStatus());
+        securityService.addStatusListener(dispatcher);
+        return dispatcher.start();
+    }
+
+    private FrameIngestionService startCamera(Path directory) {
+        FrameIngestionService service = new FrameIngestionService(securityService)
+                .withSamplingPolicy(AdaptiveSamplingPolicy.attach(securityService));
+        service.addCamera(new DirectoryFrameSource(SecurityService.DEFAULT_CAMERA_ID, directory),
+                1, FrameQueue.OverflowPolicy.LATEST_ONLY, Duration.ZERO);
+        service.start();
+        return service;
+    }
+
+    public SecurityService getSecurityService() {
+        return securityService;
+    }
+
+    /**
+     * Blocks until {@link #close()} is called, e.g. by the shutdown hook.
+     */
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() {
+        if (ingestion != null) {
+            ingestion.stop();
+        }
+        if (alerts != null) {
+            alerts.close();
+        }
+        if (auditLog != null) {
+            try {
+                auditLog.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close audit log: " + e.getMessage());
+            }
+        }
+        closed.countDown();
+    }
+
+    /**
+     * Reads the optional properties file, then overlays the system properties.
+     */
+    static Properties loadConfig(String[] args) throws IOException {
+        Properties config = new Properties();
+        if (args.length > 0) {
+            try (Reader reader = Files.newBufferedReader(Path.of(args[0]))) {
+                config.load(reader);
+            }
+        }
+        config.putAll(System.getProperties());
+        return config;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        CatpointDaemon daemon = new CatpointDaemon(loadConfig(args));
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::close, "catpoint-daemon-shutdown"));
+        System.out.println("CatPoint daemon started: arming=" + daemon.securityService.getArmingStatus()
+                + ", alarm=" + daemon.securityService.getAlarmStatus());
+        StartupMetrics.reportIfEnabled("headless");
+        daemon.awaitClose();
+    }
+
+    /**
+     * Writes status changes to standard output in place of the GUI panels.
+     */
+    private static final class StatusLog implements StatusListener {
+
+        @Override
+        public void notify(AlarmStatus status) {
+            log("alarm " + status);
+        }
+
+        @Override
+        public void notify(ArmingStatus status) {
+            log("arming " + status);
+        }
+
+        @Override
+        public void catDetected(boolean catDetected) {
+            log("cat " + (catDetected ? "detected" : "not detected"));
+        }
+
+        @Override
+        public void sensorStatusChanged() {
+            // sensors are reported through the alarm status they cause
+        }
+
+        @Override
+        public void sensorStaleChanged(Sensor sensor, boolean stale) {
+            log("sensor " + sensor.getName() + (stale ? " missed its heartbeat" : " reporting again"));
+        }
+
+        private static void log(String message) {
+            System.out.println(Instant.now() + " " + message);
+        }
+    }
+}
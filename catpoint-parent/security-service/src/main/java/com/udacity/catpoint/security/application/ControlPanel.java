@@ -6,6 +6,7 @@ import com.udacity.catpoint.security.service.StyleService;
 import net.miginfocom.swing.MigLayout;
 
 import javax.swing.*;
+import java.awt.Color;
 import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Map;
@@ -42,7 +43,7 @@ public class ControlPanel extends JPanel {
         buttonMap.forEach((status, button) -> {
             button.addActionListener(e -> {
                 securityService.setArmingStatus(status);
-                buttonMap.forEach((s, b) -> b.setBackground(s == status ? s.getColor() : null));
+                buttonMap.forEach((s, b) -> b.setBackground(s == status ? new Color(s.getRgb()) : null));
             });
         });
 
@@ -51,6 +52,6 @@ public class ControlPanel extends JPanel {
 
         // Highlight current status
         ArmingStatus currentStatus = securityService.getArmingStatus();
-        buttonMap.get(currentStatus).setBackground(currentStatus.getColor());
+        buttonMap.get(currentStatus).setBackground(new Color(currentStatus.getRgb()));
     }
 }
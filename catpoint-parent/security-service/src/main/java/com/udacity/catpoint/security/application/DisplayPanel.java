@@ -7,6 +7,8 @@ import com.udacity.catpoint.security.service.StyleService;
 import net.miginfocom.swing.MigLayout;
 
 import javax.swing.*;
+import java.awt.Color;
+import java.awt.EventQueue;
 
 public class DisplayPanel extends JPanel implements StatusListener {
 
@@ -32,11 +34,17 @@ public class DisplayPanel extends JPanel implements StatusListener {
 
     }
 
+    /**
+     * Shows the new alarm status. Called on whichever thread changed it, e.g. a camera
+     * analysis thread, so the label is updated on the event dispatch thread.
+     */
     @Override
     public void notify(AlarmStatus status) {
-        currentStatusLabel.setText(status.getDescription());
-        currentStatusLabel.setBackground(status.getColor());
-        currentStatusLabel.setOpaque(true);
+        EventQueue.invokeLater(() -> {
+            currentStatusLabel.setText(status.getDescription());
+            currentStatusLabel.setBackground(new Color(status.getRgb()));
+            currentStatusLabel.setOpaque(true);
+        });
     }
 
     @Override
@@ -1,28 +1,34 @@
 package com.udacity.catpoint.security.application;
 
+import com.udacity.catpoint.image.FrameBufferPool;
 import com.udacity.catpoint.security.data.AlarmStatus;
 import com.udacity.catpoint.security.data.ArmingStatus;
 import com.udacity.catpoint.security.service.SecurityService;
 import com.udacity.catpoint.security.service.StyleService;
 import net.miginfocom.swing.MigLayout;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Panel displaying the camera feed and controls for refreshing or scanning images.
+ * Previews and full-resolution images are decoded into the panel's own buffer pool and
+ * released once replaced, so browsing through camera images reuses the same few rasters.
  */
 public final class ImagePanel extends JPanel implements StatusListener {
 
     private final SecurityService securityService;
     private final JLabel cameraHeader;
     private final JLabel cameraLabel;
+    private final FrameBufferPool bufferPool = new FrameBufferPool(2);
+    private File currentCameraFile;
     private BufferedImage currentCameraImage;
+    private BufferedImage currentPreview;
+    private boolean scanning;
 
     private static final int IMAGE_WIDTH = 300;
     private static final int IMAGE_HEIGHT = 225;
@@ -62,18 +68,7 @@ public final class ImagePanel extends JPanel implements StatusListener {
             if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
                 File selectedFile = fileChooser.getSelectedFile();
                 if (selectedFile != null) {
-                    try {
-                        BufferedImage loadedImage = ImageIO.read(selectedFile);
-                        if (loadedImage == null) {
-                            JOptionPane.showMessageDialog(this, "Unsupported or invalid image file.");
-                            return;
-                        }
-                        currentCameraImage = loadedImage;
-                        Image scaled = loadedImage.getScaledInstance(IMAGE_WIDTH, IMAGE_HEIGHT, Image.SCALE_SMOOTH);
-                        cameraLabel.setIcon(new ImageIcon(scaled));
-                    } catch (IOException ex) {
-                        JOptionPane.showMessageDialog(this, "Error loading image: " + ex.getMessage());
-                    }
+                    loadPreview(selectedFile);
                 }
             }
         });
@@ -86,8 +81,8 @@ public final class ImagePanel extends JPanel implements StatusListener {
     private JButton buildScanButton() {
         JButton button = new JButton("Scan Picture");
         button.addActionListener(e -> {
-            if (currentCameraImage != null) {
-                securityService.processImage(currentCameraImage);
+            if (currentCameraFile != null) {
+                scanCurrentImage(button);
             } else {
                 JOptionPane.showMessageDialog(this, "Please refresh the camera before scanning.");
             }
@@ -95,6 +90,85 @@ public final class ImagePanel extends JPanel implements StatusListener {
         return button;
     }
 
+    /**
+     * Decodes a subsampled preview of the file in the background and shows it when ready.
+     */
+    private void loadPreview(File file) {
+        new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() throws Exception {
+                return PreviewImageLoader.loadPreview(file, IMAGE_WIDTH, IMAGE_HEIGHT, bufferPool);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    BufferedImage preview = get();
+                    if (preview == null) {
+                        JOptionPane.showMessageDialog(ImagePanel.this, "Unsupported or invalid image file.");
+                        return;
+                    }
+                    cameraLabel.setIcon(new ImageIcon(preview));
+                    // The label no longer paints the old preview; a running scan releases its own image
+                    bufferPool.release(currentPreview);
+                    if (!scanning) {
+                        bufferPool.release(currentCameraImage);
+                    }
+                    currentPreview = preview;
+                    currentCameraFile = file;
+                    currentCameraImage = null;
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(ImagePanel.this, "Error loading image: " + ex.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Decodes the current file at full resolution, if not done yet, and analyzes it in the background.
+     * Listeners are notified of the result on the worker thread, so every panel moves its
+     * updates onto the event dispatch thread itself.
+     */
+    private void scanCurrentImage(JButton scanButton) {
+        File file = currentCameraFile;
+        BufferedImage decoded = currentCameraImage;
+        scanButton.setEnabled(false);
+        scanning = true;
+        new SwingWorker<BufferedImage, Void>() {
+            @Override
+            protected BufferedImage doInBackground() throws Exception {
+                BufferedImage image = decoded != null ? decoded : PreviewImageLoader.loadFull(file, bufferPool);
+                if (image != null) {
+                    securityService.processImage(image);
+                }
+                return image;
+            }
+
+            @Override
+            protected void done() {
+                scanButton.setEnabled(true);
+                scanning = false;
+                try {
+                    BufferedImage image = get();
+                    if (image == null) {
+                        JOptionPane.showMessageDialog(ImagePanel.this, "Unsupported or invalid image file.");
+                    } else if (file == currentCameraFile) {
+                        currentCameraImage = image;
+                    } else {
+                        // Another file was loaded while this one was being scanned
+                        bufferPool.release(image);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(ImagePanel.this, "Error scanning image: " + ex.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+
     @Override
     public void notify(AlarmStatus status) {
         // no behavior required for alarm status updates
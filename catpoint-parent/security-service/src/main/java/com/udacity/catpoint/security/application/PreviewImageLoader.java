@@ -0,0 +1,157 @@
+package com.udacity.catpoint.security.application;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Decodes camera images for display and analysis.
+ * Previews are decoded with source subsampling, so a multi-megapixel JPEG is never fully
+ * decoded just to fill a small label; the full-resolution image is decoded only for analysis.
+ * <p>
+ * Given a {@link FrameBufferPool}, the subsampled decode, the scaled preview and the full image
+ * all come from the pool. The subsampled decode is released as soon as it has been scaled; the
+ * preview and the full image belong to the caller, who releases them once they are replaced.
+ */
+public final class PreviewImageLoader {
+
+    private PreviewImageLoader() {
+    }
+
+    /**
+     * Decodes a preview of the image that is at least {@code width} x {@code height} pixels
+     * before scaling, then scales it to exactly that size.
+     *
+     * @return the preview, or null if the file is not a supported image
+     */
+    public static BufferedImage loadPreview(File file, int width, int height) throws IOException {
+        return loadPreview(file, width, height, null);
+    }
+
+    /**
+     * Decodes a preview as {@link #loadPreview(File, int, int)} does, taking its buffers from
+     * the pool when one is given.
+     *
+     * @param pool the pool to decode and scale into, or null to allocate
+     * @return the preview, or null if the file is not a supported image
+     */
+    public static BufferedImage loadPreview(File file, int width, int height, FrameBufferPool pool) throws IOException {
+        BufferedImage decoded = decodeSubsampled(file, width, height, pool);
+        if (decoded == null) {
+            return null;
+        }
+        try {
+            return scale(decoded, width, height, pool);
+        } finally {
+            if (pool != null) {
+                pool.release(decoded);
+            }
+        }
+    }
+
+    /**
+     * Decodes the image at full resolution.
+     *
+     * @return the image, or null if the file is not a supported image
+     */
+    public static BufferedImage loadFull(File file) throws IOException {
+        return loadFull(file, null);
+    }
+
+    /**
+     * Decodes the image at full resolution into a pooled buffer when a pool is given.
+     *
+     * @param pool the pool to decode into, or null to allocate
+     * @return the image, or null if the file is not a supported image
+     */
+    public static BufferedImage loadFull(File file, FrameBufferPool pool) throws IOException {
+        return pool != null ? pool.read(file) : ImageIO.read(file);
+    }
+
+    static BufferedImage decodeSubsampled(File file, int width, int height) throws IOException {
+        return decodeSubsampled(file, width, height, null);
+    }
+
+    /**
+     * Decodes every n-th row and column, with n chosen so the result still covers the target size.
+     */
+    static BufferedImage decodeSubsampled(File file, int width, int height, FrameBufferPool pool) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            BufferedImage destination = null;
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                int factor = subsamplingFactor(sourceWidth, sourceHeight, width, height);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                if (pool != null) {
+                    Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+                    int imageType = types.hasNext() ? types.next().getBufferedImageType() : BufferedImage.TYPE_CUSTOM;
+                    if (imageType != BufferedImage.TYPE_CUSTOM) {
+                        destination = pool.acquire(ceilDiv(sourceWidth, factor), ceilDiv(sourceHeight, factor), imageType);
+                        param.setDestination(destination);
+                    }
+                }
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                if (destination != null) {
+                    pool.release(destination);
+                }
+                throw e;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Returns the largest subsampling factor that keeps the image at least the target size.
+     */
+    static int subsamplingFactor(int sourceWidth, int sourceHeight, int width, int height) {
+        return Math.max(1, Math.min(sourceWidth / width, sourceHeight / height));
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * Scales with a single bilinear Graphics2D pass, much cheaper than
+     * {@code getScaledInstance(..., SCALE_SMOOTH)}. The source replaces every pixel, so a reused
+     * pooled buffer shows nothing of its previous contents even where the source is translucent.
+     */
+    static BufferedImage scale(BufferedImage source, int width, int height, FrameBufferPool pool) {
+        BufferedImage scaled = pool != null
+                ? pool.acquire(width, height, BufferedImage.TYPE_INT_RGB)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+}
@@ -9,29 +9,58 @@ import com.udacity.catpoint.security.service.StyleService;
 import net.miginfocom.swing.MigLayout;
 
 import javax.swing.*;
-import java.util.HashMap;
-import java.util.Map;
+import javax.swing.event.ListSelectionEvent;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Panel for managing sensors in the home security system.
  * Users can add, activate/deactivate, or remove sensors.
+ * <p>
+ * Sensors are listed in a JTable, which only creates renderers for the visible rows. Status
+ * changes are coalesced: however many arrive, the table is brought up to date at most once per
+ * display frame. Sensors added, removed or switched are applied to their own rows from the
+ * service's per-sensor events; the full sensor set is only compared with the table to
+ * resynchronize, on startup and after arming, which deactivates sensors without per-sensor events.
  */
 public class SensorPanel extends JPanel implements StatusListener {
 
+    /** System property overriding the number of sensors that can be added from the panel. */
+    public static final String MAX_SENSORS_PROPERTY = "catpoint.sensors.max";
+
+    private static final int DEFAULT_MAX_SENSORS = 4;
+
+    /** Minimum time between table refreshes, about one frame at 60 Hz. */
+    static final int REFRESH_INTERVAL_MILLIS = 16;
+
     private final SecurityService securityService;
     private final JLabel panelLabel = new JLabel("Sensor Management");
     private final JLabel newSensorName = new JLabel("Name:");
     private final JLabel newSensorType = new JLabel("Sensor Type:");
     private final JTextField newSensorNameField = new JTextField();
     private final JComboBox<SensorType> newSensorTypeDropdown = new JComboBox<>(SensorType.values());
+    private final JLabel newSensorZone = new JLabel("Zone:");
+    private final JTextField newSensorZoneField = new JTextField();
     private final JButton addNewSensorButton = new JButton("Add New Sensor");
 
+    private final SensorTableModel sensorTableModel = new SensorTableModel();
+    private final JTable sensorTable = new JTable(sensorTableModel);
+    private final JButton toggleButton = new JButton("Activate");
+    private final JButton removeButton = new JButton("Remove Sensor");
+
     private final JPanel sensorListPanel;
     private final JPanel newSensorPanel;
 
-    // Track buttons for enabling/disabling when arming changes
-    private final Map<Sensor, JButton> toggleButtonMap = new HashMap<>();
+    private final int maxSensors = Integer.getInteger(MAX_SENSORS_PROPERTY, DEFAULT_MAX_SENSORS);
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final AtomicBoolean resyncPending = new AtomicBoolean(true);
+    private final Queue<Consumer<SensorTableModel>> pendingRowChanges = new ConcurrentLinkedQueue<>();
+    private final Timer refreshTimer = new Timer(REFRESH_INTERVAL_MILLIS, e -> refreshSensorList());
 
     public SensorPanel(SecurityService securityService) {
         super();
@@ -42,12 +71,13 @@ public class SensorPanel extends JPanel implements StatusListener {
         securityService.addStatusListener(this);
 
         panelLabel.setFont(StyleService.HEADING_FONT);
+        refreshTimer.setRepeats(false);
 
         addNewSensorButton.addActionListener(e -> {
             String name = newSensorNameField.getText().trim();
             SensorType type = (SensorType) newSensorTypeDropdown.getSelectedItem();
             if (!name.isEmpty() && type != null) {
-                addSensor(new Sensor(name, type));
+                addSensor(new Sensor(name, type, newSensorZoneField.getText()));
             } else {
                 JOptionPane.showMessageDialog(null, "Please enter a valid sensor name and type.");
             }
@@ -69,67 +99,127 @@ public class SensorPanel extends JPanel implements StatusListener {
         panel.add(newSensorNameField, "width 50:100:200");
         panel.add(newSensorType);
         panel.add(newSensorTypeDropdown, "wrap");
+        panel.add(newSensorZone);
+        panel.add(newSensorZoneField, "width 50:100:200, wrap");
         panel.add(addNewSensorButton, "span 3");
         return panel;
     }
 
     private JPanel createSensorListPanel() {
+        sensorTable.setFillsViewportHeight(true);
+        sensorTable.getTableHeader().setReorderingAllowed(false);
+        sensorTable.getColumnModel().getColumn(SensorTableModel.NAME_COLUMN).setPreferredWidth(250);
+        sensorTable.getSelectionModel().addListSelectionListener(this::selectionChanged);
+
+        toggleButton.addActionListener(e -> toggleSelectedSensors());
+        removeButton.addActionListener(e -> deleteSelectedSensors());
+        updateButtons();
+
         JPanel panel = new JPanel(new MigLayout());
-        refreshSensorList(panel);
+        panel.add(new JScrollPane(sensorTable), "span, width 500:500:500, height 150:150:150, wrap");
+        panel.add(toggleButton, "width 100:100:100");
+        panel.add(removeButton);
         return panel;
     }
 
-    private void refreshSensorList() {
-        refreshSensorList(sensorListPanel);
+    /**
+     * Requests a table refresh. Safe to call from any thread; calls within one refresh
+     * interval are merged into a single refresh on the event dispatch thread.
+     */
+    private void scheduleRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            refreshTimer.start();
+        }
     }
 
-    private void refreshSensorList(JPanel panel) {
-        panel.removeAll();
-        toggleButtonMap.clear();
+    /**
+     * Queues a change to one row and requests a refresh. Safe to call from any thread.
+     */
+    private void scheduleRowChange(Consumer<SensorTableModel> change) {
+        pendingRowChanges.add(change);
+        scheduleRefresh();
+    }
 
-        securityService.getSensors().stream().sorted().forEach(sensor -> {
-            JLabel sensorLabel = new JLabel(String.format(
-                    "%s (%s): %s",
-                    sensor.getName(),
-                    sensor.getSensorType(),
-                    sensor.getActive() ? "Active" : "Inactive"
-            ));
+    /**
+     * Requests a refresh that compares the whole sensor set with the table.
+     */
+    private void scheduleResync() {
+        resyncPending.set(true);
+        scheduleRefresh();
+    }
 
-            JButton toggleButton = new JButton(sensor.getActive() ? "Deactivate" : "Activate");
-            JButton removeButton = new JButton("Remove Sensor");
+    private void refreshSensorList() {
+        refreshPending.set(false);
+        if (resyncPending.getAndSet(false)) {
+            // Queued changes are covered by the snapshot; later ones are safe to apply on top
+            pendingRowChanges.clear();
+            sensorTableModel.update(securityService.getSensors());
+        } else {
+            Consumer<SensorTableModel> change;
+            while ((change = pendingRowChanges.poll()) != null) {
+                change.accept(sensorTableModel);
+            }
+        }
+        updateButtons();
+    }
 
-            toggleButton.addActionListener(e -> changeSensorActivity(sensor, !sensor.getActive()));
-            removeButton.addActionListener(e -> deleteSensor(sensor));
+    private void selectionChanged(ListSelectionEvent e) {
+        if (!e.getValueIsAdjusting()) {
+            updateButtons();
+        }
+    }
 
-            panel.add(sensorLabel, "width 300:300:300");
-            panel.add(toggleButton, "width 100:100:100");
-            panel.add(removeButton, "wrap");
+    private void updateButtons() {
+        List<Sensor> selected = selectedSensors();
+        toggleButton.setEnabled(!selected.isEmpty());
+        removeButton.setEnabled(!selected.isEmpty());
+        toggleButton.setText(!selected.isEmpty() && selected.get(0).getActive() ? "Deactivate" : "Activate");
+    }
 
-            toggleButtonMap.put(sensor, toggleButton);
-        });
+    private List<Sensor> selectedSensors() {
+        int[] selectedRows = sensorTable.getSelectedRows();
+        List<Sensor> sensors = new ArrayList<>(selectedRows.length);
+        for (int row : selectedRows) {
+            sensors.add(sensorTableModel.getSensorAt(row));
+        }
+        return sensors;
+    }
+
+    private void toggleSelectedSensors() {
+        List<Sensor> selected = selectedSensors();
+        if (selected.isEmpty()) {
+            return;
+        }
+        // All selected sensors follow the first one, like a tri-state checkbox
+        boolean active = !selected.get(0).getActive();
+        selected.forEach(sensor -> changeSensorActivity(sensor, active));
+    }
+
+    private void deleteSelectedSensors() {
+        selectedSensors().forEach(this::deleteSensor);
+    }
 
-        panel.revalidate();
-        panel.repaint();
+    SensorTableModel getSensorTableModel() {
+        return sensorTableModel;
     }
 
+    // The rows follow from the events the service sends for each of these calls
+
     private void changeSensorActivity(Sensor sensor, boolean active) {
         securityService.changeSensorActivationStatus(sensor, active);
-        refreshSensorList();
     }
 
     private void addSensor(Sensor sensor) {
-        if (securityService.getSensors().size() >= 4) {
+        if (securityService.getSensorCount() >= maxSensors) {
             JOptionPane.showMessageDialog(null,
-                    "To add more than 4 sensors, please subscribe to our Premium Membership!");
+                    "To add more than " + maxSensors + " sensors, please subscribe to our Premium Membership!");
         } else {
             securityService.addSensor(sensor);
-            refreshSensorList();
         }
     }
 
     private void deleteSensor(Sensor sensor) {
         securityService.removeSensor(sensor);
-        refreshSensorList();
     }
 
     /** ========== StatusListener Implementation ========== */
@@ -146,17 +236,27 @@ public class SensorPanel extends JPanel implements StatusListener {
 
     @Override
     public void sensorStatusChanged() {
-        refreshSensorList();
+        // Each activation also arrives as sensorActivationChanged, and arming as notify
     }
 
     @Override
-    public void notify(ArmingStatus armingStatus) {
-        boolean enableSensors = (armingStatus == ArmingStatus.DISARMED);
+    public void sensorActivationChanged(Sensor sensor, boolean active) {
+        scheduleRowChange(model -> model.sensorChanged(sensor));
+    }
 
-        // Disable sensor buttons when armed, enable when disarmed
-        toggleButtonMap.values().forEach(button -> button.setEnabled(enableSensors));
+    @Override
+    public void sensorAdded(Sensor sensor) {
+        scheduleRowChange(model -> model.sensorAdded(sensor));
+    }
 
-        // Also refresh display
-        refreshSensorList();
+    @Override
+    public void sensorRemoved(Sensor sensor) {
+        scheduleRowChange(model -> model.sensorRemoved(sensor));
+    }
+
+    @Override
+    public void notify(ArmingStatus armingStatus) {
+        // Arming deactivates sensors without a sensorActivationChanged for each of them
+        scheduleResync();
     }
 }
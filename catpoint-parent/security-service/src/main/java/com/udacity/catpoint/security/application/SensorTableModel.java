@@ -0,0 +1,244 @@
+package com.udacity.catpoint.security.application;
+
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Table model of the sensor list, sorted like {@link Sensor#compareTo(Sensor)}.
+ * Sensors added, removed or changed one at a time are applied with {@link #sensorAdded},
+ * {@link #sensorRemoved} and {@link #sensorChanged}, each touching a single row.
+ * {@link #update(Collection)} resynchronizes with the full sensor set: each row keeps a snapshot
+ * of what it displays, so it can still fire events for the changed rows only; the JTable then
+ * repaints just those rows instead of the whole list.
+ * <p>
+ * Must be used on the event dispatch thread.
+ */
+public final class SensorTableModel extends AbstractTableModel {
+
+    static final int NAME_COLUMN = 0;
+    static final int TYPE_COLUMN = 1;
+    static final int ZONE_COLUMN = 2;
+    static final int STATUS_COLUMN = 3;
+
+    private static final String[] COLUMN_NAMES = {"Name", "Type", "Zone", "Status"};
+
+    /** Beyond this many added or removed sensors, a single full reload is cheaper than row events. */
+    private static final int MAX_STRUCTURAL_EVENTS = 64;
+
+    private static final Comparator<Row> ROW_ORDER = Comparator
+            .comparing((Row row) -> row.name)
+            .thenComparing(row -> row.type.toString())
+            .thenComparing(row -> row.sensor.getSensorId());
+
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<UUID, Row> rowsById = new HashMap<>();
+    private long generation;
+
+    /**
+     * Brings the model up to date with the given sensors.
+     *
+     * @return the number of rows inserted, deleted or updated
+     */
+    public int update(Collection<Sensor> sensors) {
+        long current = ++generation;
+        List<Sensor> added = new ArrayList<>();
+        List<Row> changed = new ArrayList<>();
+        List<Row> moved = new ArrayList<>();
+
+        for (Sensor sensor : sensors) {
+            Row row = rowsById.get(sensor.getSensorId());
+            if (row == null) {
+                added.add(sensor);
+                continue;
+            }
+            row.generation = current;
+            row.sensor = sensor;
+            if (!row.name.equals(sensor.getName()) || row.type != sensor.getSensorType()) {
+                // Renamed or retyped sensors change position, so they are removed and re-inserted
+                moved.add(row);
+            } else if (row.active != sensor.getActive() || !row.zone.equals(sensor.getZone())) {
+                row.active = sensor.getActive();
+                row.zone = sensor.getZone();
+                changed.add(row);
+            }
+        }
+
+        int removed = rows.size() - (sensors.size() - added.size());
+        int structural = removed + added.size() + 2 * moved.size();
+        if (structural > MAX_STRUCTURAL_EVENTS) {
+            reload(sensors);
+            return structural + changed.size();
+        }
+
+        for (Row row : moved) {
+            deleteRow(row);
+            added.add(row.sensor);
+        }
+        if (removed > 0) {
+            for (int index = rows.size() - 1; index >= 0; index--) {
+                if (rows.get(index).generation != current) {
+                    rowsById.remove(rows.remove(index).sensor.getSensorId());
+                    fireTableRowsDeleted(index, index);
+                }
+            }
+        }
+        for (Sensor sensor : added) {
+            insertRow(sensor);
+        }
+        for (Row row : changed) {
+            int index = indexOf(row);
+            fireTableRowsUpdated(index, index);
+        }
+        return structural + changed.size();
+    }
+
+    /**
+     * Inserts a row for a newly added sensor.
+     *
+     * @return false if the sensor is already shown
+     */
+    public boolean sensorAdded(Sensor sensor) {
+        if (rowsById.containsKey(sensor.getSensorId())) {
+            return false;
+        }
+        insertRow(sensor);
+        return true;
+    }
+
+    /**
+     * Deletes the row of a removed sensor.
+     *
+     * @return false if the sensor was not shown
+     */
+    public boolean sensorRemoved(Sensor sensor) {
+        Row row = rowsById.get(sensor.getSensorId());
+        if (row == null) {
+            return false;
+        }
+        deleteRow(row);
+        return true;
+    }
+
+    /**
+     * Brings the row of a sensor up to date with its current state, moving it if it was
+     * renamed or retyped.
+     *
+     * @return false if the sensor is not shown or its row already matches
+     */
+    public boolean sensorChanged(Sensor sensor) {
+        Row row = rowsById.get(sensor.getSensorId());
+        if (row == null) {
+            return false;
+        }
+        row.sensor = sensor;
+        if (!row.name.equals(sensor.getName()) || row.type != sensor.getSensorType()) {
+            deleteRow(row);
+            insertRow(sensor);
+            return true;
+        }
+        if (row.active == sensor.getActive() && row.zone.equals(sensor.getZone())) {
+            return false;
+        }
+        row.active = sensor.getActive();
+        row.zone = sensor.getZone();
+        int index = indexOf(row);
+        fireTableRowsUpdated(index, index);
+        return true;
+    }
+
+    private void insertRow(Sensor sensor) {
+        Row row = new Row(sensor, generation);
+        int index = -Collections.binarySearch(rows, row, ROW_ORDER) - 1;
+        rows.add(index, row);
+        rowsById.put(sensor.getSensorId(), row);
+        fireTableRowsInserted(index, index);
+    }
+
+    private void reload(Collection<Sensor> sensors) {
+        rows.clear();
+        rowsById.clear();
+        for (Sensor sensor : sensors) {
+            Row row = new Row(sensor, generation);
+            rows.add(row);
+            rowsById.put(sensor.getSensorId(), row);
+        }
+        rows.sort(ROW_ORDER);
+        fireTableDataChanged();
+    }
+
+    private void deleteRow(Row row) {
+        int index = indexOf(row);
+        rows.remove(index);
+        rowsById.remove(row.sensor.getSensorId());
+        fireTableRowsDeleted(index, index);
+    }
+
+    private int indexOf(Row row) {
+        return Collections.binarySearch(rows, row, ROW_ORDER);
+    }
+
+    /**
+     * Returns the sensor shown in the given row.
+     */
+    Sensor getSensorAt(int rowIndex) {
+        return rows.get(rowIndex).sensor;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Row row = rows.get(rowIndex);
+        return switch (columnIndex) {
+            case NAME_COLUMN -> row.name;
+            case TYPE_COLUMN -> row.type;
+            case ZONE_COLUMN -> row.zone;
+            case STATUS_COLUMN -> row.active ? "Active" : "Inactive";
+            default -> throw new IndexOutOfBoundsException("No column " + columnIndex);
+        };
+    }
+
+    /**
+     * What a row currently displays; name and type also determine its position.
+     */
+    private static final class Row {
+        private Sensor sensor;
+        private final String name;
+        private final SensorType type;
+        private String zone;
+        private boolean active;
+        private long generation;
+
+        private Row(Sensor sensor, long generation) {
+            this.sensor = sensor;
+            this.name = sensor.getName();
+            this.type = sensor.getSensorType();
+            this.zone = sensor.getZone();
+            this.active = sensor.getActive();
+            this.generation = generation;
+        }
+    }
+}
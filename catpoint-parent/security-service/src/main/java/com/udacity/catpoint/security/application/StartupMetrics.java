@@ -0,0 +1,56 @@
+package com.udacity.catpoint.security.application;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reports how long the JVM took to become ready and how much memory it holds, so the GUI and
+ * headless launches can be compared. Enabled with {@code -D}{@value #PROPERTY}{@code =true}.
+ */
+final class StartupMetrics {
+
+    static final String PROPERTY = "catpoint.startup.metrics";
+
+    private StartupMetrics() {
+    }
+
+    /**
+     * Prints the metrics to standard error if enabled.
+     *
+     * @param mode name of the launch mode, e.g. "gui" or "headless"
+     */
+    static void reportIfEnabled(String mode) {
+        if (Boolean.getBoolean(PROPERTY)) {
+            System.err.println(describe(mode));
+        }
+    }
+
+    static String describe(String mode) {
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsedKb = (runtime.totalMemory() - runtime.freeMemory()) / 1024;
+        return String.format("startup mode=%s readyMs=%d rssKb=%d heapUsedKb=%d loadedClasses=%d",
+                mode,
+                ManagementFactory.getRuntimeMXBean().getUptime(),
+                residentSetKb(),
+                heapUsedKb,
+                ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+    }
+
+    /**
+     * Returns the resident set size from /proc, or -1 where that is not available.
+     */
+    static long residentSetKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // not Linux, or /proc is unavailable
+        }
+        return -1;
+    }
+}
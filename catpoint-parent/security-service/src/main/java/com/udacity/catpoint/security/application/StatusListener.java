@@ -2,10 +2,41 @@ package com.udacity.catpoint.security.application;
 
 import com.udacity.catpoint.security.data.AlarmStatus;
 import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
 
 public interface StatusListener {
     void notify(AlarmStatus status);
     void notify(ArmingStatus status);
     void catDetected(boolean catDetected);
     void sensorStatusChanged();
+
+    /**
+     * Called when a sensor misses its heartbeat deadline, or reports again after having done so.
+     */
+    default void sensorStaleChanged(Sensor sensor, boolean stale) {
+    }
+
+    /**
+     * Called when a sensor is activated or deactivated through the SecurityService.
+     */
+    default void sensorActivationChanged(Sensor sensor, boolean active) {
+    }
+
+    /**
+     * Called when a sensor is added to the system.
+     */
+    default void sensorAdded(Sensor sensor) {
+    }
+
+    /**
+     * Called when a sensor is removed from the system.
+     */
+    default void sensorRemoved(Sensor sensor) {
+    }
+
+    /**
+     * Called after each camera image has been analyzed, with that camera's own result.
+     */
+    default void imageScanned(String cameraId, boolean catSeen) {
+    }
 }
\ No newline at end of file
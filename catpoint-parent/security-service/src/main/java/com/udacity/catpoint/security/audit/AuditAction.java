@@ -0,0 +1,14 @@
+package com.udacity.catpoint.security.audit;
+
+/**
+ * Kind of command recorded in the {@link AuditLog}.
+ * Records store the ordinal, so new actions must only be added at the end.
+ */
+public enum AuditAction {
+    ARMING_CHANGED,
+    ALARM_CHANGED,
+    SENSOR_ADDED,
+    SENSOR_REMOVED,
+    IMAGE_SCANNED,
+    SENSOR_CHANGED
+}
@@ -0,0 +1,506 @@
+package com.udacity.catpoint.security.audit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+
+/**
+ * Durable audit trail kept as rolling segment files ({@code audit-00000001.seg}, ...) in one
+ * directory. Records are buffered into blocks of about {@code blockSize} bytes, each deflated
+ * on its own, and every segment ends with a sparse index of its blocks' time ranges, see
+ * {@link AuditSegment}. A time-range query only reads the blocks of segments whose range
+ * overlaps it.
+ * <p>
+ * {@link #append} and {@link #offer} only queue the record. A single writer thread encodes queued records
+ * sequentially and commits them as a group: the partial block is written and the segment
+ * forced to disk at most once per commit interval, or as soon as a caller waits in
+ * {@link #commit()}. Records are visible to queries once committed. A crash loses at most the
+ * records appended since the last commit; segments left unsealed are recovered on the next
+ * open. Only one AuditLog may use a directory at a time.
+ */
+public class AuditLog implements AutoCloseable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d{8})\\.seg");
+
+    private final Path directory;
+    private final List<AuditSegment> segments = new CopyOnWriteArrayList<>();
+    private int nextSegmentNumber = 1;
+    private int blockSize = 64 * 1024;
+    private long segmentSize = 64L * 1024 * 1024;
+    private long commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private int maxPending = 65_536;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private Duration retention;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAdded = lock.newCondition();
+    private final Condition pendingTaken = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private List<AuditRecord> pending = new ArrayList<>();
+    private long appendedCount = 0;
+    private long committedCount = 0;
+    private boolean commitRequested = false;
+    private boolean closing = false;
+    private IOException failure;
+    private Thread writerThread;
+    private final LongAdder blocksRead = new LongAdder();
+
+    // Owned by the writer thread
+    private AuditSegment active;
+    private AuditSegment.BlockBuilder builder;
+    private long writtenCount = 0;
+    private long nextCommitNanos;
+
+    /**
+     * Opens the log in the directory, creating it if needed, and seals segments left unsealed
+     * by a crash. Records already in the directory can be queried straight away.
+     */
+    public AuditLog(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        Map<Integer, Path> existing = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "audit-*.seg")) {
+            for (Path file : files) {
+                Matcher name = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    existing.put(Integer.parseInt(name.group(1)), file);
+                }
+            }
+        }
+        for (Map.Entry<Integer, Path> file : existing.entrySet()) {
+            segments.add(AuditSegment.open(file.getValue()));
+            nextSegmentNumber = file.getKey() + 1;
+        }
+    }
+
+    /**
+     * Sets the uncompressed size at which a block is compressed and written.
+     *
+     * @return this instance for chaining
+     */
+    public AuditLog withBlockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be at least 1");
+        }
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * Sets the file size at which a segment is sealed and the next one started.
+     *
+     * @return this instance for chaining
+     */
+    public AuditLog withSegmentSize(long segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segmentSize must be at least 1");
+        }
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    /**
+     * Sets the longest time between group commits while records are being appended.
+     *
+     * @return this instance for chaining
+     */
+    public AuditLog withCommitInterval(Duration commitInterval) {
+        this.commitIntervalNanos = commitInterval.toNanos();
+        return this;
+    }
+
+    /**
+     * Sets how many records can be queued for the writer before {@link #append} blocks and
+     * {@link #offer} refuses records.
+     *
+     * @return this instance for chaining
+     */
+    public AuditLog withMaxPending(int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be at least 1");
+        }
+        this.maxPending = maxPending;
+        return this;
+    }
+
+    /**
+     * Sets the deflate level, from 1 (fastest) to 9 (smallest).
+     *
+     * @return this instance for chaining
+     */
+    public AuditLog withCompressionLevel(int compressionLevel) {
+        if (compressionLevel < 1 || compressionLevel > 9) {
+            throw new IllegalArgumentException("compressionLevel must be from 1 to 9");
+        }
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    /**
+     * Deletes sealed segments whose newest record is older than the retention. By default
+     * records are kept forever.
+     *
+     * @return this instance for chaining
+     */
+    public AuditLog withRetention(Duration retention) {
+        this.retention = retention;
+        return this;
+    }
+
+    /**
+     * Starts the writer thread; records can be appended from then on.
+     *
+     * @return this instance for chaining
+     */
+    public AuditLog start() throws IOException {
+        lock.lock();
+        try {
+            if (writerThread != null || closing) {
+                throw new IllegalStateException("Audit log already started");
+            }
+            expire();
+            active = newSegment();
+            builder = new AuditSegment.BlockBuilder(blockSize);
+            writerThread = new Thread(this::write, "audit-log-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+            return this;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a record for the writer, blocking while the queue is full.
+     */
+    public void append(AuditRecord record) throws IOException {
+        lock.lock();
+        try {
+            while (pending.size() >= maxPending && failure == null && !closing) {
+                pendingTaken.await();
+            }
+            checkWritable();
+            pending.add(record);
+            appendedCount++;
+            if (pending.size() == 1) {
+                pendingAdded.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted appending to audit log");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a record for the writer without blocking.
+     *
+     * @return false, without queuing the record, if the queue is full or the log is not open
+     *         for appending
+     * @throws IOException if the writer has failed
+     */
+    public boolean offer(AuditRecord record) throws IOException {
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new IOException("Audit log writer failed", failure);
+            }
+            if (writerThread == null || closing || pending.size() >= maxPending) {
+                return false;
+            }
+            pending.add(record);
+            appendedCount++;
+            if (pending.size() == 1) {
+                pendingAdded.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every record appended so far is on disk, joining the next group commit.
+     */
+    public void commit() throws IOException {
+        lock.lock();
+        try {
+            checkWritable();
+            long target = appendedCount;
+            while (committedCount < target) {
+                if (failure != null) {
+                    throw new IOException("Audit log writer failed", failure);
+                }
+                commitRequested = true;
+                pendingAdded.signal();
+                committed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted committing audit log");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (failure != null) {
+            throw new IOException("Audit log writer failed", failure);
+        }
+        if (writerThread == null || closing) {
+            throw new IllegalStateException("Audit log is not open for appending");
+        }
+    }
+
+    private void write() {
+        List<AuditRecord> batch = new ArrayList<>();
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            while (true) {
+                long batchEnd;
+                boolean commit;
+                boolean stop;
+                lock.lock();
+                try {
+                    while (pending.isEmpty() && !closing && !commitRequested && !commitDue()) {
+                        if (writtenCount > committedCount) {
+                            pendingAdded.awaitNanos(nextCommitNanos - System.nanoTime());
+                        } else {
+                            pendingAdded.await();
+                        }
+                    }
+                    List<AuditRecord> taken = pending;
+                    pending = batch;
+                    batch = taken;
+                    batchEnd = appendedCount;
+                    stop = closing;
+                    commit = commitRequested || stop || System.nanoTime() >= nextCommitNanos;
+                    commitRequested = false;
+                    pendingTaken.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                for (AuditRecord record : batch) {
+                    builder.add(record);
+                    if (builder.size() >= blockSize) {
+                        writeBlock(deflater);
+                    }
+                }
+                batch.clear();
+                writtenCount = batchEnd;
+
+                if (commit) {
+                    if (!builder.isEmpty()) {
+                        writeBlock(deflater);
+                    }
+                    active.force();
+                    nextCommitNanos = System.nanoTime() + commitIntervalNanos;
+                    lock.lock();
+                    try {
+                        committedCount = batchEnd;
+                        committed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                if (stop) {
+                    finishActive();
+                    return;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Audit log writer failed: " + e.getMessage());
+            lock.lock();
+            try {
+                failure = e instanceof IOException io ? io : new IOException(e);
+                committed.signalAll();
+                pendingTaken.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private boolean commitDue() {
+        return writtenCount > committedCount && System.nanoTime() >= nextCommitNanos;
+    }
+
+    private void writeBlock(Deflater deflater) throws IOException {
+        active.append(builder, deflater);
+        if (active.size() >= segmentSize) {
+            active.seal();
+            active = newSegment();
+            expire();
+        }
+    }
+
+    private AuditSegment newSegment() throws IOException {
+        AuditSegment segment = AuditSegment.create(
+                directory.resolve(String.format("audit-%08d.seg", nextSegmentNumber++)));
+        segments.add(segment);
+        return segment;
+    }
+
+    private void finishActive() throws IOException {
+        if (active.isEmpty()) {
+            segments.remove(active);
+            active.delete();
+        } else {
+            active.seal();
+        }
+    }
+
+    /**
+     * Deletes sealed segments that fell out of the retention.
+     */
+    private void expire() throws IOException {
+        if (retention == null) {
+            return;
+        }
+        long cutoff = AuditRecord.toMicros(Instant.now().minus(retention));
+        for (AuditSegment segment : segments) {
+            if (segment.isSealed() && segment.maxMicros() < cutoff) {
+                segments.remove(segment);
+                segment.delete();
+            }
+        }
+    }
+
+    /**
+     * Passes every committed record with a time in {@code [from, to)} to the consumer, in the
+     * order they were appended.
+     */
+    public void scan(Instant from, Instant to, Consumer<AuditRecord> consumer) throws IOException {
+        long fromMicros = AuditRecord.toMicros(from);
+        long toMicros = AuditRecord.toMicros(to);
+        for (AuditSegment segment : segments) {
+            if (!segment.overlaps(fromMicros, toMicros)) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.READ)) {
+                for (AuditSegment.Block block : segment.blocks()) {
+                    if (block.overlaps(fromMicros, toMicros)) {
+                        blocksRead.increment();
+                        AuditSegment.decode(segment.read(channel, block), block.records(), fromMicros, toMicros,
+                                consumer);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Deleted by the retention while this scan was running
+            }
+        }
+    }
+
+    /**
+     * Returns every committed record with a time in {@code [from, to)}.
+     */
+    public List<AuditRecord> query(Instant from, Instant to) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        scan(from, to, records::add);
+        return records;
+    }
+
+    /**
+     * Returns the number of records written to segment files.
+     */
+    public long getRecordCount() {
+        return segments.stream().mapToLong(AuditSegment::records).sum();
+    }
+
+    /**
+     * Returns the total size of the segment files.
+     */
+    public long getDiskSize() {
+        return segments.stream().mapToLong(AuditSegment::size).sum();
+    }
+
+    /**
+     * Returns how many times smaller the compressed blocks are than the encoded records.
+     */
+    public double getCompressionRatio() {
+        long compressed = segments.stream().mapToLong(AuditSegment::compressedBytes).sum();
+        long uncompressed = segments.stream().mapToLong(AuditSegment::uncompressedBytes).sum();
+        return compressed == 0 ? 1.0 : (double) uncompressed / compressed;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns the number of blocks read and decompressed by queries.
+     */
+    public long getBlocksRead() {
+        return blocksRead.sum();
+    }
+
+    /**
+     * Returns the number of records appended but not yet committed.
+     */
+    public long getUncommittedCount() {
+        lock.lock();
+        try {
+            return appendedCount - committedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Commits the remaining records, seals the active segment and stops the writer. The log
+     * can still be queried afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread writer;
+        lock.lock();
+        try {
+            closing = true;
+            pendingAdded.signal();
+            writer = writerThread;
+        } finally {
+            lock.unlock();
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted closing audit log");
+            }
+        }
+        if (failure != null) {
+            throw new IOException("Audit log writer failed", failure);
+        }
+    }
+}
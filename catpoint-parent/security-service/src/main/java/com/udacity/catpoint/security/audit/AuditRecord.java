@@ -0,0 +1,33 @@
+package com.udacity.catpoint.security.audit;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One entry of the audit trail.
+ *
+ * @param time   when the command was applied; the log keeps microsecond precision
+ * @param actor  who issued the command, e.g. the operating system user
+ * @param detail what the command was applied to, e.g. the new arming status or the sensor
+ */
+public record AuditRecord(Instant time, AuditAction action, String actor, String detail) {
+
+    public AuditRecord {
+        Objects.requireNonNull(time);
+        Objects.requireNonNull(action);
+        actor = actor == null ? "" : actor;
+        detail = detail == null ? "" : detail;
+    }
+
+    long epochMicros() {
+        return toMicros(time);
+    }
+
+    static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+}
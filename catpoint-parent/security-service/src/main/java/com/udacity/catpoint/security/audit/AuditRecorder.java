@@ -0,0 +1,108 @@
+package com.udacity.catpoint.security.audit;
+
+import com.udacity.catpoint.security.application.StatusListener;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records the commands applied by a SecurityService in an {@link AuditLog}: arming changes,
+ * the alarm changes they cause, sensors added, removed, activated and deactivated, and camera
+ * scans. Sensors are recorded as {@code name (id)}, activations as {@code name (id) active} or
+ * {@code name (id) inactive}, scans as {@code camera cat} or {@code camera no cat}.
+ * <p>
+ * Records are offered to the log without waiting, so neither the service lock nor the other
+ * listeners are held up by disk I/O or a full queue. Records the log cannot take, because its
+ * queue is full or it is closed, are dropped and counted by {@link #getDroppedCount()}.
+ */
+public class AuditRecorder implements StatusListener {
+
+    private final AuditLog auditLog;
+    private final Supplier<String> actor;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Records commands as issued by the operating system user running the application.
+     */
+    public AuditRecorder(AuditLog auditLog) {
+        this(auditLog, () -> System.getProperty("user.name", "unknown"));
+    }
+
+    /**
+     * @param actor called for each command to tell who issued it
+     */
+    public AuditRecorder(AuditLog auditLog, Supplier<String> actor) {
+        this.auditLog = Objects.requireNonNull(auditLog);
+        this.actor = Objects.requireNonNull(actor);
+    }
+
+    @Override
+    public void notify(AlarmStatus status) {
+        record(AuditAction.ALARM_CHANGED, status.toString());
+    }
+
+    @Override
+    public void notify(ArmingStatus status) {
+        record(AuditAction.ARMING_CHANGED, status.toString());
+    }
+
+    @Override
+    public void catDetected(boolean catDetected) {
+        // every scan is recorded through imageScanned
+    }
+
+    @Override
+    public void sensorStatusChanged() {
+        // every activation is recorded through sensorActivationChanged
+    }
+
+    @Override
+    public void sensorActivationChanged(Sensor sensor, boolean active) {
+        record(AuditAction.SENSOR_CHANGED, describe(sensor) + (active ? " active" : " inactive"));
+    }
+
+    @Override
+    public void sensorAdded(Sensor sensor) {
+        record(AuditAction.SENSOR_ADDED, describe(sensor));
+    }
+
+    @Override
+    public void sensorRemoved(Sensor sensor) {
+        record(AuditAction.SENSOR_REMOVED, describe(sensor));
+    }
+
+    @Override
+    public void imageScanned(String cameraId, boolean catSeen) {
+        record(AuditAction.IMAGE_SCANNED, cameraId + (catSeen ? " cat" : " no cat"));
+    }
+
+    private static String describe(Sensor sensor) {
+        return sensor.getName() + " (" + sensor.getSensorId() + ")";
+    }
+
+    private void record(AuditAction action, String detail) {
+        try {
+            if (!auditLog.offer(new AuditRecord(Instant.now(), action, actor.get(), detail))) {
+                if (dropped.incrementAndGet() == 1) {
+                    System.err.println("Audit log is full or closed, dropping " + action + " " + detail
+                            + "; further drops are only counted");
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to record " + action + " " + detail + " in the audit log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of records dropped because the audit log was full or closed.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
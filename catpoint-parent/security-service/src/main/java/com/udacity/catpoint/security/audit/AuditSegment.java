@@ -0,0 +1,451 @@
+package com.udacity.catpoint.security.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One file of the {@link AuditLog}, laid out as
+ * <pre>
+ * header   magic "CPAUDIT1"
+ * block*   compressed length, uncompressed length, record count, min time, max time, CRC-32,
+ *          deflated records
+ * index    per block: offset, min time, max time, record count, compressed and uncompressed length
+ * trailer  index offset, block count, magic "CPAIDX01"
+ * </pre>
+ * Times are microseconds since the epoch. Blocks are appended until the segment is sealed by
+ * writing the index. A segment found without an index after a crash is recovered by scanning
+ * its blocks and cutting off a torn last one.
+ * <p>
+ * Inside a block each record is its time as a zigzag varint delta from the previous record,
+ * the action ordinal as one byte, and the actor and detail as varint-length UTF-8 strings.
+ */
+final class AuditSegment implements Closeable {
+
+    private static final long HEADER_MAGIC = 0x4350415544495431L;
+    private static final long FOOTER_MAGIC = 0x4350414944583031L;
+    private static final int HEADER_SIZE = 8;
+    private static final int BLOCK_HEADER_SIZE = 32;
+    private static final int INDEX_ENTRY_SIZE = 36;
+    private static final int TRAILER_SIZE = 20;
+    private static final AuditAction[] ACTIONS = AuditAction.values();
+
+    /**
+     * Sparse index entry locating one block and the time range of its records.
+     */
+    record Block(long offset, long minMicros, long maxMicros, int records, int compressedLength,
+                 int uncompressedLength) {
+
+        boolean overlaps(long fromMicros, long toMicros) {
+            return minMicros < toMicros && maxMicros >= fromMicros;
+        }
+    }
+
+    private final Path path;
+    private final List<Block> blocks = new ArrayList<>();
+    private FileChannel writer;
+    private long position;
+    private long records;
+    private long compressedBytes;
+    private long uncompressedBytes;
+    private volatile long minMicros = Long.MAX_VALUE;
+    private volatile long maxMicros = Long.MIN_VALUE;
+
+    private AuditSegment(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Creates an empty segment open for appending.
+     */
+    static AuditSegment create(Path path) throws IOException {
+        AuditSegment segment = new AuditSegment(path);
+        segment.writer = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        writeFully(segment.writer, ByteBuffer.allocate(HEADER_SIZE).putLong(HEADER_MAGIC).flip(), 0);
+        segment.position = HEADER_SIZE;
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment read-only, sealing it first if it was left unsealed.
+     */
+    static AuditSegment open(Path path) throws IOException {
+        AuditSegment segment = new AuditSegment(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (!segment.readIndex(channel)) {
+                segment.recover(channel);
+                segment.writeIndex(channel);
+                channel.force(true);
+            }
+        }
+        return segment;
+    }
+
+    private boolean readIndex(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            return false;
+        }
+        ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+        long indexOffset = trailer.getLong();
+        int count = trailer.getInt();
+        if (trailer.getLong() != FOOTER_MAGIC || count < 0
+                || indexOffset + (long) count * INDEX_ENTRY_SIZE + TRAILER_SIZE != size) {
+            return false;
+        }
+        ByteBuffer index = readFully(channel, indexOffset, count * INDEX_ENTRY_SIZE);
+        for (int i = 0; i < count; i++) {
+            add(new Block(index.getLong(), index.getLong(), index.getLong(), index.getInt(), index.getInt(),
+                    index.getInt()));
+        }
+        position = size;
+        return true;
+    }
+
+    private void recover(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long offset = HEADER_SIZE;
+        if (size < HEADER_SIZE) {
+            channel.truncate(0);
+            writeFully(channel, ByteBuffer.allocate(HEADER_SIZE).putLong(HEADER_MAGIC).flip(), 0);
+        } else if (readFully(channel, 0, HEADER_SIZE).getLong() != HEADER_MAGIC) {
+            throw new IOException("Not an audit log segment: " + path);
+        } else {
+            while (offset + BLOCK_HEADER_SIZE <= size) {
+                ByteBuffer header = readFully(channel, offset, BLOCK_HEADER_SIZE);
+                int compressedLength = header.getInt();
+                int uncompressedLength = header.getInt();
+                int count = header.getInt();
+                long min = header.getLong();
+                long max = header.getLong();
+                int crc = header.getInt();
+                if (compressedLength < 0 || uncompressedLength < 0
+                        || offset + BLOCK_HEADER_SIZE + compressedLength > size) {
+                    break;
+                }
+                ByteBuffer payload = readFully(channel, offset + BLOCK_HEADER_SIZE, compressedLength);
+                if (crc(payload.array(), compressedLength) != crc) {
+                    break;
+                }
+                add(new Block(offset, min, max, count, compressedLength, uncompressedLength));
+                offset += BLOCK_HEADER_SIZE + compressedLength;
+            }
+            if (offset < size) {
+                System.err.println("Cut " + (size - offset) + " unreadable bytes off audit log segment " + path);
+                channel.truncate(offset);
+            }
+        }
+        position = Math.max(offset, HEADER_SIZE);
+    }
+
+    private void writeIndex(FileChannel channel) throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(blocks.size() * INDEX_ENTRY_SIZE + TRAILER_SIZE);
+        for (Block block : blocks) {
+            index.putLong(block.offset()).putLong(block.minMicros()).putLong(block.maxMicros())
+                    .putInt(block.records()).putInt(block.compressedLength()).putInt(block.uncompressedLength());
+        }
+        index.putLong(position).putInt(blocks.size()).putLong(FOOTER_MAGIC).flip();
+        writeFully(channel, index, position);
+        position += index.limit();
+    }
+
+    private synchronized void add(Block block) {
+        blocks.add(block);
+        records += block.records();
+        compressedBytes += block.compressedLength();
+        uncompressedBytes += block.uncompressedLength();
+        minMicros = Math.min(minMicros, block.minMicros());
+        maxMicros = Math.max(maxMicros, block.maxMicros());
+    }
+
+    /**
+     * Compresses the builder's records into a new block at the end of the segment.
+     */
+    void append(BlockBuilder builder, Deflater deflater) throws IOException {
+        byte[] compressed = builder.compress(deflater);
+        int compressedLength = builder.compressedLength;
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE)
+                .putInt(compressedLength).putInt(builder.size).putInt(builder.records)
+                .putLong(builder.minMicros).putLong(builder.maxMicros).putInt(crc(compressed, compressedLength))
+                .flip();
+        long offset = position;
+        writeFully(writer, header, offset);
+        writeFully(writer, ByteBuffer.wrap(compressed, 0, compressedLength), offset + BLOCK_HEADER_SIZE);
+        position += BLOCK_HEADER_SIZE + compressedLength;
+        add(new Block(offset, builder.minMicros, builder.maxMicros, builder.records, compressedLength, builder.size));
+        builder.reset();
+    }
+
+    /**
+     * Forces the blocks written so far to disk.
+     */
+    void force() throws IOException {
+        if (writer != null) {
+            writer.force(false);
+        }
+    }
+
+    /**
+     * Writes the index and closes the segment for appending.
+     */
+    void seal() throws IOException {
+        writeIndex(writer);
+        writer.force(true);
+        writer.close();
+        writer = null;
+    }
+
+    /**
+     * Reads and decompresses one block, returning its encoded records.
+     */
+    byte[] read(FileChannel channel, Block block) throws IOException {
+        ByteBuffer payload = readFully(channel, block.offset() + BLOCK_HEADER_SIZE, block.compressedLength());
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload.array(), 0, block.compressedLength());
+            byte[] data = new byte[block.uncompressedLength()];
+            int length = 0;
+            while (length < data.length && !inflater.finished()) {
+                int inflated = inflater.inflate(data, length, data.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != data.length) {
+                throw new IOException("Truncated audit log block at " + block.offset() + " in " + path);
+            }
+            return data;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt audit log block at " + block.offset() + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Passes the records of a decompressed block that fall in {@code [fromMicros, toMicros)} to
+     * the consumer.
+     */
+    static void decode(byte[] data, int records, long fromMicros, long toMicros, Consumer<AuditRecord> consumer) {
+        int[] position = {0};
+        long micros = 0;
+        for (int i = 0; i < records; i++) {
+            long delta = readVarLong(data, position);
+            micros += (delta >>> 1) ^ -(delta & 1);
+            AuditAction action = ACTIONS[data[position[0]++]];
+            String actor = readString(data, position);
+            String detail = readString(data, position);
+            if (micros >= fromMicros && micros < toMicros) {
+                consumer.accept(new AuditRecord(AuditRecord.fromMicros(micros), action, actor, detail));
+            }
+        }
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static String readString(byte[] data, int[] position) {
+        int length = (int) readVarLong(data, position);
+        String value = new String(data, position[0], length, StandardCharsets.UTF_8);
+        position[0] += length;
+        return value;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    boolean isSealed() {
+        return writer == null;
+    }
+
+    boolean overlaps(long fromMicros, long toMicros) {
+        return minMicros < toMicros && maxMicros >= fromMicros;
+    }
+
+    long maxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     * Returns the block index; a snapshot while the segment is still being appended to.
+     */
+    synchronized List<Block> blocks() {
+        return writer == null ? Collections.unmodifiableList(blocks) : List.copyOf(blocks);
+    }
+
+    synchronized boolean isEmpty() {
+        return blocks.isEmpty();
+    }
+
+    synchronized long records() {
+        return records;
+    }
+
+    synchronized long compressedBytes() {
+        return compressedBytes;
+    }
+
+    synchronized long uncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * Returns the size of the segment file.
+     */
+    long size() {
+        return position;
+    }
+
+    /**
+     * Closes the segment and deletes its file.
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private static int crc(byte[] data, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of audit log segment");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        long start = offset - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+    }
+
+    /**
+     * Encodes records into the uncompressed form of one block.
+     */
+    static final class BlockBuilder {
+
+        private byte[] data;
+        private byte[] compressed = new byte[0];
+        private int size;
+        private int compressedLength;
+        private int records;
+        private long lastMicros;
+        private long minMicros;
+        private long maxMicros;
+
+        BlockBuilder(int capacity) {
+            data = new byte[capacity + 1024];
+            reset();
+        }
+
+        void add(AuditRecord record) {
+            long micros = record.epochMicros();
+            byte[] actor = record.actor().getBytes(StandardCharsets.UTF_8);
+            byte[] detail = record.detail().getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(size + 21 + actor.length + detail.length);
+            long delta = micros - lastMicros;
+            writeVarLong((delta << 1) ^ (delta >> 63));
+            data[size++] = (byte) record.action().ordinal();
+            writeBytes(actor);
+            writeBytes(detail);
+            lastMicros = micros;
+            minMicros = Math.min(minMicros, micros);
+            maxMicros = Math.max(maxMicros, micros);
+            records++;
+        }
+
+        private void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > data.length) {
+                data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+            }
+        }
+
+        private byte[] compress(Deflater deflater) {
+            deflater.reset();
+            deflater.setInput(data, 0, size);
+            deflater.finish();
+            if (compressed.length < size + 64) {
+                compressed = new byte[size + size / 100 + 64];
+            }
+            compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+            return compressed;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return records == 0;
+        }
+
+        void reset() {
+            size = 0;
+            records = 0;
+            lastMicros = 0;
+            minMicros = Long.MAX_VALUE;
+            maxMicros = Long.MIN_VALUE;
+        }
+    }
+}
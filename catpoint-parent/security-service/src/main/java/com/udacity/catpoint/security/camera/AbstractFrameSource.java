@@ -0,0 +1,97 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Base class for frame sources that produce frames on a dedicated daemon thread.
+ */
+public abstract class AbstractFrameSource implements FrameSource {
+
+    private final String cameraId;
+    private FrameBufferPool frameBufferPool;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    protected AbstractFrameSource(String cameraId) {
+        this.cameraId = Objects.requireNonNull(cameraId, "cameraId cannot be null");
+    }
+
+    /**
+     * Makes the source take frame buffers from the pool instead of allocating them.
+     * The consumer of the frames is then responsible for releasing them.
+     *
+     * @return this instance for chaining
+     */
+    public AbstractFrameSource withFrameBufferPool(FrameBufferPool frameBufferPool) {
+        this.frameBufferPool = frameBufferPool;
+        return this;
+    }
+
+    /**
+     * Returns the pool frames are taken from, or null if frames are allocated.
+     */
+    protected FrameBufferPool getFrameBufferPool() {
+        return frameBufferPool;
+    }
+
+    @Override
+    public String getCameraId() {
+        return cameraId;
+    }
+
+    @Override
+    public synchronized void start(Consumer<BufferedImage> frameSink) {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(() -> {
+            try {
+                produce(frameSink);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("Camera " + cameraId + " stopped: " + e.getMessage());
+            } finally {
+                running = false;
+            }
+        }, "frame-source-" + cameraId);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * Returns true until the source is stopped.
+     */
+    protected boolean isRunning() {
+        return running && !Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Produces frames until {@link #isRunning()} turns false.
+     */
+    protected abstract void produce(Consumer<BufferedImage> frameSink) throws Exception;
+
+    /**
+     * Sleeps for the remainder of a frame period that started at {@code periodStartNanos}.
+     */
+    protected static void pace(long periodStartNanos, long periodNanos) throws InterruptedException {
+        long remaining = periodNanos - (System.nanoTime() - periodStartNanos);
+        if (remaining > 0) {
+            Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
+        }
+    }
+}
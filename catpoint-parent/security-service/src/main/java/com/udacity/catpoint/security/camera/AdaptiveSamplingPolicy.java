@@ -0,0 +1,257 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.security.application.StatusListener;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.service.SecurityService;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Sampling policy that follows the arming and alarm status of the system.
+ * While disarmed a detection cannot change the alarm, so analysis is paused; armed-away
+ * analysis runs slowly, armed-home at the normal rate and a pending alarm ramps up so the
+ * alarm is confirmed or cleared quickly. Arming to ARMED_HOME makes every camera analyze its
+ * next frame immediately, so the alarm reacts to a cat already in view.
+ * <p>
+ * A camera whose analysis is paused cannot tell when a cat leaves, so its last result would
+ * outlive the pause, and arming to ARMED_HOME would raise the alarm for a cat long gone.
+ * Cameras are therefore reported to the stale camera handler when analysis pauses; the
+ * re-check on arming decides from a fresh frame instead.
+ * <p>
+ * Register the policy with {@link SecurityService#addStatusListener} so it sees status
+ * changes and forget the results of paused cameras; {@link #attach(SecurityService)} does
+ * all of that.
+ */
+public class AdaptiveSamplingPolicy implements SamplingPolicy, StatusListener {
+
+    /**
+     * Detection mode derived from the current arming and alarm status.
+     */
+    public enum Mode {
+        DISARMED, ARMED_AWAY, ARMED_HOME, PENDING_ALARM, ALARM
+    }
+
+    private static final long PAUSED = Long.MAX_VALUE;
+    private static final long NANOS_PER_DAY = Duration.ofDays(1).toNanos();
+
+    private final Map<Mode, Long> intervals = new EnumMap<>(Mode.class);
+    private final Map<String, CameraClock> clocks = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final long startNanos;
+
+    private volatile ArmingStatus armingStatus;
+    private volatile AlarmStatus alarmStatus;
+    private final AtomicLong recheckGeneration = new AtomicLong();
+    private volatile Consumer<String> staleCameraHandler = cameraId -> { };
+
+    private final LongAdder analyzed = new LongAdder();
+    private final LongAdder saved = new LongAdder();
+
+    public AdaptiveSamplingPolicy(ArmingStatus armingStatus, AlarmStatus alarmStatus) {
+        this(armingStatus, alarmStatus, System::nanoTime);
+    }
+
+    AdaptiveSamplingPolicy(ArmingStatus armingStatus, AlarmStatus alarmStatus, LongSupplier clock) {
+        this.armingStatus = armingStatus;
+        this.alarmStatus = alarmStatus;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+        intervals.put(Mode.DISARMED, PAUSED);
+        intervals.put(Mode.ARMED_AWAY, Duration.ofSeconds(5).toNanos());
+        intervals.put(Mode.ARMED_HOME, Duration.ofSeconds(1).toNanos());
+        intervals.put(Mode.PENDING_ALARM, Duration.ofMillis(250).toNanos());
+        intervals.put(Mode.ALARM, Duration.ofSeconds(1).toNanos());
+    }
+
+    /**
+     * Creates a policy starting from the service's current status, registers it as a listener
+     * and has it clear paused cameras with {@link SecurityService#removeCamera}.
+     */
+    public static AdaptiveSamplingPolicy attach(SecurityService securityService) {
+        AdaptiveSamplingPolicy policy =
+                new AdaptiveSamplingPolicy(securityService.getArmingStatus(), securityService.getAlarmStatus())
+                        .withStaleCameraHandler(securityService::removeCamera);
+        securityService.addStatusListener(policy);
+        return policy;
+    }
+
+    /**
+     * Sets the handler receiving the id of every camera whose detection result goes stale
+     * because its analysis paused: each known camera when a paused mode is entered, and each
+     * camera again at its first frame skipped during the pause, which covers cameras seen for
+     * the first time and frames still in analysis when the pause began.
+     *
+     * @return this instance for chaining
+     */
+    public AdaptiveSamplingPolicy withStaleCameraHandler(Consumer<String> staleCameraHandler) {
+        this.staleCameraHandler = Objects.requireNonNull(staleCameraHandler);
+        return this;
+    }
+
+    /**
+     * Sets the minimum time between analyzed frames of one camera in the given mode.
+     *
+     * @return this instance for chaining
+     */
+    public synchronized AdaptiveSamplingPolicy withInterval(Mode mode, Duration interval) {
+        intervals.put(Objects.requireNonNull(mode), interval.toNanos());
+        return this;
+    }
+
+    /**
+     * Stops analysis entirely in the given mode.
+     *
+     * @return this instance for chaining
+     */
+    public synchronized AdaptiveSamplingPolicy withPaused(Mode mode) {
+        intervals.put(Objects.requireNonNull(mode), PAUSED);
+        return this;
+    }
+
+    @Override
+    public boolean shouldAnalyze(String cameraId, long nowNanos) {
+        CameraClock camera = clocks.computeIfAbsent(cameraId, id -> new CameraClock());
+        long generation = recheckGeneration.get();
+        long interval = currentInterval();
+
+        boolean analyze;
+        boolean becameStale = false;
+        synchronized (camera) {
+            boolean recheck = camera.generation != generation;
+            boolean due = interval != PAUSED && (!camera.analyzedAny || nowNanos - camera.lastAnalyzedNanos >= interval);
+            analyze = recheck || due;
+            if (analyze) {
+                camera.generation = generation;
+                camera.analyzedAny = true;
+                camera.lastAnalyzedNanos = nowNanos;
+                camera.reportedStale = false;
+            } else if (interval == PAUSED && !camera.reportedStale) {
+                camera.reportedStale = true;
+                becameStale = true;
+            }
+        }
+        if (becameStale) {
+            staleCameraHandler.accept(cameraId);
+        }
+        if (!analyze) {
+            saved.increment();
+            return false;
+        }
+        analyzed.increment();
+        return true;
+    }
+
+    /**
+     * Returns the mode implied by the last seen status. An unknown status is treated like
+     * ARMED_HOME, the mode in which detections matter most.
+     */
+    public Mode getMode() {
+        AlarmStatus alarm = alarmStatus;
+        if (alarm == AlarmStatus.PENDING_ALARM) {
+            return Mode.PENDING_ALARM;
+        }
+        if (alarm == AlarmStatus.ALARM) {
+            return Mode.ALARM;
+        }
+        ArmingStatus arming = armingStatus;
+        if (arming == ArmingStatus.DISARMED) {
+            return Mode.DISARMED;
+        }
+        return arming == ArmingStatus.ARMED_AWAY ? Mode.ARMED_AWAY : Mode.ARMED_HOME;
+    }
+
+    private synchronized long currentInterval() {
+        return intervals.get(getMode());
+    }
+
+    @Override
+    public void notify(AlarmStatus status) {
+        boolean wasPaused = currentInterval() == PAUSED;
+        alarmStatus = status;
+        reportStaleIfPaused(wasPaused);
+    }
+
+    @Override
+    public void notify(ArmingStatus status) {
+        boolean wasPaused = currentInterval() == PAUSED;
+        ArmingStatus previous = armingStatus;
+        armingStatus = status;
+        if (status == ArmingStatus.ARMED_HOME && previous != ArmingStatus.ARMED_HOME) {
+            recheckGeneration.incrementAndGet();
+        }
+        reportStaleIfPaused(wasPaused);
+    }
+
+    /**
+     * Reports every known camera as stale if the last status change paused analysis.
+     */
+    private void reportStaleIfPaused(boolean wasPaused) {
+        if (wasPaused || currentInterval() != PAUSED) {
+            return;
+        }
+        clocks.forEach((cameraId, camera) -> {
+            synchronized (camera) {
+                // Reported again at its first skipped frame, after any frame still in analysis
+                camera.reportedStale = false;
+            }
+            staleCameraHandler.accept(cameraId);
+        });
+    }
+
+    @Override
+    public void catDetected(boolean catDetected) {
+        // sampling depends on system status only
+    }
+
+    @Override
+    public void sensorStatusChanged() {
+        // sampling depends on system status only
+    }
+
+    /**
+     * Returns the number of frames the policy let through to the detector.
+     */
+    public long getAnalyzedCount() {
+        return analyzed.sum();
+    }
+
+    /**
+     * Returns the number of detection calls avoided compared with analyzing every frame.
+     */
+    public long getSavedCount() {
+        return saved.sum();
+    }
+
+    /**
+     * Returns the detection calls saved so far, extrapolated to a full day.
+     */
+    public double getSavedPerDay() {
+        long elapsed = clock.getAsLong() - startNanos;
+        return elapsed <= 0 ? 0.0 : (double) saved.sum() * NANOS_PER_DAY / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdaptiveSamplingPolicy[mode=%s, analyzed=%d, saved=%d, savedPerDay=%.0f]",
+                getMode(), getAnalyzedCount(), getSavedCount(), getSavedPerDay());
+    }
+
+    /**
+     * Per-camera sampling state.
+     */
+    private static final class CameraClock {
+        private long lastAnalyzedNanos;
+        private boolean analyzedAny = false;
+        private long generation = 0;
+        private boolean reportedStale = false;
+    }
+}
@@ -0,0 +1,276 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.image.JpegEncoder;
+import com.udacity.catpoint.security.application.StatusListener;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the last seconds of every camera in a {@link FrameRingBuffer} and saves a clip around
+ * each alarm. When the alarm status turns to ALARM the pre-roll of every camera is frozen,
+ * recording continues for the post-roll, and the clip is then exported as an MJPEG file
+ * (concatenated JPEG frames, playable with {@link MjpegFileFrameSource}). The clip is exported
+ * by the first frame recorded after the post-roll, or by a timer when the post-roll ends, so
+ * it is saved even if the camera stops delivering frames.
+ * <p>
+ * Register the recorder with {@code SecurityService.addStatusListener} and feed it frames
+ * with {@link #record(String, BufferedImage)}, e.g. from a frame source alongside ingestion.
+ */
+public class AlarmClipRecorder implements StatusListener, AutoCloseable {
+
+    private static final DateTimeFormatter CLIP_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+
+    private final Path directory;
+    private final Path clipDirectory;
+    private final long preRollMillis;
+    private final long postRollMillis;
+    private final long frameIntervalMillis;
+    private final int slotCount;
+    private final int maxFrameBytes;
+    private final LongSupplier clock;
+
+    private final Map<String, CameraRecording> cameras = new ConcurrentHashMap<>();
+    private final List<Path> exportedClips = Collections.synchronizedList(new ArrayList<>());
+    private final ScheduledExecutorService exportTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "alarm-clip-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+
+    /**
+     * @param directory        where the per-camera ring files and the 'clips' folder are kept
+     * @param preRoll          time kept before the alarm
+     * @param postRoll         time recorded after the alarm
+     * @param framesPerSecond  recording rate; faster cameras are sampled down
+     * @param maxFrameBytes    largest encoded frame stored
+     */
+    public AlarmClipRecorder(Path directory, Duration preRoll, Duration postRoll,
+                             double framesPerSecond, int maxFrameBytes) throws IOException {
+        this(directory, preRoll, postRoll, framesPerSecond, maxFrameBytes, System::currentTimeMillis);
+    }
+
+    AlarmClipRecorder(Path directory, Duration preRoll, Duration postRoll,
+                      double framesPerSecond, int maxFrameBytes, LongSupplier clock) throws IOException {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("framesPerSecond must be positive");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.clipDirectory = Files.createDirectories(directory.resolve("clips"));
+        this.preRollMillis = preRoll.toMillis();
+        this.postRollMillis = postRoll.toMillis();
+        this.frameIntervalMillis = (long) (1000 / framesPerSecond);
+        // Room for the whole pre-roll plus post-roll, so the post-roll never needs frozen slots
+        this.slotCount = (int) Math.ceil((preRoll.toMillis() + postRoll.toMillis()) / 1000.0 * framesPerSecond) + 1;
+        this.maxFrameBytes = maxFrameBytes;
+        this.clock = clock;
+    }
+
+    /**
+     * Encodes and stores a frame if the camera's recording interval has passed.
+     * The frame is not retained, so pooled buffers may be released afterwards.
+     */
+    public void record(String cameraId, BufferedImage frame) {
+        CameraRecording camera = cameras.computeIfAbsent(cameraId, this::openRecording);
+        if (camera == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (!camera.isDue(now)) {
+            return;
+        }
+        try {
+            byte[] jpeg = JpegEncoder.encode(frame);
+            camera.write(now, jpeg);
+        } catch (IOException e) {
+            System.err.println("Could not record frame for camera " + cameraId + ": " + e.getMessage());
+        }
+    }
+
+    private CameraRecording openRecording(String cameraId) {
+        try {
+            Path file = directory.resolve(fileSafe(cameraId) + ".ring");
+            return new CameraRecording(cameraId, new FrameRingBuffer(file, slotCount, maxFrameBytes));
+        } catch (IOException e) {
+            System.err.println("Could not open frame ring for camera " + cameraId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void notify(AlarmStatus status) {
+        AlarmStatus previous = alarmStatus;
+        alarmStatus = status;
+        if (status == AlarmStatus.ALARM && previous != AlarmStatus.ALARM) {
+            long now = clock.getAsLong();
+            cameras.values().forEach(camera -> camera.startClip(now));
+        }
+    }
+
+    @Override
+    public void notify(ArmingStatus status) {
+        // clips follow the alarm status only
+    }
+
+    @Override
+    public void catDetected(boolean catDetected) {
+        // clips follow the alarm status only
+    }
+
+    @Override
+    public void sensorStatusChanged() {
+        // clips follow the alarm status only
+    }
+
+    /**
+     * Ends every clip still recording its post-roll and exports it now.
+     */
+    public void finishClips() {
+        cameras.values().forEach(CameraRecording::finishClip);
+    }
+
+    /**
+     * Exports everything currently held for a camera, without waiting for an alarm.
+     *
+     * @return the clip file, or null if the camera is unknown
+     */
+    public Path exportCurrent(String cameraId) throws IOException {
+        CameraRecording camera = cameras.get(cameraId);
+        return camera == null ? null : camera.export(0, clock.getAsLong());
+    }
+
+    /**
+     * Returns the clip files exported so far.
+     */
+    public List<Path> getExportedClips() {
+        synchronized (exportedClips) {
+            return List.copyOf(exportedClips);
+        }
+    }
+
+    /**
+     * Returns the ring buffer of a camera, or null if it has not recorded yet.
+     */
+    public FrameRingBuffer getRingBuffer(String cameraId) {
+        CameraRecording camera = cameras.get(cameraId);
+        return camera == null ? null : camera.ring;
+    }
+
+    /**
+     * Exports every clip still recording its post-roll, then closes the ring files.
+     */
+    @Override
+    public void close() throws IOException {
+        exportTimer.shutdownNow();
+        finishClips();
+        for (CameraRecording camera : cameras.values()) {
+            camera.ring.close();
+        }
+    }
+
+    private static String fileSafe(String cameraId) {
+        return cameraId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Recording state of one camera.
+     */
+    private final class CameraRecording {
+        private final String cameraId;
+        private final FrameRingBuffer ring;
+        private long lastRecordedMillis = Long.MIN_VALUE;
+        private long clipStartSequence = -1;
+        private long clipEndMillis;
+        private long clipNumber = 0;
+
+        private CameraRecording(String cameraId, FrameRingBuffer ring) {
+            this.cameraId = cameraId;
+            this.ring = ring;
+        }
+
+        private synchronized boolean isDue(long now) {
+            if (lastRecordedMillis != Long.MIN_VALUE && now - lastRecordedMillis < frameIntervalMillis) {
+                return false;
+            }
+            lastRecordedMillis = now;
+            return true;
+        }
+
+        private synchronized void write(long now, byte[] jpeg) {
+            boolean stored = ring.write(now, jpeg, 0, jpeg.length);
+            if (clipStartSequence >= 0 && (now >= clipEndMillis || (!stored && jpeg.length <= ring.getSlotSize()))) {
+                finishClip();
+            }
+        }
+
+        private synchronized void startClip(long alarmMillis) {
+            if (clipStartSequence >= 0) {
+                return;
+            }
+            clipStartSequence = ring.freeze(alarmMillis - preRollMillis);
+            clipEndMillis = alarmMillis + postRollMillis;
+            long clip = ++clipNumber;
+            try {
+                exportTimer.schedule(() -> finishClip(clip), postRollMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Closing; close() exports the clip
+            }
+        }
+
+        /**
+         * Finishes the given clip unless a frame has already finished it.
+         */
+        private synchronized void finishClip(long clip) {
+            if (clip == clipNumber) {
+                finishClip();
+            }
+        }
+
+        private synchronized void finishClip() {
+            if (clipStartSequence < 0) {
+                return;
+            }
+            try {
+                export(clipStartSequence, clipEndMillis - postRollMillis);
+            } catch (IOException e) {
+                System.err.println("Could not export alarm clip for camera " + cameraId + ": " + e.getMessage());
+            } finally {
+                clipStartSequence = -1;
+                ring.unfreeze();
+            }
+        }
+
+        private synchronized Path export(long fromSequence, long timestampMillis) throws IOException {
+            Path clip = clipDirectory.resolve(fileSafe(cameraId) + "-" + CLIP_TIME.format(Instant.ofEpochMilli(timestampMillis))
+                    + "-" + fromSequence + ".mjpeg");
+            try (FileChannel output = FileChannel.open(clip, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ring.exportTo(fromSequence, output);
+            }
+            exportedClips.add(clip);
+            return clip;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+import com.udacity.catpoint.security.service.SecurityService;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Analyzes frames from many cameras in parallel on a bounded work-stealing pool.
+ * Each camera has its own bounded {@link FrameQueue} and at most one frame in analysis at a
+ * time, so its results stay in order. Cameras with pending frames wait in a shared FIFO; every
+ * pool task analyzes one frame from the camera at its head and puts that camera back at the
+ * tail, which keeps scheduling fair when one camera produces far more frames than the rest.
+ */
+public class CameraAnalysisScheduler {
+
+    private final BiConsumer<String, BufferedImage> analyzer;
+    private final Consumer<String> cameraRemoved;
+    private final ForkJoinPool pool;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Lane> readyLanes = new ConcurrentLinkedQueue<>();
+    private FrameBufferPool frameBufferPool;
+    private volatile SamplingPolicy samplingPolicy = SamplingPolicy.ALWAYS;
+
+    /**
+     * Creates a scheduler that feeds {@link SecurityService#processImage(String, BufferedImage)}
+     * and clears a camera's detection state with {@link SecurityService#removeCamera} when the
+     * camera is removed.
+     *
+     * @param parallelism frames analyzed at once; normally the smaller of the core count and
+     *                    the detector's concurrency limit
+     */
+    public CameraAnalysisScheduler(SecurityService securityService, int parallelism) {
+        this(securityService::processImage, securityService::removeCamera, parallelism);
+    }
+
+    /**
+     * @param analyzer    receives the camera id and frame of each analyzed frame
+     * @param parallelism frames analyzed at once
+     */
+    public CameraAnalysisScheduler(BiConsumer<String, BufferedImage> analyzer, int parallelism) {
+        this(analyzer, cameraId -> { }, parallelism);
+    }
+
+    /**
+     * @param analyzer      receives the camera id and frame of each analyzed frame
+     * @param cameraRemoved receives the id of a removed camera, again after a frame of it that
+     *                      was in analysis during the removal has finished
+     * @param parallelism   frames analyzed at once
+     */
+    public CameraAnalysisScheduler(BiConsumer<String, BufferedImage> analyzer, Consumer<String> cameraRemoved,
+                                   int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.analyzer = Objects.requireNonNull(analyzer, "analyzer cannot be null");
+        this.cameraRemoved = Objects.requireNonNull(cameraRemoved, "cameraRemoved cannot be null");
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("camera-analysis-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, true);
+    }
+
+    /**
+     * Returns every frame to the pool once it has been analyzed or dropped.
+     * Must be set before cameras are added.
+     *
+     * @return this instance for chaining
+     */
+    public CameraAnalysisScheduler withFrameBufferPool(FrameBufferPool frameBufferPool) {
+        this.frameBufferPool = frameBufferPool;
+        return this;
+    }
+
+    /**
+     * Sets a policy consulted for every submitted frame; rejected frames count as skipped.
+     *
+     * @return this instance for chaining
+     */
+    public CameraAnalysisScheduler withSamplingPolicy(SamplingPolicy samplingPolicy) {
+        this.samplingPolicy = Objects.requireNonNull(samplingPolicy);
+        return this;
+    }
+
+    /**
+     * Registers a camera with its own frame buffer.
+     */
+    public void addCamera(String cameraId, int queueCapacity, FrameQueue.OverflowPolicy policy) {
+        Lane lane = new Lane(cameraId, new FrameQueue(queueCapacity, policy, this::release));
+        if (lanes.putIfAbsent(cameraId, lane) != null) {
+            throw new IllegalArgumentException("Camera already registered: " + cameraId);
+        }
+    }
+
+    /**
+     * Unregisters a camera; frames still queued for it are discarded.
+     */
+    public void removeCamera(String cameraId) {
+        Lane lane = lanes.remove(cameraId);
+        if (lane != null) {
+            lane.queue.clear();
+            cameraRemoved.accept(cameraId);
+        }
+    }
+
+    /**
+     * Queues a frame for analysis. Frames from unregistered cameras are ignored.
+     *
+     * @return false if the camera is not registered
+     */
+    public boolean submit(String cameraId, BufferedImage frame) {
+        Lane lane = lanes.get(cameraId);
+        if (lane == null || frame == null) {
+            return false;
+        }
+        lane.stats.recordReceived();
+        if (!samplingPolicy.shouldAnalyze(cameraId, System.nanoTime())) {
+            lane.stats.recordSkipped();
+            release(frame);
+            return true;
+        }
+        lane.stats.recordDropped(lane.queue.offer(frame));
+        schedule(lane);
+        return true;
+    }
+
+    /**
+     * Returns the number of frames waiting for analysis for a camera.
+     */
+    public int getBacklog(String cameraId) {
+        Lane lane = lanes.get(cameraId);
+        return lane == null ? 0 : lane.queue.size();
+    }
+
+    /**
+     * Returns the counters of a camera, or null if it is not registered.
+     */
+    public CameraStats getStats(String cameraId) {
+        Lane lane = lanes.get(cameraId);
+        return lane == null ? null : lane.stats;
+    }
+
+    public List<CameraStats> getAllStats() {
+        List<CameraStats> stats = new ArrayList<>();
+        lanes.values().forEach(lane -> stats.add(lane.stats));
+        return stats;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Waits until every queued frame has been analyzed or the timeout expires.
+     *
+     * @return true if the scheduler became idle
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) {
+        return pool.awaitQuiescence(timeout, unit);
+    }
+
+    /**
+     * Stops the analysis threads. Queued frames are discarded.
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Adds the camera to the ready FIFO unless it is already waiting or in analysis.
+     * Exactly one pool task is submitted per ready entry.
+     */
+    private void schedule(Lane lane) {
+        if (lane.scheduled.compareAndSet(false, true)) {
+            readyLanes.add(lane);
+            pool.execute(this::analyzeNext);
+        }
+    }
+
+    private void analyzeNext() {
+        Lane lane = readyLanes.poll();
+        if (lane == null) {
+            return;
+        }
+        BufferedImage frame = lane.queue.poll();
+        if (frame != null) {
+            lane.stats.recordAnalyzed();
+            long start = System.nanoTime();
+            try {
+                analyzer.accept(lane.cameraId, frame);
+            } catch (RuntimeException e) {
+                System.err.println("Frame analysis failed for camera " + lane.cameraId + ": " + e.getMessage());
+            } finally {
+                lane.stats.recordAnalysisTime(System.nanoTime() - start);
+                release(frame);
+            }
+        }
+
+        boolean registered = lanes.get(lane.cameraId) == lane;
+        if (frame != null && !registered && !lanes.containsKey(lane.cameraId)) {
+            // Removed while this frame was in analysis, which may have restored its state
+            cameraRemoved.accept(lane.cameraId);
+        }
+        if (registered && lane.queue.size() > 0) {
+            // Back of the line, behind every other camera with pending frames
+            readyLanes.add(lane);
+            pool.execute(this::analyzeNext);
+            return;
+        }
+        lane.scheduled.set(false);
+        // A frame may have arrived after the size check but before the flag was cleared
+        if (registered && lane.queue.size() > 0) {
+            schedule(lane);
+        }
+    }
+
+    private void release(BufferedImage frame) {
+        if (frameBufferPool != null) {
+            frameBufferPool.release(frame);
+        }
+    }
+
+    /**
+     * Per-camera queue plus the flag guaranteeing it is queued or analyzed by at most one task.
+     */
+    private static final class Lane {
+        private final String cameraId;
+        private final FrameQueue queue;
+        private final CameraStats stats;
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private Lane(String cameraId, FrameQueue queue) {
+            this.cameraId = cameraId;
+            this.queue = queue;
+            this.stats = new CameraStats(cameraId);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.image.LatencyTracker;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Frame counters for a single camera.
+ */
+public class CameraStats {
+
+    private final String cameraId;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder analyzed = new LongAdder();
+    private final LongAdder analysisNanos = new LongAdder();
+    private final LatencyTracker latencies = new LatencyTracker(128);
+
+    public CameraStats(String cameraId) {
+        this.cameraId = cameraId;
+    }
+
+    void recordReceived() {
+        received.increment();
+    }
+
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    void recordDropped(int frames) {
+        dropped.add(frames);
+    }
+
+    void recordAnalyzed() {
+        analyzed.increment();
+    }
+
+    void recordAnalysisTime(long nanos) {
+        analysisNanos.add(nanos);
+        latencies.record(nanos);
+    }
+
+    public String getCameraId() {
+        return cameraId;
+    }
+
+    /** Frames delivered by the camera. */
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /** Frames ignored by the sampling interval or sampling policy. */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /** Frames discarded from a full queue before the detector reached them. */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /** Frames passed to the detector. */
+    public long getAnalyzed() {
+        return analyzed.sum();
+    }
+
+    /** Average time the detector spent on a frame, in milliseconds. */
+    public double getAverageAnalysisMillis() {
+        long frames = analyzed.sum();
+        return frames == 0 ? 0.0 : analysisNanos.sum() / 1e6 / frames;
+    }
+
+    /** Recent p95 time the detector spent on a frame, in milliseconds. */
+    public double getP95AnalysisMillis() {
+        return latencies.percentile(0.95, 0L) / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: received=%d, skipped=%d, dropped=%d, analyzed=%d",
+                cameraId, getReceived(), getSkipped(), getDropped(), getAnalyzed());
+    }
+}
@@ -0,0 +1,64 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.function.Consumer;
+
+/**
+ * Frame source that watches a directory and emits every image file written into it,
+ * e.g. snapshots uploaded by an IP camera.
+ */
+public class DirectoryFrameSource extends AbstractFrameSource {
+
+    private final Path directory;
+
+    public DirectoryFrameSource(String cameraId, Path directory) {
+        super(cameraId);
+        this.directory = directory;
+    }
+
+    @Override
+    protected void produce(Consumer<BufferedImage> frameSink) throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+            while (isRunning()) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        continue;
+                    }
+                    Path file = directory.resolve((Path) event.context());
+                    BufferedImage frame = readFrame(file);
+                    if (frame != null) {
+                        frameSink.accept(frame);
+                    }
+                }
+                if (!key.reset()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an image file, returning null for files that are not (yet) complete images.
+     */
+    private BufferedImage readFrame(Path file) {
+        try {
+            FrameBufferPool pool = getFrameBufferPool();
+            return pool != null ? pool.read(file.toFile()) : ImageIO.read(file.toFile());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
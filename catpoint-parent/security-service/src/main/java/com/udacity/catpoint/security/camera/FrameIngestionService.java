@@ -0,0 +1,259 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+import com.udacity.catpoint.security.service.SecurityService;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Connects frame sources to the detector.
+ * Each camera writes into its own bounded {@link FrameQueue}; a single analysis worker visits
+ * the queues round-robin and hands one frame at a time to the analyzer (normally
+ * {@link SecurityService#processImage(String, BufferedImage)}). A detector slower than the cameras causes frames
+ * to be dropped, never unbounded memory growth.
+ */
+public class FrameIngestionService {
+
+    private final BiConsumer<String, BufferedImage> analyzer;
+    private final Consumer<String> cameraRemoved;
+    private final Map<String, Camera> cameras = new ConcurrentHashMap<>();
+    private final Object signal = new Object();
+    private FrameBufferPool frameBufferPool;
+    private volatile SamplingPolicy samplingPolicy = SamplingPolicy.ALWAYS;
+    private volatile boolean running = false;
+    private volatile Thread worker;
+
+    /**
+     * Creates a service that feeds {@link SecurityService#processImage(String, BufferedImage)}
+     * and clears a camera's detection state with {@link SecurityService#removeCamera} when the
+     * camera is removed.
+     */
+    public FrameIngestionService(SecurityService securityService) {
+        this(securityService::processImage, securityService::removeCamera);
+    }
+
+    /**
+     * @param analyzer receives the camera id and frame of each frame selected for analysis
+     */
+    public FrameIngestionService(BiConsumer<String, BufferedImage> analyzer) {
+        this(analyzer, cameraId -> { });
+    }
+
+    /**
+     * @param analyzer      receives the camera id and frame of each frame selected for analysis
+     * @param cameraRemoved receives the id of a removed camera, again after a frame of it that
+     *                      was in analysis during the removal has finished
+     */
+    public FrameIngestionService(BiConsumer<String, BufferedImage> analyzer, Consumer<String> cameraRemoved) {
+        this.analyzer = Objects.requireNonNull(analyzer, "analyzer cannot be null");
+        this.cameraRemoved = Objects.requireNonNull(cameraRemoved, "cameraRemoved cannot be null");
+    }
+
+    /**
+     * Returns every frame to the pool once it has been analyzed, skipped or dropped.
+     * Use the same pool for the frame sources so steady-state ingestion allocates no rasters.
+     * Must be set before cameras are added.
+     *
+     * @return this instance for chaining
+     */
+    public FrameIngestionService withFrameBufferPool(FrameBufferPool frameBufferPool) {
+        this.frameBufferPool = frameBufferPool;
+        return this;
+    }
+
+    /**
+     * Sets a policy consulted for every frame that passes the camera's fixed sampling interval,
+     * e.g. an {@link AdaptiveSamplingPolicy} following the arming status.
+     *
+     * @return this instance for chaining
+     */
+    public FrameIngestionService withSamplingPolicy(SamplingPolicy samplingPolicy) {
+        this.samplingPolicy = Objects.requireNonNull(samplingPolicy);
+        return this;
+    }
+
+    /**
+     * Registers a camera. Frames arriving less than {@code samplingInterval} after the last
+     * accepted frame are skipped before they reach the queue.
+     *
+     * @param queueCapacity    frames buffered for this camera
+     * @param policy           what to do when the buffer is full
+     * @param samplingInterval minimum time between accepted frames; {@link Duration#ZERO} accepts every frame
+     */
+    public void addCamera(FrameSource source, int queueCapacity, FrameQueue.OverflowPolicy policy,
+                          Duration samplingInterval) {
+        Camera camera = new Camera(source, new FrameQueue(queueCapacity, policy, this::release),
+                samplingInterval.toNanos());
+        if (cameras.putIfAbsent(source.getCameraId(), camera) != null) {
+            throw new IllegalArgumentException("Camera already registered: " + source.getCameraId());
+        }
+        if (running) {
+            source.start(camera::accept);
+        }
+    }
+
+    /**
+     * Stops and unregisters a camera; frames still queued for it, or handed over by its source
+     * while it was stopping, are discarded.
+     */
+    public void removeCamera(String cameraId) {
+        Camera camera = cameras.remove(cameraId);
+        if (camera != null) {
+            camera.removed = true;
+            camera.source.stop();
+            camera.queue.clear();
+            cameraRemoved.accept(cameraId);
+        }
+    }
+
+    /**
+     * Starts the analysis worker and every registered source.
+     */
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::analyzeFrames, "frame-analysis");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+        cameras.values().forEach(camera -> camera.source.start(camera::accept));
+    }
+
+    /**
+     * Stops every source and the analysis worker. A frame already in analysis finishes, but
+     * its worker exits afterwards even if the service has been started again meanwhile.
+     */
+    public synchronized void stop() {
+        running = false;
+        cameras.values().forEach(camera -> camera.source.stop());
+        Thread thread = worker;
+        if (thread != null) {
+            worker = null;
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Returns the counters of a camera, or null if it is not registered.
+     */
+    public CameraStats getStats(String cameraId) {
+        Camera camera = cameras.get(cameraId);
+        return camera == null ? null : camera.stats;
+    }
+
+    public List<CameraStats> getAllStats() {
+        List<CameraStats> stats = new ArrayList<>();
+        cameras.values().forEach(camera -> stats.add(camera.stats));
+        return stats;
+    }
+
+    private void analyzeFrames() {
+        Thread self = Thread.currentThread();
+        while (worker == self) {
+            boolean analyzedAny = false;
+            for (Camera camera : cameras.values()) {
+                BufferedImage frame = camera.queue.poll();
+                if (frame != null) {
+                    analyzedAny = true;
+                    camera.stats.recordAnalyzed();
+                    long start = System.nanoTime();
+                    try {
+                        analyzer.accept(camera.source.getCameraId(), frame);
+                    } catch (RuntimeException e) {
+                        System.err.println("Frame analysis failed for camera " + camera.source.getCameraId()
+                                + ": " + e.getMessage());
+                    } finally {
+                        camera.stats.recordAnalysisTime(System.nanoTime() - start);
+                        release(frame);
+                    }
+                    String cameraId = camera.source.getCameraId();
+                    if (!cameras.containsKey(cameraId)) {
+                        // Removed while this frame was in analysis, which may have restored its state
+                        cameraRemoved.accept(cameraId);
+                    }
+                }
+            }
+            if (!analyzedAny) {
+                awaitFrames();
+            }
+        }
+    }
+
+    private void release(BufferedImage frame) {
+        if (frameBufferPool != null) {
+            frameBufferPool.release(frame);
+        }
+    }
+
+    private void awaitFrames() {
+        synchronized (signal) {
+            try {
+                if (cameras.values().stream().allMatch(camera -> camera.queue.size() == 0)) {
+                    signal.wait(100);
+                }
+            } catch (InterruptedException e) {
+                // Stopped; the loop sees that this thread is no longer the worker
+            }
+        }
+    }
+
+    private void signalFrameAvailable() {
+        synchronized (signal) {
+            signal.notify();
+        }
+    }
+
+    /**
+     * Per-camera state: source, queue, counters and sampling clock.
+     */
+    private final class Camera {
+        private final FrameSource source;
+        private final FrameQueue queue;
+        private final CameraStats stats;
+        private final long samplingIntervalNanos;
+        private long lastAcceptedNanos;
+        private boolean acceptedAny = false;
+        private volatile boolean removed = false;
+
+        private Camera(FrameSource source, FrameQueue queue, long samplingIntervalNanos) {
+            this.source = source;
+            this.queue = queue;
+            this.stats = new CameraStats(source.getCameraId());
+            this.samplingIntervalNanos = samplingIntervalNanos;
+        }
+
+        private void accept(BufferedImage frame) {
+            if (removed) {
+                release(frame);
+                return;
+            }
+            stats.recordReceived();
+            long now = System.nanoTime();
+            if ((acceptedAny && now - lastAcceptedNanos < samplingIntervalNanos)
+                    || !samplingPolicy.shouldAnalyze(source.getCameraId(), now)) {
+                stats.recordSkipped();
+                release(frame);
+                return;
+            }
+            acceptedAny = true;
+            lastAcceptedNanos = now;
+            stats.recordDropped(queue.offer(frame));
+            if (removed) {
+                // Removed while this frame was being queued, after the queue was cleared
+                queue.clear();
+                return;
+            }
+            signalFrameAvailable();
+        }
+    }
+}
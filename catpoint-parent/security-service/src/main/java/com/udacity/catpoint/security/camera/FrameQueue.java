@@ -0,0 +1,84 @@
+package com.udacity.catpoint.security.camera;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Bounded frame buffer between a camera and the detector.
+ * When full, the oldest frame is discarded to make room, so a slow detector always sees the
+ * most recent frames and memory stays bounded.
+ */
+public class FrameQueue {
+
+    /**
+     * How the queue makes room for new frames.
+     */
+    public enum OverflowPolicy {
+        /** Keep up to the configured capacity, discarding the oldest frame when full. */
+        DROP_OLDEST,
+        /** Keep only the most recent frame, whatever the configured capacity. */
+        LATEST_ONLY
+    }
+
+    private final Deque<BufferedImage> frames;
+    private final int capacity;
+    private final Consumer<BufferedImage> discardListener;
+
+    public FrameQueue(int capacity, OverflowPolicy policy) {
+        this(capacity, policy, frame -> { });
+    }
+
+    /**
+     * @param discardListener receives every frame dropped from the queue, e.g. to return it to a buffer pool
+     */
+    public FrameQueue(int capacity, OverflowPolicy policy, Consumer<BufferedImage> discardListener) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = policy == OverflowPolicy.LATEST_ONLY ? 1 : capacity;
+        this.frames = new ArrayDeque<>(this.capacity);
+        this.discardListener = discardListener;
+    }
+
+    /**
+     * Adds a frame, discarding the oldest ones if the queue is full.
+     *
+     * @return the number of frames discarded to make room
+     */
+    public synchronized int offer(BufferedImage frame) {
+        int dropped = 0;
+        while (frames.size() >= capacity) {
+            discardListener.accept(frames.pollFirst());
+            dropped++;
+        }
+        frames.addLast(frame);
+        return dropped;
+    }
+
+    /**
+     * Removes and returns the oldest frame, or null if the queue is empty.
+     */
+    public synchronized BufferedImage poll() {
+        return frames.pollFirst();
+    }
+
+    /**
+     * Discards every queued frame.
+     */
+    public synchronized void clear() {
+        BufferedImage frame;
+        while ((frame = frames.pollFirst()) != null) {
+            discardListener.accept(frame);
+        }
+    }
+
+    public synchronized int size() {
+        return frames.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,224 @@
+package com.udacity.catpoint.security.camera;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fixed-size ring of encoded frames stored in a preallocated memory-mapped file.
+ * Frames live in the OS page cache rather than the Java heap, and because each slot is
+ * committed by writing its sequence number last, the frames written before a crash can be
+ * read back when the file is reopened.
+ * <p>
+ * File layout: a 64-byte header followed by {@code slotCount} slots, each holding a sequence
+ * number, a timestamp, a length and up to {@code slotSize} bytes of frame data.
+ */
+public class FrameRingBuffer implements AutoCloseable {
+
+    private static final int MAGIC = 0x43505242; // "CPRB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_HEADER_SIZE = 24;
+
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int TIMESTAMP_OFFSET = 8;
+    private static final int LENGTH_OFFSET = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final int slotSize;
+    private final int slotStride;
+
+    private long nextSequence;
+    private long frozenFromSequence = Long.MAX_VALUE;
+    private long rejectedFrames = 0;
+
+    /**
+     * Opens the ring file, creating and preallocating it if it does not exist or was written
+     * with a different geometry.
+     *
+     * @param slotCount number of frames kept
+     * @param slotSize  largest encoded frame accepted, in bytes
+     */
+    public FrameRingBuffer(Path file, int slotCount, int slotSize) throws IOException {
+        if (slotCount < 1 || slotSize < 1) {
+            throw new IllegalArgumentException("slotCount and slotSize must be positive");
+        }
+        this.slotCount = slotCount;
+        this.slotSize = slotSize;
+        this.slotStride = (SLOT_HEADER_SIZE + slotSize + 7) & ~7;
+        long fileSize = HEADER_SIZE + (long) slotCount * slotStride;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ring buffer larger than 2 GB: " + fileSize + " bytes");
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean reuse = channel.size() == fileSize;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+
+        if (reuse && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+                && buffer.getInt(8) == slotCount && buffer.getInt(12) == slotSize) {
+            nextSequence = highestSequence() + 1;
+        } else {
+            initialize();
+            nextSequence = 1;
+        }
+    }
+
+    private void initialize() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            buffer.putLong(slotOffset(slot) + SEQUENCE_OFFSET, 0L);
+        }
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, slotCount);
+        buffer.putInt(12, slotSize);
+        buffer.putInt(0, MAGIC);
+    }
+
+    private long highestSequence() {
+        long highest = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            highest = Math.max(highest, buffer.getLong(slotOffset(slot) + SEQUENCE_OFFSET));
+        }
+        return highest;
+    }
+
+    /**
+     * Stores an encoded frame, overwriting the oldest one. While frozen, frames that would
+     * overwrite the frozen range are rejected instead.
+     *
+     * @return false if the frame is larger than a slot or would overwrite frozen frames
+     */
+    public synchronized boolean write(long timestampMillis, byte[] data, int offset, int length) {
+        int slot = (int) (nextSequence % slotCount);
+        int base = slotOffset(slot);
+        long occupant = buffer.getLong(base + SEQUENCE_OFFSET);
+        if (length > slotSize || occupant >= frozenFromSequence) {
+            rejectedFrames++;
+            return false;
+        }
+
+        // Invalidate, fill, then commit with the sequence number so a torn write is never read back
+        buffer.putLong(base + SEQUENCE_OFFSET, 0L);
+        buffer.putLong(base + TIMESTAMP_OFFSET, timestampMillis);
+        buffer.putInt(base + LENGTH_OFFSET, length);
+        buffer.put(base + SLOT_HEADER_SIZE, data, offset, length);
+        buffer.putLong(base + SEQUENCE_OFFSET, nextSequence);
+        nextSequence++;
+        return true;
+    }
+
+    /**
+     * Protects every frame written at or after {@code fromTimestampMillis} from being overwritten.
+     *
+     * @return the sequence number of the first protected frame
+     */
+    public synchronized long freeze(long fromTimestampMillis) {
+        long first = nextSequence;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = slotOffset(slot);
+            long sequence = buffer.getLong(base + SEQUENCE_OFFSET);
+            if (sequence > 0 && sequence < first && buffer.getLong(base + TIMESTAMP_OFFSET) >= fromTimestampMillis) {
+                first = sequence;
+            }
+        }
+        frozenFromSequence = first;
+        return first;
+    }
+
+    public synchronized void unfreeze() {
+        frozenFromSequence = Long.MAX_VALUE;
+    }
+
+    public synchronized boolean isFrozen() {
+        return frozenFromSequence != Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the stored frames with a sequence number of at least {@code fromSequence}, oldest first.
+     * Frame data is exposed as read-only views of the mapped file, not copied onto the heap.
+     */
+    public synchronized List<Frame> frames(long fromSequence) {
+        List<Frame> frames = new ArrayList<>();
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = slotOffset(slot);
+            long sequence = buffer.getLong(base + SEQUENCE_OFFSET);
+            if (sequence > 0 && sequence >= fromSequence) {
+                int length = buffer.getInt(base + LENGTH_OFFSET);
+                ByteBuffer data = buffer.slice(base + SLOT_HEADER_SIZE, length).asReadOnlyBuffer();
+                frames.add(new Frame(sequence, buffer.getLong(base + TIMESTAMP_OFFSET), data));
+            }
+        }
+        frames.sort(Comparator.comparingLong(Frame::sequence));
+        return frames;
+    }
+
+    /**
+     * Writes the frames from {@code fromSequence} onwards to the channel as a concatenated
+     * MJPEG stream.
+     *
+     * @return the number of frames written
+     */
+    public synchronized int exportTo(long fromSequence, WritableByteChannel target) throws IOException {
+        List<Frame> frames = frames(fromSequence);
+        for (Frame frame : frames) {
+            ByteBuffer data = frame.data();
+            while (data.hasRemaining()) {
+                target.write(data);
+            }
+        }
+        return frames.size();
+    }
+
+    /**
+     * Flushes the mapped pages to disk, for durability beyond a process crash.
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    /**
+     * Returns the sequence number the next frame will get.
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Returns the number of frames rejected as oversized or because the buffer was frozen.
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedFrames;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getSlotSize() {
+        return slotSize;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private int slotOffset(int slot) {
+        return HEADER_SIZE + slot * slotStride;
+    }
+
+    /**
+     * A stored frame; {@code data} is a read-only view valid until the slot is overwritten.
+     */
+    public record Frame(long sequence, long timestampMillis, ByteBuffer data) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.udacity.catpoint.security.camera;
+
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+/**
+ * A camera that produces frames on its own thread and pushes them to a sink.
+ */
+public interface FrameSource {
+
+    /**
+     * Returns the identifier of the camera this source belongs to.
+     */
+    String getCameraId();
+
+    /**
+     * Starts producing frames. Each decoded frame is passed to the sink on the source's thread.
+     *
+     * @param frameSink receives every frame produced
+     */
+    void start(Consumer<BufferedImage> frameSink);
+
+    /**
+     * Stops producing frames and releases any resources held by the source.
+     */
+    void stop();
+}
@@ -0,0 +1,110 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Frame source that plays back an MJPEG file (concatenated JPEG images) at a fixed frame rate.
+ * Frames are split on the JPEG start-of-image and end-of-image markers.
+ */
+public class MjpegFileFrameSource extends AbstractFrameSource {
+
+    private final Path file;
+    private final long framePeriodNanos;
+    private final boolean loop;
+
+    /**
+     * @param framesPerSecond playback rate
+     * @param loop            restart from the beginning at end of file
+     */
+    public MjpegFileFrameSource(String cameraId, Path file, double framesPerSecond, boolean loop) {
+        super(cameraId);
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("framesPerSecond must be positive");
+        }
+        this.file = file;
+        this.framePeriodNanos = (long) (1_000_000_000L / framesPerSecond);
+        this.loop = loop;
+    }
+
+    @Override
+    protected void produce(Consumer<BufferedImage> frameSink) throws IOException, InterruptedException {
+        do {
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+                JpegBuffer jpeg = new JpegBuffer();
+                while (isRunning() && nextJpeg(input, jpeg)) {
+                    long start = System.nanoTime();
+                    BufferedImage frame = decode(jpeg);
+                    if (frame != null) {
+                        frameSink.accept(frame);
+                    }
+                    pace(start, framePeriodNanos);
+                }
+            }
+        } while (loop && isRunning());
+    }
+
+    private BufferedImage decode(JpegBuffer jpeg) throws IOException {
+        FrameBufferPool pool = getFrameBufferPool();
+        return pool != null
+                ? pool.read(jpeg.bytes(), 0, jpeg.size())
+                : ImageIO.read(new ByteArrayInputStream(jpeg.bytes(), 0, jpeg.size()));
+    }
+
+    /**
+     * Reads the next JPEG image in the stream into the buffer, replacing its contents.
+     *
+     * @return false at end of stream
+     */
+    static boolean nextJpeg(InputStream input, JpegBuffer jpeg) throws IOException {
+        int previous = -1;
+        int current;
+
+        // Skip to the start-of-image marker (FF D8)
+        while ((current = input.read()) != -1) {
+            if (previous == 0xFF && current == 0xD8) {
+                break;
+            }
+            previous = current;
+        }
+        if (current == -1) {
+            return false;
+        }
+
+        jpeg.reset();
+        jpeg.write(0xFF);
+        jpeg.write(0xD8);
+        previous = -1;
+        while ((current = input.read()) != -1) {
+            jpeg.write(current);
+            if (previous == 0xFF && current == 0xD9) {
+                return true;
+            }
+            previous = current;
+        }
+        return false;
+    }
+
+    /**
+     * Growable frame buffer reused for every JPEG in the stream.
+     */
+    static final class JpegBuffer extends ByteArrayOutputStream {
+        JpegBuffer() {
+            super(64 * 1024);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.udacity.catpoint.security.camera;
+
+/**
+ * Decides whether a camera frame is worth sending to the detector.
+ */
+@FunctionalInterface
+public interface SamplingPolicy {
+
+    /** Policy that analyzes every frame. */
+    SamplingPolicy ALWAYS = (cameraId, nowNanos) -> true;
+
+    /**
+     * Returns true if the frame arriving from the camera at {@code nowNanos}
+     * ({@link System#nanoTime()} scale) should be analyzed.
+     */
+    boolean shouldAnalyze(String cameraId, long nowNanos);
+}
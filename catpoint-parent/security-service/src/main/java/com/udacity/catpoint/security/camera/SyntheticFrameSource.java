@@ -0,0 +1,63 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+/**
+ * Frame source that generates frames with a moving block at a fixed rate.
+ * Useful for load testing the ingestion pipeline without real cameras.
+ */
+public class SyntheticFrameSource extends AbstractFrameSource {
+
+    private final int width;
+    private final int height;
+    private final long framePeriodNanos;
+    private final long frameLimit;
+
+    /**
+     * @param framesPerSecond generation rate
+     * @param frameLimit      number of frames to generate before stopping; 0 for unlimited
+     */
+    public SyntheticFrameSource(String cameraId, int width, int height, double framesPerSecond, long frameLimit) {
+        super(cameraId);
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("framesPerSecond must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.framePeriodNanos = (long) (1_000_000_000L / framesPerSecond);
+        this.frameLimit = frameLimit;
+    }
+
+    @Override
+    protected void produce(Consumer<BufferedImage> frameSink) throws InterruptedException {
+        for (long index = 0; isRunning() && (frameLimit == 0 || index < frameLimit); index++) {
+            long start = System.nanoTime();
+            frameSink.accept(render(index));
+            pace(start, framePeriodNanos);
+        }
+    }
+
+    private BufferedImage render(long index) {
+        FrameBufferPool pool = getFrameBufferPool();
+        BufferedImage frame = pool != null
+                ? pool.acquire(width, height, BufferedImage.TYPE_INT_RGB)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+        try {
+            g.setColor(Color.DARK_GRAY);
+            g.fillRect(0, 0, width, height);
+            int block = Math.max(1, Math.min(width, height) / 4);
+            int x = (int) (index * 4 % Math.max(1, width - block));
+            g.setColor(Color.ORANGE);
+            g.fillRect(x, (height - block) / 2, block, block);
+        } finally {
+            g.dispose();
+        }
+        return frame;
+    }
+}
@@ -1,29 +1,31 @@
 package com.udacity.catpoint.security.data;
 
-import java.awt.*;
-
 /**
  * List of potential states the alarm can have. Also contains metadata about what
  * text and color is associated with the alarm.
  */
 public enum AlarmStatus {
-    NO_ALARM("Cool and Good", new Color(120,200,30)),
-    PENDING_ALARM("I'm in Danger...", new Color(200,150,20)),
-    ALARM("Awooga!", new Color(250,80,50));
+    NO_ALARM("Cool and Good", 0x78C81E),
+    PENDING_ALARM("I'm in Danger...", 0xC89614),
+    ALARM("Awooga!", 0xFA5032);
 
     private final String description;
-    private final Color color;
+    private final int rgb;
 
-    AlarmStatus(String description, Color color) {
+    AlarmStatus(String description, int rgb) {
         this.description = description;
-        this.color = color;
+        this.rgb = rgb;
     }
 
     public String getDescription() {
         return description;
     }
 
-    public Color getColor() {
-        return color;
+    /**
+     * Returns the color as 0xRRGGBB. Colors are kept as plain ints so that headless use of
+     * the status enums does not load AWT; the GUI wraps them in a {@code java.awt.Color}.
+     */
+    public int getRgb() {
+        return rgb;
     }
 }
\ No newline at end of file
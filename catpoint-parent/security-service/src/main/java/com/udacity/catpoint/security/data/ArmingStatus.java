@@ -1,28 +1,30 @@
 package com.udacity.catpoint.security.data;
 
-import java.awt.*;
 /**
  * List of potential states the security system can use to describe how the system is armed.
  * Also contains metadata about what text and color is associated with the arming status.
  */
 public enum ArmingStatus {
-    DISARMED("Disarmed", new Color(120,200,30)),
-    ARMED_HOME("Armed - At Home", new Color(190,180,50)),
-    ARMED_AWAY("Armed - Away", new Color(170,30,150));
+    DISARMED("Disarmed", 0x78C81E),
+    ARMED_HOME("Armed - At Home", 0xBEB432),
+    ARMED_AWAY("Armed - Away", 0xAA1E96);
 
     private final String description;
-    private final Color color;
+    private final int rgb;
 
-    ArmingStatus(String description, Color color) {
+    ArmingStatus(String description, int rgb) {
         this.description = description;
-        this.color = color;
+        this.rgb = rgb;
     }
 
     public String getDescription() {
         return description;
     }
 
-    public Color getColor() {
-        return color;
+    /**
+     * Returns the color as 0xRRGGBB, see {@link AlarmStatus#getRgb()}.
+     */
+    public int getRgb() {
+        return rgb;
     }
 }
\ No newline at end of file
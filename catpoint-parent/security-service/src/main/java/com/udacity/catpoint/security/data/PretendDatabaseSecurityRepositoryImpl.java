@@ -7,6 +7,8 @@ import java.lang.reflect.Type;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.Collections;
+import java.util.Objects;
+import java.util.UUID;
 import java.util.prefs.Preferences;
 
 /**
@@ -15,7 +17,11 @@ import java.util.prefs.Preferences;
  */
 public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository {
 
+    // The store: what is persisted and what getSensors() copies
     private Set<Sensor> sensors;
+    // Indexes kept in step with the store, answering activation and zone queries without copying it
+    private final SensorStateTable sensorStates = new SensorStateTable();
+    private final ZoneRollup zoneRollup = new ZoneRollup();
     private AlarmStatus alarmStatus;
     private ArmingStatus armingStatus;
 
@@ -23,10 +29,20 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
     private static final String ALARM_STATUS = "ALARM_STATUS";
     private static final String ARMING_STATUS = "ARMING_STATUS";
 
-    private static final Preferences prefs = Preferences.userNodeForPackage(PretendDatabaseSecurityRepositoryImpl.class);
     private static final Gson gson = new Gson();
 
+    private final Preferences prefs;
+
     public PretendDatabaseSecurityRepositoryImpl() {
+        this(Preferences.userNodeForPackage(PretendDatabaseSecurityRepositoryImpl.class));
+    }
+
+    /**
+     * Creates a repository persisting to the given preferences node instead of the user's
+     * Catpoint node, e.g. a scratch node for tests and benchmarks.
+     */
+    public PretendDatabaseSecurityRepositoryImpl(Preferences prefs) {
+        this.prefs = Objects.requireNonNull(prefs);
         try {
             alarmStatus = AlarmStatus.valueOf(prefs.get(ALARM_STATUS, AlarmStatus.NO_ALARM.toString()));
             armingStatus = ArmingStatus.valueOf(prefs.get(ARMING_STATUS, ArmingStatus.DISARMED.toString()));
@@ -45,6 +61,8 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
             alarmStatus = AlarmStatus.NO_ALARM;
             armingStatus = ArmingStatus.DISARMED;
         }
+        sensors.forEach(sensorStates::put);
+        sensors.forEach(zoneRollup::put);
     }
 
     @Override
@@ -52,6 +70,8 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
         if (sensor != null) {
             synchronized (sensors) {
                 sensors.add(sensor);
+                sensorStates.put(sensor);
+                zoneRollup.put(sensor);
                 prefs.put(SENSORS, gson.toJson(sensors));
             }
         }
@@ -62,6 +82,8 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
         if (sensor != null) {
             synchronized (sensors) {
                 sensors.removeIf(s -> s.getSensorId().equals(sensor.getSensorId()));
+                sensorStates.remove(sensor.getSensorId());
+                zoneRollup.remove(sensor.getSensorId());
                 prefs.put(SENSORS, gson.toJson(sensors));
             }
         }
@@ -78,6 +100,8 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
                 // Remove the old version by matching sensor ID, then add the updated one
                 sensors.removeIf(s -> s.getSensorId().equals(sensor.getSensorId()));
                 sensors.add(sensor);
+                sensorStates.put(sensor);
+                zoneRollup.put(sensor);
                 prefs.put(SENSORS, gson.toJson(sensors));
             }
         }
@@ -106,6 +130,31 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
         }
     }
 
+    @Override
+    public boolean containsSensor(UUID sensorId) {
+        return sensorStates.indexOf(sensorId) >= 0;
+    }
+
+    @Override
+    public boolean isAnySensorActive() {
+        return sensorStates.anyActive();
+    }
+
+    @Override
+    public int countActiveSensors(SensorType sensorType) {
+        return sensorStates.countActive(sensorType);
+    }
+
+    @Override
+    public int countSensorsInZone(String zone) {
+        return zoneRollup.countSensors(zone);
+    }
+
+    @Override
+    public int countActiveSensorsInZone(String zone) {
+        return zoneRollup.countActive(zone);
+    }
+
     @Override
     public AlarmStatus getAlarmStatus() {
         return alarmStatus;
@@ -1,6 +1,7 @@
 package com.udacity.catpoint.security.data;
 
 import java.util.Set;
+import java.util.UUID;
 
 public interface SecurityRepository {
     void addSensor(Sensor sensor);
@@ -12,4 +13,47 @@ public interface SecurityRepository {
     AlarmStatus getAlarmStatus();
     ArmingStatus getArmingStatus();
 
+    /**
+     * Returns true if a sensor with the given id is present. Repositories holding many sensors
+     * should answer this by id lookup, e.g. from a {@link SensorStateTable}.
+     */
+    default boolean containsSensor(UUID sensorId) {
+        return getSensors().stream().anyMatch(sensor -> sensor.getSensorId().equals(sensorId));
+    }
+
+    /**
+     * Returns true if any sensor is active. Repositories holding many sensors should answer
+     * this without copying them, e.g. from a {@link SensorStateTable}.
+     */
+    default boolean isAnySensorActive() {
+        return getSensors().stream().anyMatch(Sensor::getActive);
+    }
+
+    /**
+     * Returns the number of active sensors of the given type.
+     */
+    default int countActiveSensors(SensorType sensorType) {
+        return (int) getSensors().stream()
+                .filter(sensor -> sensor.getSensorType() == sensorType && sensor.getActive())
+                .count();
+    }
+
+    /**
+     * Returns the number of sensors in the zone and its sub-zones; "" is the whole system.
+     * Repositories holding many sensors should answer this from a {@link ZoneRollup}.
+     */
+    default int countSensorsInZone(String zone) {
+        return (int) getSensors().stream()
+                .filter(sensor -> ZoneRollup.contains(zone, sensor.getZone()))
+                .count();
+    }
+
+    /**
+     * Returns the number of active sensors in the zone and its sub-zones.
+     */
+    default int countActiveSensorsInZone(String zone) {
+        return (int) getSensors().stream()
+                .filter(sensor -> sensor.getActive() && ZoneRollup.contains(zone, sensor.getZone()))
+                .count();
+    }
 }
@@ -13,6 +13,7 @@ public class Sensor implements Comparable<Sensor> {
     private String name;
     private Boolean active;
     private SensorType sensorType;
+    private String zone;
 
     // ✅ Added no-argument constructor (required by Gson)
     public Sensor() {
@@ -28,6 +29,14 @@ public class Sensor implements Comparable<Sensor> {
         this.active = Boolean.FALSE;
     }
 
+    /**
+     * Creates a sensor in the given zone, a path such as {@code "perimeter/ground-floor/kitchen"}.
+     */
+    public Sensor(String name, SensorType sensorType, String zone) {
+        this(name, sensorType);
+        setZone(zone);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -65,6 +74,17 @@ public class Sensor implements Comparable<Sensor> {
         this.sensorType = sensorType;
     }
 
+    /**
+     * Returns the sensor's zone path, or "" if it is not assigned to a zone.
+     */
+    public String getZone() {
+        return ZoneRollup.normalize(zone);
+    }
+
+    public void setZone(String zone) {
+        this.zone = ZoneRollup.normalize(zone);
+    }
+
     public UUID getSensorId() {
         return sensorId;
     }
@@ -0,0 +1,345 @@
+package com.udacity.catpoint.security.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Compact, column-oriented table of sensor state for very large sensor fleets.
+ * Every sensor id is given a dense int index; the id is kept as two longs, the type as a byte,
+ * the name as UTF-8 bytes in a shared pool, and activation as one bit. Activation and per-type
+ * membership are bitsets, so "any active" and "count active by type" are word-wise popcount
+ * scans touching 1/64 of a word per sensor.
+ * <p>
+ * Indexes of removed sensors are reused and a missing name is stored as "". Renaming appends
+ * the new name to the pool; the old bytes are reclaimed by {@link #compactNames()}.
+ * <p>
+ * The table is an index, not a store: it does not keep zones or Sensor objects, so a
+ * repository keeps it in step with its own sensors and answers whole-fleet queries from it.
+ */
+public final class SensorStateTable {
+
+    private static final SensorType[] TYPES = SensorType.values();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int[] nameOffsets = new int[INITIAL_CAPACITY];
+    private int[] nameLengths = new int[INITIAL_CAPACITY];
+    private byte[] namePool = new byte[INITIAL_CAPACITY * 16];
+    private int namePoolSize = 0;
+
+    private long[] present = new long[INITIAL_CAPACITY / 64];
+    private long[] active = new long[INITIAL_CAPACITY / 64];
+    private final long[][] typeMasks = new long[TYPES.length][INITIAL_CAPACITY / 64];
+
+    /** Open-addressing id index with linear probing; holds index + 1, 0 marks an empty slot. */
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+    private int size = 0;
+    private int highWater = 0;
+    private int[] freeIndexes = new int[16];
+    private int freeCount = 0;
+
+    /**
+     * Adds the sensor, or updates its name, type and activation if already present.
+     *
+     * @return the sensor's index
+     */
+    public synchronized int put(Sensor sensor) {
+        return put(sensor.getSensorId(), sensor.getName(), sensor.getSensorType(), Boolean.TRUE.equals(sensor.getActive()));
+    }
+
+    /**
+     * Adds a sensor, or updates its name, type and activation if already present.
+     *
+     * @return the sensor's index
+     */
+    public synchronized int put(UUID sensorId, String name, SensorType type, boolean isActive) {
+        int index = indexOf(sensorId);
+        if (index < 0) {
+            index = allocateIndex();
+            idHigh[index] = sensorId.getMostSignificantBits();
+            idLow[index] = sensorId.getLeastSignificantBits();
+            insertSlot(index);
+            setBit(present, index, true);
+            size++;
+            storeName(index, name);
+        } else {
+            setBit(typeMasks[types[index]], index, false);
+            if (!nameEquals(index, name)) {
+                storeName(index, name);
+            }
+        }
+        types[index] = (byte) type.ordinal();
+        setBit(typeMasks[type.ordinal()], index, true);
+        setBit(active, index, isActive);
+        return index;
+    }
+
+    /**
+     * Removes a sensor.
+     *
+     * @return false if the sensor was not present
+     */
+    public synchronized boolean remove(UUID sensorId) {
+        int slot = findSlot(sensorId);
+        if (slots[slot] == 0) {
+            return false;
+        }
+        int index = slots[slot] - 1;
+        deleteSlot(slot);
+        setBit(present, index, false);
+        setBit(active, index, false);
+        setBit(typeMasks[types[index]], index, false);
+        nameLengths[index] = 0;
+        if (freeCount == freeIndexes.length) {
+            freeIndexes = Arrays.copyOf(freeIndexes, freeCount * 2);
+        }
+        freeIndexes[freeCount++] = index;
+        size--;
+        return true;
+    }
+
+    /**
+     * Sets whether a sensor is active.
+     *
+     * @return false if the sensor is not present
+     */
+    public synchronized boolean setActive(UUID sensorId, boolean isActive) {
+        int index = indexOf(sensorId);
+        if (index < 0) {
+            return false;
+        }
+        setBit(active, index, isActive);
+        return true;
+    }
+
+    /**
+     * Returns the index of a sensor, or -1 if it is not present.
+     */
+    public synchronized int indexOf(UUID sensorId) {
+        return slots[findSlot(sensorId)] - 1;
+    }
+
+    public synchronized boolean isActive(int index) {
+        checkIndex(index);
+        return getBit(active, index);
+    }
+
+    public synchronized SensorType getType(int index) {
+        checkIndex(index);
+        return TYPES[types[index]];
+    }
+
+    public synchronized String getName(int index) {
+        checkIndex(index);
+        return new String(namePool, nameOffsets[index], nameLengths[index], StandardCharsets.UTF_8);
+    }
+
+    public synchronized UUID getSensorId(int index) {
+        checkIndex(index);
+        return new UUID(idHigh[index], idLow[index]);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if at least one sensor is active.
+     */
+    public synchronized boolean anyActive() {
+        for (long word : active) {
+            if (word != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized int countActive() {
+        int count = 0;
+        for (long word : active) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public synchronized int countActive(SensorType type) {
+        long[] mask = typeMasks[type.ordinal()];
+        int count = 0;
+        for (int word = 0; word < active.length; word++) {
+            count += Long.bitCount(active[word] & mask[word]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of active sensors of every type, indexed by {@link SensorType#ordinal()},
+     * in a single pass over the bitsets.
+     */
+    public synchronized int[] countActiveByType() {
+        int[] counts = new int[TYPES.length];
+        for (int word = 0; word < active.length; word++) {
+            long bits = active[word];
+            if (bits != 0L) {
+                for (int type = 0; type < TYPES.length; type++) {
+                    counts[type] += Long.bitCount(bits & typeMasks[type][word]);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Rewrites the name pool without the bytes of renamed and removed sensors.
+     */
+    public synchronized void compactNames() {
+        byte[] pool = new byte[Math.max(INITIAL_CAPACITY, namePoolSize)];
+        int poolSize = 0;
+        for (int index = 0; index < highWater; index++) {
+            if (getBit(present, index)) {
+                System.arraycopy(namePool, nameOffsets[index], pool, poolSize, nameLengths[index]);
+                nameOffsets[index] = poolSize;
+                poolSize += nameLengths[index];
+            }
+        }
+        namePool = pool;
+        namePoolSize = poolSize;
+    }
+
+    /**
+     * Returns the bytes held by the table's arrays, for capacity planning.
+     */
+    public synchronized long getRetainedBytes() {
+        long bytes = (long) idHigh.length * 16 + types.length + (long) nameOffsets.length * 8
+                + namePool.length + (long) slots.length * 4 + (long) freeIndexes.length * 4;
+        bytes += (long) (present.length + active.length) * 8;
+        for (long[] mask : typeMasks) {
+            bytes += (long) mask.length * 8;
+        }
+        return bytes;
+    }
+
+    private int allocateIndex() {
+        if (freeCount > 0) {
+            return freeIndexes[--freeCount];
+        }
+        if (highWater == idHigh.length) {
+            grow(idHigh.length * 2);
+        }
+        return highWater++;
+    }
+
+    private void grow(int capacity) {
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        types = Arrays.copyOf(types, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        present = Arrays.copyOf(present, capacity / 64);
+        active = Arrays.copyOf(active, capacity / 64);
+        for (int type = 0; type < typeMasks.length; type++) {
+            typeMasks[type] = Arrays.copyOf(typeMasks[type], capacity / 64);
+        }
+
+        // Keep the id index at most half full
+        int[] old = slots;
+        slots = new int[capacity * 2];
+        for (int entry : old) {
+            if (entry != 0) {
+                insertSlot(entry - 1);
+            }
+        }
+    }
+
+    private void storeName(int index, String name) {
+        byte[] bytes = encode(name);
+        if (namePoolSize + bytes.length > namePool.length) {
+            namePool = Arrays.copyOf(namePool, Math.max(namePool.length * 2, namePoolSize + bytes.length));
+        }
+        System.arraycopy(bytes, 0, namePool, namePoolSize, bytes.length);
+        nameOffsets[index] = namePoolSize;
+        nameLengths[index] = bytes.length;
+        namePoolSize += bytes.length;
+    }
+
+    private boolean nameEquals(int index, String name) {
+        byte[] bytes = encode(name);
+        int offset = nameOffsets[index];
+        return Arrays.equals(namePool, offset, offset + nameLengths[index], bytes, 0, bytes.length);
+    }
+
+    private static byte[] encode(String name) {
+        return name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int findSlot(UUID sensorId) {
+        long high = sensorId.getMostSignificantBits();
+        long low = sensorId.getLeastSignificantBits();
+        int mask = slots.length - 1;
+        int slot = hash(high, low) & mask;
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+            if (idHigh[index] == high && idLow[index] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertSlot(int index) {
+        int mask = slots.length - 1;
+        int slot = hash(idHigh[index], idLow[index]) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+    }
+
+    /**
+     * Empties a slot and shifts later entries of the probe run back, so lookups never need tombstones.
+     */
+    private void deleteSlot(int slot) {
+        int mask = slots.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (slots[next] != 0) {
+            int index = slots[next] - 1;
+            int home = hash(idHigh[index], idLow[index]) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[hole] = 0;
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= highWater || !getBit(present, index)) {
+            throw new IndexOutOfBoundsException("No sensor at index " + index);
+        }
+    }
+
+    private static boolean getBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void setBit(long[] bits, int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.udacity.catpoint.security.data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Sensor and active-sensor counts for every zone of a zone hierarchy, kept up to date as
+ * sensors are added, moved, activated and removed.
+ * Zones are paths such as {@code "perimeter/ground-floor/kitchen"}; a sensor in that zone also
+ * counts towards {@code "perimeter/ground-floor"} and {@code "perimeter"}, and every sensor
+ * counts towards the root zone {@code ""}. An update touches one counter pair per level of the
+ * sensor's zone, and "any sensor active in zone" or "zone quiet" is one map lookup.
+ * Zones that no longer hold sensors are dropped.
+ */
+public final class ZoneRollup {
+
+    public static final String SEPARATOR = "/";
+
+    private final Node root = new Node("", null);
+    private final Map<String, Node> zones = new HashMap<>();
+    private final Map<UUID, Membership> sensors = new HashMap<>();
+
+    public ZoneRollup() {
+        zones.put("", root);
+    }
+
+    /**
+     * Adds the sensor, or applies a change of its zone or activation.
+     */
+    public synchronized void put(Sensor sensor) {
+        put(sensor.getSensorId(), sensor.getZone(), Boolean.TRUE.equals(sensor.getActive()));
+    }
+
+    /**
+     * Adds a sensor, or applies a change of its zone or activation.
+     */
+    public synchronized void put(UUID sensorId, String zone, boolean active) {
+        Membership membership = sensors.get(sensorId);
+        if (membership == null) {
+            Node node = zoneFor(normalize(zone));
+            sensors.put(sensorId, new Membership(node, active));
+            adjust(node, 1, active ? 1 : 0);
+        } else if (!membership.zone.path.equals(normalize(zone))) {
+            Node old = membership.zone;
+            adjust(old, -1, membership.active ? -1 : 0);
+            membership.zone = zoneFor(normalize(zone));
+            membership.active = active;
+            adjust(membership.zone, 1, active ? 1 : 0);
+            prune(old);
+        } else if (membership.active != active) {
+            membership.active = active;
+            adjust(membership.zone, 0, active ? 1 : -1);
+        }
+    }
+
+    /**
+     * Removes a sensor.
+     *
+     * @return false if the sensor was not present
+     */
+    public synchronized boolean remove(UUID sensorId) {
+        Membership membership = sensors.remove(sensorId);
+        if (membership == null) {
+            return false;
+        }
+        adjust(membership.zone, -1, membership.active ? -1 : 0);
+        prune(membership.zone);
+        return true;
+    }
+
+    /**
+     * Returns the number of sensors in the zone and its sub-zones.
+     */
+    public synchronized int countSensors(String zone) {
+        Node node = zones.get(normalize(zone));
+        return node == null ? 0 : node.sensorCount;
+    }
+
+    /**
+     * Returns the number of active sensors in the zone and its sub-zones.
+     */
+    public synchronized int countActive(String zone) {
+        Node node = zones.get(normalize(zone));
+        return node == null ? 0 : node.activeCount;
+    }
+
+    public synchronized boolean anyActive(String zone) {
+        return countActive(zone) > 0;
+    }
+
+    /**
+     * Returns true if no sensor in the zone or its sub-zones is active, including when the
+     * zone holds no sensors.
+     */
+    public synchronized boolean isQuiet(String zone) {
+        return countActive(zone) == 0;
+    }
+
+    /**
+     * Returns the paths of all zones holding sensors, parents included, in sorted order.
+     */
+    public synchronized Set<String> getZones() {
+        Set<String> paths = new TreeSet<>(zones.keySet());
+        paths.remove("");
+        return paths;
+    }
+
+    /**
+     * Returns true if the sensor zone is the given zone or one of its sub-zones.
+     */
+    public static boolean contains(String zone, String sensorZone) {
+        String parent = normalize(zone);
+        String child = normalize(sensorZone);
+        return parent.isEmpty() || child.equals(parent) || child.startsWith(parent + SEPARATOR);
+    }
+
+    /**
+     * Returns the zone path without empty segments or surrounding whitespace; null becomes
+     * the root zone "".
+     */
+    public static String normalize(String zone) {
+        if (zone == null) {
+            return "";
+        }
+        String trimmed = zone.trim();
+        if (!trimmed.startsWith(SEPARATOR) && !trimmed.endsWith(SEPARATOR) && !trimmed.contains(SEPARATOR + SEPARATOR)) {
+            return trimmed;
+        }
+        StringBuilder path = new StringBuilder();
+        for (String segment : trimmed.split(SEPARATOR)) {
+            String name = segment.trim();
+            if (!name.isEmpty()) {
+                if (path.length() > 0) {
+                    path.append(SEPARATOR);
+                }
+                path.append(name);
+            }
+        }
+        return path.toString();
+    }
+
+    private Node zoneFor(String path) {
+        Node node = zones.get(path);
+        if (node == null) {
+            int split = path.lastIndexOf(SEPARATOR);
+            Node parent = split < 0 ? root : zoneFor(path.substring(0, split));
+            node = new Node(path, parent);
+            parent.children++;
+            zones.put(path, node);
+        }
+        return node;
+    }
+
+    private static void adjust(Node node, int sensors, int active) {
+        for (Node zone = node; zone != null; zone = zone.parent) {
+            zone.sensorCount += sensors;
+            zone.activeCount += active;
+        }
+    }
+
+    private void prune(Node node) {
+        for (Node zone = node; zone != root && zone.sensorCount == 0 && zone.children == 0; zone = zone.parent) {
+            zones.remove(zone.path);
+            zone.parent.children--;
+        }
+    }
+
+    private static final class Node {
+        private final String path;
+        private final Node parent;
+        private int sensorCount;
+        private int activeCount;
+        private int children;
+
+        private Node(String path, Node parent) {
+            this.path = path;
+            this.parent = parent;
+        }
+    }
+
+    private static final class Membership {
+        private Node zone;
+        private boolean active;
+
+        private Membership(Node zone, boolean active) {
+            this.zone = zone;
+            this.active = active;
+        }
+    }
+}
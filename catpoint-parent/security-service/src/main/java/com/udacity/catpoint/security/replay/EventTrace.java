@@ -0,0 +1,142 @@
+package com.udacity.catpoint.security.replay;
+
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A replayable sequence of SecurityService events together with the sensors they refer to.
+ * Traces come from a {@link TraceGenerator} or a {@link TraceRecorder} and are saved as text:
+ * <pre>
+ * sensor 5f1c...-... DOOR Front door
+ * event 0 ARMING ARMED_AWAY
+ * event 1250 SENSOR 0 true
+ * event 4100 IMAGE front
+ * </pre>
+ */
+public final class EventTrace {
+
+    private static final String HEADER = "# catpoint event trace v1";
+
+    /**
+     * A sensor of the trace, recreated with the same id on every replay.
+     */
+    public record SensorSpec(UUID sensorId, String name, SensorType sensorType) {
+
+        public SensorSpec {
+            Objects.requireNonNull(sensorId);
+            Objects.requireNonNull(sensorType);
+            name = name == null ? "" : name;
+        }
+
+        public Sensor toSensor() {
+            Sensor sensor = new Sensor(name, sensorType);
+            sensor.setSensorId(sensorId);
+            return sensor;
+        }
+    }
+
+    private final List<SensorSpec> sensors;
+    private final List<TraceEvent> events;
+
+    public EventTrace(List<SensorSpec> sensors, List<TraceEvent> events) {
+        this.sensors = List.copyOf(sensors);
+        this.events = List.copyOf(events);
+        for (TraceEvent event : this.events) {
+            if (event.kind() == TraceEvent.Kind.SENSOR && (event.sensor() < 0 || event.sensor() >= this.sensors.size())) {
+                throw new IllegalArgumentException("Event refers to unknown sensor " + event.sensor());
+            }
+        }
+    }
+
+    public List<SensorSpec> getSensors() {
+        return sensors;
+    }
+
+    public List<TraceEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the offset of the last event in microseconds.
+     */
+    public long getDurationMicros() {
+        return events.isEmpty() ? 0 : events.get(events.size() - 1).offsetMicros();
+    }
+
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (SensorSpec sensor : sensors) {
+                writer.write("sensor " + sensor.sensorId() + " " + sensor.sensorType() + " " + sensor.name());
+                writer.newLine();
+            }
+            for (TraceEvent event : events) {
+                String argument = switch (event.kind()) {
+                    case SENSOR -> event.sensor() + " " + event.active();
+                    case ARMING -> event.armingStatus().name();
+                    case IMAGE -> event.cameraId();
+                };
+                writer.write("event " + event.offsetMicros() + " " + event.kind() + " " + argument);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Reads a trace written by {@link #write(Path)}.
+     *
+     * @throws IllegalArgumentException naming the line of the first malformed entry
+     */
+    public static EventTrace read(Path file) throws IOException {
+        List<SensorSpec> sensors = new ArrayList<>();
+        List<TraceEvent> events = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    String[] fields = line.split(" ", 4);
+                    switch (fields[0]) {
+                        case "sensor" -> sensors.add(new SensorSpec(UUID.fromString(fields[1]),
+                                fields.length > 3 ? fields[3] : "", SensorType.valueOf(fields[2])));
+                        case "event" -> events.add(parseEvent(fields));
+                        default -> throw new IllegalArgumentException("unknown entry '" + fields[0] + "'");
+                    }
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return new EventTrace(sensors, events);
+    }
+
+    private static TraceEvent parseEvent(String[] fields) {
+        long offsetMicros = Long.parseLong(fields[1]);
+        String argument = fields[3];
+        return switch (TraceEvent.Kind.valueOf(fields[2])) {
+            case SENSOR -> {
+                String[] parts = argument.split(" ");
+                yield TraceEvent.sensor(offsetMicros, Integer.parseInt(parts[0]), Boolean.parseBoolean(parts[1]));
+            }
+            case ARMING -> TraceEvent.arming(offsetMicros, ArmingStatus.valueOf(argument));
+            case IMAGE -> TraceEvent.image(offsetMicros, argument);
+        };
+    }
+}
@@ -0,0 +1,202 @@
+package com.udacity.catpoint.security.replay;
+
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.security.data.SecurityRepository;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.service.SecurityService;
+
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Replays an {@link EventTrace} against a SecurityService built from the given repository and
+ * ImageService, and reports throughput, latency percentiles, allocation and a checksum of the
+ * final state. Every run gets a fresh repository and ImageService from the suppliers, so with
+ * a seeded ImageService such as {@code new FakeImageService(seed)} two runs of the same trace
+ * end in the same state and a changed checksum flags a change in behavior.
+ * <p>
+ * Events are replayed on the calling thread, either as fast as possible, at a fixed rate, or
+ * at the trace's own timing scaled by a speed factor. When paced, latency is measured from
+ * when each event was due, so a slow event shows up in the response times of those behind it.
+ */
+public class ReplayHarness {
+
+    private final Supplier<? extends SecurityRepository> repositories;
+    private final Supplier<? extends ImageService> imageServices;
+    private double eventsPerSecond = 0;
+    private double speed = 0;
+    private int warmUpRuns = 0;
+    private BufferedImage frame = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+
+    public ReplayHarness(Supplier<? extends SecurityRepository> repositories, Supplier<? extends ImageService> imageServices) {
+        this.repositories = Objects.requireNonNull(repositories);
+        this.imageServices = Objects.requireNonNull(imageServices);
+    }
+
+    /**
+     * Replays at a fixed rate instead of as fast as possible.
+     *
+     * @return this instance for chaining
+     */
+    public ReplayHarness withRate(double eventsPerSecond) {
+        if (eventsPerSecond <= 0) {
+            throw new IllegalArgumentException("eventsPerSecond must be positive");
+        }
+        this.eventsPerSecond = eventsPerSecond;
+        this.speed = 0;
+        return this;
+    }
+
+    /**
+     * Replays at the trace's own timing, sped up by the given factor.
+     *
+     * @return this instance for chaining
+     */
+    public ReplayHarness withSpeed(double speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("speed must be positive");
+        }
+        this.speed = speed;
+        this.eventsPerSecond = 0;
+        return this;
+    }
+
+    /**
+     * Replays the trace this many times, unpaced and unmeasured, before the measured run so
+     * the JIT has compiled the hot paths.
+     *
+     * @return this instance for chaining
+     */
+    public ReplayHarness withWarmUpRuns(int runs) {
+        if (runs < 0) {
+            throw new IllegalArgumentException("runs cannot be negative");
+        }
+        this.warmUpRuns = runs;
+        return this;
+    }
+
+    /**
+     * Sets the frame passed with every image event.
+     *
+     * @return this instance for chaining
+     */
+    public ReplayHarness withFrame(BufferedImage frame) {
+        this.frame = Objects.requireNonNull(frame);
+        return this;
+    }
+
+    public ReplayReport run(EventTrace trace) {
+        for (int i = 0; i < warmUpRuns; i++) {
+            replay(trace, false);
+        }
+        return replay(trace, true);
+    }
+
+    private ReplayReport replay(EventTrace trace, boolean paced) {
+        SecurityRepository repository = repositories.get();
+        SecurityService service = new SecurityService(repository, imageServices.get());
+        List<Sensor> sensors = new ArrayList<>(trace.getSensors().size());
+        for (EventTrace.SensorSpec spec : trace.getSensors()) {
+            Sensor sensor = spec.toSensor();
+            service.addSensor(sensor);
+            sensors.add(sensor);
+        }
+
+        List<TraceEvent> events = trace.getEvents();
+        int count = events.size();
+        long[] serviceNanos = new long[count];
+        long[] responseNanos = new long[count];
+        TraceEvent.Kind[] kinds = new TraceEvent.Kind[count];
+        double nanosPerMicro = paced && speed > 0 ? 1e3 / speed : 0;
+        double gapNanos = paced && eventsPerSecond > 0 ? 1e9 / eventsPerSecond : 0;
+        boolean scheduled = nanosPerMicro > 0 || gapNanos > 0;
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            TraceEvent event = events.get(i);
+            long due = start + (long) (gapNanos > 0 ? i * gapNanos : event.offsetMicros() * nanosPerMicro);
+            for (long wait = due - System.nanoTime(); scheduled && wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            long begin = System.nanoTime();
+            if (!scheduled) {
+                due = begin;
+            }
+            switch (event.kind()) {
+                case SENSOR -> service.changeSensorActivationStatus(sensors.get(event.sensor()), event.active());
+                case ARMING -> service.setArmingStatus(event.armingStatus());
+                case IMAGE -> service.processImage(event.cameraId(), frame);
+            }
+            long end = System.nanoTime();
+            serviceNanos[i] = end - begin;
+            responseNanos[i] = end - Math.min(due, begin);
+            kinds[i] = event.kind();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+
+        Map<TraceEvent.Kind, ReplayReport.Latencies> byKind = new EnumMap<>(TraceEvent.Kind.class);
+        for (TraceEvent.Kind kind : TraceEvent.Kind.values()) {
+            long[] nanos = new long[count];
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                if (kinds[i] == kind) {
+                    nanos[n++] = serviceNanos[i];
+                }
+            }
+            if (n > 0) {
+                byKind.put(kind, ReplayReport.Latencies.of(nanos, n));
+            }
+        }
+        List<Sensor> finalSensors = new ArrayList<>(service.getSensors());
+        int activeSensors = (int) finalSensors.stream().filter(Sensor::getActive).count();
+        return new ReplayReport(count, elapsed, ReplayReport.Latencies.of(serviceNanos, count),
+                ReplayReport.Latencies.of(responseNanos, count), byKind, allocated,
+                service.getArmingStatus(), service.getAlarmStatus(), activeSensors, checksum(service, finalSensors));
+    }
+
+    /**
+     * Hashes the arming, alarm and cat detection state and every sensor's id and activation,
+     * in sensor id order.
+     */
+    private static long checksum(SecurityService service, List<Sensor> sensors) {
+        CRC32C crc = new CRC32C();
+        update(crc, String.valueOf(service.getArmingStatus()));
+        update(crc, String.valueOf(service.getAlarmStatus()));
+        update(crc, String.valueOf(service.isCatDetected()));
+        List<Sensor> sorted = new ArrayList<>(sensors);
+        sorted.sort(Comparator.comparing(Sensor::getSensorId));
+        for (Sensor sensor : sorted) {
+            update(crc, sensor.getSensorId() + "=" + sensor.getActive());
+        }
+        return crc.getValue() ^ ((long) sorted.size() << 32);
+    }
+
+    private static void update(CRC32C crc, String value) {
+        crc.update(value.getBytes(StandardCharsets.UTF_8));
+        crc.update(0);
+    }
+
+    /**
+     * Returns the bytes allocated so far by the current thread, or -1 if not supported.
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,74 @@
+package com.udacity.catpoint.security.replay;
+
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Results of one {@link ReplayHarness} run.
+ * Service time is how long the SecurityService call took. Response time is measured from when
+ * the event was due, so with a target rate it also includes any time spent waiting behind
+ * earlier slow events.
+ *
+ * @param allocatedBytes heap allocated by the replaying thread, or -1 if the JVM cannot tell
+ * @param checksum       hash of the final arming, alarm and sensor state, for comparing runs
+ */
+public record ReplayReport(int events, long elapsedNanos, Latencies serviceTime, Latencies responseTime,
+                           Map<TraceEvent.Kind, Latencies> serviceTimeByKind, long allocatedBytes,
+                           ArmingStatus armingStatus, AlarmStatus alarmStatus, int activeSensors, long checksum) {
+
+    /**
+     * Latency percentiles in nanoseconds.
+     */
+    public record Latencies(int count, long p50, long p90, long p99, long p999, long max) {
+
+        static Latencies of(long[] nanos, int count) {
+            if (count == 0) {
+                return new Latencies(0, 0, 0, 0, 0, 0);
+            }
+            Arrays.sort(nanos, 0, count);
+            return new Latencies(count, at(nanos, count, 0.5), at(nanos, count, 0.9), at(nanos, count, 0.99),
+                    at(nanos, count, 0.999), nanos[count - 1]);
+        }
+
+        private static long at(long[] sorted, int count, double percentile) {
+            int index = (int) Math.ceil(percentile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                    p50 / 1e3, p90 / 1e3, p99 / 1e3, p999 / 1e3, max / 1e3);
+        }
+    }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : events * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the allocation rate of the replaying thread in MB/s, or -1 if unknown.
+     */
+    public double getAllocationRateMbPerSecond() {
+        return allocatedBytes < 0 || elapsedNanos == 0 ? -1 : allocatedBytes / 1e6 / (elapsedNanos / 1e9);
+    }
+
+    public double getAllocatedBytesPerEvent() {
+        return allocatedBytes < 0 || events == 0 ? -1 : (double) allocatedBytes / events;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format(
+                "%,d events in %.1f ms: %,.0f events/s, alloc %.1f MB/s (%.0f B/event), final %s/%s with %d active, checksum %016x%n"
+                        + "  service:  %s%n  response: %s",
+                events, elapsedNanos / 1e6, getThroughput(), getAllocationRateMbPerSecond(), getAllocatedBytesPerEvent(),
+                armingStatus, alarmStatus, activeSensors, checksum, serviceTime, responseTime));
+        serviceTimeByKind.forEach((kind, latencies) ->
+                text.append(String.format("%n  %-8s  %,d x %s", kind, latencies.count(), latencies)));
+        return text.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.udacity.catpoint.security.replay;
+
+import com.udacity.catpoint.security.data.ArmingStatus;
+
+import java.util.Objects;
+
+/**
+ * One event of an {@link EventTrace}: a sensor toggle, an arming change or a camera image,
+ * at an offset from the start of the trace.
+ *
+ * @param offsetMicros  time since the start of the trace
+ * @param sensor        index into the trace's sensors, for {@link Kind#SENSOR}
+ * @param active        new sensor state, for {@link Kind#SENSOR}
+ * @param armingStatus  new arming status, for {@link Kind#ARMING}
+ * @param cameraId      camera that took the image, for {@link Kind#IMAGE}
+ */
+public record TraceEvent(long offsetMicros, Kind kind, int sensor, boolean active, ArmingStatus armingStatus, String cameraId) {
+
+    public enum Kind {
+        SENSOR, ARMING, IMAGE
+    }
+
+    public TraceEvent {
+        Objects.requireNonNull(kind);
+        if (offsetMicros < 0) {
+            throw new IllegalArgumentException("offsetMicros cannot be negative");
+        }
+    }
+
+    public static TraceEvent sensor(long offsetMicros, int sensor, boolean active) {
+        return new TraceEvent(offsetMicros, Kind.SENSOR, sensor, active, null, null);
+    }
+
+    public static TraceEvent arming(long offsetMicros, ArmingStatus armingStatus) {
+        return new TraceEvent(offsetMicros, Kind.ARMING, -1, false, Objects.requireNonNull(armingStatus), null);
+    }
+
+    public static TraceEvent image(long offsetMicros, String cameraId) {
+        return new TraceEvent(offsetMicros, Kind.IMAGE, -1, false, null, Objects.requireNonNull(cameraId));
+    }
+}
@@ -0,0 +1,117 @@
+package com.udacity.catpoint.security.replay;
+
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.SensorType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates synthetic event traces from a seed; the same settings and seed always give the
+ * same trace. Events arrive as a Poisson process at the configured rate, so there are bursts
+ * and gaps as with real sensors, and sensor events toggle the sensor they pick.
+ */
+public class TraceGenerator {
+
+    private static final ArmingStatus[] ARMING = ArmingStatus.values();
+    private static final SensorType[] TYPES = SensorType.values();
+
+    private final long seed;
+    private int sensorCount = 100;
+    private int cameraCount = 1;
+    private double sensorWeight = 0.85;
+    private double armingWeight = 0.05;
+    private double imageWeight = 0.10;
+    private double eventsPerSecond = 100;
+
+    public TraceGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return this instance for chaining
+     */
+    public TraceGenerator withSensors(int sensorCount) {
+        if (sensorCount < 1) {
+            throw new IllegalArgumentException("sensorCount must be at least 1");
+        }
+        this.sensorCount = sensorCount;
+        return this;
+    }
+
+    /**
+     * @return this instance for chaining
+     */
+    public TraceGenerator withCameras(int cameraCount) {
+        if (cameraCount < 1) {
+            throw new IllegalArgumentException("cameraCount must be at least 1");
+        }
+        this.cameraCount = cameraCount;
+        return this;
+    }
+
+    /**
+     * Sets the relative frequency of sensor toggles, arming changes and camera images.
+     *
+     * @return this instance for chaining
+     */
+    public TraceGenerator withMix(double sensorWeight, double armingWeight, double imageWeight) {
+        if (sensorWeight < 0 || armingWeight < 0 || imageWeight < 0 || sensorWeight + armingWeight + imageWeight <= 0) {
+            throw new IllegalArgumentException("weights must be non-negative and not all zero");
+        }
+        this.sensorWeight = sensorWeight;
+        this.armingWeight = armingWeight;
+        this.imageWeight = imageWeight;
+        return this;
+    }
+
+    /**
+     * Sets the mean event rate used for the event offsets.
+     *
+     * @return this instance for chaining
+     */
+    public TraceGenerator withRate(double eventsPerSecond) {
+        if (eventsPerSecond <= 0) {
+            throw new IllegalArgumentException("eventsPerSecond must be positive");
+        }
+        this.eventsPerSecond = eventsPerSecond;
+        return this;
+    }
+
+    public EventTrace generate(int eventCount) {
+        Random random = new Random(seed);
+        List<EventTrace.SensorSpec> sensors = new ArrayList<>(sensorCount);
+        for (int i = 0; i < sensorCount; i++) {
+            sensors.add(new EventTrace.SensorSpec(new UUID(random.nextLong(), random.nextLong()),
+                    String.format("Sensor %05d", i), TYPES[i % TYPES.length]));
+        }
+
+        boolean[] active = new boolean[sensorCount];
+        double total = sensorWeight + armingWeight + imageWeight;
+        double meanGapMicros = 1e6 / eventsPerSecond;
+        List<TraceEvent> events = new ArrayList<>(eventCount);
+        double offset = 0;
+        for (int i = 0; i < eventCount; i++) {
+            offset += -Math.log(1 - random.nextDouble()) * meanGapMicros;
+            long offsetMicros = (long) offset;
+            double pick = random.nextDouble() * total;
+            if (pick < sensorWeight) {
+                int sensor = random.nextInt(sensorCount);
+                active[sensor] = !active[sensor];
+                events.add(TraceEvent.sensor(offsetMicros, sensor, active[sensor]));
+            } else if (pick < sensorWeight + armingWeight) {
+                ArmingStatus status = ARMING[random.nextInt(ARMING.length)];
+                if (status != ArmingStatus.DISARMED) {
+                    // Arming deactivates every sensor
+                    active = new boolean[sensorCount];
+                }
+                events.add(TraceEvent.arming(offsetMicros, status));
+            } else {
+                events.add(TraceEvent.image(offsetMicros, "camera-" + random.nextInt(cameraCount)));
+            }
+        }
+        return new EventTrace(sensors, events);
+    }
+}
@@ -0,0 +1,85 @@
+package com.udacity.catpoint.security.replay;
+
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.service.SecurityService;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Records the events passed to a SecurityService, with their timing, into an {@link EventTrace}.
+ * Callers use the recorder's methods in place of the service's; each is forwarded to the
+ * service and then appended to the trace.
+ */
+public class TraceRecorder {
+
+    private final SecurityService securityService;
+    private final LongSupplier clock;
+    private final long startNanos;
+    private final List<EventTrace.SensorSpec> sensors = new ArrayList<>();
+    private final Map<UUID, Integer> sensorIndexes = new HashMap<>();
+    private final List<TraceEvent> events = new ArrayList<>();
+
+    public TraceRecorder(SecurityService securityService) {
+        this(securityService, System::nanoTime);
+    }
+
+    TraceRecorder(SecurityService securityService, LongSupplier clock) {
+        this.securityService = securityService;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+        securityService.getSensors().forEach(this::indexOf);
+    }
+
+    public void addSensor(Sensor sensor) {
+        securityService.addSensor(sensor);
+        synchronized (this) {
+            indexOf(sensor);
+        }
+    }
+
+    public void changeSensorActivationStatus(Sensor sensor, boolean active) {
+        securityService.changeSensorActivationStatus(sensor, active);
+        synchronized (this) {
+            events.add(TraceEvent.sensor(offsetMicros(), indexOf(sensor), active));
+        }
+    }
+
+    public void setArmingStatus(ArmingStatus armingStatus) {
+        securityService.setArmingStatus(armingStatus);
+        synchronized (this) {
+            events.add(TraceEvent.arming(offsetMicros(), armingStatus));
+        }
+    }
+
+    /**
+     * Forwards the image; the trace only keeps the camera, and replays use a stand-in frame.
+     */
+    public void processImage(String cameraId, BufferedImage image) {
+        securityService.processImage(cameraId, image);
+        synchronized (this) {
+            events.add(TraceEvent.image(offsetMicros(), cameraId));
+        }
+    }
+
+    public synchronized EventTrace toTrace() {
+        return new EventTrace(sensors, events);
+    }
+
+    private int indexOf(Sensor sensor) {
+        return sensorIndexes.computeIfAbsent(sensor.getSensorId(), id -> {
+            sensors.add(new EventTrace.SensorSpec(id, sensor.getName(), sensor.getSensorType()));
+            return sensors.size() - 1;
+        });
+    }
+
+    private long offsetMicros() {
+        return Math.max(0, (clock.getAsLong() - startNanos) / 1000);
+    }
+}
@@ -0,0 +1,272 @@
+package com.udacity.catpoint.security.service;
+
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Alarm rules compiled into a flat table indexed by arming status, alarm status, event and
+ * derived flags, so an event resolves to its {@link Transition} with one array lookup.
+ * Rules are read from a text file, by default {@code alarm-rules.txt} next to this class:
+ * <pre>
+ * # EVENT           ARMING     ALARM          CONDITIONS     -&gt;  RESULT...
+ * SENSOR_ACTIVATED  !DISARMED  NO_ALARM       *              -&gt;  PENDING_ALARM
+ * CAT_CLEARED       *          *              ALL_INACTIVE   -&gt;  NO_ALARM
+ * </pre>
+ * The first matching rule wins and no match leaves the alarm unchanged. A status pattern is
+ * a status, {@code !STATUS}, {@code STATUS|STATUS} or {@code *}; a missing (null) status only
+ * matches negations and {@code *}. Conditions are {@code ALL_INACTIVE} and
+ * {@code CAT_DETECTED}, optionally negated and joined by {@code &}.
+ * <p>
+ * Checking that all sensors are inactive means scanning them, so the compiler records for
+ * which states the result depends on {@code ALL_INACTIVE} and the scan runs only for those.
+ */
+public final class AlarmTransitionTable {
+
+    /**
+     * What happened, as seen by the alarm rules.
+     */
+    public enum Event {
+        ARMING_CHANGED, SENSOR_ACTIVATED, SENSOR_DEACTIVATED, CAT_DETECTED, CAT_CLEARED
+    }
+
+    /**
+     * The effect of an event: an alarm status to set, or null to leave it, and whether to
+     * deactivate all sensors first.
+     */
+    public record Transition(AlarmStatus alarmStatus, boolean deactivateSensors) {
+
+        public static final Transition NONE = new Transition(null, false);
+    }
+
+    public static final String DEFAULT_RULES = "alarm-rules.txt";
+
+    private static final int ALL_INACTIVE = 1;
+    private static final int CAT_DETECTED = 2;
+    private static final int FLAG_COUNT = 4;
+
+    private static final ArmingStatus[] ARMING = ArmingStatus.values();
+    private static final AlarmStatus[] ALARM = AlarmStatus.values();
+    private static final Event[] EVENTS = Event.values();
+    private static final String[] CONDITION_NAMES = {"ALL_INACTIVE", "CAT_DETECTED"};
+
+    private final Transition[] transitions;
+    private final boolean[] needsAllInactive;
+    private final int ruleCount;
+
+    private AlarmTransitionTable(List<Rule> rules) {
+        int states = (ARMING.length + 1) * (ALARM.length + 1) * EVENTS.length;
+        this.transitions = new Transition[states * FLAG_COUNT];
+        this.needsAllInactive = new boolean[states * FLAG_COUNT];
+        this.ruleCount = rules.size();
+
+        // Equal transitions share one instance, so dependency checks can compare references
+        Map<Transition, Transition> interned = new HashMap<>();
+        interned.put(Transition.NONE, Transition.NONE);
+        for (int arming = 0; arming <= ARMING.length; arming++) {
+            for (int alarm = 0; alarm <= ALARM.length; alarm++) {
+                for (Event event : EVENTS) {
+                    for (int flags = 0; flags < FLAG_COUNT; flags++) {
+                        Transition transition = evaluate(rules, event, arming, alarm, flags);
+                        transitions[index(arming, alarm, event, flags)] = interned.computeIfAbsent(transition, t -> t);
+                    }
+                }
+            }
+        }
+        for (int index = 0; index < transitions.length; index++) {
+            needsAllInactive[index] = transitions[index] != transitions[index ^ ALL_INACTIVE];
+        }
+    }
+
+    private static Transition evaluate(List<Rule> rules, Event event, int arming, int alarm, int flags) {
+        for (Rule rule : rules) {
+            if (rule.matches(event, arming, alarm, flags)) {
+                return rule.transition;
+            }
+        }
+        return Transition.NONE;
+    }
+
+    /**
+     * Returns the transition for an event. {@code allSensorsInactive} is only called for
+     * states whose result depends on it.
+     */
+    public Transition resolve(Event event, ArmingStatus armingStatus, AlarmStatus alarmStatus,
+                              boolean catDetected, BooleanSupplier allSensorsInactive) {
+        int index = index(armingStatus == null ? ARMING.length : armingStatus.ordinal(),
+                alarmStatus == null ? ALARM.length : alarmStatus.ordinal(), event, catDetected ? CAT_DETECTED : 0);
+        if (needsAllInactive[index] && allSensorsInactive.getAsBoolean()) {
+            index |= ALL_INACTIVE;
+        }
+        return transitions[index];
+    }
+
+    private static int index(int arming, int alarm, Event event, int flags) {
+        return ((arming * (ALARM.length + 1) + alarm) * EVENTS.length + event.ordinal()) * FLAG_COUNT + flags;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Returns the table compiled from the built-in rules.
+     */
+    public static AlarmTransitionTable defaults() {
+        try (InputStream in = AlarmTransitionTable.class.getResourceAsStream(DEFAULT_RULES)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + DEFAULT_RULES);
+            }
+            return compile(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + DEFAULT_RULES, e);
+        }
+    }
+
+    /**
+     * Compiles a rules file.
+     */
+    public static AlarmTransitionTable load(Path rulesFile) throws IOException {
+        try (Reader reader = Files.newBufferedReader(rulesFile, StandardCharsets.UTF_8)) {
+            return compile(reader);
+        }
+    }
+
+    /**
+     * Compiles rules in the format described above.
+     *
+     * @throws IllegalArgumentException naming the line of the first malformed rule
+     */
+    public static AlarmTransitionTable compile(Reader rules) throws IOException {
+        List<Rule> parsed = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(rules);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            String text = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (!text.isEmpty()) {
+                try {
+                    parsed.add(Rule.parse(text));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return new AlarmTransitionTable(parsed);
+    }
+
+    /**
+     * One parsed rule; status patterns are bit masks over the ordinals, with an extra bit for null.
+     */
+    private static final class Rule {
+        private final Event event;
+        private final int armingMask;
+        private final int alarmMask;
+        private final int requiredFlags;
+        private final int forbiddenFlags;
+        private final Transition transition;
+
+        private Rule(Event event, int armingMask, int alarmMask, int requiredFlags, int forbiddenFlags, Transition transition) {
+            this.event = event;
+            this.armingMask = armingMask;
+            this.alarmMask = alarmMask;
+            this.requiredFlags = requiredFlags;
+            this.forbiddenFlags = forbiddenFlags;
+            this.transition = transition;
+        }
+
+        private boolean matches(Event event, int arming, int alarm, int flags) {
+            return this.event == event && (armingMask & (1 << arming)) != 0 && (alarmMask & (1 << alarm)) != 0
+                    && (flags & requiredFlags) == requiredFlags && (flags & forbiddenFlags) == 0;
+        }
+
+        private static Rule parse(String text) {
+            String[] sides = text.split("->");
+            if (sides.length != 2) {
+                throw new IllegalArgumentException("expected 'EVENT ARMING ALARM CONDITIONS -> RESULT'");
+            }
+            String[] match = sides[0].trim().split("\\s+");
+            String[] result = sides[1].trim().split("\\s+");
+            if (match.length != 4 || result[0].isEmpty()) {
+                throw new IllegalArgumentException("expected 'EVENT ARMING ALARM CONDITIONS -> RESULT'");
+            }
+
+            int required = 0;
+            int forbidden = 0;
+            if (!match[3].equals("*")) {
+                for (String condition : match[3].split("&")) {
+                    boolean negated = condition.startsWith("!");
+                    int flag = 1 << indexOf(CONDITION_NAMES, negated ? condition.substring(1) : condition, "condition");
+                    if (negated) {
+                        forbidden |= flag;
+                    } else {
+                        required |= flag;
+                    }
+                }
+            }
+
+            AlarmStatus alarmStatus = null;
+            boolean deactivate = false;
+            for (String effect : result) {
+                if (effect.equals("DEACTIVATE_SENSORS")) {
+                    deactivate = true;
+                } else if (!effect.equals("NONE")) {
+                    alarmStatus = ALARM[indexOf(names(ALARM), effect, "result")];
+                }
+            }
+
+            return new Rule(Event.valueOf(checkName(names(EVENTS), match[0], "event")),
+                    statusMask(names(ARMING), match[1]), statusMask(names(ALARM), match[2]),
+                    required, forbidden, new Transition(alarmStatus, deactivate));
+        }
+
+        private static int statusMask(String[] names, String pattern) {
+            int all = (1 << (names.length + 1)) - 1;
+            if (pattern.equals("*")) {
+                return all;
+            }
+            if (pattern.startsWith("!")) {
+                return all & ~statusMask(names, pattern.substring(1));
+            }
+            int mask = 0;
+            for (String name : pattern.split("\\|")) {
+                mask |= 1 << indexOf(names, name, "status");
+            }
+            return mask;
+        }
+
+        private static String checkName(String[] names, String name, String kind) {
+            indexOf(names, name, kind);
+            return name;
+        }
+
+        private static int indexOf(String[] names, String name, String kind) {
+            int index = Arrays.asList(names).indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("unknown " + kind + " '" + name + "', expected one of " + Arrays.toString(names));
+            }
+            return index;
+        }
+
+        private static String[] names(Enum<?>[] values) {
+            return Arrays.stream(values).map(Enum::name).toArray(String[]::new);
+        }
+    }
+}
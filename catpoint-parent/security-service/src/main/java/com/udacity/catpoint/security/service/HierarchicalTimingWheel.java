@@ -0,0 +1,200 @@
+package com.udacity.catpoint.security.service;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for large numbers of timeouts that are mostly rescheduled or
+ * cancelled before they fire, such as sensor heartbeats.
+ * Four levels of 64 slots cover 2^24 ticks; each timer sits in one slot's intrusive doubly
+ * linked list, so scheduling, rescheduling and cancelling are O(1) and allocation-free.
+ * Timers move to a finer level when the wheel reaches their slot, and timers further out than
+ * the wheel's range are parked at its far end and rescheduled when reached.
+ * <p>
+ * Not thread-safe; callers serialize access and drive the wheel with {@link #advance}.
+ *
+ * @param <T> payload handed to the expiry callback
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long RANGE_MASK = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Timer<T>[][] heads;
+
+    /** Next tick to be processed; timers due earlier fire on it. */
+    private long nextTick = 0;
+    private int size = 0;
+
+    /**
+     * @param tick       resolution; timers fire up to one tick late
+     * @param startNanos {@link System#nanoTime()}-style origin of the wheel
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(Duration tick, long startNanos) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("tick must be positive");
+        }
+        this.tickNanos = tick.toNanos();
+        this.startNanos = startNanos;
+        this.heads = new Timer[LEVELS][SLOTS];
+    }
+
+    /**
+     * Creates an unscheduled timer for the payload. Keep it and reschedule it instead of
+     * creating a new one per timeout.
+     */
+    public Timer<T> newTimer(T payload) {
+        return new Timer<>(payload);
+    }
+
+    /**
+     * Schedules, or reschedules, the timer to fire at the given time.
+     */
+    public void schedule(Timer<T> timer, long deadlineNanos) {
+        if (timer.level >= 0) {
+            unlink(timer);
+        } else {
+            size++;
+        }
+        timer.deadlineTick = Math.floorDiv(deadlineNanos - startNanos + tickNanos - 1, tickNanos);
+        insert(timer);
+    }
+
+    /**
+     * @return false if the timer was not scheduled
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer.level < 0) {
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Processes every tick up to the given time, passing the payload of each expired timer
+     * to the callback.
+     *
+     * @return the number of timers that expired
+     */
+    public int advance(long nowNanos, Consumer<? super T> expired) {
+        long targetTick = Math.floorDiv(nowNanos - startNanos, tickNanos);
+        int fired = 0;
+        for (; nextTick <= targetTick; nextTick++) {
+            long tick = nextTick;
+            // Bring down timers whose coarser slot starts at this tick, coarsest level first
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, slotOf(tick, level));
+                }
+            }
+            int slot = (int) (tick & SLOT_MASK);
+            Timer<T> timer = heads[0][slot];
+            heads[0][slot] = null;
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                if (timer.deadlineTick > tick) {
+                    // Parked beyond the wheel's range
+                    insert(timer);
+                } else {
+                    timer.level = -1;
+                    size--;
+                    fired++;
+                    expired.accept(timer.payload);
+                }
+                timer = next;
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * Returns the number of scheduled timers.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        Timer<T> timer = heads[level][slot];
+        heads[level][slot] = null;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    private void insert(Timer<T> timer) {
+        long tick = Math.max(timer.deadlineTick, nextTick);
+        if (tick - nextTick > RANGE_MASK) {
+            // Beyond the wheel's range: park at the last tick of the current top-level block
+            tick = nextTick | RANGE_MASK;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && (tick >>> (SLOT_BITS * (level + 1))) != (nextTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = slotOf(tick, level);
+        timer.level = level;
+        timer.slot = slot;
+        timer.next = heads[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        heads[level][slot] = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            heads[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.level = -1;
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    /**
+     * A reusable timeout entry, linked into at most one slot at a time.
+     */
+    public static final class Timer<T> {
+        private final T payload;
+        private long deadlineTick;
+        private int level = -1;
+        private int slot;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T payload) {
+            this.payload = payload;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.udacity.catpoint.security.service;
+
+import com.udacity.catpoint.image.AwsImageService;
+import com.udacity.catpoint.image.CascadingImageService;
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.LocalImageService;
+import com.udacity.catpoint.image.WarmedImageService;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Creates the ImageService named by configuration, so launchers do not hard-wire one.
+ * <p>
+ * The {@value #IMAGE_SERVICE_PROPERTY} property selects the implementation:
+ * {@code fake} (default), {@code local}, {@code aws} or {@code cascade} (local scoring with
+ * AWS for uncertain frames). The AWS services read their 'aws.*' settings from the same
+ * properties, or from 'config.properties' when none are given.
+ * <p>
+ * The AWS client is built on a background thread by a {@link WarmedImageService}, so it does
+ * not delay startup; {@value #WARM_UP_PROPERTY} sets how many warm-up requests it sends
+ * (default 0, since each one is a billed Rekognition call).
+ */
+public final class ImageServiceFactory {
+
+    public static final String IMAGE_SERVICE_PROPERTY = "catpoint.image.service";
+    public static final String WARM_UP_PROPERTY = "catpoint.image.warmup";
+
+    private ImageServiceFactory() {
+    }
+
+    public static ImageService create(Properties config) {
+        String name = config.getProperty(IMAGE_SERVICE_PROPERTY, "fake").trim().toLowerCase(Locale.ROOT);
+        return switch (name) {
+            case "fake" -> new FakeImageService();
+            case "local" -> new LocalImageService();
+            case "aws" -> aws(config);
+            case "cascade" -> new CascadingImageService(new LocalImageService(), aws(config));
+            default -> throw new IllegalArgumentException("Unknown " + IMAGE_SERVICE_PROPERTY + ": " + name);
+        };
+    }
+
+    private static ImageService aws(Properties config) {
+        Properties awsProps = awsProperties(config);
+        return new WarmedImageService(() -> new AwsImageService(awsProps))
+                .withWarmUp(Integer.parseInt(config.getProperty(WARM_UP_PROPERTY, "0").trim()))
+                .start();
+    }
+
+    private static Properties awsProperties(Properties config) {
+        return config.getProperty("aws.id") != null ? config : null;
+    }
+}
@@ -0,0 +1,375 @@
+package com.udacity.catpoint.security.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs tasks on a fixed set of worker threads, taking them from per-lane bounded queues in
+ * priority order, so a backlog of slow image analysis cannot hold up an alarm escalation.
+ * <p>
+ * Workers always take the highest-priority lane with work. Some workers are reserved for the
+ * {@link Lane#ALARM} and {@link Lane#SENSOR} lanes: lower lanes only start a task while more
+ * workers than that are idle, so a saturated image lane still leaves a worker free for the
+ * next sensor event. To keep lower lanes from starving under a steady stream of sensor
+ * events, a lane whose oldest task has waited longer than the maximum wait is served next,
+ * ahead of higher lanes and regardless of the reservation.
+ */
+public class PriorityLaneExecutor implements AutoCloseable {
+
+    /**
+     * Lanes in priority order, highest first.
+     */
+    public enum Lane {
+        /** Arming changes and other alarm state transitions. */
+        ALARM,
+        /** Sensor activations and deactivations. */
+        SENSOR,
+        /** Camera image detection. */
+        IMAGE,
+        /** Listener and UI notifications. */
+        NOTIFY
+    }
+
+    private static final Lane[] LANES = Lane.values();
+
+    private final int workers;
+    private final Map<Lane, ArrayDeque<Task>> queues = new EnumMap<>(Lane.class);
+    private final int[] capacity = new int[LANES.length];
+    private final long[] submitted = new long[LANES.length];
+    private final long[] rejected = new long[LANES.length];
+    private final long[] completed = new long[LANES.length];
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition idle = lock.newCondition();
+    private final List<Thread> threads = new ArrayList<>();
+    private int reservedWorkers = 1;
+    private long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(500);
+    private int busyWorkers = 0;
+    private long promotions = 0;
+    private boolean shutdown = false;
+
+    public PriorityLaneExecutor(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1");
+        }
+        this.workers = workers;
+        for (Lane lane : LANES) {
+            queues.put(lane, new ArrayDeque<>());
+        }
+        capacity[Lane.ALARM.ordinal()] = 1024;
+        capacity[Lane.SENSOR.ordinal()] = 4096;
+        capacity[Lane.IMAGE.ordinal()] = 64;
+        capacity[Lane.NOTIFY.ordinal()] = 1024;
+        if (workers == 1) {
+            reservedWorkers = 0;
+        }
+    }
+
+    /**
+     * Sets how many tasks a lane can hold; further submissions are rejected.
+     *
+     * @return this instance for chaining
+     */
+    public PriorityLaneExecutor withQueueCapacity(Lane lane, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity[lane.ordinal()] = capacity;
+        return this;
+    }
+
+    /**
+     * Sets how many workers are kept for the alarm and sensor lanes. Defaults to 1, or 0 with a
+     * single worker.
+     *
+     * @return this instance for chaining
+     */
+    public PriorityLaneExecutor withReservedWorkers(int reservedWorkers) {
+        if (reservedWorkers < 0 || reservedWorkers >= workers) {
+            throw new IllegalArgumentException("reservedWorkers must be between 0 and " + (workers - 1));
+        }
+        this.reservedWorkers = reservedWorkers;
+        return this;
+    }
+
+    /**
+     * Sets how long a task may wait before its lane is served ahead of higher lanes.
+     *
+     * @return this instance for chaining
+     */
+    public PriorityLaneExecutor withMaxWait(Duration maxWait) {
+        if (maxWait.isNegative() || maxWait.isZero()) {
+            throw new IllegalArgumentException("maxWait must be positive");
+        }
+        this.maxWaitNanos = maxWait.toNanos();
+        return this;
+    }
+
+    /**
+     * Starts the worker threads.
+     *
+     * @return this instance for chaining
+     */
+    public PriorityLaneExecutor start() {
+        lock.lock();
+        try {
+            if (!threads.isEmpty() || shutdown) {
+                throw new IllegalStateException("Executor already started");
+            }
+            for (int i = 0; i < workers; i++) {
+                Thread thread = new Thread(this::work, "priority-lane-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Queues a task on a lane.
+     *
+     * @return false if the lane is full or the executor has been shut down
+     */
+    public boolean submit(Lane lane, Runnable task) {
+        Objects.requireNonNull(task);
+        lock.lock();
+        try {
+            ArrayDeque<Task> queue = queues.get(lane);
+            if (shutdown || queue.size() >= capacity[lane.ordinal()]) {
+                rejected[lane.ordinal()]++;
+                return false;
+            }
+            queue.addLast(new Task(task, System.nanoTime()));
+            submitted[lane.ordinal()]++;
+            workAvailable.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Task task;
+            Lane lane;
+            lock.lock();
+            try {
+                while ((lane = nextLane()) == null) {
+                    if (shutdown && isEmpty()) {
+                        return;
+                    }
+                    long untilStarved = nanosUntilStarved();
+                    if (untilStarved == Long.MAX_VALUE) {
+                        workAvailable.await();
+                    } else {
+                        // A held-back task becomes eligible once it has waited too long
+                        workAvailable.awaitNanos(untilStarved);
+                    }
+                }
+                task = queues.get(lane).pollFirst();
+                busyWorkers++;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.runnable.run();
+            } catch (RuntimeException e) {
+                System.err.println("Task on " + lane + " lane failed: " + e.getMessage());
+            } finally {
+                lock.lock();
+                try {
+                    busyWorkers--;
+                    completed[lane.ordinal()]++;
+                    // The freed worker may unblock a lower lane that a sleeping worker could take
+                    workAvailable.signal();
+                    if (busyWorkers == 0 && isEmpty()) {
+                        idle.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks the lane to serve next, or null if nothing can start now. Called with the lock held.
+     */
+    private Lane nextLane() {
+        long now = System.nanoTime();
+        Lane starved = null;
+        long oldest = Long.MAX_VALUE;
+        for (Lane lane : LANES) {
+            Task head = queues.get(lane).peekFirst();
+            if (head != null && now - head.enqueuedNanos > maxWaitNanos && head.enqueuedNanos < oldest) {
+                starved = lane;
+                oldest = head.enqueuedNanos;
+            }
+        }
+        Lane best = null;
+        int idleWorkers = workers - busyWorkers;
+        for (Lane lane : LANES) {
+            if (!queues.get(lane).isEmpty()) {
+                boolean reservedFor = lane.compareTo(Lane.SENSOR) <= 0;
+                if (reservedFor || idleWorkers > reservedWorkers) {
+                    best = lane;
+                }
+                break;
+            }
+        }
+        if (starved != null && starved != best) {
+            promotions++;
+            return starved;
+        }
+        if (best == null) {
+            // The highest waiting lane is held back by the reservation; nothing else may pass it
+            return null;
+        }
+        return best;
+    }
+
+    /**
+     * Returns how long until the oldest queued task exceeds the maximum wait, or
+     * Long.MAX_VALUE if nothing is queued. Called with the lock held.
+     */
+    private long nanosUntilStarved() {
+        long oldest = Long.MAX_VALUE;
+        for (ArrayDeque<Task> queue : queues.values()) {
+            Task head = queue.peekFirst();
+            if (head != null) {
+                oldest = Math.min(oldest, head.enqueuedNanos);
+            }
+        }
+        if (oldest == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(1, oldest + maxWaitNanos + 1 - System.nanoTime());
+    }
+
+    private boolean isEmpty() {
+        for (ArrayDeque<Task> queue : queues.values()) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Returns the number of tasks waiting on a lane.
+     */
+    public int getQueued(Lane lane) {
+        lock.lock();
+        try {
+            return queues.get(lane).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSubmittedCount(Lane lane) {
+        return read(submitted, lane);
+    }
+
+    public long getRejectedCount(Lane lane) {
+        return read(rejected, lane);
+    }
+
+    public long getCompletedCount(Lane lane) {
+        return read(completed, lane);
+    }
+
+    /**
+     * Returns how many times a lane was served ahead of its priority because its oldest task
+     * had waited too long.
+     */
+    public long getPromotionCount() {
+        lock.lock();
+        try {
+            return promotions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long read(long[] counters, Lane lane) {
+        lock.lock();
+        try {
+            return counters[lane.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every queued task has run or the timeout expires.
+     *
+     * @return true if the executor became idle
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (busyWorkers > 0 || !isEmpty()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = idle.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting tasks; the workers finish what is already queued and then exit.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting tasks, discards queued ones and interrupts the workers.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            shutdown = true;
+            queues.values().forEach(ArrayDeque::clear);
+            workAvailable.signalAll();
+            idle.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        threads.forEach(Thread::interrupt);
+    }
+
+    private record Task(Runnable runnable, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,264 @@
+package com.udacity.catpoint.security.service;
+
+import com.udacity.catpoint.security.application.StatusListener;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands SecurityService calls to a {@link PriorityLaneExecutor} instead of running them on the
+ * caller's thread: arming changes on the alarm lane, sensor changes on the sensor lane, image
+ * analysis on the image lane, and callbacks of listeners registered here on the notify lane.
+ * Each method returns straight away; false means the event was dropped because too many were
+ * pending or the executor was shut down.
+ * <p>
+ * Arming and sensor changes are applied one at a time, never on different workers at once.
+ * Arming changes are applied in the order they were submitted, and so are sensor changes, but
+ * the two are queued separately: an arming change overtakes sensor changes that are still
+ * queued and waits at most for the one already running, so a burst of sensor events cannot
+ * delay arming. Only image analysis runs in parallel. Each listener receives its callbacks one
+ * at a time and in order; callbacks it could not take are counted by
+ * {@link #getDroppedNotificationCount()}.
+ */
+public class SecurityEventDispatcher {
+
+    private static final int MAX_PENDING_CHANGES = 4096;
+    private static final int MAX_PENDING_NOTIFICATIONS = 1024;
+
+    private final SecurityService securityService;
+    private final PriorityLaneExecutor executor;
+    private final Map<StatusListener, StatusListener> listeners = new ConcurrentHashMap<>();
+    private final StateChanges stateChanges = new StateChanges();
+    private final LongAdder droppedNotifications = new LongAdder();
+
+    public SecurityEventDispatcher(SecurityService securityService, PriorityLaneExecutor executor) {
+        this.securityService = Objects.requireNonNull(securityService);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public boolean setArmingStatus(ArmingStatus armingStatus) {
+        return stateChanges.arming.submit(() -> securityService.setArmingStatus(armingStatus));
+    }
+
+    public boolean changeSensorActivationStatus(Sensor sensor, boolean active) {
+        return stateChanges.sensors.submit(() -> securityService.changeSensorActivationStatus(sensor, active));
+    }
+
+    public boolean processImage(String cameraId, BufferedImage image) {
+        return executor.submit(PriorityLaneExecutor.Lane.IMAGE, () -> securityService.processImage(cameraId, image));
+    }
+
+    /**
+     * Registers a listener whose callbacks run on the notify lane, so slow UI updates do not
+     * hold the service lock or delay the next event.
+     */
+    public void addStatusListener(StatusListener statusListener) {
+        StatusListener laned = new LanedListener(statusListener);
+        if (listeners.putIfAbsent(statusListener, laned) == null) {
+            securityService.addStatusListener(laned);
+        }
+    }
+
+    public void removeStatusListener(StatusListener statusListener) {
+        StatusListener laned = listeners.remove(statusListener);
+        if (laned != null) {
+            securityService.removeStatusListener(laned);
+        }
+    }
+
+    public PriorityLaneExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the number of listener callbacks dropped because the listener had too many
+     * pending or the executor was shut down.
+     */
+    public long getDroppedNotificationCount() {
+        return droppedNotifications.sum();
+    }
+
+    private static void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            System.err.println("Security event failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs tasks one at a time in submission order. At most one drain task is queued on the
+     * executor at any time; it runs everything pending and ends when the queue is empty.
+     * {@link StateChanges} overrides the drain to coordinate two queues.
+     */
+    private class OrderedQueue {
+
+        private final PriorityLaneExecutor.Lane lane;
+        private final int capacity;
+        private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+        private boolean draining;
+
+        private OrderedQueue(PriorityLaneExecutor.Lane lane, int capacity) {
+            this.lane = lane;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Queues a task, starting a drain on the lane if none is running.
+         *
+         * @return false if too many tasks are pending or the executor has been shut down
+         */
+        synchronized boolean submit(Runnable task) {
+            if (pending.size() >= capacity) {
+                return false;
+            }
+            pending.addLast(task);
+            if (!draining) {
+                if (!executor.submit(lane, this::drain)) {
+                    pending.removeLast();
+                    return false;
+                }
+                draining = true;
+            }
+            return true;
+        }
+
+        /**
+         * Takes the next task, ending the drain if there is none.
+         */
+        synchronized Runnable next() {
+            Runnable task = pending.pollFirst();
+            if (task == null) {
+                draining = false;
+            }
+            return task;
+        }
+
+        /**
+         * Takes the next task without affecting the drain, for another queue's drain to run it.
+         */
+        synchronized Runnable poll() {
+            return pending.pollFirst();
+        }
+
+        void drain() {
+            Runnable task;
+            while ((task = next()) != null) {
+                runSafely(task);
+            }
+        }
+    }
+
+    /**
+     * Arming changes and sensor changes, each queue drained on its own lane. Tasks are taken
+     * and run under one lock, so changes never run concurrently and each queue keeps its order.
+     * Before each sensor change the sensor drain runs any arming changes waiting, so arming
+     * does not wait for a sensor burst even when no worker is free to start the alarm drain.
+     */
+    private final class StateChanges {
+
+        private final Object applyLock = new Object();
+        private final OrderedQueue arming = new OrderedQueue(PriorityLaneExecutor.Lane.ALARM, MAX_PENDING_CHANGES) {
+            @Override
+            void drain() {
+                while (true) {
+                    synchronized (applyLock) {
+                        Runnable task = next();
+                        if (task == null) {
+                            return;
+                        }
+                        runSafely(task);
+                    }
+                }
+            }
+        };
+        private final OrderedQueue sensors = new OrderedQueue(PriorityLaneExecutor.Lane.SENSOR, MAX_PENDING_CHANGES) {
+            @Override
+            void drain() {
+                while (true) {
+                    synchronized (applyLock) {
+                        for (Runnable preempting; (preempting = arming.poll()) != null; ) {
+                            runSafely(preempting);
+                        }
+                        Runnable task = next();
+                        if (task == null) {
+                            return;
+                        }
+                        runSafely(task);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Forwards every callback to the wrapped listener, in order, through the notify lane.
+     */
+    private final class LanedListener implements StatusListener {
+
+        private final StatusListener listener;
+        private final OrderedQueue callbacks = new OrderedQueue(PriorityLaneExecutor.Lane.NOTIFY, MAX_PENDING_NOTIFICATIONS);
+
+        private LanedListener(StatusListener listener) {
+            this.listener = listener;
+        }
+
+        private void forward(Runnable callback) {
+            if (!callbacks.submit(callback)) {
+                droppedNotifications.increment();
+            }
+        }
+
+        @Override
+        public void notify(AlarmStatus status) {
+            forward(() -> listener.notify(status));
+        }
+
+        @Override
+        public void notify(ArmingStatus status) {
+            forward(() -> listener.notify(status));
+        }
+
+        @Override
+        public void catDetected(boolean catDetected) {
+            forward(() -> listener.catDetected(catDetected));
+        }
+
+        @Override
+        public void sensorStatusChanged() {
+            forward(listener::sensorStatusChanged);
+        }
+
+        @Override
+        public void sensorStaleChanged(Sensor sensor, boolean stale) {
+            forward(() -> listener.sensorStaleChanged(sensor, stale));
+        }
+
+        @Override
+        public void sensorActivationChanged(Sensor sensor, boolean active) {
+            forward(() -> listener.sensorActivationChanged(sensor, active));
+        }
+
+        @Override
+        public void sensorAdded(Sensor sensor) {
+            forward(() -> listener.sensorAdded(sensor));
+        }
+
+        @Override
+        public void sensorRemoved(Sensor sensor) {
+            forward(() -> listener.sensorRemoved(sensor));
+        }
+
+        @Override
+        public void imageScanned(String cameraId, boolean catSeen) {
+            forward(() -> listener.imageScanned(cameraId, catSeen));
+        }
+    }
+}
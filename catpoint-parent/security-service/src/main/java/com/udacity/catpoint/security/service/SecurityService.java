@@ -5,47 +5,62 @@ import com.udacity.catpoint.security.data.AlarmStatus;
 import com.udacity.catpoint.security.data.ArmingStatus;
 import com.udacity.catpoint.security.data.SecurityRepository;
 import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.image.DetectionResult;
 import com.udacity.catpoint.image.ImageService;
 
 import java.awt.image.BufferedImage;
+import java.util.Map;
 import java.util.Set;
-import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.BooleanSupplier;
 
 /**
  * Service that receives information about changes to the security system.
  * Handles business logic such as arming/disarming, alarm escalation, and cat detection.
+ * The alarm rules themselves are looked up in an {@link AlarmTransitionTable}.
  */
 public class SecurityService {
 
+    /** Default confidence, from 0 to 100, at which a camera image counts as showing a cat. */
+    public static final float CAT_CONFIDENCE_THRESHOLD = 50.0f;
+
+    /** Camera id used by {@link #processImage(BufferedImage)} for the single built-in camera. */
+    public static final String DEFAULT_CAMERA_ID = "default";
+
     private final SecurityRepository securityRepository;
     private final ImageService imageService;
-    private final Set<StatusListener> statusListeners = new HashSet<>();
+    private final AlarmTransitionTable alarmRules;
+    private final BooleanSupplier allSensorsInactive = this::allSensorsInactive;
+    // Listeners come and go from other threads while detection results are being delivered
+    private final Set<StatusListener> statusListeners = new CopyOnWriteArraySet<>();
+    private final Map<String, Boolean> cameraCatDetected = new ConcurrentHashMap<>();
+    private final Map<String, DetectionResult> cameraDetections = new ConcurrentHashMap<>();
+    private volatile float catConfidenceThreshold = CAT_CONFIDENCE_THRESHOLD;
+    private final Set<UUID> staleSensors = ConcurrentHashMap.newKeySet();
     private boolean catDetected = false;
 
     public SecurityService(SecurityRepository securityRepository, ImageService imageService) {
+        this(securityRepository, imageService, AlarmTransitionTable.defaults());
+    }
+
+    /**
+     * @param alarmRules compiled alarm rules, e.g. loaded with {@link AlarmTransitionTable#load}
+     */
+    public SecurityService(SecurityRepository securityRepository, ImageService imageService, AlarmTransitionTable alarmRules) {
         this.securityRepository = securityRepository;
         this.imageService = imageService;
+        this.alarmRules = alarmRules;
     }
 
     /**
      * Sets the system arming status and applies necessary logic such as deactivating sensors
      * or triggering alarm if a cat is detected in ARMED_HOME mode.
      */
-    public void setArmingStatus(ArmingStatus armingStatus) {
+    public synchronized void setArmingStatus(ArmingStatus armingStatus) {
         securityRepository.setArmingStatus(armingStatus);
-
-        if (armingStatus == ArmingStatus.DISARMED) {
-            // Disarming always stops alarms
-            setAlarmStatus(AlarmStatus.NO_ALARM);
-        } else {
-            // When arming (home or away), deactivate all sensors
-            deactivateAllSensors();
-
-            // If we arm home and a cat is detected → trigger alarm immediately
-            if (armingStatus == ArmingStatus.ARMED_HOME && catDetected) {
-                setAlarmStatus(AlarmStatus.ALARM);
-            }
-        }
+        apply(AlarmTransitionTable.Event.ARMING_CHANGED, armingStatus);
 
         // Notify listeners for UI updates
         statusListeners.forEach(listener -> listener.notify(armingStatus));
@@ -67,7 +82,7 @@ public class SecurityService {
     /**
      * Handles sensor activation/deactivation.
      */
-    public void changeSensorActivationStatus(Sensor sensor, Boolean active) {
+    public synchronized void changeSensorActivationStatus(Sensor sensor, Boolean active) {
         boolean wasActive = sensor.getActive();
 
         // Allow toggling in all states so UI buttons work correctly
@@ -78,90 +93,174 @@ public class SecurityService {
         sensor.setActive(active);
         securityRepository.updateSensor(sensor);
 
-        // If system is disarmed → only toggle sensor, no alarm logic
-        if (getArmingStatus() == ArmingStatus.DISARMED) {
-            statusListeners.forEach(StatusListener::sensorStatusChanged);
-            return;
-        }
-
-        // If alarm is currently sounding, let sensors toggle but don't escalate further
-        if (getAlarmStatus() == AlarmStatus.ALARM) {
-            statusListeners.forEach(StatusListener::sensorStatusChanged);
-            return;
-        }
-
-        // Handle activation/deactivation logic
-        if (active) {
-            handleSensorActivated();
-        } else {
-            handleSensorDeactivated();
-        }
+        apply(active ? AlarmTransitionTable.Event.SENSOR_ACTIVATED : AlarmTransitionTable.Event.SENSOR_DEACTIVATED,
+                getArmingStatus());
 
+        statusListeners.forEach(listener -> listener.sensorActivationChanged(sensor, active));
         statusListeners.forEach(StatusListener::sensorStatusChanged);
     }
 
     /**
-     * Trigger alarm escalation logic when a sensor is activated.
+     * Looks up the transition for an event in the alarm rules and applies it. The arming and
+     * alarm status are read once, and the sensors are only scanned if the rules need to know
+     * whether all of them are inactive.
      */
-    private void handleSensorActivated() {
-        // Ignore if disarmed
-        if (getArmingStatus() == ArmingStatus.DISARMED) return;
-
-        switch (getAlarmStatus()) {
-            case NO_ALARM -> setAlarmStatus(AlarmStatus.PENDING_ALARM);
-            case PENDING_ALARM -> setAlarmStatus(AlarmStatus.ALARM);
-            default -> {} // If ALARM, do nothing
+    private void apply(AlarmTransitionTable.Event event, ArmingStatus armingStatus) {
+        AlarmTransitionTable.Transition transition = alarmRules.resolve(event, armingStatus, getAlarmStatus(),
+                catDetected, allSensorsInactive);
+        if (transition.deactivateSensors()) {
+            deactivateAllSensors();
+        }
+        if (transition.alarmStatus() != null) {
+            setAlarmStatus(transition.alarmStatus());
         }
     }
 
     /**
-     * Handles logic when a sensor is deactivated.
+     * Analyzes an image from the default camera for cat detection and adjusts alarm accordingly.
      */
-    private void handleSensorDeactivated() {
-        // If pending alarm and all sensors inactive, revert to NO_ALARM
-        if (getAlarmStatus() == AlarmStatus.PENDING_ALARM && allSensorsInactive()) {
-            setAlarmStatus(AlarmStatus.NO_ALARM);
-        }
+    public void processImage(BufferedImage currentCameraImage) {
+        processImage(DEFAULT_CAMERA_ID, currentCameraImage);
     }
 
     /**
-     * Analyzes camera images for cat detection and adjusts alarm accordingly.
+     * Analyzes an image from the given camera and adjusts alarm accordingly.
+     * Each camera keeps its own detection state; the home counts as having a cat while any
+     * camera sees one. Detection runs outside the service lock so cameras can be analyzed
+     * in parallel. The image is not read after this method returns, so a caller using pooled
+     * frame buffers may release it straight away: ImageServices whose attempts can outlive the
+     * call, such as a ResilientImageService, work on their own copy.
+     * <p>
+     * Labels are requested once at {@link DetectionResult#DEFAULT_MIN_CONFIDENCE} and judged at
+     * the cat confidence threshold; the result is kept per camera, so changing the threshold
+     * does not need another detection call. Only an ImageService without confidences, whose
+     * yes/no answer at the floor does not settle the threshold, is asked again at the threshold.
      */
-    public void processImage(BufferedImage currentCameraImage) {
+    public void processImage(String cameraId, BufferedImage currentCameraImage) {
         if (currentCameraImage == null) return;
 
-        catDetected = imageService.imageContainsCat(currentCameraImage, 50.0f);
+        float threshold = catConfidenceThreshold;
+        DetectionResult detection = imageService.detectLabels(currentCameraImage,
+                Math.min(threshold, DetectionResult.DEFAULT_MIN_CONFIDENCE));
+        boolean cameraSeesCat = detection.containsCat(threshold)
+                .orElseGet(() -> imageService.imageContainsCat(currentCameraImage, threshold));
+        applyCameraResult(cameraId, detection, cameraSeesCat);
+    }
 
-        ArmingStatus armingStatus = getArmingStatus();
+    private synchronized void applyCameraResult(String cameraId, DetectionResult detection, boolean cameraSeesCat) {
+        cameraDetections.put(cameraId, detection);
+        cameraCatDetected.put(cameraId, cameraSeesCat);
+        catDetected = cameraCatDetected.containsValue(Boolean.TRUE);
+        statusListeners.forEach(listener -> listener.imageScanned(cameraId, cameraSeesCat));
 
-        if (catDetected && armingStatus == ArmingStatus.ARMED_HOME) {
-            // Cat detected while at home → trigger alarm
-            setAlarmStatus(AlarmStatus.ALARM);
-        } else if (!catDetected) {
-            // No cat detected → relax system if possible
-            if (allSensorsInactive()) {
-                // Only go to NO_ALARM if sensors are inactive
-                setAlarmStatus(AlarmStatus.NO_ALARM);
-            }
-        }
+        apply(catDetected ? AlarmTransitionTable.Event.CAT_DETECTED : AlarmTransitionTable.Event.CAT_CLEARED,
+                getArmingStatus());
 
         // Notify UI about cat detection
-        statusListeners.forEach(listener -> listener.catDetected(catDetected));
+        boolean detected = catDetected;
+        statusListeners.forEach(listener -> listener.catDetected(detected));
+    }
+
+    /**
+     * Forgets the detection state of a camera that has been removed, or whose last result can
+     * no longer be trusted. If that camera was the only one seeing a cat, the cat counts as gone.
+     */
+    public synchronized void removeCamera(String cameraId) {
+        cameraDetections.remove(cameraId);
+        if (cameraCatDetected.remove(cameraId) == null) {
+            return;
+        }
+        boolean wasDetected = catDetected;
+        catDetected = cameraCatDetected.containsValue(Boolean.TRUE);
+        if (wasDetected && !catDetected) {
+            apply(AlarmTransitionTable.Event.CAT_CLEARED, getArmingStatus());
+            statusListeners.forEach(listener -> listener.catDetected(false));
+        }
+    }
+
+    /**
+     * Changes the confidence, from 0 to 100, at which a camera image counts as showing a cat,
+     * and judges each camera's last detection again at it without another detection call.
+     * A camera whose last detection has no answer at the new threshold keeps its decision until
+     * its next image.
+     */
+    public synchronized void setCatConfidenceThreshold(float threshold) {
+        catConfidenceThreshold = threshold;
+        cameraDetections.forEach((cameraId, detection) -> detection.containsCat(threshold)
+                .ifPresent(cameraSeesCat -> cameraCatDetected.put(cameraId, cameraSeesCat)));
+        boolean wasDetected = catDetected;
+        catDetected = cameraCatDetected.containsValue(Boolean.TRUE);
+        if (catDetected != wasDetected) {
+            apply(catDetected ? AlarmTransitionTable.Event.CAT_DETECTED : AlarmTransitionTable.Event.CAT_CLEARED,
+                    getArmingStatus());
+            boolean detected = catDetected;
+            statusListeners.forEach(listener -> listener.catDetected(detected));
+        }
     }
 
+    public float getCatConfidenceThreshold() {
+        return catConfidenceThreshold;
+    }
 
+    /**
+     * Returns true while any camera sees a cat.
+     */
+    public synchronized boolean isCatDetected() {
+        return catDetected;
+    }
+
+    /**
+     * Returns true if the last image from the given camera contained a cat.
+     */
+    public boolean isCatDetected(String cameraId) {
+        return cameraCatDetected.getOrDefault(cameraId, false);
+    }
 
     /**
-     * Returns true if all sensors are inactive.
+     * Returns true if all sensors are inactive. A stale sensor's last reported state cannot be
+     * trusted, so any stale sensor counts as possibly active.
      */
     private boolean allSensorsInactive() {
-        return getSensors().stream().noneMatch(Sensor::getActive);
+        return staleSensors.isEmpty() && !securityRepository.isAnySensorActive();
+    }
+
+    /**
+     * Returns true if any sensor in the zone or its sub-zones is active, e.g. any perimeter
+     * sensor for {@code "perimeter"}.
+     */
+    public boolean isAnySensorActive(String zone) {
+        return securityRepository.countActiveSensorsInZone(zone) > 0;
+    }
+
+    /**
+     * Returns true if no sensor in the zone or its sub-zones is active.
+     */
+    public boolean isZoneQuiet(String zone) {
+        return securityRepository.countActiveSensorsInZone(zone) == 0;
+    }
+
+    /**
+     * Marks a sensor as stale when it misses its heartbeat deadline, or as live again when it
+     * reports, and notifies listeners if that changed anything.
+     */
+    public synchronized void setSensorStale(Sensor sensor, boolean stale) {
+        boolean changed = stale ? staleSensors.add(sensor.getSensorId()) : staleSensors.remove(sensor.getSensorId());
+        if (changed) {
+            statusListeners.forEach(listener -> listener.sensorStaleChanged(sensor, stale));
+        }
+    }
+
+    /**
+     * Returns true if the sensor has missed its heartbeat deadline and not reported since.
+     */
+    public boolean isSensorStale(Sensor sensor) {
+        return staleSensors.contains(sensor.getSensorId());
     }
 
     /**
      * Updates alarm status and notifies listeners.
      */
-    public void setAlarmStatus(AlarmStatus status) {
+    public synchronized void setAlarmStatus(AlarmStatus status) {
         securityRepository.setAlarmStatus(status);
         statusListeners.forEach(listener -> listener.notify(status));
     }
@@ -186,13 +285,31 @@ public class SecurityService {
         return securityRepository.getSensors();
     }
 
+    /**
+     * Returns true if the sensor is in the system, looked up by id without copying the sensors.
+     */
+    public boolean hasSensor(Sensor sensor) {
+        return securityRepository.containsSensor(sensor.getSensorId());
+    }
+
+    /**
+     * Returns the number of sensors, answered from the repository's zone counts rather than
+     * from a copy of the sensor set where the repository keeps them.
+     */
+    public int getSensorCount() {
+        return securityRepository.countSensorsInZone("");
+    }
+
     public void addSensor(Sensor sensor) {
         if (!getSensors().contains(sensor)) {
             securityRepository.addSensor(sensor);
+            statusListeners.forEach(listener -> listener.sensorAdded(sensor));
         }
     }
 
     public void removeSensor(Sensor sensor) {
         securityRepository.removeSensor(sensor);
+        staleSensors.remove(sensor.getSensorId());
+        statusListeners.forEach(listener -> listener.sensorRemoved(sensor));
     }
 }
@@ -0,0 +1,223 @@
+package com.udacity.catpoint.security.service;
+
+import com.udacity.catpoint.security.application.StatusListener;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks sensor heartbeats and marks a sensor stale in the SecurityService when it has not
+ * reported within the timeout for its type, so a dead sensor is not mistaken for an inactive one.
+ * Every tracked sensor has one reusable timer in a {@link HierarchicalTimingWheel}; a heartbeat
+ * moves it in O(1) and a single ticker thread expires whatever is due, however many sensors
+ * are tracked.
+ * <p>
+ * Sensors removed from the SecurityService stop being tracked, and a late heartbeat from one
+ * never marks it stale.
+ */
+public class SensorHeartbeatMonitor implements AutoCloseable {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(5);
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+
+    private final SecurityService securityService;
+    private final LongSupplier clock;
+    private final Duration tick;
+    private final HierarchicalTimingWheel<Sensor> wheel;
+    private final Map<UUID, HierarchicalTimingWheel.Timer<Sensor>> timers = new HashMap<>();
+    private final Map<SensorType, Long> timeoutNanos = new EnumMap<>(SensorType.class);
+    private final StatusListener removals = new StatusListener() {
+        @Override
+        public void notify(AlarmStatus status) {
+        }
+
+        @Override
+        public void notify(ArmingStatus status) {
+        }
+
+        @Override
+        public void catDetected(boolean catDetected) {
+        }
+
+        @Override
+        public void sensorStatusChanged() {
+        }
+
+        @Override
+        public void sensorRemoved(Sensor sensor) {
+            untrack(sensor);
+        }
+    };
+
+    private Thread ticker;
+
+    public SensorHeartbeatMonitor(SecurityService securityService) {
+        this(securityService, DEFAULT_TICK, System::nanoTime);
+    }
+
+    /**
+     * @param tick  resolution of the timeouts and interval of the ticker thread
+     * @param clock nanosecond clock, replaceable for tests
+     */
+    SensorHeartbeatMonitor(SecurityService securityService, Duration tick, LongSupplier clock) {
+        this.securityService = Objects.requireNonNull(securityService);
+        this.clock = clock;
+        this.tick = tick;
+        this.wheel = new HierarchicalTimingWheel<>(tick, clock.getAsLong());
+        for (SensorType type : SensorType.values()) {
+            timeoutNanos.put(type, DEFAULT_TIMEOUT.toNanos());
+        }
+        securityService.addStatusListener(removals);
+    }
+
+    /**
+     * Sets how long sensors of the given type may go without a heartbeat. Applies from each
+     * sensor's next heartbeat.
+     *
+     * @return this instance for chaining
+     */
+    public synchronized SensorHeartbeatMonitor withTimeout(SensorType type, Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        timeoutNanos.put(type, timeout.toNanos());
+        return this;
+    }
+
+    /**
+     * Records a heartbeat, starting to track the sensor if needed. A stale sensor is marked
+     * live again.
+     */
+    public void heartbeat(Sensor sensor) {
+        boolean wasStale;
+        synchronized (this) {
+            HierarchicalTimingWheel.Timer<Sensor> timer = timers.computeIfAbsent(sensor.getSensorId(), id -> wheel.newTimer(sensor));
+            wasStale = !timer.isScheduled() && securityService.isSensorStale(sensor);
+            wheel.schedule(timer, clock.getAsLong() + timeoutNanos.get(sensor.getSensorType()));
+        }
+        if (wasStale) {
+            securityService.setSensorStale(sensor, false);
+        }
+    }
+
+    /**
+     * Stops tracking a sensor, and marks it live if it was stale. Removing a sensor from the
+     * SecurityService does this.
+     *
+     * @return false if the sensor was not tracked
+     */
+    public boolean untrack(Sensor sensor) {
+        boolean wasStale;
+        synchronized (this) {
+            HierarchicalTimingWheel.Timer<Sensor> timer = timers.remove(sensor.getSensorId());
+            if (timer == null) {
+                return false;
+            }
+            wasStale = !timer.isScheduled();
+            wheel.cancel(timer);
+        }
+        if (wasStale) {
+            securityService.setSensorStale(sensor, false);
+        }
+        return true;
+    }
+
+    /**
+     * Marks every sensor whose timeout has passed as stale. Called by the ticker thread, or
+     * directly when the monitor is not started. Sensors no longer in the SecurityService are
+     * untracked instead.
+     *
+     * @return the number of sensors that became stale
+     */
+    public int expireDue() {
+        List<Sensor> expired = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(clock.getAsLong(), expired::add);
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        // Notify outside the monitor lock so heartbeats are not held up by listeners
+        int stale = 0;
+        for (Sensor sensor : expired) {
+            // Removals untrack through the listener; this catches sensors that were never added
+            if (!securityService.hasSensor(sensor)) {
+                untrack(sensor);
+                continue;
+            }
+            securityService.setSensorStale(sensor, true);
+            if (isScheduled(sensor)) {
+                // A heartbeat arrived, or the sensor was removed, between expiry and notification
+                securityService.setSensorStale(sensor, false);
+            } else {
+                stale++;
+            }
+        }
+        return stale;
+    }
+
+    private synchronized boolean isScheduled(Sensor sensor) {
+        HierarchicalTimingWheel.Timer<Sensor> timer = timers.get(sensor.getSensorId());
+        return timer == null || timer.isScheduled();
+    }
+
+    /**
+     * Starts the ticker thread. Calling it again has no effect.
+     *
+     * @return this instance for chaining
+     */
+    public synchronized SensorHeartbeatMonitor start() {
+        if (ticker == null) {
+            ticker = new Thread(this::tickLoop, "sensor-heartbeat-ticker");
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+        return this;
+    }
+
+    private void tickLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                TimeUnit.NANOSECONDS.sleep(tick.toNanos());
+                expireDue();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the ticker thread and stops following sensor removals.
+     */
+    @Override
+    public synchronized void close() {
+        securityService.removeStatusListener(removals);
+        if (ticker != null) {
+            ticker.interrupt();
+            ticker = null;
+        }
+    }
+
+    public synchronized int getTrackedCount() {
+        return timers.size();
+    }
+
+    /**
+     * Returns the number of tracked sensors that have missed their deadline and not reported since.
+     */
+    public synchronized int getStaleCount() {
+        return timers.size() - wheel.size();
+    }
+}
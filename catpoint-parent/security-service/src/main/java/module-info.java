@@ -2,6 +2,9 @@ module com.udacity.catpoint.security {
     requires com.udacity.catpoint.image;
     requires java.desktop;
     requires java.prefs;
+    requires java.management;
+    requires jdk.management;
+    requires java.net.http;
     requires com.google.gson;
     requires com.miglayout.swing;
     requires com.google.common;
@@ -0,0 +1,317 @@
+package com.udacity.catpoint.security.alert;
+
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.security.application.InMemorySecurityRepository;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.SecurityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the alert outbox and dispatcher, delivering to a local HTTP stand-in.
+ */
+public class AlertDispatcherTest {
+
+    @TempDir
+    Path dir;
+
+    private AlertEndpointStandIn endpoint;
+    private AlertDispatcher dispatcher;
+
+    @BeforeEach
+    void init() throws IOException {
+        endpoint = new AlertEndpointStandIn();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        endpoint.close();
+    }
+
+    private AlertOutbox outbox(int capacity) throws IOException {
+        return new AlertOutbox(dir.resolve("alerts.outbox"), capacity);
+    }
+
+    private AlertDispatcher dispatcher(AlertOutbox outbox) {
+        dispatcher = new AlertDispatcher(outbox, new HttpAlertSink(endpoint.getUri()))
+                .withBatchDelay(Duration.ofMillis(5))
+                .withBackoff(Duration.ofMillis(10), Duration.ofMillis(50));
+        return dispatcher;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for the condition");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Alternates the alarm so that no alert is a repeat of the one before it.
+     */
+    private static void raise(AlertDispatcher dispatcher, int count) {
+        for (int i = 0; i < count; i++) {
+            dispatcher.notify(i % 2 == 0 ? AlarmStatus.ALARM : AlarmStatus.NO_ALARM);
+        }
+    }
+
+    @Test
+    void securityServiceTransitions_shouldBeDelivered() throws Exception {
+        dispatcher(outbox(100)).start();
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService(42));
+        securityService.addStatusListener(dispatcher);
+        Sensor door = new Sensor("Front door", SensorType.DOOR);
+        securityService.addSensor(door);
+
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+        securityService.changeSensorActivationStatus(door, true);
+        securityService.changeSensorActivationStatus(door, false);
+        securityService.changeSensorActivationStatus(door, true);
+
+        await(() -> dispatcher.getOutboxDepth() == 0 && dispatcher.getDeliveredCount() > 0);
+        assertEquals(dispatcher.getDeliveredCount(), endpoint.getReceivedIds().size());
+        assertEquals(0, dispatcher.getFailedCount());
+        assertTrue(dispatcher.getDeliveryLatency(0.99).compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    void burst_shouldBeBatched() throws Exception {
+        AlertOutbox outbox = outbox(1_000);
+        dispatcher(outbox).withBatchSize(50).withBatchDelay(Duration.ofMillis(50)).withDedupWindow(Duration.ZERO);
+        raise(dispatcher, 200);
+        dispatcher.start();
+
+        await(() -> dispatcher.getDeliveredCount() == 200);
+        assertEquals(4, dispatcher.getBatchCount());
+        assertTrue(endpoint.getBatchSizes().stream().allMatch(size -> size == 50));
+        assertEquals(200, new HashSet<>(endpoint.getReceivedIds()).size());
+    }
+
+    @Test
+    void serverErrors_shouldBeRetriedUntilDelivered() throws Exception {
+        endpoint.withErrorRate(0.5).withErrorStatus(503);
+        dispatcher(outbox(1_000)).withBackoff(Duration.ofMillis(1), Duration.ofMillis(10))
+                .withBatchSize(5).withDedupWindow(Duration.ZERO).start();
+        raise(dispatcher, 100);
+
+        await(() -> dispatcher.getDeliveredCount() == 100);
+        assertTrue(dispatcher.getRetryCount() > 0);
+        assertEquals(0, dispatcher.getFailedCount());
+        assertEquals(100, new HashSet<>(endpoint.getReceivedIds()).size());
+        assertEquals(0, dispatcher.getOutboxDepth());
+    }
+
+    @Test
+    void retries_shouldBackOffExponentially() throws Exception {
+        endpoint.withErrorRate(1.0).withErrorStatus(503);
+        dispatcher(outbox(10)).withBackoff(Duration.ofMillis(40), Duration.ofSeconds(1)).start();
+
+        long start = System.nanoTime();
+        dispatcher.notify(AlarmStatus.ALARM);
+        await(() -> endpoint.getRequestCount() == 5);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // Jittered waits of at least half of 40, 80, 160 and 320 ms
+        assertTrue(elapsedMillis >= 300, () -> "fifth try after " + elapsedMillis + "ms");
+        assertEquals(0, dispatcher.getFailedCount());
+        assertEquals(1, dispatcher.getOutboxDepth());
+    }
+
+    @Test
+    void retryableFailures_shouldNeverDropAlerts() throws Exception {
+        endpoint.withErrorRate(1.0).withErrorStatus(503);
+        dispatcher(outbox(10)).withBackoff(Duration.ofMillis(1), Duration.ofMillis(2)).start();
+        dispatcher.notify(AlarmStatus.ALARM);
+
+        await(() -> dispatcher.getRetryCount() >= 50);
+        assertEquals(0, dispatcher.getFailedCount());
+        assertEquals(1, dispatcher.getOutboxDepth());
+
+        endpoint.withErrorRate(0.0);
+        await(() -> dispatcher.getDeliveredCount() == 1);
+        assertEquals(0, dispatcher.getOutboxDepth());
+    }
+
+    @Test
+    void rejectedBatch_shouldNotBeRetried() throws Exception {
+        endpoint.withErrorRate(1.0).withErrorStatus(400);
+        dispatcher(outbox(10)).start();
+        dispatcher.notify(AlarmStatus.ALARM);
+
+        await(() -> dispatcher.getFailedCount() == 1);
+        assertEquals(1, endpoint.getRequestCount());
+        assertEquals(0, dispatcher.getRetryCount());
+        assertEquals(0, dispatcher.getOutboxDepth());
+    }
+
+    @Test
+    void repeatedStatus_shouldBeDeduplicatedWithinTheWindow() throws Exception {
+        dispatcher(outbox(10)).start();
+        dispatcher.notify(AlarmStatus.ALARM);
+        dispatcher.notify(AlarmStatus.ALARM);
+        dispatcher.notify(AlarmStatus.ALARM);
+        dispatcher.notify(AlarmStatus.NO_ALARM);
+        dispatcher.notify(AlarmStatus.ALARM);
+
+        await(() -> dispatcher.getDeliveredCount() == 3);
+        assertEquals(2, dispatcher.getDeduplicatedCount());
+        assertEquals(3, endpoint.getReceivedIds().size());
+    }
+
+    @Test
+    void repeatedStatus_afterTheWindow_shouldBeAlerted() throws Exception {
+        dispatcher(outbox(10)).withDedupWindow(Duration.ofMillis(20)).start();
+        dispatcher.notify(AlarmStatus.ALARM);
+        Thread.sleep(40);
+        dispatcher.notify(AlarmStatus.ALARM);
+
+        await(() -> dispatcher.getDeliveredCount() == 2);
+        assertEquals(0, dispatcher.getDeduplicatedCount());
+    }
+
+    @Test
+    void alertsCarryTheLatestArmingStatus() throws Exception {
+        AlertOutbox outbox = outbox(10);
+        dispatcher(outbox).notify(ArmingStatus.ARMED_AWAY);
+        dispatcher.notify(AlarmStatus.PENDING_ALARM);
+
+        List<Alert> pending = outbox.claim(10);
+        assertEquals(1, pending.size());
+        assertEquals(AlarmStatus.PENDING_ALARM, pending.get(0).alarmStatus());
+        assertEquals(ArmingStatus.ARMED_AWAY, pending.get(0).armingStatus());
+    }
+
+    @Test
+    void undeliveredAlerts_shouldSurviveARestart() throws Exception {
+        endpoint.withErrorRate(1.0).withErrorStatus(503);
+        dispatcher(outbox(100)).withBackoff(Duration.ofMillis(5), Duration.ofMillis(5))
+                .withDedupWindow(Duration.ZERO).start();
+        raise(dispatcher, 10);
+        await(() -> dispatcher.getRetryCount() > 0);
+        dispatcher.close();
+        assertEquals(0, dispatcher.getDeliveredCount());
+
+        endpoint.withErrorRate(0.0);
+        AlertOutbox reopened = outbox(100);
+        assertEquals(10, reopened.size());
+        dispatcher(reopened).start();
+
+        await(() -> dispatcher.getDeliveredCount() == 10);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L),
+                endpoint.getReceivedIds().stream().sorted().toList());
+        // Restored alerts are timed from when they were created
+        assertTrue(dispatcher.getDeliveryLatency(0.5).compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    void outbox_shouldRestoreOnlyPendingAlertsAndContinueIds() throws Exception {
+        try (AlertOutbox outbox = outbox(10)) {
+            outbox.append(AlarmStatus.ALARM, ArmingStatus.ARMED_HOME);
+            Alert second = outbox.append(AlarmStatus.NO_ALARM, ArmingStatus.DISARMED);
+            outbox.append(AlarmStatus.PENDING_ALARM, ArmingStatus.ARMED_AWAY);
+            outbox.remove(List.of(second));
+        }
+        // A torn last line from a crash is skipped
+        Files.writeString(dir.resolve("alerts.outbox"), "A 9 ALA", StandardOpenOption.APPEND);
+
+        try (AlertOutbox outbox = outbox(10)) {
+            List<Alert> restored = outbox.claim(10);
+            assertEquals(List.of(1L, 3L), restored.stream().map(Alert::id).toList());
+            assertEquals(ArmingStatus.ARMED_AWAY, restored.get(1).armingStatus());
+            assertTrue(outbox.append(AlarmStatus.ALARM, ArmingStatus.ARMED_AWAY).id() > 3);
+        }
+        try (AlertOutbox outbox = outbox(10)) {
+            assertEquals(3, outbox.size());
+        }
+    }
+
+    @Test
+    void outbox_claimAndRelease_shouldNotHandOutAlertsTwice() throws Exception {
+        try (AlertOutbox outbox = outbox(10)) {
+            for (int i = 0; i < 5; i++) {
+                outbox.append(AlarmStatus.ALARM, ArmingStatus.ARMED_HOME);
+            }
+            List<Alert> first = outbox.claim(3);
+            List<Alert> second = outbox.claim(3);
+            assertEquals(3, first.size());
+            assertEquals(2, second.size());
+            assertEquals(0, outbox.getUnclaimedCount());
+            assertEquals(5, outbox.size());
+
+            outbox.release(first);
+            assertEquals(first, outbox.claim(10));
+        }
+    }
+
+    @Test
+    void fullOutbox_shouldDropTheOldestAlerts() throws Exception {
+        AlertOutbox outbox = outbox(3);
+        dispatcher(outbox).withDedupWindow(Duration.ZERO);
+        raise(dispatcher, 5);
+
+        assertEquals(3, dispatcher.getOutboxDepth());
+        assertEquals(2, dispatcher.getDroppedCount());
+        assertEquals(List.of(3L, 4L, 5L), outbox.claim(10).stream().map(Alert::id).toList());
+    }
+
+    @Test
+    void outbox_shouldCompactOnceDeliveriesDominateTheJournal() throws Exception {
+        Path file = dir.resolve("alerts.outbox");
+        try (AlertOutbox outbox = outbox(10)) {
+            for (int i = 0; i < 2_000; i++) {
+                Alert alert = outbox.append(AlarmStatus.ALARM, ArmingStatus.ARMED_HOME);
+                if (i % 500 != 0) {
+                    outbox.remove(List.of(alert));
+                }
+            }
+            assertTrue(outbox.compactIfNeeded());
+            assertEquals(4, Files.readAllLines(file).size());
+            assertFalse(outbox.compactIfNeeded());
+
+            // The journal keeps going after the swap
+            Alert appended = outbox.append(AlarmStatus.NO_ALARM, ArmingStatus.DISARMED);
+            outbox.remove(outbox.claim(1));
+            assertEquals(4, outbox.size());
+            assertEquals(2001, appended.id());
+        }
+        try (AlertOutbox reopened = outbox(10)) {
+            assertEquals(List.of(501L, 1001L, 1501L, 2001L), reopened.claim(10).stream().map(Alert::id).toList());
+        }
+    }
+
+    @Test
+    void concurrentSends_shouldBeLimited() throws Exception {
+        endpoint.withLatencyMillis(50);
+        dispatcher(outbox(1_000)).withBatchSize(1).withBatchDelay(Duration.ZERO).withMaxConcurrentSends(3)
+                .withDedupWindow(Duration.ZERO).start();
+        raise(dispatcher, 20);
+
+        await(() -> dispatcher.getInFlightBatches() == 3);
+        assertTrue(dispatcher.getOutboxDepth() > 3);
+        await(() -> dispatcher.getDeliveredCount() == 20);
+        assertEquals(3, endpoint.getMaxConcurrentRequests());
+        // Each alert waited behind the ones before it, 50ms per round of three
+        assertTrue(dispatcher.getDeliveryLatency(0.99).toMillis() >= 250);
+        assertEquals(0, dispatcher.getOutboxDepth());
+    }
+}
@@ -0,0 +1,122 @@
+package com.udacity.catpoint.security.alert;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local HTTP stand-in for an alert webhook.
+ * Records the ids of the alerts it accepts, answers after an injected latency, and fails a
+ * configurable fraction of requests with a configurable status.
+ */
+final class AlertEndpointStandIn implements AutoCloseable {
+
+    private static final Pattern ALERT_ID = Pattern.compile("\"id\":(\\d+)");
+
+    private final HttpServer server;
+    private final Random random = new Random(42);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final List<Long> received = new CopyOnWriteArrayList<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private volatile long latencyMillis = 0L;
+    private volatile double errorRate = 0.0;
+    private volatile int errorStatus = 503;
+
+    AlertEndpointStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    AlertEndpointStandIn withLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    AlertEndpointStandIn withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    AlertEndpointStandIn withErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+        return this;
+    }
+
+    URI getUri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/alerts");
+    }
+
+    int getRequestCount() {
+        return requests.get();
+    }
+
+    int getMaxConcurrentRequests() {
+        return maxConcurrent.get();
+    }
+
+    /**
+     * Returns the ids of the accepted alerts in the order they arrived.
+     */
+    List<Long> getReceivedIds() {
+        return received;
+    }
+
+    List<Integer> getBatchSizes() {
+        return batchSizes;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+        try {
+            String body;
+            try (InputStream input = exchange.getRequestBody()) {
+                body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            boolean fail;
+            synchronized (random) {
+                fail = random.nextDouble() < errorRate;
+            }
+            if (!fail) {
+                Matcher ids = ALERT_ID.matcher(body);
+                int count = 0;
+                while (ids.find()) {
+                    received.add(Long.parseLong(ids.group(1)));
+                    count++;
+                }
+                batchSizes.add(count);
+            }
+            exchange.sendResponseHeaders(fail ? errorStatus : 204, -1);
+            exchange.close();
+        } finally {
+            concurrent.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
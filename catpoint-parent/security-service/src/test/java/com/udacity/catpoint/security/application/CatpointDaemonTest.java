@@ -0,0 +1,104 @@
+package com.udacity.catpoint.security.application;
+
+import com.udacity.catpoint.image.CascadingImageService;
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.image.LocalImageService;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.ImageServiceFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the headless CatpointDaemon and ImageServiceFactory.
+ */
+public class CatpointDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void imageServiceFactory_shouldDefaultToFakeService() {
+        assertInstanceOf(FakeImageService.class, ImageServiceFactory.create(new Properties()));
+    }
+
+    @Test
+    void imageServiceFactory_shouldCreateConfiguredService() {
+        assertInstanceOf(LocalImageService.class, ImageServiceFactory.create(config("local")));
+        assertInstanceOf(CascadingImageService.class, ImageServiceFactory.create(config(" Cascade ")));
+    }
+
+    @Test
+    void imageServiceFactory_shouldRejectUnknownService() {
+        assertThrows(IllegalArgumentException.class, () -> ImageServiceFactory.create(config("quantum")));
+    }
+
+    @Test
+    void daemon_shouldRunSecurityLogicWithoutGui() {
+        try (CatpointDaemon daemon = new CatpointDaemon(new Properties(), new InMemorySecurityRepository())) {
+            var securityService = daemon.getSecurityService();
+            Sensor door = new Sensor("Front door", SensorType.DOOR);
+            securityService.addSensor(door);
+
+            securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+            securityService.changeSensorActivationStatus(door, true);
+
+            assertEquals(AlarmStatus.PENDING_ALARM, securityService.getAlarmStatus());
+        }
+    }
+
+    @Test
+    void awaitClose_shouldReturnOnceClosed() throws InterruptedException {
+        CatpointDaemon daemon = new CatpointDaemon(new Properties(), new InMemorySecurityRepository());
+        CountDownLatch returned = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                daemon.awaitClose();
+                returned.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+
+        daemon.close();
+
+        assertTrue(returned.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void loadConfig_shouldReadFileAndLetSystemPropertiesWin() throws IOException {
+        Path file = tempDir.resolve("catpoint.properties");
+        Files.writeString(file, "catpoint.image.service=local\njava.version=file\n");
+
+        Properties config = CatpointDaemon.loadConfig(new String[]{file.toString()});
+
+        assertEquals("local", config.getProperty(ImageServiceFactory.IMAGE_SERVICE_PROPERTY));
+        assertEquals(System.getProperty("java.version"), config.getProperty("java.version"));
+    }
+
+    @Test
+    void startupMetrics_shouldDescribeMode() {
+        String metrics = StartupMetrics.describe("headless");
+
+        assertTrue(metrics.startsWith("startup mode=headless readyMs="), metrics);
+        assertTrue(metrics.contains("loadedClasses="), metrics);
+    }
+
+    private static Properties config(String imageService) {
+        Properties config = new Properties();
+        config.setProperty(ImageServiceFactory.IMAGE_SERVICE_PROPERTY, imageService);
+        return config;
+    }
+}
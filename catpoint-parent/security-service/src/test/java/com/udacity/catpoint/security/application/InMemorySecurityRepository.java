@@ -0,0 +1,74 @@
+package com.udacity.catpoint.security.application;
+
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.SecurityRepository;
+import com.udacity.catpoint.security.data.Sensor;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Repository for tests that, like the preferences-backed one, hands out a sorted
+ * copy of its sensors but persists nothing.
+ */
+public class InMemorySecurityRepository implements SecurityRepository {
+
+    private final Set<Sensor> sensors = new TreeSet<>();
+    private AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+    private ArmingStatus armingStatus = ArmingStatus.DISARMED;
+
+    public InMemorySecurityRepository() {
+    }
+
+    public InMemorySecurityRepository(Collection<Sensor> sensors) {
+        this.sensors.addAll(sensors);
+    }
+
+    @Override
+    public synchronized void addSensor(Sensor sensor) {
+        sensors.add(sensor);
+    }
+
+    @Override
+    public synchronized void removeSensor(Sensor sensor) {
+        sensors.remove(sensor);
+    }
+
+    @Override
+    public synchronized void updateSensor(Sensor sensor) {
+        // sensors are updated in place
+    }
+
+    @Override
+    public void setAlarmStatus(AlarmStatus alarmStatus) {
+        this.alarmStatus = alarmStatus;
+    }
+
+    @Override
+    public void setArmingStatus(ArmingStatus armingStatus) {
+        this.armingStatus = armingStatus;
+    }
+
+    @Override
+    public synchronized Set<Sensor> getSensors() {
+        return new TreeSet<>(sensors);
+    }
+
+    @Override
+    public synchronized boolean containsSensor(UUID sensorId) {
+        return sensors.stream().anyMatch(sensor -> sensor.getSensorId().equals(sensorId));
+    }
+
+    @Override
+    public AlarmStatus getAlarmStatus() {
+        return alarmStatus;
+    }
+
+    @Override
+    public ArmingStatus getArmingStatus() {
+        return armingStatus;
+    }
+}
@@ -0,0 +1,100 @@
+package com.udacity.catpoint.security.application;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PreviewImageLoader. Preview latency for a 12-megapixel JPEG is measured by
+ * PreviewImageLoaderBenchmark.
+ */
+public class PreviewImageLoaderTest {
+
+    private static final int PREVIEW_WIDTH = 300;
+    private static final int PREVIEW_HEIGHT = 225;
+
+    @TempDir
+    static Path tempDir;
+
+    private static File largeJpeg;
+
+    @BeforeAll
+    static void writeLargeJpeg() throws IOException {
+        BufferedImage image = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, 1200, 900, Color.BLUE));
+        g.fillRect(0, 0, 1200, 900);
+        g.dispose();
+        largeJpeg = tempDir.resolve("large.jpg").toFile();
+        ImageIO.write(image, "jpg", largeJpeg);
+    }
+
+    @Test
+    void subsamplingFactor_shouldKeepImageAtLeastTargetSize() {
+        assertEquals(13, PreviewImageLoader.subsamplingFactor(4000, 3000, PREVIEW_WIDTH, PREVIEW_HEIGHT));
+        assertEquals(1, PreviewImageLoader.subsamplingFactor(200, 150, PREVIEW_WIDTH, PREVIEW_HEIGHT));
+        assertEquals(2, PreviewImageLoader.subsamplingFactor(1000, 450, PREVIEW_WIDTH, PREVIEW_HEIGHT));
+    }
+
+    @Test
+    void loadPreview_shouldNotDecodeFullResolution() throws IOException {
+        BufferedImage decoded = PreviewImageLoader.decodeSubsampled(largeJpeg, PREVIEW_WIDTH, PREVIEW_HEIGHT);
+
+        assertTrue(decoded.getWidth() >= PREVIEW_WIDTH && decoded.getWidth() < 2 * PREVIEW_WIDTH);
+        assertTrue(decoded.getHeight() >= PREVIEW_HEIGHT && decoded.getHeight() < 2 * PREVIEW_HEIGHT);
+
+        BufferedImage preview = PreviewImageLoader.loadPreview(largeJpeg, PREVIEW_WIDTH, PREVIEW_HEIGHT);
+        assertEquals(PREVIEW_WIDTH, preview.getWidth());
+        assertEquals(PREVIEW_HEIGHT, preview.getHeight());
+    }
+
+    @Test
+    void loadPreview_shouldDecodeFewerPixelsThanFullDecode() throws IOException {
+        long subsampledBytes = rasterBytes(PreviewImageLoader.decodeSubsampled(largeJpeg, PREVIEW_WIDTH, PREVIEW_HEIGHT));
+        long fullBytes = rasterBytes(PreviewImageLoader.loadFull(largeJpeg));
+
+        // Subsampled by 4 in each direction
+        assertTrue(subsampledBytes * 10 < fullBytes, "preview decode should need about 1/16 of the pixels");
+    }
+
+    @Test
+    void pooledPreview_shouldReuseReleasedBuffers() throws IOException {
+        FrameBufferPool pool = new FrameBufferPool();
+        BufferedImage unpooled = PreviewImageLoader.loadPreview(largeJpeg, PREVIEW_WIDTH, PREVIEW_HEIGHT);
+
+        BufferedImage first = PreviewImageLoader.loadPreview(largeJpeg, PREVIEW_WIDTH, PREVIEW_HEIGHT, pool);
+        // Only the subsampled decode has come back; the preview is still the caller's
+        assertEquals(1, pool.getIdleCount());
+        pool.release(first);
+        BufferedImage second = PreviewImageLoader.loadPreview(largeJpeg, PREVIEW_WIDTH, PREVIEW_HEIGHT, pool);
+
+        assertSame(first, second);
+        assertEquals(2, pool.getMissCount());
+        assertEquals(unpooled.getRGB(150, 100), second.getRGB(150, 100));
+    }
+
+    @Test
+    void unsupportedFile_shouldReturnNull() throws IOException {
+        File text = tempDir.resolve("notes.txt").toFile();
+        Files.writeString(text.toPath(), "not an image");
+
+        assertNull(PreviewImageLoader.loadPreview(text, PREVIEW_WIDTH, PREVIEW_HEIGHT));
+    }
+
+    private static long rasterBytes(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * image.getColorModel().getPixelSize() / 8;
+    }
+}
@@ -0,0 +1,203 @@
+package com.udacity.catpoint.security.application;
+
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.SecurityService;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SensorTableModel and SensorPanel. Refreshing the model with 50,000 sensors is
+ * measured by SensorTableModelBenchmark.
+ */
+public class SensorPanelTest {
+
+    private final SensorTableModel model = new SensorTableModel();
+    private final List<TableModelEvent> events = new ArrayList<>();
+
+    @Test
+    void update_shouldSortRowsLikeSensors() {
+        Sensor window = new Sensor("Window", SensorType.WINDOW);
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+
+        model.update(List.of(window, door));
+
+        assertEquals(2, model.getRowCount());
+        assertSame(door, model.getSensorAt(0));
+        assertEquals("Window", model.getValueAt(1, SensorTableModel.NAME_COLUMN));
+        assertEquals("Inactive", model.getValueAt(1, SensorTableModel.STATUS_COLUMN));
+    }
+
+    @Test
+    void activationChange_shouldUpdateOnlyThatRow() {
+        List<Sensor> sensors = sensors(100);
+        model.update(sensors);
+        model.addTableModelListener(events::add);
+
+        Sensor sensor = model.getSensorAt(42);
+        sensor.setActive(true);
+
+        assertEquals(1, model.update(sensors));
+        assertEquals(1, events.size());
+        assertEquals(TableModelEvent.UPDATE, events.get(0).getType());
+        assertEquals(42, events.get(0).getFirstRow());
+        assertEquals(42, events.get(0).getLastRow());
+        assertEquals("Active", model.getValueAt(42, SensorTableModel.STATUS_COLUMN));
+    }
+
+    @Test
+    void unchangedSensors_shouldFireNothing() {
+        List<Sensor> sensors = sensors(100);
+        model.update(sensors);
+        model.addTableModelListener(events::add);
+
+        assertEquals(0, model.update(sensors));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void addedAndRemovedSensors_shouldInsertAndDeleteRows() {
+        List<Sensor> sensors = new ArrayList<>(sensors(10));
+        model.update(sensors);
+        model.addTableModelListener(events::add);
+
+        Sensor removed = model.getSensorAt(3);
+        sensors.remove(removed);
+        Sensor added = new Sensor("Sensor 00005a", SensorType.MOTION);
+        sensors.add(added);
+        model.update(sensors);
+
+        assertEquals(10, model.getRowCount());
+        assertEquals(List.of(TableModelEvent.DELETE, TableModelEvent.INSERT),
+                events.stream().map(TableModelEvent::getType).toList());
+        assertSame(added, model.getSensorAt(5));
+    }
+
+    @Test
+    void renamedSensor_shouldMoveToItsSortedPosition() {
+        List<Sensor> sensors = sensors(10);
+        model.update(sensors);
+
+        Sensor sensor = model.getSensorAt(0);
+        sensor.setName("Sensor 99999");
+        model.update(sensors);
+
+        assertSame(sensor, model.getSensorAt(9));
+    }
+
+    @Test
+    void sensorEvents_shouldTouchOnlyTheirRow() {
+        List<Sensor> sensors = sensors(10);
+        model.update(sensors);
+        model.addTableModelListener(events::add);
+
+        Sensor changed = model.getSensorAt(4);
+        changed.setActive(true);
+        assertTrue(model.sensorChanged(changed));
+        assertFalse(model.sensorChanged(changed));
+
+        Sensor added = new Sensor("Sensor 00005a", SensorType.MOTION);
+        assertTrue(model.sensorAdded(added));
+        assertFalse(model.sensorAdded(added));
+
+        Sensor removed = model.getSensorAt(0);
+        assertTrue(model.sensorRemoved(removed));
+        assertFalse(model.sensorRemoved(removed));
+
+        assertEquals(List.of(TableModelEvent.UPDATE, TableModelEvent.INSERT, TableModelEvent.DELETE),
+                events.stream().map(TableModelEvent::getType).toList());
+        assertEquals(List.of(4, 6, 0), events.stream().map(TableModelEvent::getFirstRow).toList());
+        assertSame(added, model.getSensorAt(5));
+        assertEquals("Active", model.getValueAt(3, SensorTableModel.STATUS_COLUMN));
+    }
+
+    @Test
+    void arming_shouldResyncDeactivatedRows() throws Exception {
+        InMemorySecurityRepository repository = new InMemorySecurityRepository(sensors(20));
+        SecurityService securityService = new SecurityService(repository, (image, threshold) -> false);
+        repository.getSensors().forEach(sensor -> securityService.changeSensorActivationStatus(sensor, true));
+        AtomicReference<SensorPanel> panel = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> panel.set(new SensorPanel(securityService)));
+
+        securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        sleep(3 * SensorPanel.REFRESH_INTERVAL_MILLIS);
+
+        List<Object> statuses = new ArrayList<>();
+        SwingUtilities.invokeAndWait(() -> {
+            SensorTableModel tableModel = panel.get().getSensorTableModel();
+            for (int row = 0; row < tableModel.getRowCount(); row++) {
+                statuses.add(tableModel.getValueAt(row, SensorTableModel.STATUS_COLUMN));
+            }
+        });
+        assertEquals(20, statuses.size());
+        assertEquals(List.of("Inactive"), statuses.stream().distinct().toList());
+    }
+
+    @Test
+    void manySensors_shouldShowChangesFromBackgroundThreads() throws Exception {
+        int sensorCount = 500;
+        InMemorySecurityRepository repository = new InMemorySecurityRepository(sensors(sensorCount));
+        SecurityService securityService = new SecurityService(repository, (image, threshold) -> false);
+        AtomicReference<SensorPanel> panel = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> panel.set(new SensorPanel(securityService)));
+
+        // Toggle sensors from a background thread while the panel refreshes on the EDT
+        List<Sensor> all = new ArrayList<>(repository.getSensors());
+        Random random = new Random(7);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                Sensor sensor = all.get(random.nextInt(all.size()));
+                securityService.changeSensorActivationStatus(sensor, !sensor.getActive());
+                if (i % 20 == 0) {
+                    sleep(1);
+                }
+            }
+        });
+        producer.start();
+        producer.join();
+        sleep(3 * SensorPanel.REFRESH_INTERVAL_MILLIS);
+        SwingUtilities.invokeAndWait(() -> { });
+
+        List<String> mismatches = new ArrayList<>();
+        int[] rows = new int[1];
+        SwingUtilities.invokeAndWait(() -> {
+            SensorTableModel tableModel = panel.get().getSensorTableModel();
+            rows[0] = tableModel.getRowCount();
+            for (int row = 0; row < tableModel.getRowCount(); row++) {
+                Sensor sensor = tableModel.getSensorAt(row);
+                Object status = tableModel.getValueAt(row, SensorTableModel.STATUS_COLUMN);
+                if (!status.equals(sensor.getActive() ? "Active" : "Inactive")) {
+                    mismatches.add(sensor.getName() + ": " + status);
+                }
+            }
+        });
+        assertEquals(sensorCount, rows[0]);
+        assertEquals(List.of(), mismatches);
+    }
+
+    private static List<Sensor> sensors(int count) {
+        List<Sensor> sensors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sensors.add(new Sensor(String.format("Sensor %05d", i), SensorType.values()[i % 3]));
+        }
+        return sensors;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.udacity.catpoint.security.audit;
+
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.security.application.InMemorySecurityRepository;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.SecurityService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the segmented audit log and the recorder feeding it.
+ */
+public class AuditLogTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path dir;
+
+    private static AuditRecord record(int i) {
+        return new AuditRecord(START.plusSeconds(i), AuditAction.values()[i % AuditAction.values().length],
+                "user" + (i % 3), "detail " + i);
+    }
+
+    private static void appendAll(AuditLog log, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            log.append(record(i));
+        }
+    }
+
+    private Path[] segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().toArray(Path[]::new);
+        }
+    }
+
+    @Test
+    void committedRecords_shouldBeQueryableByTimeRange() throws Exception {
+        try (AuditLog log = new AuditLog(dir).start()) {
+            appendAll(log, 0, 1_000);
+            log.commit();
+
+            assertEquals(0, log.getUncommittedCount());
+            List<AuditRecord> range = log.query(START.plusSeconds(100), START.plusSeconds(200));
+            assertEquals(100, range.size());
+            assertEquals(record(100), range.get(0));
+            assertEquals(record(199), range.get(99));
+            assertEquals(1_000, log.query(START, START.plusSeconds(1_000)).size());
+            assertTrue(log.query(START.minusSeconds(10), START).isEmpty());
+        }
+    }
+
+    @Test
+    void times_shouldKeepMicrosecondsAndUnicodeShouldSurvive() throws Exception {
+        Instant time = Instant.parse("2026-03-01T12:00:00.123456789Z");
+        try (AuditLog log = new AuditLog(dir).start()) {
+            log.append(new AuditRecord(time, AuditAction.SENSOR_ADDED, "zoë", "Küchenfenster 窓"));
+            log.append(new AuditRecord(time.minusSeconds(5), AuditAction.SENSOR_REMOVED, null, null));
+            log.commit();
+
+            List<AuditRecord> records = log.query(time.minusSeconds(60), time.plusSeconds(60));
+            assertEquals(List.of(
+                    new AuditRecord(Instant.parse("2026-03-01T12:00:00.123456Z"), AuditAction.SENSOR_ADDED, "zoë",
+                            "Küchenfenster 窓"),
+                    new AuditRecord(Instant.parse("2026-03-01T11:59:55.123456Z"), AuditAction.SENSOR_REMOVED, "", "")),
+                    records);
+        }
+    }
+
+    @Test
+    void records_shouldSurviveReopen() throws Exception {
+        try (AuditLog log = new AuditLog(dir).withBlockSize(1_024).start()) {
+            appendAll(log, 0, 5_000);
+        }
+        try (AuditLog log = new AuditLog(dir).start()) {
+            assertEquals(5_000, log.getRecordCount());
+            appendAll(log, 5_000, 6_000);
+            log.commit();
+
+            assertEquals(6_000, log.query(START, START.plusSeconds(6_000)).size());
+            assertEquals(2, log.getSegmentCount());
+        }
+    }
+
+    @Test
+    void segments_shouldRollAtTheSegmentSize() throws Exception {
+        try (AuditLog log = new AuditLog(dir).withBlockSize(1_024).withSegmentSize(16 * 1024).start()) {
+            appendAll(log, 0, 20_000);
+            log.commit();
+
+            assertTrue(log.getSegmentCount() > 3, () -> log.getSegmentCount() + " segments");
+            assertEquals(20_000, log.getRecordCount());
+        }
+        Path[] files = segmentFiles();
+        assertEquals("audit-00000001.seg", files[0].getFileName().toString());
+        for (int i = 0; i < files.length - 1; i++) {
+            assertTrue(Files.size(files[i]) < 16 * 1024 + 2 * 1024 + 4 * 1024);
+        }
+    }
+
+    @Test
+    void query_shouldOnlyReadOverlappingBlocks() throws Exception {
+        try (AuditLog log = new AuditLog(dir).withBlockSize(1_024).withSegmentSize(16 * 1024).start()) {
+            appendAll(log, 0, 20_000);
+            log.commit();
+
+            long before = log.getBlocksRead();
+            List<AuditRecord> minute = log.query(START.plusSeconds(10_000), START.plusSeconds(10_060));
+            long read = log.getBlocksRead() - before;
+
+            assertEquals(60, minute.size());
+            // About 30 records fit a 1KB block, so a minute spans at most three blocks
+            assertTrue(read >= 1 && read <= 3, () -> read + " blocks read");
+        }
+    }
+
+    @Test
+    void records_shouldCompress() throws Exception {
+        try (AuditLog log = new AuditLog(dir).start()) {
+            for (int i = 0; i < 50_000; i++) {
+                log.append(new AuditRecord(START.plusMillis(i * 100L), AuditAction.IMAGE_SCANNED, "daemon",
+                        "default " + (i % 10 == 0 ? "cat" : "no cat")));
+            }
+            log.commit();
+
+            assertTrue(log.getCompressionRatio() > 10, () -> "ratio " + log.getCompressionRatio());
+            // Under 2 bytes a record on disk, against some 40 as text
+            assertTrue(log.getDiskSize() < 100_000, () -> log.getDiskSize() + " bytes");
+        }
+    }
+
+    @Test
+    void unsealedSegment_shouldBeRecoveredAndTornBlockCut() throws Exception {
+        try (AuditLog log = new AuditLog(dir).withBlockSize(1_024).start()) {
+            appendAll(log, 0, 3_000);
+        }
+        Path segment = segmentFiles()[0];
+        long recordCount;
+        try (AuditLog log = new AuditLog(dir)) {
+            recordCount = log.getRecordCount();
+        }
+        // Strip the index as if the process died before sealing, then tear the last block
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long length = file.length();
+            file.seek(length - 20);
+            long indexOffset = file.readLong();
+            file.setLength(indexOffset - 10);
+        }
+
+        try (AuditLog log = new AuditLog(dir)) {
+            long recovered = log.getRecordCount();
+            assertTrue(recovered < recordCount && recovered > recordCount - 100,
+                    () -> recovered + " of " + recordCount + " recovered");
+            List<AuditRecord> records = log.query(START, START.plusSeconds(3_000));
+            assertEquals(recovered, records.size());
+            assertEquals(record(0), records.get(0));
+        }
+        // Recovery sealed the segment again
+        try (AuditLog log = new AuditLog(dir)) {
+            assertEquals(1, log.getSegmentCount());
+        }
+    }
+
+    @Test
+    void retention_shouldDeleteExpiredSegments() throws Exception {
+        Instant old = Instant.now().minus(Duration.ofDays(400));
+        try (AuditLog log = new AuditLog(dir).withBlockSize(512).withSegmentSize(4 * 1024).start()) {
+            for (int i = 0; i < 2_000; i++) {
+                log.append(new AuditRecord(old.plusSeconds(i), AuditAction.ARMING_CHANGED, "user", "ARMED_HOME"));
+            }
+        }
+        int oldSegments = segmentFiles().length;
+        assertTrue(oldSegments > 1);
+
+        try (AuditLog log = new AuditLog(dir).withRetention(Duration.ofDays(365)).start()) {
+            log.append(new AuditRecord(Instant.now(), AuditAction.ARMING_CHANGED, "user", "DISARMED"));
+            log.commit();
+
+            assertEquals(1, log.getSegmentCount());
+            assertEquals(1, log.query(Instant.EPOCH, Instant.now().plusSeconds(60)).size());
+        }
+        assertEquals(1, segmentFiles().length);
+    }
+
+    @Test
+    void commitInterval_shouldGroupConcurrentAppends() throws Exception {
+        try (AuditLog log = new AuditLog(dir).withCommitInterval(Duration.ofMillis(50)).start()) {
+            ExecutorService writers = Executors.newFixedThreadPool(4);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                results.add(writers.submit(() -> {
+                    appendAll(log, thread * 10_000, thread * 10_000 + 10_000);
+                    log.commit();
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+            writers.shutdown();
+
+            assertEquals(0, log.getUncommittedCount());
+            List<AuditRecord> records = log.query(START, START.plusSeconds(40_000));
+            assertEquals(40_000, records.size());
+            assertEquals(40_000, records.stream().map(AuditRecord::time).distinct().count());
+        }
+    }
+
+    @Test
+    void uncommittedRecords_shouldBeCommittedWithinTheInterval() throws Exception {
+        try (AuditLog log = new AuditLog(dir).withCommitInterval(Duration.ofMillis(20)).start()) {
+            log.append(record(1));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (log.getUncommittedCount() > 0) {
+                assertTrue(System.nanoTime() < deadline, "record was never committed");
+                Thread.sleep(5);
+            }
+            assertEquals(List.of(record(1)), log.query(START, START.plusSeconds(10)));
+        }
+    }
+
+    @Test
+    void append_beforeStartOrAfterClose_shouldFail() throws Exception {
+        AuditLog log = new AuditLog(dir);
+        assertThrows(IllegalStateException.class, () -> log.append(record(0)));
+        log.start();
+        log.close();
+        assertThrows(IllegalStateException.class, () -> log.append(record(0)));
+        // An empty active segment is not kept
+        assertEquals(0, segmentFiles().length);
+    }
+
+    @Test
+    void recorder_shouldRecordSecurityServiceCommands() throws Exception {
+        FakeImageService imageService = new FakeImageService(42).withCatProbability(1.0);
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), imageService);
+        Sensor door = new Sensor("Front door", SensorType.DOOR);
+        Instant begin = Instant.now();
+        try (AuditLog log = new AuditLog(dir).start()) {
+            securityService.addStatusListener(new AuditRecorder(log, () -> "alice"));
+
+            securityService.addSensor(door);
+            securityService.changeSensorActivationStatus(door, true);
+            securityService.changeSensorActivationStatus(door, false);
+            securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+            securityService.processImage(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB));
+            securityService.removeSensor(door);
+            log.commit();
+
+            List<AuditAction> actions = new ArrayList<>();
+            log.scan(begin, Instant.now().plusSeconds(1), record -> {
+                assertEquals("alice", record.actor());
+                actions.add(record.action());
+            });
+            assertEquals(List.of(AuditAction.SENSOR_ADDED, AuditAction.SENSOR_CHANGED, AuditAction.SENSOR_CHANGED,
+                    AuditAction.ARMING_CHANGED, AuditAction.IMAGE_SCANNED, AuditAction.ALARM_CHANGED,
+                    AuditAction.SENSOR_REMOVED), actions);
+            List<AuditRecord> records = log.query(begin, Instant.now().plusSeconds(1));
+            String sensor = "Front door (" + door.getSensorId() + ")";
+            assertEquals(sensor, records.get(0).detail());
+            assertEquals(sensor + " active", records.get(1).detail());
+            assertEquals(sensor + " inactive", records.get(2).detail());
+            assertEquals("ARMED_HOME", records.get(3).detail());
+            assertEquals("default cat", records.get(4).detail());
+            assertEquals("ALARM", records.get(5).detail());
+        }
+    }
+
+    @Test
+    void offer_shouldRefuseRecordsWhenFullOrClosed() throws Exception {
+        AuditLog log = new AuditLog(dir).withMaxPending(1).withCommitInterval(Duration.ofSeconds(10));
+        assertFalse(log.offer(record(0)));
+        log.start();
+        int accepted = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (log.offer(record(i))) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted >= 1 && accepted < 1_000, accepted + " records accepted");
+        log.close();
+        assertFalse(log.offer(record(0)));
+        assertEquals(accepted, log.getRecordCount());
+    }
+
+    @Test
+    void recorder_shouldDropRecordsInsteadOfFailingOnceTheLogIsClosed() throws Exception {
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService(42));
+        AuditLog log = new AuditLog(dir).start();
+        AuditRecorder recorder = new AuditRecorder(log, () -> "alice");
+        securityService.addStatusListener(recorder);
+        securityService.addSensor(new Sensor("Front door", SensorType.DOOR));
+        log.close();
+
+        securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        securityService.addSensor(new Sensor("Back door", SensorType.DOOR));
+
+        assertEquals(2, recorder.getDroppedCount());
+        assertEquals(ArmingStatus.ARMED_AWAY, securityService.getArmingStatus());
+        assertEquals(2, securityService.getSensors().size());
+    }
+}
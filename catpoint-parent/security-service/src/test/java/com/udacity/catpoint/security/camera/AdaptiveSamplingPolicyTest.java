@@ -0,0 +1,167 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.security.application.InMemorySecurityRepository;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.service.SecurityService;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveSamplingPolicy.
+ */
+public class AdaptiveSamplingPolicyTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void disarmed_shouldPauseAnalysis() {
+        AdaptiveSamplingPolicy policy = policy(ArmingStatus.DISARMED, AlarmStatus.NO_ALARM);
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(policy.shouldAnalyze("front", i * 1000 * MS));
+        }
+        assertEquals(AdaptiveSamplingPolicy.Mode.DISARMED, policy.getMode());
+        assertEquals(10, policy.getSavedCount());
+    }
+
+    @Test
+    void armedHome_shouldAnalyzeOncePerInterval() {
+        AdaptiveSamplingPolicy policy = policy(ArmingStatus.ARMED_HOME, AlarmStatus.NO_ALARM);
+
+        assertTrue(policy.shouldAnalyze("front", 0));
+        assertFalse(policy.shouldAnalyze("front", 500 * MS));
+        assertTrue(policy.shouldAnalyze("front", 1000 * MS));
+        // Cameras are sampled independently
+        assertTrue(policy.shouldAnalyze("back", 500 * MS));
+    }
+
+    @Test
+    void pendingAlarm_shouldRampUpRate() {
+        AdaptiveSamplingPolicy policy = policy(ArmingStatus.ARMED_AWAY, AlarmStatus.NO_ALARM);
+        assertTrue(policy.shouldAnalyze("front", 0));
+        assertFalse(policy.shouldAnalyze("front", 300 * MS));
+
+        policy.notify(AlarmStatus.PENDING_ALARM);
+
+        assertEquals(AdaptiveSamplingPolicy.Mode.PENDING_ALARM, policy.getMode());
+        assertTrue(policy.shouldAnalyze("front", 300 * MS));
+        assertFalse(policy.shouldAnalyze("front", 400 * MS));
+        assertTrue(policy.shouldAnalyze("front", 550 * MS));
+    }
+
+    @Test
+    void armingHome_shouldRecheckEveryCameraImmediately() {
+        AdaptiveSamplingPolicy policy = policy(ArmingStatus.ARMED_AWAY, AlarmStatus.NO_ALARM);
+        assertTrue(policy.shouldAnalyze("front", 0));
+        assertTrue(policy.shouldAnalyze("back", 0));
+
+        policy.notify(ArmingStatus.ARMED_HOME);
+
+        assertTrue(policy.shouldAnalyze("front", 10 * MS));
+        assertTrue(policy.shouldAnalyze("back", 10 * MS));
+        assertFalse(policy.shouldAnalyze("front", 20 * MS), "recheck should happen once per camera");
+    }
+
+    @Test
+    void recheck_shouldApplyEvenWhenComingFromDisarmed() {
+        AdaptiveSamplingPolicy policy = policy(ArmingStatus.DISARMED, AlarmStatus.NO_ALARM);
+        assertFalse(policy.shouldAnalyze("front", 0));
+
+        policy.notify(ArmingStatus.ARMED_HOME);
+
+        assertTrue(policy.shouldAnalyze("front", 1 * MS));
+    }
+
+    @Test
+    void customIntervals_shouldOverrideDefaults() {
+        AdaptiveSamplingPolicy policy = policy(ArmingStatus.DISARMED, AlarmStatus.NO_ALARM)
+                .withInterval(AdaptiveSamplingPolicy.Mode.DISARMED, Duration.ofSeconds(60))
+                .withPaused(AdaptiveSamplingPolicy.Mode.ARMED_AWAY);
+
+        assertTrue(policy.shouldAnalyze("front", 0));
+        assertTrue(policy.shouldAnalyze("front", 60_000 * MS));
+
+        policy.notify(ArmingStatus.ARMED_AWAY);
+        assertFalse(policy.shouldAnalyze("front", 200_000 * MS));
+    }
+
+    @Test
+    void savedPerDay_shouldExtrapolateFromElapsedTime() {
+        AdaptiveSamplingPolicy policy = policy(ArmingStatus.DISARMED, AlarmStatus.NO_ALARM);
+        for (int i = 0; i < 100; i++) {
+            policy.shouldAnalyze("front", i * MS);
+        }
+        clock.set(TimeUnit.HOURS.toNanos(1));
+
+        assertEquals(2400.0, policy.getSavedPerDay(), 0.001);
+    }
+
+    @Test
+    void unknownStatus_shouldSampleLikeArmedHome() {
+        AdaptiveSamplingPolicy policy = policy(null, null);
+
+        assertEquals(AdaptiveSamplingPolicy.Mode.ARMED_HOME, policy.getMode());
+        assertTrue(policy.shouldAnalyze("front", 0));
+    }
+
+    @Test
+    void pause_shouldReportCamerasStaleOnceMoreAtTheirFirstSkippedFrame() {
+        List<String> stale = new ArrayList<>();
+        AdaptiveSamplingPolicy policy = policy(ArmingStatus.ARMED_HOME, AlarmStatus.NO_ALARM)
+                .withStaleCameraHandler(stale::add);
+        assertTrue(policy.shouldAnalyze("front", 0));
+
+        policy.notify(ArmingStatus.DISARMED);
+        assertEquals(List.of("front"), stale);
+
+        assertFalse(policy.shouldAnalyze("front", 10 * MS));
+        assertFalse(policy.shouldAnalyze("front", 20 * MS));
+        assertFalse(policy.shouldAnalyze("back", 20 * MS));
+        assertEquals(List.of("front", "front", "back"), stale);
+    }
+
+    @Test
+    void armingHomeAfterPause_shouldNotAlarmForACatSeenBeforeThePause() {
+        AtomicBoolean catInView = new AtomicBoolean(true);
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(),
+                (image, threshold) -> catInView.get());
+        securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        AdaptiveSamplingPolicy policy = AdaptiveSamplingPolicy.attach(securityService);
+        BiConsumer<String, Long> camera = (cameraId, now) -> {
+            if (policy.shouldAnalyze(cameraId, now)) {
+                securityService.processImage(cameraId, new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB));
+            }
+        };
+        camera.accept("front", 0L);
+        assertTrue(securityService.isCatDetected());
+
+        securityService.setArmingStatus(ArmingStatus.DISARMED);
+        catInView.set(false);
+        camera.accept("front", 10_000 * MS);
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+
+        assertEquals(AlarmStatus.NO_ALARM, securityService.getAlarmStatus());
+
+        // The re-check frame still decides from what the camera sees
+        catInView.set(true);
+        camera.accept("front", 10_001 * MS);
+        assertEquals(AlarmStatus.ALARM, securityService.getAlarmStatus());
+    }
+
+    private AdaptiveSamplingPolicy policy(ArmingStatus arming, AlarmStatus alarm) {
+        return new AdaptiveSamplingPolicy(arming, alarm, clock::get);
+    }
+}
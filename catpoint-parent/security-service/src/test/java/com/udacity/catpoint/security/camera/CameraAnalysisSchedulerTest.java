@@ -0,0 +1,167 @@
+package com.udacity.catpoint.security.camera;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CameraAnalysisScheduler.
+ */
+public class CameraAnalysisSchedulerTest {
+
+    private CameraAnalysisScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void cameras_shouldBeAnalyzedInParallel() throws InterruptedException {
+        int cameras = 4;
+        CountDownLatch allStarted = new CountDownLatch(cameras);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler = new CameraAnalysisScheduler((cameraId, frame) -> {
+            allStarted.countDown();
+            await(release);
+        }, cameras);
+
+        for (int i = 0; i < cameras; i++) {
+            scheduler.addCamera("cam" + i, 2, FrameQueue.OverflowPolicy.DROP_OLDEST);
+            scheduler.submit("cam" + i, frame());
+        }
+
+        assertTrue(allStarted.await(5, TimeUnit.SECONDS), "every camera should be in analysis at once");
+        release.countDown();
+        assertTrue(scheduler.awaitIdle(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void camera_shouldHaveAtMostOneFrameInAnalysis() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        scheduler = new CameraAnalysisScheduler((cameraId, frame) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(2);
+            inFlight.decrementAndGet();
+        }, 4);
+        scheduler.addCamera("front", 100, FrameQueue.OverflowPolicy.DROP_OLDEST);
+
+        for (int i = 0; i < 20; i++) {
+            scheduler.submit("front", frame());
+        }
+
+        assertTrue(scheduler.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(1, maxInFlight.get());
+        assertEquals(20, scheduler.getStats("front").getAnalyzed());
+        assertEquals(0, scheduler.getBacklog("front"));
+    }
+
+    @Test
+    void busyCamera_shouldNotStarveQuietCamera() {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler = new CameraAnalysisScheduler((cameraId, frame) -> {
+            await(release);
+            order.add(cameraId);
+        }, 1);
+        scheduler.addCamera("busy", 100, FrameQueue.OverflowPolicy.DROP_OLDEST);
+        scheduler.addCamera("quiet", 100, FrameQueue.OverflowPolicy.DROP_OLDEST);
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.submit("busy", frame());
+        }
+        scheduler.submit("quiet", frame());
+        release.countDown();
+
+        assertTrue(scheduler.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(11, order.size());
+        assertTrue(order.indexOf("quiet") <= 1, "quiet camera waited behind " + order.indexOf("quiet") + " frames");
+    }
+
+    @Test
+    void stats_shouldReportLatencyAndDrops() {
+        Map<String, Integer> analyzed = new ConcurrentHashMap<>();
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler = new CameraAnalysisScheduler((cameraId, frame) -> {
+            await(release);
+            sleep(5);
+            analyzed.merge(cameraId, 1, Integer::sum);
+        }, 2);
+        scheduler.addCamera("garage", 1, FrameQueue.OverflowPolicy.LATEST_ONLY);
+
+        for (int i = 0; i < 5; i++) {
+            scheduler.submit("garage", frame());
+        }
+        release.countDown();
+
+        assertTrue(scheduler.awaitIdle(5, TimeUnit.SECONDS));
+        CameraStats stats = scheduler.getStats("garage");
+        assertEquals(5, stats.getReceived());
+        assertEquals(stats.getReceived(), stats.getDropped() + stats.getAnalyzed());
+        assertEquals(analyzed.get("garage").longValue(), stats.getAnalyzed());
+        assertTrue(stats.getAverageAnalysisMillis() >= 5.0, stats.toString());
+    }
+
+    @Test
+    void unregisteredCamera_shouldBeIgnored() {
+        scheduler = new CameraAnalysisScheduler((cameraId, frame) -> fail("nothing should be analyzed"), 1);
+
+        assertFalse(scheduler.submit("unknown", frame()));
+        assertNull(scheduler.getStats("unknown"));
+    }
+
+    @Test
+    void cameraRemovedDuringAnalysis_shouldBeReportedAgainAfterTheFrame() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> removed = Collections.synchronizedList(new ArrayList<>());
+        scheduler = new CameraAnalysisScheduler((cameraId, frame) -> {
+            started.countDown();
+            await(release);
+        }, removed::add, 1);
+        scheduler.addCamera("front", 2, FrameQueue.OverflowPolicy.DROP_OLDEST);
+        scheduler.submit("front", frame());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        scheduler.removeCamera("front");
+        assertEquals(List.of("front"), removed);
+        release.countDown();
+
+        assertTrue(scheduler.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(List.of("front", "front"), removed);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BufferedImage frame() {
+        return new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+    }
+}
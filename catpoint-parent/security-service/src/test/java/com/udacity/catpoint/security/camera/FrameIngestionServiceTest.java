@@ -0,0 +1,225 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.image.FrameBufferPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FrameQueue and FrameIngestionService.
+ */
+public class FrameIngestionServiceTest {
+
+    private FrameIngestionService ingestion;
+
+    @AfterEach
+    void tearDown() {
+        if (ingestion != null) {
+            ingestion.stop();
+        }
+    }
+
+    @Test
+    void fullQueue_shouldDropOldestFrame() {
+        FrameQueue queue = new FrameQueue(2, FrameQueue.OverflowPolicy.DROP_OLDEST);
+        BufferedImage first = frame();
+        BufferedImage second = frame();
+        BufferedImage third = frame();
+
+        assertEquals(0, queue.offer(first));
+        assertEquals(0, queue.offer(second));
+        assertEquals(1, queue.offer(third));
+
+        assertSame(second, queue.poll());
+        assertSame(third, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void latestOnlyQueue_shouldKeepOneFrame() {
+        FrameQueue queue = new FrameQueue(10, FrameQueue.OverflowPolicy.LATEST_ONLY);
+        BufferedImage latest = frame();
+
+        queue.offer(frame());
+        queue.offer(latest);
+
+        assertEquals(1, queue.getCapacity());
+        assertEquals(1, queue.size());
+        assertSame(latest, queue.poll());
+    }
+
+    @Test
+    void slowDetector_shouldDropFramesInsteadOfBuffering() throws InterruptedException {
+        CountDownLatch firstFrame = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ingestion = new FrameIngestionService((cameraId, frame) -> {
+            firstFrame.countDown();
+            await(release);
+        });
+        ingestion.addCamera(new SyntheticFrameSource("front", 16, 16, 1000, 50), 4,
+                FrameQueue.OverflowPolicy.DROP_OLDEST, Duration.ZERO);
+
+        ingestion.start();
+        assertTrue(firstFrame.await(5, TimeUnit.SECONDS));
+        waitForReceived("front", 50);
+        release.countDown();
+
+        CameraStats stats = ingestion.getStats("front");
+        assertEquals(50, stats.getReceived());
+        assertTrue(stats.getDropped() >= 50 - 1 - 4, stats.toString());
+        waitForAnalyzed("front", stats.getReceived() - stats.getDropped());
+        assertEquals(stats.getReceived(), stats.getDropped() + stats.getAnalyzed());
+    }
+
+    @Test
+    void samplingInterval_shouldSkipFramesBetweenSamples() throws InterruptedException {
+        ingestion = new FrameIngestionService((cameraId, frame) -> { });
+        ingestion.addCamera(new SyntheticFrameSource("garage", 16, 16, 1000, 20), 4,
+                FrameQueue.OverflowPolicy.LATEST_ONLY, Duration.ofHours(1));
+
+        ingestion.start();
+        waitForReceived("garage", 20);
+
+        CameraStats stats = ingestion.getStats("garage");
+        assertEquals(19, stats.getSkipped());
+        waitForAnalyzed("garage", 1);
+    }
+
+    @Test
+    void duplicateCamera_shouldBeRejected() {
+        ingestion = new FrameIngestionService((cameraId, frame) -> { });
+        ingestion.addCamera(new SyntheticFrameSource("front", 16, 16, 10, 1), 1,
+                FrameQueue.OverflowPolicy.LATEST_ONLY, Duration.ZERO);
+
+        assertThrows(IllegalArgumentException.class, () -> ingestion.addCamera(
+                new SyntheticFrameSource("front", 16, 16, 10, 1), 1,
+                FrameQueue.OverflowPolicy.LATEST_ONLY, Duration.ZERO));
+    }
+
+    @Test
+    void removeCamera_shouldReportTheRemoval() {
+        List<String> removed = new ArrayList<>();
+        ingestion = new FrameIngestionService((cameraId, frame) -> { }, removed::add);
+        ingestion.addCamera(new SyntheticFrameSource("front", 16, 16, 10, 1), 1,
+                FrameQueue.OverflowPolicy.LATEST_ONLY, Duration.ZERO);
+
+        ingestion.removeCamera("front");
+        ingestion.removeCamera("front");
+
+        assertEquals(List.of("front"), removed);
+        assertNull(ingestion.getStats("front"));
+    }
+
+    @Test
+    void restart_whileAFrameIsInAnalysis_shouldLeaveOneWorker() throws InterruptedException {
+        CountDownLatch inAnalysis = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ingestion = new FrameIngestionService((cameraId, frame) -> {
+            inAnalysis.countDown();
+            // Keeps analyzing through the stop, as a remote detection call would
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // ignored
+                }
+            }
+        });
+        ManualFrameSource source = new ManualFrameSource("front");
+        ingestion.addCamera(source, 1, FrameQueue.OverflowPolicy.LATEST_ONLY, Duration.ZERO);
+        ingestion.start();
+        source.push(frame());
+        assertTrue(inAnalysis.await(5, TimeUnit.SECONDS));
+
+        ingestion.stop();
+        ingestion.start();
+        release.countDown();
+        Thread.sleep(200);
+
+        assertEquals(1, Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("frame-analysis") && thread.isAlive()).count());
+        source.push(frame());
+        waitForAnalyzed("front", 2);
+    }
+
+    @Test
+    void frameHandedOverAfterRemoval_shouldGoBackToThePool() {
+        FrameBufferPool pool = new FrameBufferPool();
+        ingestion = new FrameIngestionService((cameraId, frame) -> { }).withFrameBufferPool(pool);
+        // Its stop does not wait for a frame already on its way, like a decoding thread
+        ManualFrameSource source = new ManualFrameSource("front");
+        ingestion.addCamera(source, 4, FrameQueue.OverflowPolicy.DROP_OLDEST, Duration.ZERO);
+        ingestion.start();
+
+        ingestion.removeCamera("front");
+        source.push(pool.acquire(8, 8, BufferedImage.TYPE_INT_RGB));
+
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    private void waitForReceived(String cameraId, long frames) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ingestion.getStats(cameraId).getReceived() < frames && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void waitForAnalyzed(String cameraId, long frames) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ingestion.getStats(cameraId).getAnalyzed() < frames && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(frames, ingestion.getStats(cameraId).getAnalyzed());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BufferedImage frame() {
+        return new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Source whose frames are pushed by the test; stopping it does not stop pushes.
+     */
+    private static final class ManualFrameSource implements FrameSource {
+        private final String cameraId;
+        private volatile Consumer<BufferedImage> sink;
+
+        private ManualFrameSource(String cameraId) {
+            this.cameraId = cameraId;
+        }
+
+        private void push(BufferedImage frame) {
+            sink.accept(frame);
+        }
+
+        @Override
+        public String getCameraId() {
+            return cameraId;
+        }
+
+        @Override
+        public void start(Consumer<BufferedImage> frameSink) {
+            sink = frameSink;
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+}
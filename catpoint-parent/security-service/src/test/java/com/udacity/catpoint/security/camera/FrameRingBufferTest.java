@@ -0,0 +1,213 @@
+package com.udacity.catpoint.security.camera;
+
+import com.udacity.catpoint.security.data.AlarmStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FrameRingBuffer and AlarmClipRecorder. Write throughput and allocation are
+ * measured by FrameRingBufferBenchmark.
+ */
+public class FrameRingBufferTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fullRing_shouldOverwriteOldestFrames() throws IOException {
+        try (FrameRingBuffer ring = new FrameRingBuffer(directory.resolve("cam.ring"), 3, 16)) {
+            for (int i = 1; i <= 5; i++) {
+                assertTrue(ring.write(i * 100L, frame(i), 0, 4));
+            }
+
+            List<FrameRingBuffer.Frame> frames = ring.frames(0);
+
+            assertEquals(List.of(3L, 4L, 5L), frames.stream().map(FrameRingBuffer.Frame::sequence).toList());
+            assertEquals(300L, frames.get(0).timestampMillis());
+            assertEquals(3, frames.get(0).data().get(0));
+        }
+    }
+
+    @Test
+    void reopenedRing_shouldKeepFramesAndContinueSequence() throws IOException {
+        Path file = directory.resolve("cam.ring");
+        try (FrameRingBuffer ring = new FrameRingBuffer(file, 4, 16)) {
+            ring.write(100L, frame(1), 0, 4);
+            ring.write(200L, frame(2), 0, 4);
+        }
+
+        try (FrameRingBuffer ring = new FrameRingBuffer(file, 4, 16)) {
+            assertEquals(2, ring.frames(0).size());
+            assertEquals(3L, ring.getNextSequence());
+        }
+    }
+
+    @Test
+    void changedGeometry_shouldStartEmpty() throws IOException {
+        Path file = directory.resolve("cam.ring");
+        try (FrameRingBuffer ring = new FrameRingBuffer(file, 4, 16)) {
+            ring.write(100L, frame(1), 0, 4);
+        }
+
+        try (FrameRingBuffer ring = new FrameRingBuffer(file, 8, 16)) {
+            assertTrue(ring.frames(0).isEmpty());
+            assertEquals(1L, ring.getNextSequence());
+        }
+    }
+
+    @Test
+    void frozenFrames_shouldNotBeOverwritten() throws IOException {
+        try (FrameRingBuffer ring = new FrameRingBuffer(directory.resolve("cam.ring"), 3, 16)) {
+            ring.write(100L, frame(1), 0, 4);
+            ring.write(200L, frame(2), 0, 4);
+
+            long first = ring.freeze(150L);
+            assertEquals(2L, first);
+
+            assertTrue(ring.write(300L, frame(3), 0, 4));
+            assertTrue(ring.write(400L, frame(4), 0, 4));
+            assertFalse(ring.write(500L, frame(5), 0, 4));
+            assertEquals(1, ring.getRejectedCount());
+            assertEquals(List.of(2L, 3L, 4L), ring.frames(first).stream().map(FrameRingBuffer.Frame::sequence).toList());
+
+            ring.unfreeze();
+            assertTrue(ring.write(500L, frame(5), 0, 4));
+        }
+    }
+
+    @Test
+    void oversizedFrame_shouldBeRejected() throws IOException {
+        try (FrameRingBuffer ring = new FrameRingBuffer(directory.resolve("cam.ring"), 3, 16)) {
+            assertFalse(ring.write(100L, new byte[17], 0, 17));
+            assertEquals(1, ring.getRejectedCount());
+            assertTrue(ring.frames(0).isEmpty());
+        }
+    }
+
+    @Test
+    void alarm_shouldExportClipWithPreAndPostRoll() throws IOException {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        try (AlarmClipRecorder recorder = new AlarmClipRecorder(directory, Duration.ofSeconds(2),
+                Duration.ofSeconds(1), 2, 256 * 1024, now::get)) {
+            // 5 s of frames at 4 fps; the recorder keeps 2 fps
+            for (int i = 0; i < 20; i++) {
+                recorder.record("front", image(i));
+                now.addAndGet(250);
+            }
+            recorder.notify(AlarmStatus.ALARM);
+            long alarmAt = now.get();
+            while (now.get() <= alarmAt + 1000) {
+                recorder.record("front", image(0));
+                now.addAndGet(250);
+            }
+
+            List<Path> clips = recorder.getExportedClips();
+            assertEquals(1, clips.size());
+            assertFalse(recorder.getRingBuffer("front").isFrozen());
+            // 2 s pre-roll and 1 s post-roll at 2 fps, plus the closing frame
+            assertEquals(7, countJpegs(clips.get(0)));
+        }
+    }
+
+    @Test
+    void repeatedAlarmStatus_shouldNotStartSecondClip() throws IOException {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        try (AlarmClipRecorder recorder = new AlarmClipRecorder(directory, Duration.ofSeconds(1),
+                Duration.ofSeconds(1), 1, 256 * 1024, now::get)) {
+            recorder.record("front", image(1));
+            recorder.notify(AlarmStatus.ALARM);
+            recorder.notify(AlarmStatus.ALARM);
+            now.addAndGet(2000);
+            recorder.record("front", image(2));
+
+            assertEquals(1, recorder.getExportedClips().size());
+        }
+    }
+
+    @Test
+    void alarm_withoutLaterFrames_shouldExportWhenPostRollEnds() throws IOException, InterruptedException {
+        try (AlarmClipRecorder recorder = new AlarmClipRecorder(directory, Duration.ofSeconds(1),
+                Duration.ofMillis(50), 1, 256 * 1024)) {
+            recorder.record("front", image(1));
+            recorder.notify(AlarmStatus.ALARM);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (recorder.getExportedClips().isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(1, recorder.getExportedClips().size());
+            assertFalse(recorder.getRingBuffer("front").isFrozen());
+            assertEquals(1, countJpegs(recorder.getExportedClips().get(0)));
+        }
+    }
+
+    @Test
+    void close_shouldExportClipStillInPostRoll() throws IOException {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        AlarmClipRecorder recorder = new AlarmClipRecorder(directory, Duration.ofSeconds(1),
+                Duration.ofHours(1), 1, 256 * 1024, now::get);
+        recorder.record("front", image(1));
+        recorder.notify(AlarmStatus.ALARM);
+
+        recorder.close();
+
+        assertEquals(1, recorder.getExportedClips().size());
+    }
+
+    @Test
+    void manualExport_shouldWriteCurrentFrames() throws IOException {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        try (AlarmClipRecorder recorder = new AlarmClipRecorder(directory, Duration.ofSeconds(5),
+                Duration.ofSeconds(1), 1, 256 * 1024, now::get)) {
+            for (int i = 0; i < 3; i++) {
+                recorder.record("back door", image(i));
+                now.addAndGet(1000);
+            }
+
+            Path clip = recorder.exportCurrent("back door");
+
+            assertEquals(3, countJpegs(clip));
+            assertNull(recorder.exportCurrent("unknown"));
+        }
+    }
+
+    private static byte[] frame(int value) {
+        return new byte[]{(byte) value, 0, 0, 0};
+    }
+
+    private static BufferedImage image(int shade) {
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(shade * 10 % 256, 80, 120));
+        g.fillRect(0, 0, 64, 48);
+        g.dispose();
+        return image;
+    }
+
+    private static int countJpegs(Path clip) throws IOException {
+        int count = 0;
+        try (InputStream input = Files.newInputStream(clip)) {
+            MjpegFileFrameSource.JpegBuffer jpeg = new MjpegFileFrameSource.JpegBuffer();
+            while (MjpegFileFrameSource.nextJpeg(input, jpeg)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
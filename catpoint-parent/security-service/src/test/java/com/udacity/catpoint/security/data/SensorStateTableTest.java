@@ -0,0 +1,153 @@
+package com.udacity.catpoint.security.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SensorStateTable. Its queries at 10^6 sensors are measured by
+ * SensorStateTableBenchmark.
+ */
+public class SensorStateTableTest {
+
+    private final SensorStateTable table = new SensorStateTable();
+
+    @Test
+    void put_shouldStoreSensorColumns() {
+        Sensor sensor = new Sensor("Küchenfenster", SensorType.WINDOW);
+        sensor.setActive(true);
+
+        int index = table.put(sensor);
+
+        assertEquals(index, table.indexOf(sensor.getSensorId()));
+        assertEquals("Küchenfenster", table.getName(index));
+        assertEquals(SensorType.WINDOW, table.getType(index));
+        assertEquals(sensor.getSensorId(), table.getSensorId(index));
+        assertTrue(table.isActive(index));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void put_existingSensor_shouldUpdateInPlace() {
+        Sensor sensor = new Sensor("Door", SensorType.DOOR);
+        int index = table.put(sensor);
+
+        sensor.setName("Back door");
+        sensor.setSensorType(SensorType.MOTION);
+        sensor.setActive(true);
+
+        assertEquals(index, table.put(sensor));
+        assertEquals("Back door", table.getName(index));
+        assertEquals(1, table.countActive(SensorType.MOTION));
+        assertEquals(0, table.countActive(SensorType.DOOR));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void remove_shouldFreeIndexForReuse() {
+        Sensor first = new Sensor("First", SensorType.DOOR);
+        first.setActive(true);
+        int index = table.put(first);
+
+        assertTrue(table.remove(first.getSensorId()));
+        assertFalse(table.remove(first.getSensorId()));
+        assertEquals(-1, table.indexOf(first.getSensorId()));
+        assertFalse(table.anyActive());
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getName(index));
+
+        assertEquals(index, table.put(new Sensor("Second", SensorType.WINDOW)));
+    }
+
+    @Test
+    void activeQueries_shouldCountByType() {
+        for (int i = 0; i < 300; i++) {
+            Sensor sensor = new Sensor("Sensor " + i, SensorType.values()[i % 3]);
+            sensor.setActive(i % 2 == 0);
+            table.put(sensor);
+        }
+
+        assertTrue(table.anyActive());
+        assertEquals(150, table.countActive());
+        assertEquals(50, table.countActive(SensorType.DOOR));
+        assertArrayEquals(new int[]{50, 50, 50}, table.countActiveByType());
+    }
+
+    @Test
+    void setActive_unknownSensor_shouldReturnFalse() {
+        assertFalse(table.setActive(UUID.randomUUID(), true));
+        assertFalse(table.anyActive());
+    }
+
+    @Test
+    void randomOperations_shouldMatchReferenceMap() {
+        Random random = new Random(11);
+        Map<UUID, Boolean> reference = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        for (int step = 0; step < 50_000; step++) {
+            int operation = random.nextInt(3);
+            if (operation == 0 || ids.isEmpty()) {
+                UUID id = UUID.randomUUID();
+                boolean active = random.nextBoolean();
+                table.put(id, "s" + step, SensorType.DOOR, active);
+                reference.put(id, active);
+                ids.add(id);
+            } else if (operation == 1) {
+                UUID id = ids.remove(random.nextInt(ids.size()));
+                assertTrue(table.remove(id));
+                reference.remove(id);
+            } else {
+                UUID id = ids.get(random.nextInt(ids.size()));
+                boolean active = random.nextBoolean();
+                assertTrue(table.setActive(id, active));
+                reference.put(id, active);
+            }
+        }
+
+        assertEquals(reference.size(), table.size());
+        reference.forEach((id, active) -> assertEquals(active, table.isActive(table.indexOf(id))));
+        assertEquals(reference.values().stream().filter(Boolean::booleanValue).count(), table.countActive());
+    }
+
+    @Test
+    void compactNames_shouldKeepNamesAfterRenames() {
+        Sensor sensor = new Sensor("Garage", SensorType.DOOR);
+        int index = table.put(sensor);
+        for (int i = 0; i < 100; i++) {
+            sensor.setName("Garage " + i);
+            table.put(sensor);
+        }
+        long before = table.getRetainedBytes();
+
+        table.compactNames();
+
+        assertEquals("Garage 99", table.getName(index));
+        assertTrue(table.getRetainedBytes() <= before);
+    }
+
+    @Test
+    void manySensors_shouldStayCompact() {
+        // A full power-of-two capacity, so growth headroom does not count against the budget
+        int sensorCount = 16_384;
+        for (int i = 0; i < sensorCount; i++) {
+            table.put(UUID.randomUUID(), "Sensor " + i, SensorType.values()[i % 3], false);
+        }
+        assertFalse(table.anyActive());
+
+        // Worst case for "any active": the only active sensor is the last one
+        table.setActive(table.getSensorId(sensorCount - 1), true);
+
+        assertTrue(table.anyActive());
+        int[] activeByType = table.countActiveByType();
+        assertEquals(1, activeByType[(sensorCount - 1) % 3]);
+        assertEquals(1, Arrays.stream(activeByType).sum());
+        assertTrue(table.getRetainedBytes() / sensorCount < 64, "table should need well under 64 bytes per sensor");
+    }
+}
@@ -0,0 +1,144 @@
+package com.udacity.catpoint.security.data;
+
+import com.udacity.catpoint.security.application.InMemorySecurityRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ZoneRollup, checked against a full scan in a deep zone hierarchy. Update and
+ * query costs at 100k sensors are measured by ZoneRollupBenchmark.
+ */
+public class ZoneRollupTest {
+
+    private final ZoneRollup rollup = new ZoneRollup();
+
+    @Test
+    void counts_shouldRollUpToEveryParentZone() {
+        Sensor kitchen = new Sensor("Kitchen Window", SensorType.WINDOW, "perimeter/ground-floor/kitchen");
+        Sensor hall = new Sensor("Hall Motion", SensorType.MOTION, "interior/ground-floor/hall");
+        kitchen.setActive(true);
+
+        rollup.put(kitchen);
+        rollup.put(hall);
+
+        assertEquals(1, rollup.countActive("perimeter"));
+        assertEquals(1, rollup.countActive("perimeter/ground-floor"));
+        assertEquals(1, rollup.countActive(""));
+        assertEquals(2, rollup.countSensors(""));
+        assertTrue(rollup.anyActive("perimeter"));
+        assertTrue(rollup.isQuiet("interior"));
+        assertTrue(rollup.isQuiet("garage"));
+        assertEquals(0, rollup.countSensors("garage"));
+    }
+
+    @Test
+    void activationChange_shouldUpdateCountsOnce() {
+        Sensor door = new Sensor("Front Door", SensorType.DOOR, "perimeter/front");
+        rollup.put(door);
+
+        door.setActive(true);
+        rollup.put(door);
+        rollup.put(door);
+        assertEquals(1, rollup.countActive("perimeter"));
+
+        door.setActive(false);
+        rollup.put(door);
+        assertTrue(rollup.isQuiet("perimeter"));
+        assertEquals(1, rollup.countSensors("perimeter"));
+    }
+
+    @Test
+    void movedSensor_shouldLeaveOldZoneAndDropItWhenEmpty() {
+        Sensor window = new Sensor("Window", SensorType.WINDOW, "upstairs/bedroom");
+        window.setActive(true);
+        rollup.put(window);
+
+        window.setZone("downstairs/lounge");
+        rollup.put(window);
+
+        assertEquals(0, rollup.countSensors("upstairs"));
+        assertEquals(1, rollup.countActive("downstairs"));
+        assertEquals(Set.of("downstairs", "downstairs/lounge"), rollup.getZones());
+    }
+
+    @Test
+    void remove_shouldUndoCounts() {
+        Sensor door = new Sensor("Back Door", SensorType.DOOR, "perimeter/back");
+        door.setActive(true);
+        rollup.put(door);
+
+        assertTrue(rollup.remove(door.getSensorId()));
+        assertFalse(rollup.remove(door.getSensorId()));
+
+        assertEquals(0, rollup.countSensors(""));
+        assertTrue(rollup.getZones().isEmpty());
+    }
+
+    @Test
+    void zonePaths_shouldBeNormalized() {
+        Sensor sensor = new Sensor("Door", SensorType.DOOR, " /perimeter//front/ ");
+
+        assertEquals("perimeter/front", sensor.getZone());
+        assertEquals("", new Sensor("Unzoned", SensorType.DOOR).getZone());
+        assertTrue(ZoneRollup.contains("perimeter", "perimeter/front"));
+        assertTrue(ZoneRollup.contains("", "perimeter/front"));
+        assertFalse(ZoneRollup.contains("perimeter", "perimeter-annex/front"));
+    }
+
+    @Test
+    void rollups_shouldMatchFullScanInDeepHierarchy() {
+        int sensorCount = 2_000;
+        int depth = 12;
+        Random random = new Random(11);
+        List<Sensor> sensors = new ArrayList<>();
+        InMemorySecurityRepository scanned = new InMemorySecurityRepository();
+        for (int i = 0; i < sensorCount; i++) {
+            Sensor sensor = new Sensor("Sensor " + i, SensorType.values()[i % 3], randomZone(random, depth));
+            sensor.setActive(random.nextInt(10) == 0);
+            sensors.add(sensor);
+            rollup.put(sensor);
+            scanned.addSensor(sensor);
+        }
+
+        // Activation flips and zone moves, as changeSensorActivationStatus and edits would apply them
+        for (int n = 0; n < 20_000; n++) {
+            Sensor sensor = sensors.get(random.nextInt(sensorCount));
+            if (n % 50 == 0) {
+                sensor.setZone(randomZone(random, depth));
+            } else {
+                sensor.setActive(!sensor.getActive());
+            }
+            rollup.put(sensor);
+        }
+
+        List<String> zones = new ArrayList<>(rollup.getZones());
+        zones.add("");
+        for (String zone : zones) {
+            assertEquals(scanned.countActiveSensorsInZone(zone), rollup.countActive(zone), zone);
+            assertEquals(scanned.countSensorsInZone(zone), rollup.countSensors(zone), zone);
+        }
+        assertTrue(rollup.countActive("") > 0);
+        assertEquals(sensorCount, rollup.countSensors(""));
+    }
+
+    /**
+     * A zone path with a narrow fan-out near the root and one to {@code depth} levels.
+     */
+    private static String randomZone(Random random, int depth) {
+        StringBuilder zone = new StringBuilder();
+        int levels = 1 + random.nextInt(depth);
+        for (int level = 0; level < levels; level++) {
+            if (level > 0) {
+                zone.append(ZoneRollup.SEPARATOR);
+            }
+            zone.append("z").append(random.nextInt(level < 3 ? 2 : 4));
+        }
+        return zone.toString();
+    }
+}
@@ -0,0 +1,219 @@
+package com.udacity.catpoint.security.replay;
+
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.security.application.InMemorySecurityRepository;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.SecurityService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the trace generator, recorder and replay harness.
+ */
+public class ReplayHarnessTest {
+
+    private static final long SEED = 42;
+
+    @TempDir
+    Path dir;
+
+    private ReplayHarness harness() {
+        return new ReplayHarness(InMemorySecurityRepository::new, () -> new FakeImageService(SEED));
+    }
+
+    @Test
+    void generate_sameSeed_shouldGiveSameTrace() {
+        EventTrace first = new TraceGenerator(SEED).withSensors(50).withCameras(3).generate(2_000);
+        EventTrace second = new TraceGenerator(SEED).withSensors(50).withCameras(3).generate(2_000);
+        EventTrace other = new TraceGenerator(SEED + 1).withSensors(50).withCameras(3).generate(2_000);
+
+        assertEquals(first.getSensors(), second.getSensors());
+        assertEquals(first.getEvents(), second.getEvents());
+        assertNotEquals(first.getEvents(), other.getEvents());
+        assertEquals(2_000, first.getEvents().size());
+        assertTrue(first.getEvents().stream().anyMatch(e -> e.kind() == TraceEvent.Kind.IMAGE));
+        assertTrue(first.getEvents().stream().anyMatch(e -> e.kind() == TraceEvent.Kind.ARMING));
+    }
+
+    @Test
+    void generate_offsets_shouldFollowTheConfiguredRate() {
+        EventTrace trace = new TraceGenerator(SEED).withRate(1_000).generate(10_000);
+
+        // 10k events at 1000/s should span about 10s
+        assertEquals(10_000_000, trace.getDurationMicros(), 500_000);
+        List<TraceEvent> events = trace.getEvents();
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i).offsetMicros() >= events.get(i - 1).offsetMicros());
+        }
+    }
+
+    @Test
+    void replay_sameTrace_shouldEndWithSameChecksum() {
+        EventTrace trace = new TraceGenerator(SEED).withSensors(200).withCameras(4).generate(5_000);
+
+        ReplayReport first = harness().run(trace);
+        ReplayReport second = harness().withWarmUpRuns(1).run(trace);
+
+        assertEquals(5_000, first.events());
+        assertEquals(first.checksum(), second.checksum());
+        assertEquals(first.armingStatus(), second.armingStatus());
+        assertEquals(first.alarmStatus(), second.alarmStatus());
+        assertEquals(first.activeSensors(), second.activeSensors());
+        assertEquals(5_000, first.serviceTime().count());
+        assertTrue(first.getThroughput() > 0);
+    }
+
+    @Test
+    void replay_differentDetections_shouldChangeChecksum() {
+        EventTrace trace = new TraceGenerator(SEED).withMix(0, 0, 1).generate(1);
+        ReplayHarness noCat = new ReplayHarness(InMemorySecurityRepository::new,
+                () -> new FakeImageService(SEED).withFixedResult(false));
+        ReplayHarness cat = new ReplayHarness(InMemorySecurityRepository::new,
+                () -> new FakeImageService(SEED).withFixedResult(true));
+
+        assertNotEquals(noCat.run(trace).checksum(), cat.run(trace).checksum());
+    }
+
+    @Test
+    void replay_activeSensors_shouldMatchGeneratedToggles() {
+        EventTrace trace = new TraceGenerator(SEED).withSensors(10).withMix(1, 0, 0).generate(25);
+        boolean[] active = new boolean[10];
+        trace.getEvents().forEach(e -> active[e.sensor()] = e.active());
+        int expected = 0;
+        for (boolean value : active) {
+            expected += value ? 1 : 0;
+        }
+
+        ReplayReport report = harness().run(trace);
+
+        assertEquals(expected, report.activeSensors());
+        assertEquals(ArmingStatus.DISARMED, report.armingStatus());
+    }
+
+    @Test
+    void replay_atRate_shouldTakeAtLeastTheScheduledTime() {
+        EventTrace trace = new TraceGenerator(SEED).generate(100);
+
+        ReplayReport report = harness().withRate(2_000).run(trace);
+
+        // 100 events at 2000/s are due over 49.5 ms
+        assertTrue(report.elapsedNanos() >= 49_000_000L, report::toString);
+        assertTrue(report.getThroughput() <= 2_100, report::toString);
+    }
+
+    @Test
+    void replay_atSpeed_shouldScaleTheTraceTiming() {
+        EventTrace trace = new TraceGenerator(SEED).withRate(100).generate(50);
+
+        ReplayReport report = harness().withSpeed(10).run(trace);
+
+        assertTrue(report.elapsedNanos() >= trace.getDurationMicros() * 100, report::toString);
+    }
+
+    @Test
+    void replay_detectionLatency_shouldShowInImagePercentiles() {
+        EventTrace trace = new TraceGenerator(SEED).withMix(0.5, 0, 0.5).generate(200);
+        ReplayHarness slow = new ReplayHarness(InMemorySecurityRepository::new,
+                () -> new FakeImageService(SEED).withLatency(Duration.ofMillis(2), Duration.ZERO));
+
+        ReplayReport report = slow.run(trace);
+
+        ReplayReport.Latencies images = report.serviceTimeByKind().get(TraceEvent.Kind.IMAGE);
+        ReplayReport.Latencies sensors = report.serviceTimeByKind().get(TraceEvent.Kind.SENSOR);
+        assertTrue(images.p50() >= 2_000_000L, report::toString);
+        assertTrue(sensors.p50() < 1_000_000L, report::toString);
+        assertEquals(report.events(), images.count() + sensors.count());
+    }
+
+    @Test
+    void replay_slowEvents_shouldDelayResponseOfLaterEvents() {
+        EventTrace trace = new TraceGenerator(SEED).withMix(0.5, 0, 0.5).generate(100);
+        ReplayHarness slow = new ReplayHarness(InMemorySecurityRepository::new,
+                () -> new FakeImageService(SEED).withLatency(Duration.ofMillis(2), Duration.ZERO));
+
+        // Offered 2000/s but every other event takes 2ms, so the queue keeps growing
+        ReplayReport report = slow.withRate(2_000).run(trace);
+
+        assertTrue(report.responseTime().max() > 10 * report.serviceTime().max(), report::toString);
+    }
+
+    @Test
+    void replay_shouldReportAllocation() {
+        EventTrace trace = new TraceGenerator(SEED).withSensors(100).generate(2_000);
+
+        ReplayReport report = harness().run(trace);
+
+        // getSensors() copies and the image stand-in boxes, so a run always allocates something
+        assertTrue(report.allocatedBytes() > 0, report::toString);
+        assertTrue(report.getAllocatedBytesPerEvent() > 0);
+        assertTrue(report.getAllocationRateMbPerSecond() > 0);
+    }
+
+    @Test
+    void trace_writeThenRead_shouldRoundTrip() throws IOException {
+        EventTrace trace = new TraceGenerator(SEED).withSensors(20).withCameras(2).generate(500);
+        Path file = dir.resolve("trace.txt");
+
+        trace.write(file);
+        EventTrace read = EventTrace.read(file);
+
+        assertEquals(trace.getSensors(), read.getSensors());
+        assertEquals(trace.getEvents(), read.getEvents());
+        assertEquals(harness().run(trace).checksum(), harness().run(read).checksum());
+    }
+
+    @Test
+    void read_malformedLine_shouldNameTheLine() throws IOException {
+        Path file = dir.resolve("trace.txt");
+        Files.writeString(file, "# catpoint event trace v1\nevent 0 ARMING ARMED_SIDEWAYS\n");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> EventTrace.read(file));
+        assertTrue(e.getMessage().startsWith("Line 2:"), e.getMessage());
+    }
+
+    @Test
+    void eventTrace_unknownSensor_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new EventTrace(List.of(), List.of(TraceEvent.sensor(0, 0, true))));
+    }
+
+    @Test
+    void recorder_replayedTrace_shouldReachRecordedState() {
+        AtomicLong clock = new AtomicLong();
+        SecurityService service = new SecurityService(new InMemorySecurityRepository(), new FakeImageService(SEED));
+        TraceRecorder recorder = new TraceRecorder(service, clock::get);
+        Sensor door = new Sensor("Front Door", SensorType.DOOR);
+        Sensor window = new Sensor("Kitchen Window", SensorType.WINDOW);
+        recorder.addSensor(door);
+        recorder.addSensor(window);
+        BufferedImage frame = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+
+        recorder.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        clock.addAndGet(1_500_000);
+        recorder.changeSensorActivationStatus(door, true);
+        clock.addAndGet(2_000_000);
+        recorder.processImage("front", frame);
+        recorder.changeSensorActivationStatus(window, true);
+        EventTrace trace = recorder.toTrace();
+
+        assertEquals(2, trace.getSensors().size());
+        assertEquals(4, trace.getEvents().size());
+        assertEquals(3_500, trace.getDurationMicros());
+        ReplayReport report = harness().run(trace);
+        assertEquals(service.getAlarmStatus(), report.alarmStatus());
+        assertEquals(service.getArmingStatus(), report.armingStatus());
+        assertEquals(2, report.activeSensors());
+    }
+}
@@ -0,0 +1,359 @@
+package com.udacity.catpoint.security.service;
+
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.security.application.StatusListener;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.SecurityRepository;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.AlarmTransitionTable.Event;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AlarmTransitionTable: the built-in rules are checked exhaustively against the
+ * branching logic SecurityService used before the table. Event throughput is measured by
+ * SecurityServiceBenchmark.
+ */
+public class AlarmTransitionTableTest {
+
+    private static final BufferedImage FRAME = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+
+    /** Arming and alarm states to check, including the null a fresh repository mock returns. */
+    private static final List<ArmingStatus> ARMING = withNull(ArmingStatus.values());
+    private static final List<AlarmStatus> ALARM = withNull(AlarmStatus.values());
+
+    @Test
+    void defaultRules_shouldMatchLegacyBranchesForEveryState() {
+        int checked = 0;
+        for (ArmingStatus arming : ARMING) {
+            for (AlarmStatus alarm : ALARM) {
+                for (Event event : Event.values()) {
+                    for (boolean catDetected : new boolean[]{false, true}) {
+                        for (boolean othersActive : new boolean[]{false, true}) {
+                            assertEquivalent(event, arming, alarm, catDetected, othersActive);
+                            checked++;
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(ARMING.size() * ALARM.size() * Event.values().length * 4, checked);
+    }
+
+    private void assertEquivalent(Event event, ArmingStatus arming, AlarmStatus alarm, boolean catDetected, boolean othersActive) {
+        String state = event + " armed=" + arming + " alarm=" + alarm + " cat=" + catDetected + " othersActive=" + othersActive;
+
+        RecordingRepository legacyRepository = new RecordingRepository(arming, alarm, othersActive, event);
+        LegacySecurityService legacy = new LegacySecurityService(legacyRepository, catDetected);
+        boolean legacyFailed = false;
+        try {
+            legacy.handle(event, legacyRepository.trigger, arming);
+        } catch (NullPointerException e) {
+            // The legacy switch on a null alarm status threw; the table leaves the alarm alone
+            legacyFailed = true;
+        }
+
+        RecordingRepository tableRepository = new RecordingRepository(arming, alarm, othersActive, event);
+        SecurityService service = new SecurityService(tableRepository, new PresetImageService());
+        if (event != Event.CAT_DETECTED && event != Event.CAT_CLEARED) {
+            prepareCatDetected(service, tableRepository, catDetected);
+        }
+        switch (event) {
+            case ARMING_CHANGED -> service.setArmingStatus(arming);
+            case SENSOR_ACTIVATED -> service.changeSensorActivationStatus(tableRepository.trigger, true);
+            case SENSOR_DEACTIVATED -> service.changeSensorActivationStatus(tableRepository.trigger, false);
+            case CAT_DETECTED, CAT_CLEARED -> service.processImage(event == Event.CAT_DETECTED ? PresetImageService.CAT : FRAME);
+        }
+
+        if (legacyFailed) {
+            assertEquals(List.of(), tableRepository.alarmChanges, state);
+        } else {
+            assertEquals(legacyRepository.alarmChanges, tableRepository.alarmChanges, state);
+            assertEquals(legacyRepository.updatedSensors, tableRepository.updatedSensors, state);
+            assertTrue(tableRepository.armingReads <= 1 && tableRepository.alarmReads <= 1, state);
+        }
+    }
+
+    /**
+     * Puts the service's camera state into the wanted cat detection, then restores the repository.
+     */
+    private static void prepareCatDetected(SecurityService service, RecordingRepository repository, boolean catDetected) {
+        ArmingStatus arming = repository.armingStatus;
+        AlarmStatus alarm = repository.alarmStatus;
+        service.processImage("setup", catDetected ? PresetImageService.CAT : FRAME);
+        repository.armingStatus = arming;
+        repository.alarmStatus = alarm;
+        repository.reset();
+    }
+
+    @Test
+    void customRules_shouldReplaceDefaults() throws IOException {
+        AlarmTransitionTable rules = AlarmTransitionTable.compile(new StringReader("""
+                # No grace period while away
+                SENSOR_ACTIVATED  ARMED_AWAY         *  *  -> ALARM
+                SENSOR_ACTIVATED  ARMED_HOME         NO_ALARM|PENDING_ALARM  *  -> PENDING_ALARM
+                ARMING_CHANGED    ARMED_HOME|ARMED_AWAY  *  !CAT_DETECTED  -> DEACTIVATE_SENSORS NONE
+                """));
+        RecordingRepository repository = new RecordingRepository(ArmingStatus.ARMED_AWAY, AlarmStatus.NO_ALARM, false, Event.SENSOR_ACTIVATED);
+        SecurityService service = new SecurityService(repository, new PresetImageService(), rules);
+
+        service.changeSensorActivationStatus(repository.trigger, true);
+        assertEquals(List.of(AlarmStatus.ALARM), repository.alarmChanges);
+
+        repository.reset();
+        repository.armingStatus = ArmingStatus.ARMED_HOME;
+        repository.alarmStatus = AlarmStatus.PENDING_ALARM;
+        service.changeSensorActivationStatus(repository.trigger, false);
+        service.changeSensorActivationStatus(repository.trigger, true);
+        assertEquals(List.of(AlarmStatus.PENDING_ALARM), repository.alarmChanges);
+        assertEquals(3, rules.getRuleCount());
+    }
+
+    @Test
+    void resolve_shouldOnlyScanSensorsWhenTheRulesNeedIt() {
+        AlarmTransitionTable rules = AlarmTransitionTable.defaults();
+        int[] scans = {0};
+
+        rules.resolve(Event.SENSOR_ACTIVATED, ArmingStatus.ARMED_HOME, AlarmStatus.NO_ALARM, false, () -> scans[0]++ == 0);
+        assertEquals(0, scans[0]);
+
+        assertEquals(AlarmStatus.NO_ALARM, rules.resolve(Event.SENSOR_DEACTIVATED, ArmingStatus.ARMED_HOME,
+                AlarmStatus.PENDING_ALARM, false, () -> scans[0]++ == 0).alarmStatus());
+        assertEquals(1, scans[0]);
+    }
+
+    @Test
+    void malformedRules_shouldNameTheLine() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> AlarmTransitionTable.compile(
+                new StringReader("CAT_DETECTED ARMED_HOME * * -> ALARM\n\nCAT_DETECTED ARMED_NOWHERE * * -> ALARM\n")));
+        assertTrue(error.getMessage().startsWith("Line 3: unknown status 'ARMED_NOWHERE'"), error.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> AlarmTransitionTable.compile(new StringReader("CAT_DETECTED * * -> ALARM")));
+        assertThrows(IllegalArgumentException.class, () -> AlarmTransitionTable.compile(new StringReader("CAT_DETECTED * * SUNNY -> ALARM")));
+    }
+
+    @Test
+    void sensorEvents_shouldReadTheStatusLessOftenThanLegacyBranches() {
+        int events = 1_000;
+        RecordingRepository legacyRepository = new RecordingRepository(ArmingStatus.ARMED_HOME, AlarmStatus.NO_ALARM, true, Event.SENSOR_ACTIVATED);
+        LegacySecurityService legacy = new LegacySecurityService(legacyRepository, false);
+        RecordingRepository tableRepository = new RecordingRepository(ArmingStatus.ARMED_HOME, AlarmStatus.NO_ALARM, true, Event.SENSOR_ACTIVATED);
+        SecurityService service = new SecurityService(tableRepository, new PresetImageService());
+        legacyRepository.recording = false;
+        tableRepository.recording = false;
+        legacyRepository.reset();
+        tableRepository.reset();
+
+        for (int i = 0; i < events; i++) {
+            legacyRepository.alarmStatus = AlarmStatus.values()[i % 3];
+            legacy.handle(i % 2 == 0 ? Event.SENSOR_ACTIVATED : Event.SENSOR_DEACTIVATED, legacyRepository.trigger, ArmingStatus.ARMED_HOME);
+            tableRepository.alarmStatus = AlarmStatus.values()[i % 3];
+            service.changeSensorActivationStatus(tableRepository.trigger, i % 2 == 0);
+        }
+
+        assertTrue(tableRepository.statusReads() < legacyRepository.statusReads(),
+                "table " + tableRepository.statusReads() + " reads vs legacy " + legacyRepository.statusReads());
+    }
+
+    private static <T> List<T> withNull(T[] values) {
+        List<T> list = new ArrayList<>(Arrays.asList(values));
+        list.add(null);
+        return list;
+    }
+
+    /**
+     * SecurityService's alarm logic as it was before the transition table, kept as the reference.
+     */
+    private static final class LegacySecurityService {
+        private final SecurityRepository securityRepository;
+        private final boolean catDetected;
+        private final Set<StatusListener> statusListeners = new HashSet<>();
+
+        private LegacySecurityService(SecurityRepository securityRepository, boolean catDetected) {
+            this.securityRepository = securityRepository;
+            this.catDetected = catDetected;
+        }
+
+        private synchronized void handle(Event event, Sensor trigger, ArmingStatus arming) {
+            switch (event) {
+                case ARMING_CHANGED -> setArmingStatus(arming);
+                case SENSOR_ACTIVATED -> changeSensorActivationStatus(trigger, true);
+                case SENSOR_DEACTIVATED -> changeSensorActivationStatus(trigger, false);
+                case CAT_DETECTED -> applyCameraResult(true);
+                case CAT_CLEARED -> applyCameraResult(false);
+            }
+        }
+
+        private void setArmingStatus(ArmingStatus armingStatus) {
+            securityRepository.setArmingStatus(armingStatus);
+            if (armingStatus == ArmingStatus.DISARMED) {
+                securityRepository.setAlarmStatus(AlarmStatus.NO_ALARM);
+            } else {
+                for (Sensor sensor : securityRepository.getSensors()) {
+                    if (sensor.getActive()) {
+                        sensor.setActive(false);
+                        securityRepository.updateSensor(sensor);
+                    }
+                }
+                if (armingStatus == ArmingStatus.ARMED_HOME && catDetected) {
+                    securityRepository.setAlarmStatus(AlarmStatus.ALARM);
+                }
+            }
+        }
+
+        private void changeSensorActivationStatus(Sensor sensor, Boolean active) {
+            if (sensor.getActive() == active) {
+                return;
+            }
+            sensor.setActive(active);
+            securityRepository.updateSensor(sensor);
+            if (securityRepository.getArmingStatus() == ArmingStatus.DISARMED) {
+                statusListeners.forEach(StatusListener::sensorStatusChanged);
+                return;
+            }
+            if (securityRepository.getAlarmStatus() == AlarmStatus.ALARM) {
+                statusListeners.forEach(StatusListener::sensorStatusChanged);
+                return;
+            }
+            if (active) {
+                handleSensorActivated();
+            } else {
+                handleSensorDeactivated();
+            }
+            statusListeners.forEach(StatusListener::sensorStatusChanged);
+        }
+
+        private void handleSensorActivated() {
+            if (securityRepository.getArmingStatus() == ArmingStatus.DISARMED) return;
+            switch (securityRepository.getAlarmStatus()) {
+                case NO_ALARM -> securityRepository.setAlarmStatus(AlarmStatus.PENDING_ALARM);
+                case PENDING_ALARM -> securityRepository.setAlarmStatus(AlarmStatus.ALARM);
+                default -> { }
+            }
+        }
+
+        private void handleSensorDeactivated() {
+            if (securityRepository.getAlarmStatus() == AlarmStatus.PENDING_ALARM && allSensorsInactive()) {
+                securityRepository.setAlarmStatus(AlarmStatus.NO_ALARM);
+            }
+        }
+
+        private void applyCameraResult(boolean cameraSeesCat) {
+            ArmingStatus armingStatus = securityRepository.getArmingStatus();
+            if (cameraSeesCat && armingStatus == ArmingStatus.ARMED_HOME) {
+                securityRepository.setAlarmStatus(AlarmStatus.ALARM);
+            } else if (!cameraSeesCat && allSensorsInactive()) {
+                securityRepository.setAlarmStatus(AlarmStatus.NO_ALARM);
+            }
+        }
+
+        private boolean allSensorsInactive() {
+            return securityRepository.getSensors().stream().noneMatch(Sensor::getActive);
+        }
+    }
+
+    /**
+     * Repository holding a trigger sensor and one other sensor, recording what the alarm logic does.
+     */
+    private static final class RecordingRepository implements SecurityRepository {
+        private final Sensor trigger = new Sensor("Trigger", SensorType.DOOR);
+        private final Sensor other = new Sensor("Other", SensorType.WINDOW);
+        private final List<AlarmStatus> alarmChanges = new ArrayList<>();
+        private final List<String> updatedSensors = new ArrayList<>();
+        private ArmingStatus armingStatus;
+        private AlarmStatus alarmStatus;
+        private long armingReads;
+        private long alarmReads;
+        private boolean recording = true;
+
+        private RecordingRepository(ArmingStatus armingStatus, AlarmStatus alarmStatus, boolean otherActive, Event event) {
+            this.armingStatus = armingStatus;
+            this.alarmStatus = alarmStatus;
+            other.setActive(otherActive);
+            trigger.setActive(event == Event.SENSOR_DEACTIVATED);
+        }
+
+        private void reset() {
+            alarmChanges.clear();
+            updatedSensors.clear();
+            armingReads = 0;
+            alarmReads = 0;
+        }
+
+        private long statusReads() {
+            return armingReads + alarmReads;
+        }
+
+        @Override
+        public void addSensor(Sensor sensor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removeSensor(Sensor sensor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void updateSensor(Sensor sensor) {
+            if (recording) {
+                updatedSensors.add(sensor.getName() + "=" + sensor.getActive());
+            }
+        }
+
+        @Override
+        public void setAlarmStatus(AlarmStatus alarmStatus) {
+            this.alarmStatus = alarmStatus;
+            if (recording) {
+                alarmChanges.add(alarmStatus);
+            }
+        }
+
+        @Override
+        public void setArmingStatus(ArmingStatus armingStatus) {
+            this.armingStatus = armingStatus;
+        }
+
+        @Override
+        public Set<Sensor> getSensors() {
+            return new TreeSet<>(List.of(trigger, other));
+        }
+
+        @Override
+        public AlarmStatus getAlarmStatus() {
+            alarmReads++;
+            return alarmStatus;
+        }
+
+        @Override
+        public ArmingStatus getArmingStatus() {
+            armingReads++;
+            return armingStatus;
+        }
+    }
+
+    /**
+     * Reports a cat for one particular frame only.
+     */
+    private static final class PresetImageService implements ImageService {
+        private static final BufferedImage CAT = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+
+        @Override
+        public boolean imageContainsCat(BufferedImage image, float confidenceThreshold) {
+            return image == CAT;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.udacity.catpoint.security.service;
+
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.security.application.InMemorySecurityRepository;
+import com.udacity.catpoint.security.application.StatusListener;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import com.udacity.catpoint.security.service.PriorityLaneExecutor.Lane;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PriorityLaneExecutor and SecurityEventDispatcher. Sensor-to-alarm latency with
+ * the image lane saturated is measured by PriorityLaneBenchmark.
+ */
+public class PriorityLaneExecutorTest {
+
+    private final List<PriorityLaneExecutor> executors = new ArrayList<>();
+
+    @AfterEach
+    void closeExecutors() {
+        executors.forEach(PriorityLaneExecutor::close);
+    }
+
+    private PriorityLaneExecutor executor(int workers) {
+        PriorityLaneExecutor executor = new PriorityLaneExecutor(workers);
+        executors.add(executor);
+        return executor;
+    }
+
+    @Test
+    void queuedTasks_shouldRunInLanePriorityOrder() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(1).start();
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        executor.submit(Lane.SENSOR, () -> await(release));
+
+        executor.submit(Lane.NOTIFY, () -> order.add("notify"));
+        executor.submit(Lane.IMAGE, () -> order.add("image-1"));
+        executor.submit(Lane.SENSOR, () -> order.add("sensor"));
+        executor.submit(Lane.IMAGE, () -> order.add("image-2"));
+        executor.submit(Lane.ALARM, () -> order.add("alarm"));
+        release.countDown();
+
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(List.of("alarm", "sensor", "image-1", "image-2", "notify"), order);
+        assertEquals(2, executor.getCompletedCount(Lane.IMAGE));
+    }
+
+    @Test
+    void fullLane_shouldRejectWithoutAffectingOthers() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(1).withQueueCapacity(Lane.IMAGE, 2).start();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(Lane.ALARM, () -> await(release));
+
+        assertTrue(executor.submit(Lane.IMAGE, () -> { }));
+        assertTrue(executor.submit(Lane.IMAGE, () -> { }));
+        assertFalse(executor.submit(Lane.IMAGE, () -> { }));
+        assertTrue(executor.submit(Lane.SENSOR, () -> { }));
+        assertEquals(2, executor.getQueued(Lane.IMAGE));
+        assertEquals(1, executor.getRejectedCount(Lane.IMAGE));
+        release.countDown();
+
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(2, executor.getCompletedCount(Lane.IMAGE));
+        assertEquals(1, executor.getCompletedCount(Lane.SENSOR));
+    }
+
+    @Test
+    void lowerLanes_shouldLeaveReservedWorkersIdle() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(4).withReservedWorkers(1).start();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        for (int i = 0; i < 30; i++) {
+            executor.submit(Lane.IMAGE, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                running.decrementAndGet();
+            });
+        }
+
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(3, maxRunning.get());
+    }
+
+    @Test
+    void starvedLane_shouldBeServedAfterMaxWait() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(1).withMaxWait(Duration.ofMillis(30)).start();
+        AtomicLong imageRanAt = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        // Keeps the sensor lane busy for half a second by resubmitting itself
+        Runnable flood = new Runnable() {
+            @Override
+            public void run() {
+                sleep(2);
+                if (System.nanoTime() < deadline) {
+                    executor.submit(Lane.SENSOR, this);
+                }
+            }
+        };
+        executor.submit(Lane.SENSOR, flood);
+        executor.submit(Lane.SENSOR, flood);
+        long submitted = System.nanoTime();
+        executor.submit(Lane.IMAGE, () -> imageRanAt.set(System.nanoTime()));
+
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        double waitedMillis = (imageRanAt.get() - submitted) / 1e6;
+        assertTrue(waitedMillis < 200, "image task waited " + waitedMillis + " ms");
+        assertTrue(executor.getPromotionCount() >= 1);
+    }
+
+    @Test
+    void heldBackTask_shouldStartAfterMaxWaitWithoutNewSubmissions() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(2).withReservedWorkers(1).withMaxWait(Duration.ofMillis(20)).start();
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondRan = new CountDownLatch(1);
+        executor.submit(Lane.IMAGE, () -> {
+            firstRunning.countDown();
+            await(release);
+        });
+        assertTrue(firstRunning.await(5, TimeUnit.SECONDS));
+
+        // Held back by the reservation until it has waited 20 ms
+        executor.submit(Lane.IMAGE, secondRan::countDown);
+
+        assertTrue(secondRan.await(2, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void shutdown_shouldFinishQueuedTasksAndRejectNewOnes() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(2).start();
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            executor.submit(Lane.SENSOR, () -> {
+                sleep(1);
+                ran.incrementAndGet();
+            });
+        }
+
+        executor.shutdown();
+
+        assertFalse(executor.submit(Lane.ALARM, ran::incrementAndGet));
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(10, ran.get());
+    }
+
+    @Test
+    void failingTask_shouldNotStopTheWorker() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(1).start();
+        AtomicInteger ran = new AtomicInteger();
+
+        executor.submit(Lane.SENSOR, () -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.submit(Lane.SENSOR, ran::incrementAndGet);
+
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(1, ran.get());
+    }
+
+    @Test
+    void dispatcher_shouldRunListenersOnTheNotifyLane() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(2).start();
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService(1));
+        SecurityEventDispatcher dispatcher = new SecurityEventDispatcher(securityService, executor);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch alarm = new CountDownLatch(1);
+        dispatcher.addStatusListener(new RecordingListener() {
+            @Override
+            public void notify(AlarmStatus status) {
+                threads.add(Thread.currentThread().getName());
+                if (status == AlarmStatus.PENDING_ALARM) {
+                    alarm.countDown();
+                }
+            }
+        });
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        securityService.addSensor(door);
+
+        assertTrue(dispatcher.setArmingStatus(ArmingStatus.ARMED_AWAY));
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertTrue(dispatcher.changeSensorActivationStatus(door, true));
+
+        assertTrue(alarm.await(5, TimeUnit.SECONDS));
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(AlarmStatus.PENDING_ALARM, securityService.getAlarmStatus());
+        assertTrue(executor.getCompletedCount(Lane.NOTIFY) >= 2);
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("priority-lane-")));
+    }
+
+    @Test
+    void dispatcher_shouldApplyArmingAheadOfQueuedSensorChanges() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(1).start();
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService(1));
+        SecurityEventDispatcher dispatcher = new SecurityEventDispatcher(securityService, executor);
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        securityService.addSensor(door);
+        List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        securityService.addStatusListener(new RecordingListener() {
+            @Override
+            public void notify(ArmingStatus status) {
+                applied.add(status.name());
+            }
+
+            @Override
+            public void sensorActivationChanged(Sensor sensor, boolean active) {
+                applied.add(active ? "open" : "close");
+            }
+        });
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(Lane.SENSOR, () -> await(release));
+
+        List<String> expected = new ArrayList<>(List.of("ARMED_AWAY", "DISARMED"));
+        for (int i = 0; i < 100; i++) {
+            boolean active = i % 2 == 0;
+            assertTrue(dispatcher.changeSensorActivationStatus(door, active));
+            expected.add(active ? "open" : "close");
+        }
+        assertTrue(dispatcher.setArmingStatus(ArmingStatus.ARMED_AWAY));
+        assertTrue(dispatcher.setArmingStatus(ArmingStatus.DISARMED));
+        release.countDown();
+
+        // Arming changes overtake the queued sensor changes; each queue keeps its own order
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(expected, applied);
+        assertEquals(ArmingStatus.DISARMED, securityService.getArmingStatus());
+    }
+
+    @Test
+    void dispatcher_shouldLetArmingPreemptARunningSensorBurst() throws InterruptedException {
+        // With one worker busy draining sensor changes, the alarm drain cannot start on its own
+        PriorityLaneExecutor executor = executor(1).start();
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService(1));
+        SecurityEventDispatcher dispatcher = new SecurityEventDispatcher(securityService, executor);
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        securityService.addSensor(door);
+        AtomicInteger sensorChanges = new AtomicInteger();
+        AtomicInteger armedAfter = new AtomicInteger(-1);
+        CountDownLatch burstRunning = new CountDownLatch(5);
+        securityService.addStatusListener(new RecordingListener() {
+            @Override
+            public void notify(ArmingStatus status) {
+                armedAfter.set(sensorChanges.get());
+            }
+
+            @Override
+            public void sensorActivationChanged(Sensor sensor, boolean active) {
+                sensorChanges.incrementAndGet();
+                burstRunning.countDown();
+                sleep(1);
+            }
+        });
+
+        for (int i = 0; i < 500; i++) {
+            assertTrue(dispatcher.changeSensorActivationStatus(door, i % 2 == 0));
+        }
+        await(burstRunning);
+        int appliedBeforeArming = sensorChanges.get();
+        // Disarming leaves the sensors alone, so every sensor change still takes effect
+        assertTrue(dispatcher.setArmingStatus(ArmingStatus.DISARMED));
+
+        assertTrue(executor.awaitIdle(10, TimeUnit.SECONDS));
+        assertEquals(500, sensorChanges.get());
+        assertTrue(armedAfter.get() <= appliedBeforeArming + 2,
+                "armed after " + armedAfter.get() + " sensor changes, submitted after " + appliedBeforeArming);
+    }
+
+    @Test
+    void dispatcher_shouldNotRunStateChangesConcurrently() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(4).withReservedWorkers(0).start();
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService(1));
+        SecurityEventDispatcher dispatcher = new SecurityEventDispatcher(securityService, executor);
+        Sensor door = new Sensor("Door", SensorType.DOOR);
+        securityService.addSensor(door);
+        List<Boolean> applied = Collections.synchronizedList(new ArrayList<>());
+        securityService.addStatusListener(new RecordingListener() {
+            @Override
+            public void sensorStatusChanged() {
+                applied.add(door.getActive());
+            }
+        });
+
+        List<Boolean> submitted = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            boolean active = i % 2 == 0;
+            assertTrue(dispatcher.changeSensorActivationStatus(door, active));
+            submitted.add(active);
+        }
+
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(submitted, applied);
+    }
+
+    @Test
+    void dispatcher_shouldDeliverCallbacksInOrder() throws InterruptedException {
+        PriorityLaneExecutor executor = executor(4).withReservedWorkers(0).start();
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService(1));
+        SecurityEventDispatcher dispatcher = new SecurityEventDispatcher(securityService, executor);
+        List<AlarmStatus> received = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.addStatusListener(new RecordingListener() {
+            @Override
+            public void notify(AlarmStatus status) {
+                // Slow enough that later callbacks are queued while this one runs
+                sleep(status.ordinal());
+                received.add(status);
+            }
+        });
+
+        List<AlarmStatus> sent = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            AlarmStatus status = AlarmStatus.values()[i % AlarmStatus.values().length];
+            securityService.setAlarmStatus(status);
+            sent.add(status);
+        }
+
+        assertTrue(executor.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(sent, received);
+        assertEquals(0, dispatcher.getDroppedNotificationCount());
+    }
+
+    @Test
+    void dispatcher_shouldCountCallbacksItCannotDeliver() {
+        PriorityLaneExecutor executor = executor(1).start();
+        SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService(1));
+        SecurityEventDispatcher dispatcher = new SecurityEventDispatcher(securityService, executor);
+        dispatcher.addStatusListener(new RecordingListener());
+        executor.shutdown();
+
+        securityService.setAlarmStatus(AlarmStatus.ALARM);
+
+        assertEquals(1, dispatcher.getDroppedNotificationCount());
+        assertFalse(dispatcher.setArmingStatus(ArmingStatus.ARMED_HOME));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingListener implements StatusListener {
+        @Override
+        public void notify(AlarmStatus status) {
+        }
+
+        @Override
+        public void notify(ArmingStatus status) {
+        }
+
+        @Override
+        public void catDetected(boolean catDetected) {
+        }
+
+        @Override
+        public void sensorStatusChanged() {
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.udacity.catpoint.security.service;
 
+import com.udacity.catpoint.image.DetectionResult;
 import com.udacity.catpoint.image.ImageService;
 import com.udacity.catpoint.security.application.StatusListener;
 import com.udacity.catpoint.security.data.*;
@@ -12,8 +13,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyFloat;
@@ -40,6 +46,11 @@ public class SecurityServiceTest {
     private SecurityService securityService;
     private Sensor sensor;
 
+    private static DetectionResult detection(boolean cat) {
+        return cat ? new DetectionResult(90f, List.of(new DetectionResult.Label("Cat", 90f)), List.of())
+                : DetectionResult.NONE;
+    }
+
     @BeforeEach
     void setup() {
         securityService = new SecurityService(repository, imageService);
@@ -71,7 +82,7 @@ public class SecurityServiceTest {
     @Test
     void sensorDeactivated_whenPendingAndAllSensorsInactive_shouldSetNoAlarm() {
         sensor.setActive(true);
-        when(repository.getSensors()).thenReturn(Set.of(sensor));
+        when(repository.isAnySensorActive()).thenReturn(false);
         when(repository.getAlarmStatus()).thenReturn(AlarmStatus.PENDING_ALARM);
 
         securityService.changeSensorActivationStatus(sensor, false);
@@ -110,7 +121,7 @@ public class SecurityServiceTest {
     // Requirement 7: If camera detects cat and system armed-home → Alarm.
     @Test
     void processImage_catDetectedWhileArmedHome_shouldTriggerAlarm() {
-        when(imageService.imageContainsCat(any(BufferedImage.class), anyFloat())).thenReturn(true);
+        when(imageService.detectLabels(any(BufferedImage.class), anyFloat())).thenReturn(detection(true));
         when(repository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
 
         securityService.processImage(new BufferedImage(60, 60, BufferedImage.TYPE_INT_RGB));
@@ -120,6 +131,7 @@ public class SecurityServiceTest {
     // Requirement 8: If camera sees no cat and no sensors active → No alarm.
     @Test
     void processImage_noCatDetected_shouldSetNoAlarmIfSensorsInactive() {
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(DetectionResult.NONE);
         securityService.processImage(new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
         verify(repository).setAlarmStatus(AlarmStatus.NO_ALARM);
     }
@@ -150,7 +162,7 @@ public class SecurityServiceTest {
     // Requirement 11: If system armed-home while camera shows cat → Alarm immediately.
     @Test
     void previouslyDetectedCat_thenArmedHome_shouldTriggerAlarmImmediately() {
-        when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(true);
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(detection(true));
         securityService.processImage(new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
 
         securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
@@ -189,7 +201,7 @@ public class SecurityServiceTest {
     // Listener behavior validation
     @Test
     void addAndNotifyListener_catDetected_shouldInvokeListener() {
-        when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(true);
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(detection(true));
         securityService.processImage(new BufferedImage(40, 40, BufferedImage.TYPE_INT_RGB));
         verify(statusListener).catDetected(true);
     }
@@ -197,7 +209,7 @@ public class SecurityServiceTest {
     @Test
     void removeListener_shouldStopNotifying() {
         securityService.removeStatusListener(statusListener);
-        when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(true);
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(detection(true));
         securityService.processImage(new BufferedImage(30, 30, BufferedImage.TYPE_INT_RGB));
         verify(statusListener, never()).catDetected(anyBoolean());
     }
@@ -240,17 +252,15 @@ public class SecurityServiceTest {
     }
     @Test
     void processImage_catDetectedWhileArmedAway_shouldNotTriggerAlarm() {
-        when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(true);
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(detection(true));
         when(repository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_AWAY);
         securityService.processImage(new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
         verify(repository, never()).setAlarmStatus(AlarmStatus.ALARM);
     }
     @Test
     void processImage_noCatDetected_andSensorsActive_shouldNotSetNoAlarm() {
-        Sensor activeSensor = new Sensor("Back Door", SensorType.DOOR);
-        activeSensor.setActive(true);
-        when(repository.getSensors()).thenReturn(Set.of(activeSensor));
-        when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(false);
+        when(repository.isAnySensorActive()).thenReturn(true);
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(detection(false));
         securityService.processImage(new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
         verify(repository, never()).setAlarmStatus(AlarmStatus.NO_ALARM);
     }
@@ -263,6 +273,75 @@ public class SecurityServiceTest {
         verify(repository, never()).setAlarmStatus(AlarmStatus.NO_ALARM);
     }
 
+    // Multi-camera: the home has a cat while any camera sees one
+    @Test
+    void processImage_catOnOneCameraOnly_shouldKeepCatDetected() {
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(detection(true), detection(false));
+        securityService.processImage("front", new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
+        securityService.processImage("back", new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
+
+        assertTrue(securityService.isCatDetected());
+        assertTrue(securityService.isCatDetected("front"));
+        assertFalse(securityService.isCatDetected("back"));
+        verify(repository, never()).setAlarmStatus(AlarmStatus.NO_ALARM);
 
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+        verify(repository).setAlarmStatus(AlarmStatus.ALARM);
+    }
+
+    @Test
+    void processImage_catLeavesLastCamera_shouldSetNoAlarm() {
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(detection(true), detection(false));
+        securityService.processImage("front", new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
+        securityService.processImage("front", new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
+
+        assertFalse(securityService.isCatDetected());
+        verify(repository).setAlarmStatus(AlarmStatus.NO_ALARM);
+        verify(statusListener).catDetected(false);
+    }
+
+    @Test
+    void catConfidenceThreshold_change_shouldJudgeTheLastDetectionAgainWithoutAnotherCall() {
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(detection(true));
+        securityService.processImage("front", new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
+        assertTrue(securityService.isCatDetected());
 
+        securityService.setCatConfidenceThreshold(95f);
+
+        assertFalse(securityService.isCatDetected());
+        verify(statusListener).catDetected(false);
+        verify(imageService, times(1)).detectLabels(any(), anyFloat());
+        verify(imageService, never()).imageContainsCat(any(), anyFloat());
+    }
+
+    @Test
+    void processImage_serviceWithoutConfidences_shouldBeAskedAgainAtTheThreshold() {
+        List<Float> thresholds = new ArrayList<>();
+        SecurityService yesNoService = new SecurityService(repository, (image, threshold) -> {
+            thresholds.add(threshold);
+            return threshold <= 30f;
+        });
+
+        yesNoService.processImage(new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
+
+        // A cat at the floor does not settle 50, so the service is asked again there
+        assertEquals(List.of(DetectionResult.DEFAULT_MIN_CONFIDENCE, SecurityService.CAT_CONFIDENCE_THRESHOLD), thresholds);
+        assertFalse(yesNoService.isCatDetected());
+    }
+
+    @Test
+    void removeCamera_lastCameraSeeingCat_shouldClearCat() {
+        when(imageService.detectLabels(any(), anyFloat())).thenReturn(detection(true), detection(false));
+        securityService.processImage("front", new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
+        securityService.processImage("back", new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB));
+
+        securityService.removeCamera("front");
+
+        assertFalse(securityService.isCatDetected());
+        verify(repository).setAlarmStatus(AlarmStatus.NO_ALARM);
+        verify(statusListener).catDetected(false);
+
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+        verify(repository, never()).setAlarmStatus(AlarmStatus.ALARM);
+    }
 }
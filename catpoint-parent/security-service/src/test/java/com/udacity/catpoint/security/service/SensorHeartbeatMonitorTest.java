@@ -0,0 +1,321 @@
+package com.udacity.catpoint.security.service;
+
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.security.application.InMemorySecurityRepository;
+import com.udacity.catpoint.security.application.StatusListener;
+import com.udacity.catpoint.security.data.AlarmStatus;
+import com.udacity.catpoint.security.data.ArmingStatus;
+import com.udacity.catpoint.security.data.Sensor;
+import com.udacity.catpoint.security.data.SensorType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HierarchicalTimingWheel and SensorHeartbeatMonitor. Timer overhead at 200k
+ * sensors is measured by SensorHeartbeatBenchmark.
+ */
+public class SensorHeartbeatMonitorTest {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final SecurityService securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService());
+    private final List<String> events = new ArrayList<>();
+
+    @Test
+    void wheel_shouldFireEveryTimerWithinOneTickOfItsDeadline() {
+        HierarchicalTimingWheel<long[]> wheel = new HierarchicalTimingWheel<>(Duration.ofNanos(TICK_NANOS), 0);
+        Random random = new Random(7);
+        List<long[]> deadlines = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Spread over every level, and a few beyond the wheel's 2^24-tick range
+            long ticks = i % 100 == 0 ? (1L << 24) + random.nextInt(1 << 20) : (long) Math.pow(2, random.nextDouble() * 24);
+            long[] deadline = {ticks * TICK_NANOS - random.nextInt((int) TICK_NANOS), -1};
+            deadlines.add(deadline);
+            wheel.schedule(wheel.newTimer(deadline), deadline[0]);
+        }
+
+        long time = 0;
+        long limit = ((1L << 25) + (1 << 20)) * TICK_NANOS;
+        while (wheel.size() > 0 && time < limit) {
+            // Uneven steps, as a late ticker thread would make
+            time += TICK_NANOS * (1 + random.nextInt(3000));
+            long firedAt = time;
+            wheel.advance(time, deadline -> deadline[1] = firedAt);
+        }
+
+        assertEquals(0, wheel.size());
+        for (long[] deadline : deadlines) {
+            assertTrue(deadline[1] >= deadline[0], "fired early");
+        }
+    }
+
+    @Test
+    void wheel_shouldFireInTickOrder() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(Duration.ofNanos(TICK_NANOS), 0);
+        long[] ticks = {5000, 1, 64, 4096, 63, 262_144, 65, 4095};
+        for (long tick : ticks) {
+            wheel.schedule(wheel.newTimer(tick), tick * TICK_NANOS);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        long time = 0;
+        while (wheel.size() > 0) {
+            time += TICK_NANOS;
+            long expected = time / TICK_NANOS;
+            wheel.advance(time, tick -> {
+                assertEquals(expected, tick.longValue());
+                fired.add(tick);
+            });
+        }
+
+        assertEquals(List.of(1L, 63L, 64L, 65L, 4095L, 4096L, 5000L, 262_144L), fired);
+    }
+
+    @Test
+    void wheel_cancelledAndRescheduledTimers_shouldNotFireAtOldDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(Duration.ofNanos(TICK_NANOS), 0);
+        HierarchicalTimingWheel.Timer<String> cancelled = wheel.newTimer("cancelled");
+        HierarchicalTimingWheel.Timer<String> moved = wheel.newTimer("moved");
+        wheel.schedule(cancelled, 10 * TICK_NANOS);
+        wheel.schedule(moved, 10 * TICK_NANOS);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        wheel.schedule(moved, 5000 * TICK_NANOS);
+
+        List<String> fired = new ArrayList<>();
+        assertEquals(0, wheel.advance(4999 * TICK_NANOS, fired::add));
+        assertEquals(1, wheel.advance(5000 * TICK_NANOS, fired::add));
+        assertEquals(List.of("moved"), fired);
+        assertFalse(moved.isScheduled());
+    }
+
+    @Test
+    void missedHeartbeat_shouldMarkSensorStaleAndNotifyListeners() {
+        SensorHeartbeatMonitor monitor = monitor().withTimeout(SensorType.DOOR, Duration.ofSeconds(30));
+        Sensor door = new Sensor("Front Door", SensorType.DOOR);
+        securityService.addSensor(door);
+
+        monitor.heartbeat(door);
+        advance(Duration.ofSeconds(29));
+        assertEquals(0, monitor.expireDue());
+        assertFalse(securityService.isSensorStale(door));
+
+        advance(Duration.ofSeconds(2));
+        assertEquals(1, monitor.expireDue());
+        assertTrue(securityService.isSensorStale(door));
+        assertEquals(1, monitor.getStaleCount());
+
+        monitor.heartbeat(door);
+        assertFalse(securityService.isSensorStale(door));
+        assertEquals(0, monitor.getStaleCount());
+        assertEquals(List.of("Front Door stale", "Front Door live"), events);
+    }
+
+    @Test
+    void timeouts_shouldApplyPerSensorType() {
+        SensorHeartbeatMonitor monitor = monitor()
+                .withTimeout(SensorType.MOTION, Duration.ofSeconds(10))
+                .withTimeout(SensorType.WINDOW, Duration.ofMinutes(10));
+        Sensor motion = new Sensor("Hall", SensorType.MOTION);
+        Sensor window = new Sensor("Kitchen", SensorType.WINDOW);
+        securityService.addSensor(motion);
+        securityService.addSensor(window);
+        monitor.heartbeat(motion);
+        monitor.heartbeat(window);
+
+        advance(Duration.ofMinutes(1));
+        monitor.expireDue();
+
+        assertTrue(securityService.isSensorStale(motion));
+        assertFalse(securityService.isSensorStale(window));
+    }
+
+    @Test
+    void untrackedSensor_shouldNeverGoStale() {
+        SensorHeartbeatMonitor monitor = monitor();
+        Sensor door = new Sensor("Back Door", SensorType.DOOR);
+        monitor.heartbeat(door);
+
+        assertTrue(monitor.untrack(door));
+        advance(SensorHeartbeatMonitor.DEFAULT_TIMEOUT.multipliedBy(2));
+
+        assertEquals(0, monitor.expireDue());
+        assertEquals(0, monitor.getTrackedCount());
+    }
+
+    @Test
+    void expiry_shouldLookUpSensorsWithoutCopyingThem() {
+        AtomicInteger copies = new AtomicInteger();
+        SecurityService countingService = new SecurityService(new InMemorySecurityRepository() {
+            @Override
+            public synchronized Set<Sensor> getSensors() {
+                copies.incrementAndGet();
+                return super.getSensors();
+            }
+        }, new FakeImageService());
+        SensorHeartbeatMonitor monitor = new SensorHeartbeatMonitor(countingService, Duration.ofNanos(TICK_NANOS), now::get);
+        Sensor door = new Sensor("Front Door", SensorType.DOOR);
+        Sensor stranger = new Sensor("Never Added", SensorType.DOOR);
+        countingService.addSensor(door);
+        copies.set(0);
+
+        monitor.heartbeat(door);
+        monitor.heartbeat(stranger);
+        advance(SensorHeartbeatMonitor.DEFAULT_TIMEOUT.plusSeconds(1));
+
+        assertEquals(1, monitor.expireDue());
+        assertTrue(countingService.isSensorStale(door));
+        assertFalse(countingService.isSensorStale(stranger));
+        assertEquals(1, monitor.getTrackedCount());
+        assertEquals(0, copies.get());
+    }
+
+    @Test
+    void untrackedStaleSensor_shouldBeMarkedLive() {
+        SensorHeartbeatMonitor monitor = monitor();
+        Sensor door = new Sensor("Back Door", SensorType.DOOR);
+        securityService.addSensor(door);
+        monitor.heartbeat(door);
+        advance(SensorHeartbeatMonitor.DEFAULT_TIMEOUT.multipliedBy(2));
+        monitor.expireDue();
+
+        assertTrue(monitor.untrack(door));
+
+        assertFalse(securityService.isSensorStale(door));
+        assertEquals(0, monitor.getStaleCount());
+        assertEquals(List.of("Back Door stale", "Back Door live"), events);
+    }
+
+    @Test
+    void removedSensor_shouldStopBeingTracked() {
+        SensorHeartbeatMonitor monitor = monitor().withTimeout(SensorType.DOOR, Duration.ofSeconds(30));
+        Sensor door = new Sensor("Front Door", SensorType.DOOR);
+        securityService.addSensor(door);
+        monitor.heartbeat(door);
+
+        securityService.removeSensor(door);
+        advance(Duration.ofMinutes(1));
+
+        assertEquals(0, monitor.getTrackedCount());
+        assertEquals(0, monitor.expireDue());
+        assertFalse(securityService.isSensorStale(door));
+    }
+
+    @Test
+    void sensorRemovedAfterTimeout_shouldNotStayStale() {
+        SensorHeartbeatMonitor monitor = monitor().withTimeout(SensorType.DOOR, Duration.ofSeconds(30));
+        Sensor door = new Sensor("Front Door", SensorType.DOOR);
+        securityService.addSensor(door);
+        monitor.heartbeat(door);
+        advance(Duration.ofMinutes(1));
+        assertEquals(1, monitor.expireDue());
+
+        securityService.removeSensor(door);
+
+        assertFalse(securityService.isSensorStale(door));
+        assertEquals(0, monitor.getTrackedCount());
+        assertEquals(0, monitor.getStaleCount());
+
+        // A late heartbeat from the removed sensor must not mark it stale again
+        monitor.heartbeat(door);
+        advance(Duration.ofMinutes(1));
+        assertEquals(0, monitor.expireDue());
+        assertFalse(securityService.isSensorStale(door));
+        assertEquals(0, monitor.getTrackedCount());
+    }
+
+    @Test
+    void staleSensor_shouldKeepPendingAlarm() {
+        SensorHeartbeatMonitor monitor = monitor().withTimeout(SensorType.WINDOW, Duration.ofSeconds(30));
+        Sensor window = new Sensor("Bedroom", SensorType.WINDOW);
+        Sensor door = new Sensor("Front Door", SensorType.DOOR);
+        securityService.addSensor(window);
+        securityService.addSensor(door);
+        securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+        monitor.heartbeat(window);
+
+        securityService.changeSensorActivationStatus(door, true);
+        advance(Duration.ofMinutes(1));
+        monitor.expireDue();
+        securityService.changeSensorActivationStatus(door, false);
+
+        assertEquals(AlarmStatus.PENDING_ALARM, securityService.getAlarmStatus());
+    }
+
+    @Test
+    void manySensors_shouldGoStaleOnlyAfterHeartbeatsStop() {
+        int sensorCount = 2_000;
+        SensorHeartbeatMonitor monitor = monitor();
+        for (SensorType type : SensorType.values()) {
+            monitor.withTimeout(type, Duration.ofSeconds(30));
+        }
+        Sensor[] sensors = new Sensor[sensorCount];
+        for (int i = 0; i < sensorCount; i++) {
+            sensors[i] = new Sensor("Sensor " + i, SensorType.values()[i % SensorType.values().length]);
+            securityService.addSensor(sensors[i]);
+            monitor.heartbeat(sensors[i]);
+        }
+
+        // Every sensor reports every ten simulated seconds for two minutes; the ticker runs ten times a second
+        for (int round = 0; round < 12; round++) {
+            for (int t = 0; t < 100; t++) {
+                advance(Duration.ofMillis(100));
+                monitor.expireDue();
+            }
+            for (Sensor sensor : sensors) {
+                monitor.heartbeat(sensor);
+            }
+        }
+        assertEquals(sensorCount, monitor.getTrackedCount());
+        assertEquals(0, monitor.getStaleCount());
+
+        for (int t = 0; t < 310; t++) {
+            advance(Duration.ofMillis(100));
+            monitor.expireDue();
+        }
+        assertEquals(sensorCount, monitor.getStaleCount());
+        assertTrue(securityService.isSensorStale(sensors[sensorCount - 1]));
+    }
+
+    private SensorHeartbeatMonitor monitor() {
+        securityService.addStatusListener(new StatusListener() {
+            @Override
+            public void notify(AlarmStatus status) {
+            }
+
+            @Override
+            public void notify(ArmingStatus status) {
+            }
+
+            @Override
+            public void catDetected(boolean catDetected) {
+            }
+
+            @Override
+            public void sensorStatusChanged() {
+            }
+
+            @Override
+            public void sensorStaleChanged(Sensor sensor, boolean stale) {
+                events.add(sensor.getName() + (stale ? " stale" : " live"));
+            }
+        });
+        return new SensorHeartbeatMonitor(securityService, Duration.ofNanos(TICK_NANOS), now::get);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+}